@@ -0,0 +1,153 @@
+package net.programmierecke.radiodroid2.players.exoplayer;
+
+import android.net.Uri;
+
+import androidx.annotation.Nullable;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+
+import net.programmierecke.radiodroid2.mockserver.IcyStream;
+import net.programmierecke.radiodroid2.mockserver.MockRadioBrowser;
+import net.programmierecke.radiodroid2.station.live.ShoutcastInfo;
+import net.programmierecke.radiodroid2.station.live.StreamLiveInfo;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the cost of reading a stream through {@link IcyDataSource}: the HTTP transfer,
+ * splitting off the ICY metadata and decoding stream titles. The streams come from a local
+ * {@link MockRadioBrowser} as fast as they can be read, so the time is spent on the device.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class IcyDataSourceBenchmark {
+    // 10 s of 128 kbit/s audio per read
+    private static final int STREAM_SECONDS = 10;
+    // As ExoPlayer reads from its data sources
+    private static final int READ_LENGTH = 32 * 1024;
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private final OkHttpClient httpClient = new OkHttpClient();
+    private final byte[] readBuffer = new byte[READ_LENGTH];
+    private MockRadioBrowser server;
+
+    @After
+    public void tearDown() throws IOException {
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void readStream() throws IOException {
+        benchmarkStream(IcyStream.builder()
+                .duration(STREAM_SECONDS, TimeUnit.SECONDS)
+                .build());
+    }
+
+    @Test
+    public void readStream_WithTitleChurn() throws IOException {
+        // Small metadata interval and a new title in every block, the worst case for the parser
+        benchmarkStream(IcyStream.builder()
+                .metaint(1024)
+                .titleChangeInterval(1)
+                .duration(STREAM_SECONDS, TimeUnit.SECONDS)
+                .build());
+    }
+
+    private void benchmarkStream(IcyStream icyStream) throws IOException {
+        server = MockRadioBrowser.builder()
+                .stationCount(1)
+                .icyStream(icyStream)
+                .build();
+        server.start();
+
+        final Uri uri = Uri.parse(server.streamUrl(0).toString());
+        final CountingListener listener = new CountingListener();
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            IcyDataSource dataSource = new IcyDataSource(httpClient, NO_OP_TRANSFER_LISTENER, listener);
+            dataSource.open(new DataSpec(uri));
+            while (dataSource.read(readBuffer, 0, READ_LENGTH) != C.RESULT_END_OF_INPUT) {
+                // Only the listener sees the audio
+            }
+            dataSource.close();
+        }
+
+        assertTrue(listener.audioBytes > 0);
+        assertTrue(listener.titles > 0);
+    }
+
+    private static final TransferListener NO_OP_TRANSFER_LISTENER = new TransferListener() {
+        @Override
+        public void onTransferInitializing(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+        }
+
+        @Override
+        public void onTransferStart(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+        }
+
+        @Override
+        public void onBytesTransferred(DataSource source, DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+        }
+
+        @Override
+        public void onTransferEnd(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+        }
+    };
+
+    private static class CountingListener implements IcyDataSource.IcyDataSourceListener {
+        long audioBytes;
+        int titles;
+
+        @Override
+        public void onDataSourceConnected() {
+        }
+
+        @Override
+        public void onDataSourceConnectionLost() {
+        }
+
+        @Override
+        public void onDataSourceConnectionLostIrrecoverably() {
+        }
+
+        @Override
+        public void onDataSourceShoutcastInfo(@Nullable ShoutcastInfo shoutcastInfo) {
+        }
+
+        @Override
+        public void onDataSourceStreamLiveInfo(StreamLiveInfo streamLiveInfo) {
+            titles++;
+        }
+
+        @Override
+        public void onDataSourceBytesRead(byte[] buffer, int offset, int length) {
+            audioBytes += length;
+        }
+
+        @Override
+        public void onDataSourceContentType(String contentType) {
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package net.programmierecke.radiodroid2.station;
+
+import android.content.Context;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Microbenchmarks of the in-process work behind the station lists: filtering while the user types
+ * and preparing row models. In this package to reach the package-private parts.
+ * <p>
+ * Runs with the other instrumented tests against the debuggable build, so the numbers are only
+ * good for comparing changes on the same device. Startup, scrolling and playback are measured
+ * end to end by the :benchmark module.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class StationListBenchmark {
+    private static final int STATIONS = 5000;
+    private static final int ROWS = 1000;
+    private static final String[] TAGS = {"pop", "rock", "news", "jazz", "classical", "talk", "dance", "oldies"};
+    // Every prefix of a query, like typing it
+    private static final String[] TYPED_QUERY = {"r", "ro", "roc", "rock", "rock r", "rock ra"};
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private Context context;
+    private List<DataRadioStation> stations;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        stations = createStations(STATIONS);
+    }
+
+    @Test
+    public void filterWhileTyping() {
+        StationsFilter filter = new StationsFilter(context, new StationsFilter.DataProvider() {
+            @Override
+            public List<DataRadioStation> getOriginalStationList() {
+                return stations;
+            }
+
+            @Override
+            public void notifyFilteredStationsChanged(StationsFilter.SearchStatus status, List<DataRadioStation> filteredStations) {
+            }
+        });
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (String query : TYPED_QUERY) {
+                filter.performFiltering(query);
+            }
+        }
+    }
+
+    @Test
+    public void buildRows() {
+        final List<DataRadioStation> shownStations = stations.subList(0, ROWS);
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (DataRadioStation station : shownStations) {
+                new StationRow(context, station);
+            }
+        }
+    }
+
+    private static List<DataRadioStation> createStations(int count) {
+        List<DataRadioStation> stations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String tag = TAGS[i % TAGS.length];
+
+            DataRadioStation station = new DataRadioStation();
+            station.StationUuid = "station-" + i;
+            station.Name = String.format(Locale.ROOT, "%s Radio %05d", tag, i);
+            station.TagsAll = tag + "," + TAGS[(i + 3) % TAGS.length];
+            station.CountryCode = i % 2 == 0 ? "DE" : "FR";
+            station.Language = "german";
+            station.State = "";
+            station.Bitrate = 128;
+            station.ClickCount = count - i;
+            station.ClickTrend = i % 3 - 1;
+            station.Working = true;
+            stations.add(station);
+        }
+        return stations;
+    }
+}
@@ -0,0 +1,106 @@
+package net.programmierecke.radiodroid2.station.live;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.charset.Charset;
+
+/**
+ * Microbenchmarks of decoding ICY metadata blocks and splitting stream titles, the work done for
+ * every metadata block of a playing stream. In this package to reach the package-private parts.
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class StreamMetadataBenchmark {
+    // Titles as they were sent by real stations, paired with the charset of their encoder
+    private static final String[][] CORPUS = {
+            {"Daft Punk - Get Lucky", "US-ASCII"},
+            {"Mötley Crüe - Dr. Feelgood", "UTF-8"},
+            {"周杰伦 - 晴天", "UTF-8"},
+            {"Сплин - Выхода нет", "UTF-8"},
+            {"Édith Piaf - La Vie en rose", "windows-1252"},
+            {"Kino - Группа крови", "windows-1251"},
+            {"王菲 - 红豆", "GBK"},
+            {"張學友 - 吻別", "Big5"},
+            {"宇多田ヒカル - First Love", "Shift_JIS"},
+    };
+
+    private static final String[] TITLES = {
+            "Daft Punk - Get Lucky",
+            "Queen - Bohemian Rhapsody (Live) [2011 Remaster]",
+            "--= Artist - Track =--",
+            "Drake feat. Rihanna - Take Care",
+            "Kiss FM text=\"Station ID 01_bumper\"",
+            "title=\"Hello\" artist=\"Adele\"",
+            "Some Station Jingle",
+    };
+
+    @Rule
+    public BenchmarkRule benchmarkRule = new BenchmarkRule();
+
+    private static byte[][] createBlocks() {
+        final byte[][] blocks = new byte[CORPUS.length][];
+        for (int i = 0; i < CORPUS.length; i++) {
+            final byte[] text = ("StreamTitle='" + CORPUS[i][0] + "';").getBytes(Charset.forName(CORPUS[i][1]));
+            // ICY metadata is padded with NUL to a multiple of 16 bytes
+            blocks[i] = new byte[(text.length + 15) / 16 * 16];
+            System.arraycopy(text, 0, blocks[i], 0, text.length);
+        }
+        return blocks;
+    }
+
+    @Test
+    public void decodeDetectingCharset() {
+        final byte[][] blocks = createBlocks();
+        final MetadataDecoder decoder = new MetadataDecoder();
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            // Without a station UUID the charset is detected for every block
+            for (byte[] block : blocks) {
+                decoder.decodeMetadataBlock("", block, 0, block.length);
+            }
+        }
+    }
+
+    @Test
+    public void decodeWithCachedVerdict() {
+        final byte[][] blocks = createBlocks();
+        final MetadataDecoder decoder = new MetadataDecoder();
+        for (int i = 0; i < blocks.length; i++) {
+            decoder.decodeMetadataBlock("station" + i, blocks[i], 0, blocks[i].length);
+        }
+
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (int i = 0; i < blocks.length; i++) {
+                decoder.decodeMetadataBlock("station" + i, blocks[i], 0, blocks[i].length);
+            }
+        }
+    }
+
+    @Test
+    public void parseNewTitle() {
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            for (String title : TITLES) {
+                StreamTitleParser.parseUncached(title);
+            }
+        }
+    }
+
+    @Test
+    public void parseRepeatedTitle() {
+        // A station repeats its current title with every metadata block
+        final BenchmarkState state = benchmarkRule.getState();
+        while (state.keepRunning()) {
+            StreamTitleParser.parse(TITLES[0]);
+        }
+    }
+}
@@ -12,6 +12,7 @@ import androidx.test.uiautomator.UiObjectNotFoundException;
 import androidx.test.uiautomator.UiSelector;
 
 import net.programmierecke.radiodroid2.RadioDroidApp;
+import net.programmierecke.radiodroid2.mockserver.MockRadioBrowser;
 import net.programmierecke.radiodroid2.tests.utils.http.HttpToMockInterceptor;
 import net.programmierecke.radiodroid2.tests.utils.http.MockHttpDispatcher;
 
@@ -49,6 +50,10 @@ public class CustomTestRunner extends AndroidJUnitRunner {
         mockHttpDispatcher.setCustomRequestDispatcher(customRequestDispatcher);
     }
 
+    public void setMockRadioBrowser(@Nullable MockRadioBrowser mockRadioBrowser) {
+        mockHttpDispatcher.setMockRadioBrowser(mockRadioBrowser);
+    }
+
     private void resetGlobalState(Application app) {
         // We may have opened notifications
         Intent closeIntent = new Intent(Intent.ACTION_CLOSE_SYSTEM_DIALOGS);
@@ -0,0 +1,116 @@
+package net.programmierecke.radiodroid2.tests;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.util.Log;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.filters.LargeTest;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import net.programmierecke.radiodroid2.database.RadioStationRepository;
+import net.programmierecke.radiodroid2.mockserver.MockRadioBrowser;
+import net.programmierecke.radiodroid2.mockserver.SyntheticCatalogue;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Runs the full station sync against the synthetic radio-browser catalogue and reports its
+ * throughput, once with a fast server and once with a slow and unreliable one.
+ * <p>
+ * The results are logged and added to the instrumentation results, so CI can track them:
+ * {@code adb shell am instrument -w -e class net.programmierecke.radiodroid2.tests.StationSyncThroughputTest ...}
+ */
+@LargeTest
+@RunWith(AndroidJUnit4.class)
+public class StationSyncThroughputTest {
+    private static final String TAG = "SyncThroughput";
+
+    private final Context context = ApplicationProvider.getApplicationContext();
+
+    @After
+    public void tearDown() {
+        runner().setMockRadioBrowser(null);
+    }
+
+    @Test
+    public void syncFullCatalogue() {
+        MockRadioBrowser server = MockRadioBrowser.builder().build();
+
+        sync("fast_server", server);
+
+        assertEquals(SyntheticCatalogue.DEFAULT_SIZE, RadioStationRepository.getInstance(context).getStationCountSync());
+    }
+
+    @Test
+    public void syncFullCatalogue_FromSlowFlakyServer() {
+        MockRadioBrowser server = MockRadioBrowser.builder()
+                .latency(150, TimeUnit.MILLISECONDS)
+                .throttle(512 * 1024)
+                .errorRate(0.02)
+                // Lets the server probes and the stats request through, the sync gives up without them
+                .seed(42)
+                .build();
+
+        sync("slow_flaky_server", server);
+
+        // Failed pages are retried
+        assertEquals(SyntheticCatalogue.DEFAULT_SIZE, RadioStationRepository.getInstance(context).getStationCountSync());
+    }
+
+    private void sync(String name, MockRadioBrowser server) {
+        runner().setMockRadioBrowser(server);
+
+        final String[] error = new String[1];
+        final long start = System.nanoTime();
+        RadioStationRepository.getInstance(context).syncAllStationsFromNetworkInternal(context, new RadioStationRepository.SyncCallback() {
+            @Override
+            public void onProgress(String message) {
+            }
+
+            @Override
+            public void onProgress(String message, int current, int total) {
+            }
+
+            @Override
+            public void onSuccess(String message) {
+            }
+
+            @Override
+            public void onError(String message) {
+                error[0] = message;
+            }
+
+            @Override
+            public boolean onConfirmReplace(String message, int tempCount, int mainCount) {
+                return true;
+            }
+        });
+        final long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        assertNull(error[0]);
+
+        final int stations = server.getCatalogue().size();
+        final long stationsPerSecond = stations * 1000L / millis;
+        Log.i(TAG, String.format("%s: %d stations in %d ms, %d stations/s, %d requests, %d failed",
+                name, stations, millis, stationsPerSecond, server.getApiRequestCount(), server.getFailedRequestCount()));
+
+        Bundle results = new Bundle();
+        results.putLong(name + "_sync_ms", millis);
+        results.putLong(name + "_stations_per_second", stationsPerSecond);
+        results.putInt(name + "_requests", server.getApiRequestCount());
+        InstrumentationRegistry.getInstrumentation().sendStatus(0, results);
+    }
+
+    private static CustomTestRunner runner() {
+        return (CustomTestRunner) InstrumentationRegistry.getInstrumentation();
+    }
+}
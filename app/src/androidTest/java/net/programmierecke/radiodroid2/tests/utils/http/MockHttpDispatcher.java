@@ -2,6 +2,8 @@ package net.programmierecke.radiodroid2.tests.utils.http;
 
 import android.util.Log;
 
+import net.programmierecke.radiodroid2.mockserver.MockRadioBrowser;
+
 import java.io.InputStream;
 import java.util.Scanner;
 
@@ -33,6 +35,7 @@ public class MockHttpDispatcher extends Dispatcher {
     public static final PathFilter isAudioRequest = path -> path.endsWith("audio.mp3");
 
     private CustomRequestDispatcher customRequestDispatcher;
+    private MockRadioBrowser mockRadioBrowser;
 
     private String fromFile(String path) {
         InputStream is = getClass().getResourceAsStream(path);
@@ -49,6 +52,14 @@ public class MockHttpDispatcher extends Dispatcher {
         this.customRequestDispatcher = customRequestDispatcher;
     }
 
+    /**
+     * Answers the requests it knows with a synthetic catalogue instead of the fixed files, see
+     * {@link MockRadioBrowser}.
+     */
+    public void setMockRadioBrowser(@Nullable MockRadioBrowser mockRadioBrowser) {
+        this.mockRadioBrowser = mockRadioBrowser;
+    }
+
     @Override
     public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
         String originalUrlStr = request.getRequestUrl().queryParameter("url");
@@ -62,6 +73,13 @@ public class MockHttpDispatcher extends Dispatcher {
             }
         }
 
+        if (mockRadioBrowser != null) {
+            MockResponse mockResponse = mockRadioBrowser.dispatch(originalUrl, request.getHeaders());
+            if (mockResponse != null) {
+                return mockResponse;
+            }
+        }
+
         if (isStationsSearchRequest.compatible(path)) {
             return new MockResponse().setResponseCode(200).setBody(fromFile("/stations_search_list.json"));
         } else if (isStationsRequest.compatible(path)) {
@@ -0,0 +1,127 @@
+package net.programmierecke.radiodroid2.benchmark;
+
+import android.app.Activity;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+import net.programmierecke.radiodroid2.database.RadioDroidDatabase;
+import net.programmierecke.radiodroid2.database.RadioStation;
+import net.programmierecke.radiodroid2.database.RadioStationDao;
+import net.programmierecke.radiodroid2.database.RadioStationRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Replaces the station database with a synthetic catalogue for the benchmarks of the
+ * {@code :benchmark} module, so they measure the app against known data without network access.
+ * Only part of the {@code benchmark} build type.
+ * <p>
+ * Every station streams from {@link #EXTRA_STREAM_URL} followed by its index and has no icon.
+ * Half of the stations belong to the country of the device so the local stations tab is
+ * filled. The broadcast completes after the stations were written:
+ * <pre>
+ * am broadcast --include-stopped-packages -a net.programmierecke.radiodroid2.benchmark.SEED \
+ *     -n net.programmierecke.radiodroid2/.benchmark.BenchmarkFixtureReceiver \
+ *     --ei stations 5000 --es stream_url http://127.0.0.1:8080/stream
+ * </pre>
+ */
+public class BenchmarkFixtureReceiver extends BroadcastReceiver {
+    private static final String TAG = "BenchmarkFixture";
+
+    public static final String ACTION_SEED = "net.programmierecke.radiodroid2.benchmark.SEED";
+    public static final String EXTRA_STATIONS = "stations";
+    public static final String EXTRA_STREAM_URL = "stream_url";
+
+    private static final int DEFAULT_STATIONS = 5000;
+    private static final int BATCH_SIZE = 500;
+
+    private static final String[] COUNTRIES = {"DE", "FR", "GB", "US", "BR", "JP"};
+    private static final String[] LANGUAGES = {"german", "french", "english", "english", "portuguese", "japanese"};
+    private static final String[] TAGS = {"pop", "rock", "news", "jazz", "classical", "talk", "dance", "oldies"};
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (!ACTION_SEED.equals(intent.getAction())) {
+            return;
+        }
+
+        final int count = intent.getIntExtra(EXTRA_STATIONS, DEFAULT_STATIONS);
+        final String streamUrl = intent.getStringExtra(EXTRA_STREAM_URL);
+        final Context appContext = context.getApplicationContext();
+        final PendingResult result = goAsync();
+
+        new Thread(() -> {
+            try {
+                seed(appContext, count, streamUrl);
+                result.setResultCode(Activity.RESULT_OK);
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Seeding failed", e);
+                result.setResultCode(Activity.RESULT_CANCELED);
+            } finally {
+                result.finish();
+            }
+        }, "BenchmarkSeed").start();
+    }
+
+    private static void seed(Context context, int count, String streamUrl) {
+        String deviceCountry = Locale.getDefault().getCountry();
+        if (deviceCountry.length() != 2) {
+            deviceCountry = COUNTRIES[0];
+        }
+
+        RadioStationDao dao = RadioDroidDatabase.getDatabase(context).radioStationDao();
+        dao.deleteAll();
+
+        List<RadioStation> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            batch.add(createStation(i, count, streamUrl, deviceCountry));
+            if (batch.size() == BATCH_SIZE) {
+                dao.insertAll(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            dao.insertAll(batch);
+        }
+
+        // Otherwise the app treats the database as never downloaded
+        RadioStationRepository.getInstance(context).updateDatabaseTimestamp();
+        Log.i(TAG, "Seeded " + count + " stations");
+    }
+
+    private static RadioStation createStation(int index, int count, String streamUrl, String deviceCountry) {
+        final String tag = TAGS[index % TAGS.length];
+        final int countryIndex = (index / 2) % COUNTRIES.length;
+
+        RadioStation station = new RadioStation();
+        station.stationUuid = new UUID(0xBE4C4A4B00000000L, index).toString();
+        station.changeUuid = new UUID(0xBE4C4A4C00000000L, index).toString();
+        station.name = String.format(Locale.ROOT, "%s Radio %05d", capitalize(tag), index);
+        station.url = streamUrl != null ? streamUrl + "/" + index : "";
+        station.homepage = "";
+        station.favicon = "";
+        station.countrycode = index % 2 == 0 ? deviceCountry : COUNTRIES[countryIndex];
+        station.country = station.countrycode;
+        station.state = "";
+        station.language = LANGUAGES[countryIndex];
+        station.tags = tag + "," + TAGS[(index + 3) % TAGS.length];
+        station.clickcount = count - index;
+        station.clicktrend = index % 3 - 1;
+        station.votes = (index * 7919) % 10000;
+        station.bitrate = 128;
+        station.codec = "MP3";
+        station.lastcheckok = true;
+        station.hls = false;
+        station.lastchangetime = String.format(Locale.ROOT, "2024-01-%02d 12:00:00", 1 + index % 28);
+        return station;
+    }
+
+    private static String capitalize(String text) {
+        return Character.toUpperCase(text.charAt(0)) + text.substring(1);
+    }
+}
@@ -15,6 +15,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
 
 /**
  * Created by segler on 21.02.18.
@@ -44,6 +45,8 @@ public class CountryCodeDictionary {
     }
 
     private Map<String, String> codeToCountry = new HashMap<>();
+    // 在启动时由后台线程加载
+    private final CountDownLatch loaded = new CountDownLatch(1);
 
     public void load(Context context) {
         Resources resources = context.getResources();
@@ -53,14 +56,33 @@ public class CountryCodeDictionary {
         Gson gson = new Gson();
         Type collectionType = new TypeToken<Collection<Country>>() {
         }.getType();
-        Collection<Country> countries = gson.fromJson(reader, collectionType);
+        try {
+            Collection<Country> countries = gson.fromJson(reader, collectionType);
 
-        for (CountryCodeDictionary.Country country : countries) {
-            codeToCountry.put(country.getCode().toLowerCase(Locale.ENGLISH), country.getName());
+            for (CountryCodeDictionary.Country country : countries) {
+                codeToCountry.put(country.getCode().toLowerCase(Locale.ENGLISH), country.getName());
+            }
+        } finally {
+            loaded.countDown();
         }
     }
 
     public String getCountryByCode(String code) {
+        awaitLoaded();
         return codeToCountry.get(code.toLowerCase(Locale.ENGLISH));
     }
+
+    private void awaitLoaded() {
+        boolean interrupted = false;
+        while (loaded.getCount() != 0) {
+            try {
+                loaded.await();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
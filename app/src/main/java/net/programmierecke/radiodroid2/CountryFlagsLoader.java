@@ -2,30 +2,104 @@ package net.programmierecke.radiodroid2;
 
 import android.content.Context;
 import android.content.res.Resources;
+import android.graphics.drawable.BitmapDrawable;
 import android.graphics.drawable.Drawable;
+import android.util.LruCache;
 
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Flags of countries, shared by all lists and screens.
+ * <p>
+ * Resolving a flag by name and decoding its bitmap happen once per country: the resource id is
+ * remembered per country code, the loaded flag is kept as {@link Drawable.ConstantState}, and
+ * every caller gets a new drawable sharing the same bitmap. The kept flags are bounded by
+ * {@link #MAX_CACHE_BYTES}.
+ */
 public class CountryFlagsLoader {
     private static final CountryFlagsLoader ourInstance = new CountryFlagsLoader();
 
+    // 国旗位图约 2~10 KiB，足够容纳所有国家
+    private static final int MAX_CACHE_BYTES = 2 * 1024 * 1024;
+
     public static CountryFlagsLoader getInstance() {
         return ourInstance;
     }
 
+    private static class CachedFlag {
+        final Drawable.ConstantState state;
+        final int bytes;
+
+        CachedFlag(Drawable.ConstantState state, int bytes) {
+            this.state = state;
+            this.bytes = bytes;
+        }
+    }
+
+    // 国家代码 -> 资源 id，没有国旗的国家记为 0
+    private final Map<String, Integer> resourceIds = new ConcurrentHashMap<>();
+    private final LruCache<Integer, CachedFlag> flags = new LruCache<Integer, CachedFlag>(MAX_CACHE_BYTES) {
+        @Override
+        protected int sizeOf(Integer key, CachedFlag value) {
+            return value.bytes;
+        }
+    };
+
     private CountryFlagsLoader() {
     }
 
     public Drawable getFlag(Context context, String countryCode) {
-        if (countryCode != null) {
-            Resources resources = context.getResources();
-            final String resourceName = "flag_" + countryCode.toLowerCase();
-            final int resourceId = resources.getIdentifier(resourceName, "drawable",
-                    context.getPackageName());
-            if (resourceId != 0) {
-                return resources.getDrawable(resourceId);
+        return getFlag(context, getFlagResourceId(context, countryCode));
+    }
+
+    /**
+     * @param resourceId as returned by {@link #getFlagResourceId}
+     * @return a new drawable of the flag, null for resource id 0
+     */
+    public Drawable getFlag(Context context, int resourceId) {
+        if (resourceId == 0) {
+            return null;
+        }
+
+        Resources resources = context.getResources();
+        CachedFlag cached = flags.get(resourceId);
+        if (cached == null) {
+            Drawable drawable = resources.getDrawable(resourceId);
+            Drawable.ConstantState state = drawable.getConstantState();
+            if (state == null) {
+                return drawable;
             }
+            cached = new CachedFlag(state, byteCountOf(drawable));
+            flags.put(resourceId, cached);
+        }
+        return cached.state.newDrawable(resources);
+    }
+
+    /**
+     * Resolves the flag drawable of a country without loading it, safe to call off the main thread.
+     *
+     * @return the resource id, 0 if there is no flag for the country
+     */
+    public int getFlagResourceId(Context context, String countryCode) {
+        if (countryCode == null) {
+            return 0;
+        }
+        final String code = countryCode.toLowerCase(Locale.ROOT);
+        Integer resourceId = resourceIds.get(code);
+        if (resourceId == null) {
+            Resources resources = context.getResources();
+            resourceId = resources.getIdentifier("flag_" + code, "drawable", context.getPackageName());
+            resourceIds.put(code, resourceId);
+        }
+        return resourceId;
+    }
+
+    private static int byteCountOf(Drawable drawable) {
+        if (drawable instanceof BitmapDrawable && ((BitmapDrawable) drawable).getBitmap() != null) {
+            return ((BitmapDrawable) drawable).getBitmap().getByteCount();
         }
-        return null;
+        return Math.max(1, drawable.getIntrinsicWidth() * drawable.getIntrinsicHeight() * 4);
     }
 }
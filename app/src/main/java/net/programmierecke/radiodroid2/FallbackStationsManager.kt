@@ -12,5 +12,6 @@ class FallbackStationsManager(ctx: Context?) : StationSaveManager(ctx) {
                 .use { it.readText() }
         val arr = DataRadioStation.DecodeJson(str)
         listStations.addAll(arr)
+        markLoaded()
     }
 }
@@ -18,9 +18,11 @@ import java.util.List;
 import static java.lang.Math.min;
 
 public class FavouriteManager extends StationSaveManager {
+    public static final String SAVE_ID = "favourites";
+
     @Override
     protected String getSaveId() {
-        return "favourites";
+        return SAVE_ID;
     }
 
     public FavouriteManager(Context ctx) {
@@ -36,6 +38,10 @@ public class FavouriteManager extends StationSaveManager {
 
     @Override
     public void add(DataRadioStation station) {
+        // 读完之前的查重没有意义，整个操作等读完再做
+        if (deferUntilLoaded(() -> add(station))) {
+            return;
+        }
         if (!has(station.StationUuid)) {
             super.add(station);
         }
@@ -43,6 +49,9 @@ public class FavouriteManager extends StationSaveManager {
 
     @Override
     public void restore(DataRadioStation station, int pos) {
+        if (deferUntilLoaded(() -> restore(station, pos))) {
+            return;
+        }
         if (!has(station.StationUuid)) {
             super.restore(station, pos);
         }
@@ -57,8 +66,8 @@ public class FavouriteManager extends StationSaveManager {
     }
 
     @Override
-    void Load() {
-        super.Load();
+    protected void onLoaded() {
+        super.onLoaded();
         updateShortcuts();
     }
 
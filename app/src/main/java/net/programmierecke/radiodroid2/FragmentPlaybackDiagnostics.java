@@ -0,0 +1,119 @@
+package net.programmierecke.radiodroid2;
+
+import android.os.Bundle;
+import android.text.format.DateUtils;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.ListView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.fragment.app.Fragment;
+
+import net.programmierecke.radiodroid2.adapters.ItemAdapterStatistics;
+import net.programmierecke.radiodroid2.data.DataStatistics;
+import net.programmierecke.radiodroid2.diagnostics.PlaybackQualityRepository;
+import net.programmierecke.radiodroid2.diagnostics.PlaybackQualityRollup;
+import net.programmierecke.radiodroid2.service.ConnectivityChecker;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Shows the recorded playback quality per network type and per station, so stations and
+ * networks which perform badly stand out.
+ */
+public class FragmentPlaybackDiagnostics extends Fragment {
+    private static final long PERIOD_MS = TimeUnit.DAYS.toMillis(30);
+
+    private ItemAdapterStatistics itemAdapterStatistics;
+
+    private List<PlaybackQualityRollup> networkRollups = Collections.emptyList();
+    private List<PlaybackQualityRollup> stationRollups = Collections.emptyList();
+
+    @Nullable
+    @Override
+    public View onCreateView(@NonNull LayoutInflater inflater, @Nullable ViewGroup container, @Nullable Bundle savedInstanceState) {
+        View view = inflater.inflate(R.layout.layout_statistics, null);
+
+        itemAdapterStatistics = new ItemAdapterStatistics(getActivity(), R.layout.list_item_statistic);
+
+        ListView lv = view.findViewById(R.id.listViewStatistics);
+        lv.setAdapter(itemAdapterStatistics);
+
+        return view;
+    }
+
+    @Override
+    public void onViewCreated(@NonNull View view, @Nullable Bundle savedInstanceState) {
+        super.onViewCreated(view, savedInstanceState);
+
+        PlaybackQualityRepository repository = PlaybackQualityRepository.getInstance(requireContext());
+        final long since = System.currentTimeMillis() - PERIOD_MS;
+
+        repository.getNetworkRollups(since).observe(getViewLifecycleOwner(), rollups -> {
+            networkRollups = rollups;
+            updateList();
+        });
+        repository.getStationRollups(since).observe(getViewLifecycleOwner(), rollups -> {
+            stationRollups = rollups;
+            updateList();
+        });
+    }
+
+    private void updateList() {
+        itemAdapterStatistics.clear();
+
+        if (stationRollups.isEmpty()) {
+            itemAdapterStatistics.add(row(getString(R.string.diagnostics_empty), ""));
+            return;
+        }
+
+        itemAdapterStatistics.add(row(getString(R.string.diagnostics_networks), ""));
+        for (PlaybackQualityRollup rollup : networkRollups) {
+            itemAdapterStatistics.add(rollupRow(getNetworkName(rollup.groupKey), rollup));
+        }
+
+        itemAdapterStatistics.add(row(getString(R.string.diagnostics_stations), ""));
+        for (PlaybackQualityRollup rollup : stationRollups) {
+            final String name = rollup.stationName != null && !rollup.stationName.isEmpty() ? rollup.stationName : rollup.groupKey;
+            itemAdapterStatistics.add(rollupRow(name, rollup));
+        }
+    }
+
+    private DataStatistics rollupRow(String title, PlaybackQualityRollup rollup) {
+        final String firstAudio = rollup.avgTimeToFirstAudioMs >= 0
+                ? String.format(Locale.getDefault(), "%.1f s", rollup.avgTimeToFirstAudioMs / 1000f)
+                : "-";
+
+        final String details = getString(R.string.diagnostics_details,
+                rollup.sessions, rollup.failedSessions,
+                firstAudio,
+                rollup.rebufferCount, DateUtils.formatElapsedTime(rollup.rebufferMs / 1000), rollup.reconnects,
+                rollup.avgBitrate / 1000, Utils.getReadableBytes(rollup.bytesTransferred));
+
+        return row(title + "\n" + details,
+                getString(R.string.diagnostics_rebuffer_ratio, rollup.getRebufferRatio() * 100));
+    }
+
+    private String getNetworkName(String networkType) {
+        if (ConnectivityChecker.ConnectionType.NOT_METERED.name().equals(networkType)) {
+            return getString(R.string.diagnostics_network_not_metered);
+        } else if (ConnectivityChecker.ConnectionType.METERED.name().equals(networkType)) {
+            return getString(R.string.diagnostics_network_metered);
+        } else if (ConnectivityChecker.ConnectionType.NONE.name().equals(networkType)) {
+            return getString(R.string.diagnostics_network_none);
+        }
+        return networkType;
+    }
+
+    private static DataStatistics row(String name, String value) {
+        DataStatistics row = new DataStatistics();
+        row.Name = name;
+        row.Value = value;
+        return row;
+    }
+}
@@ -181,6 +181,11 @@ public class FragmentPlayerFull extends Fragment {
                         fullUpdate();
                         break;
                     }
+                    case PlayerService.PLAYER_SERVICE_BUFFER_HEALTH: {
+                        long bufferedMs = intent.getLongExtra(PlayerService.PLAYER_SERVICE_BUFFERED_MS_EXTRA, 0);
+                        textViewTimeCached.setText(getString(R.string.player_buffer_time, DateUtils.formatElapsedTime(bufferedMs / 1000)));
+                        break;
+                    }
                     case PlayerService.PLAYER_SERVICE_CONNECTION_TYPE_CHANGED: {
                         String connectionTypeName = intent.getStringExtra(PlayerService.PLAYER_SERVICE_CONNECTION_TYPE_EXTRA);
                         if (connectionTypeName != null) {
@@ -446,10 +451,12 @@ public class FragmentPlayerFull extends Fragment {
         filter.addAction(PlayerService.PLAYER_SERVICE_STATE_CHANGE);
         filter.addAction(PlayerService.PLAYER_SERVICE_META_UPDATE);
         filter.addAction(PlayerService.PLAYER_SERVICE_CONNECTION_TYPE_CHANGED);
+        filter.addAction(PlayerService.PLAYER_SERVICE_BUFFER_HEALTH);
 
         
         LocalBroadcastManager.getInstance(requireContext()).registerReceiver(updateUIReceiver, filter);
         
+        PlayerServiceUtil.setBufferHealthUpdatesEnabled(true);
 
         recordingsManager.getSavedRecordingsObservable().addObserver(recordingsObserver);
 
@@ -469,6 +476,8 @@ public class FragmentPlayerFull extends Fragment {
 
         LocalBroadcastManager.getInstance(requireContext()).unregisterReceiver(updateUIReceiver);
 
+        PlayerServiceUtil.setBufferHealthUpdatesEnabled(false);
+
         recordingsManager.getSavedRecordingsObservable().deleteObserver(recordingsObserver);
 
         favouriteManager.deleteObserver(favouritesObserver);
@@ -995,9 +1004,6 @@ public class FragmentPlayerFull extends Fragment {
                 fragmentPlayerFull.textViewTotalPlayTime.setText(
                         fragmentPlayerFull.getString(R.string.player_total_play_time, DateUtils.formatElapsedTime(totalPlayTime)));
 
-                fragmentPlayerFull.textViewTimeCached.setText(
-                        fragmentPlayerFull.getString(R.string.player_buffer_time, DateUtils.formatElapsedTime(PlayerServiceUtil.getBufferedSeconds())));
-
                 fragmentPlayerFull.updateRunningRecording();
             }
         }
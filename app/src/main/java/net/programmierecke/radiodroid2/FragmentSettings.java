@@ -461,6 +461,17 @@ public class FragmentSettings extends PreferenceFragmentCompat implements Shared
                 }
             });
 
+            findPreference("show_playback_diagnostics").setOnPreferenceClickListener(new Preference.OnPreferenceClickListener() {
+                @Override
+                public boolean onPreferenceClick(Preference preference) {
+                    ((ActivityMain) getActivity()).getToolbar().setTitle(R.string.settings_playback_diagnostics);
+                    FragmentPlaybackDiagnostics f = new FragmentPlaybackDiagnostics();
+                    FragmentTransaction fragmentTransaction = getFragmentManager().beginTransaction();
+                    fragmentTransaction.replace(R.id.containerView, f).addToBackStack(String.valueOf(FRAGMENT_FROM_BACKSTACK)).commit();
+                    return false;
+                }
+            });
+
             findPreference("show_about").setOnPreferenceClickListener(new Preference.OnPreferenceClickListener() {
                 @Override
                 public boolean onPreferenceClick(Preference preference) {
@@ -1304,6 +1315,9 @@ public class FragmentSettings extends PreferenceFragmentCompat implements Shared
             try {
                 File mainDatabaseFile = requireContext().getDatabasePath("radio_droid_database");
                 
+                // WAL 模式下最近的修改还在 -wal 文件中，先写回主数据库文件再复制
+                RadioStationRepository.getInstance(requireContext()).checkpointDatabase();
+                
                 try (java.io.InputStream inputStream = new java.io.FileInputStream(mainDatabaseFile);
                      java.io.OutputStream outputStream = requireContext().getContentResolver().openOutputStream(uri)) {
                     if (outputStream == null) {
@@ -1470,6 +1484,9 @@ public class FragmentSettings extends PreferenceFragmentCompat implements Shared
                 repository.closeDatabase();
                 Log.d("FragmentSettings", "数据库连接已关闭");
                 
+                // 旧数据库留下的 -wal 和 -shm 不能与导入的文件一起打开
+                RadioStationRepository.cleanupMainDatabaseJournalFiles(requireContext());
+                
                 File databaseDir = mainDatabaseFile.getParentFile();
                 if (!databaseDir.exists()) {
                     databaseDir.mkdirs();
@@ -210,7 +210,7 @@ public class FragmentStarred extends Fragment implements IAdapterRefreshable, Ob
                 public void onStationMoveFinished() {
                     if (getView() != null) {
                         getView().post(() -> {
-                            favouriteManager.Save();
+                            // 每次移动已单独保存
                             favouriteManager.notifyObservers();
                         });
                     }
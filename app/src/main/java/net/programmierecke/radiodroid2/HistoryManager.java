@@ -4,14 +4,13 @@ import android.content.Context;
 
 import net.programmierecke.radiodroid2.station.DataRadioStation;
 
-import java.util.ArrayList;
-
 public class HistoryManager extends StationSaveManager{
+    public static final String SAVE_ID = "history";
     private static final int MAXSIZE = 25;
 
     @Override
     protected String getSaveId(){
-        return "history";
+        return SAVE_ID;
     }
 
     public HistoryManager(Context ctx) {
@@ -20,21 +19,18 @@ public class HistoryManager extends StationSaveManager{
 
     @Override
     public void add(DataRadioStation station){
+        // 读完之前的查重没有意义，整个操作等读完再做
+        if (deferUntilLoaded(() -> add(station))) {
+            return;
+        }
+
         DataRadioStation stationFromHistory = getById(station.StationUuid);
         if (stationFromHistory != null) {
-            listStations.remove(stationFromHistory);
-            listStations.add(0, stationFromHistory);
-            Save();
+            moveWithoutNotify(listStations.indexOf(stationFromHistory), 0);
             return;
         }
 
-        cutList(MAXSIZE - 1);
+        trimTo(MAXSIZE - 1);
         super.addFront(station);
     }
-
-    private void cutList(int count){
-        if (listStations.size() > count){
-            listStations = new ArrayList<>(listStations.subList(0, count));
-        }
-    }
 }
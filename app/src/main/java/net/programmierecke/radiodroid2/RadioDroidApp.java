@@ -7,6 +7,7 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatDelegate;
+import androidx.core.os.TraceCompat;
 import androidx.multidex.MultiDexApplication;
 import androidx.preference.PreferenceManager;
 
@@ -14,9 +15,12 @@ import com.squareup.picasso.OkHttp3Downloader;
 import com.squareup.picasso.Picasso;
 
 import net.programmierecke.radiodroid2.alarm.RadioAlarmManager;
+import net.programmierecke.radiodroid2.database.SavedStationRepository;
 import net.programmierecke.radiodroid2.history.TrackHistoryRepository;
 import net.programmierecke.radiodroid2.players.mpd.MPDClient;
+import net.programmierecke.radiodroid2.service.IconPrewarmWorker;
 import net.programmierecke.radiodroid2.service.StationIconCache;
+import net.programmierecke.radiodroid2.startup.AppStartup;
 import net.programmierecke.radiodroid2.station.live.metadata.TrackMetadataSearcher;
 import net.programmierecke.radiodroid2.proxy.ProxySettings;
 import net.programmierecke.radiodroid2.recording.RecordingsManager;
@@ -24,6 +28,7 @@ import net.programmierecke.radiodroid2.utils.TvChannelManager;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 import okhttp3.Cache;
@@ -55,6 +60,24 @@ public class RadioDroidApp extends MultiDexApplication {
 
     private Interceptor testsInterceptor;
 
+    private static final String INIT_HTTP = "http";
+    private static final String INIT_PICASSO = "picasso";
+    private static final String INIT_STATION_LISTS = "stationLists";
+    private static final String INIT_TV_CHANNELS = "tvChannels";
+    private static final String INIT_FALLBACK_STATIONS = "fallbackStations";
+    private static final String INIT_COUNTRIES = "countries";
+    private static final String INIT_ALARMS = "alarms";
+    private static final String INIT_TRACK_HISTORY = "trackHistory";
+    private static final String INIT_MPD = "mpd";
+    private static final String INIT_CAST = "cast";
+    private static final String INIT_METADATA_SEARCHER = "metadataSearcher";
+    private static final String INIT_RECORDINGS = "recordings";
+    private static final String INIT_RECORDINGS_LIST = "recordingsList";
+
+    private final AppStartup startup = new AppStartup();
+
+    public static final String TRACE_ON_CREATE = "RadioDroidApp.onCreate";
+
     public class UserAgentInterceptor implements Interceptor {
 
         private final String userAgent;
@@ -79,46 +102,88 @@ public class RadioDroidApp extends MultiDexApplication {
 
     @Override
     public void onCreate() {
-        super.onCreate();
+        TraceCompat.beginSection(TRACE_ON_CREATE);
+        try {
+            super.onCreate();
+            initialize();
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
 
-        GoogleProviderHelper.use(getBaseContext());
+    private void initialize() {
+
+        // 首帧之前只在主线程做界面立即需要的初始化，读文件的放到后台或首帧之后
+        startup.add(INIT_HTTP, AppStartup.Stage.MAIN, () -> {
+            GoogleProviderHelper.use(getBaseContext());
+
+            connectionPool = new ConnectionPool();
+
+            rebuildHttpClient();
+        });
+
+        startup.add(INIT_PICASSO, AppStartup.Stage.MAIN, () -> {
+            Picasso.Builder builder = new Picasso.Builder(this);
+            builder.downloader(new OkHttp3Downloader(newHttpClientForPicasso()));
+            // 图标缓存与 Picasso 共用一个内存 LRU
+            builder.memoryCache(StationIconCache.getInstance(this).getMemoryCache());
+            Picasso picassoInstance = builder.build();
+            Picasso.setSingletonInstance(picassoInstance);
+        }, INIT_HTTP);
+
+        startup.add(INIT_STATION_LISTS, AppStartup.Stage.MAIN, () -> {
+            // 列表在后台线程读取
+            historyManager = new HistoryManager(this);
+            favouriteManager = new FavouriteManager(this);
+            // 收藏变化后预热新收藏电台的图标
+            favouriteManager.addStationUpdateListener(() -> IconPrewarmWorker.schedule(this));
+        });
+
+        startup.add(INIT_TV_CHANNELS, AppStartup.Stage.MAIN, () -> {
+            UiModeManager uiModeManager = (UiModeManager) getSystemService(UI_MODE_SERVICE);
+            if (uiModeManager.getCurrentModeType() == Configuration.UI_MODE_TYPE_TELEVISION) {
+                tvChannelManager = new TvChannelManager(this);
+                favouriteManager.addStationUpdateListener(tvChannelManager);
+            }
+        }, INIT_STATION_LISTS);
 
-        connectionPool = new ConnectionPool();
+        // MPDServersRepository 用 setValue，必须在主线程创建
+        startup.add(INIT_MPD, AppStartup.Stage.MAIN, () -> mpdClient = new MPDClient(this));
 
-        rebuildHttpClient();
+        startup.add(INIT_CAST, AppStartup.Stage.MAIN, () -> castHandler = new CastHandler());
 
-        Picasso.Builder builder = new Picasso.Builder(this);
-        builder.downloader(new OkHttp3Downloader(newHttpClientForPicasso()));
-        Picasso picassoInstance = builder.build();
-        Picasso.setSingletonInstance(picassoInstance);
+        startup.add(INIT_METADATA_SEARCHER, AppStartup.Stage.MAIN,
+                () -> trackMetadataSearcher = new TrackMetadataSearcher(httpClient), INIT_HTTP);
 
-        CountryCodeDictionary.getInstance().load(this);
-        CountryFlagsLoader.getInstance();
+        startup.add(INIT_RECORDINGS, AppStartup.Stage.MAIN, () -> recordingsManager = new RecordingsManager());
 
-        historyManager = new HistoryManager(this);
-        favouriteManager = new FavouriteManager(this);
-        fallbackStationsManager = new FallbackStationsManager(this);
-        recordingsManager = new RecordingsManager();
-        alarmManager = new RadioAlarmManager(this);
+        startup.add(INIT_COUNTRIES, AppStartup.Stage.BACKGROUND, () -> {
+            CountryCodeDictionary.getInstance().load(this);
+            CountryFlagsLoader.getInstance();
+        });
 
-        UiModeManager uiModeManager = (UiModeManager) getSystemService(UI_MODE_SERVICE);
-        if (uiModeManager.getCurrentModeType() == Configuration.UI_MODE_TYPE_TELEVISION) {
-            tvChannelManager = new TvChannelManager(this);
-            favouriteManager.addStationUpdateListener(tvChannelManager);
-        }
+        startup.add(INIT_FALLBACK_STATIONS, AppStartup.Stage.BACKGROUND,
+                () -> fallbackStationsManager = new FallbackStationsManager(this));
 
-        trackHistoryRepository = new TrackHistoryRepository(this);
+        startup.add(INIT_ALARMS, AppStartup.Stage.BACKGROUND, () -> alarmManager = new RadioAlarmManager(this));
 
-        // 清理过期的半永久图标缓存
-        StationIconCache.getInstance(this).cleanExpiredSemiPermanentCache();
+        startup.add(INIT_TRACK_HISTORY, AppStartup.Stage.BACKGROUND,
+                () -> trackHistoryRepository = new TrackHistoryRepository(this));
 
-        mpdClient = new MPDClient(this);
+        // 录音目录在外部存储上，列出可能很慢
+        startup.add(INIT_RECORDINGS_LIST, AppStartup.Stage.DEFERRED,
+                () -> recordingsManager.updateRecordingsListInBackground(), INIT_RECORDINGS);
 
-        castHandler = new CastHandler();
+        startup.start();
+        startup.startDeferredAfterFirstFrame(this);
+    }
 
-        trackMetadataSearcher = new TrackMetadataSearcher(httpClient);
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
 
-        recordingsManager.updateRecordingsList();
+        // 进入后台后进程随时可能被结束，立即写入收藏和历史的改动
+        SavedStationRepository.getInstance(this).flush();
     }
 
     public void setTestsInterceptor(Interceptor testsInterceptor) {
@@ -135,7 +200,15 @@ public class RadioDroidApp extends MultiDexApplication {
         httpClient = builder.build();
     }
 
+    /**
+     * Milliseconds spent in each initializer of {@link #onCreate()}.
+     */
+    public Map<String, Long> getStartupTimings() {
+        return startup.getTimings();
+    }
+
     public FallbackStationsManager getFallbackStationsManager() {
+        startup.await(INIT_FALLBACK_STATIONS);
         return fallbackStationsManager;
     }
    
@@ -152,10 +225,12 @@ public class RadioDroidApp extends MultiDexApplication {
     }
 
     public RadioAlarmManager getAlarmManager() {
+        startup.await(INIT_ALARMS);
         return alarmManager;
     }
 
     public TrackHistoryRepository getTrackHistoryRepository() {
+        startup.await(INIT_TRACK_HISTORY);
         return trackHistoryRepository;
     }
 
@@ -2,13 +2,14 @@ package net.programmierecke.radiodroid2;
 
 import android.content.Context;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.media.MediaScannerConnection;
 import android.net.Uri;
 import android.os.AsyncTask;
 import android.os.Build;
 import android.os.Environment;
-import android.preference.PreferenceManager;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 import android.widget.Toast;
 
@@ -17,10 +18,9 @@ import androidx.collection.ArraySet;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import net.programmierecke.radiodroid2.database.RadioStationRepository;
+import net.programmierecke.radiodroid2.database.SavedStationRepository;
 import net.programmierecke.radiodroid2.station.DataRadioStation;
 
-import org.json.JSONArray;
-
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
@@ -44,6 +44,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Observable;
 import java.util.Vector;
+import java.util.concurrent.CountDownLatch;
 
 import info.debatty.java.stringsimilarity.Cosine;
 import okhttp3.OkHttpClient;
@@ -59,8 +60,18 @@ public class StationSaveManager extends Observable {
     protected StationStatusListener stationStatusListener;
     private List<StationUpdateListener> updateListeners = new ArrayList<>();
 
+    private final SavedStationRepository repository;
+    // 列表在后台线程读取。读完之前读取得到空列表，修改先排队，读完后在主线程按顺序执行
+    private final CountDownLatch loadedLatch = new CountDownLatch(1);
+    private final List<Runnable> changesBeforeLoad = new ArrayList<>();
+    private boolean loaded = false;
+    // 写入失败回滚后整体重写一次；重写也失败时不立即重试，等下一次修改时再重写
+    private boolean rewriteAfterFailure = false;
+
     public StationSaveManager(Context ctx) {
         this.context = ctx;
+        this.repository = SavedStationRepository.getInstance(ctx);
+        this.repository.setWriteFailureListener(getSaveId(), listId -> runWhenLoaded(this::onWritesLost));
         Load();
     }
 
@@ -98,10 +109,13 @@ public class StationSaveManager extends Observable {
     }
 
     public void add(DataRadioStation station) {
+        if (deferUntilLoaded(() -> add(station))) {
+            return;
+        }
         if (station.queue == null)
             station.queue = this;
         listStations.add(station);
-        Save();
+        repository.insert(getSaveId(), listStations.size() - 1, station);
 
         notifyAllListeners();
 
@@ -111,6 +125,9 @@ public class StationSaveManager extends Observable {
     }
 
     public void addMultiple(List<DataRadioStation> stations) {
+        if (deferUntilLoaded(() -> addMultiple(stations))) {
+            return;
+        }
         // 防御空列表：避免误导入空 M3U 时静默清空已有数据
         if (stations == null || stations.isEmpty()) {
             Log.w("SAVE", "addMultiple called with empty list, ignoring to protect existing data");
@@ -138,6 +155,9 @@ public class StationSaveManager extends Observable {
     }
 
     public void replaceList(List<DataRadioStation> stations_new) {
+        if (deferUntilLoaded(() -> replaceList(stations_new))) {
+            return;
+        }
         for (DataRadioStation station_new: stations_new) {
             // 设置 queue 字段，避免 PlayerService 调用 getNextById/getPreviousById 时 NPE
             if (station_new.queue == null) {
@@ -146,20 +166,23 @@ public class StationSaveManager extends Observable {
             for (int i = 0; i < listStations.size(); i++) {
                 if (listStations.get(i).StationUuid.equals(station_new.StationUuid)){
                     listStations.set(i, station_new);
+                    repository.replace(getSaveId(), i, station_new);
                     break;
                 }
             }
         }
-        Save();
 
         notifyAllListeners();
     }
 
     public void addFront(DataRadioStation station) {
+        if (deferUntilLoaded(() -> addFront(station))) {
+            return;
+        }
         if (station.queue == null)
             station.queue = this;
         listStations.add(0, station);
-        Save();
+        repository.insert(getSaveId(), 0, station);
 
         notifyAllListeners();
 
@@ -171,6 +194,9 @@ public class StationSaveManager extends Observable {
         public void addAll(List<DataRadioStation> stations) {
         if (stations == null)
             return;
+        if (deferUntilLoaded(() -> addAll(stations))) {
+            return;
+        }
         for (DataRadioStation station : stations) {
             station.queue = this;
         }
@@ -227,7 +253,11 @@ public class StationSaveManager extends Observable {
     }
 
     public void moveWithoutNotify(int fromPos, int toPos) {
+        if (deferUntilLoaded(() -> moveWithoutNotify(fromPos, toPos))) {
+            return;
+        }
         Collections.rotate(listStations.subList(Math.min(fromPos, toPos), Math.max(fromPos, toPos) + 1), Integer.signum(fromPos - toPos));
+        repository.move(getSaveId(), fromPos, toPos);
     }
 
     public void move(int fromPos, int toPos) {
@@ -254,11 +284,14 @@ public class StationSaveManager extends Observable {
     }
 
     public int remove(String id) {
+        if (deferUntilLoaded(() -> remove(id))) {
+            return -1;
+        }
         for (int i = 0; i < listStations.size(); i++) {
             DataRadioStation station = listStations.get(i);
             if (station.StationUuid.equals(id)) {
                 listStations.remove(i);
-                Save();
+                repository.remove(getSaveId(), i);
                 notifyAllListeners();
 
                 if (stationStatusListener != null) {
@@ -273,9 +306,12 @@ public class StationSaveManager extends Observable {
     }
 
     public void restore(DataRadioStation station, int pos) {
+        if (deferUntilLoaded(() -> restore(station, pos))) {
+            return;
+        }
         station.queue = this;
         listStations.add(pos, station);
-        Save();
+        repository.insert(getSaveId(), pos, station);
 
         notifyAllListeners();
 
@@ -285,6 +321,9 @@ public class StationSaveManager extends Observable {
     }
 
     public void clear() {
+        if (deferUntilLoaded(this::clear)) {
+            return;
+        }
         List<DataRadioStation> oldStation = listStations;
         listStations = new ArrayList<>();
         Save();
@@ -307,6 +346,10 @@ public class StationSaveManager extends Observable {
      * 通知所有观察者和监听器
      */
     private void notifyAllListeners() {
+        if (rewriteAfterFailure) {
+            rewriteAfterFailure = false;
+            Save();
+        }
         // 通知传统的Observer
         notifyObservers();
         // 通知新的StationUpdateListener
@@ -400,38 +443,128 @@ public class StationSaveManager extends Observable {
     }
 
     void Load() {
-        listStations.clear();
-
-        SharedPreferences sharedPref = PreferenceManager.getDefaultSharedPreferences(context);
-        String str = sharedPref.getString(getSaveId(), null);
-        if (str != null) {
-            List<DataRadioStation> arr = DataRadioStation.DecodeJson(str);
-            for (DataRadioStation station : arr) {
+        repository.load(getSaveId(), stations -> {
+            for (DataRadioStation station : stations) {
                 station.queue = this;
             }
-            listStations.addAll(arr);
-            if (hasInvalidUuids() && Utils.hasAnyConnection(context)) {
-                refreshStationsFromServer();
+
+            new Handler(Looper.getMainLooper()).post(() -> {
+                listStations = stations;
+                markLoaded();
+                onLoaded();
+            });
+        });
+    }
+
+    /**
+     * Called on the main thread once the list was loaded.
+     */
+    protected void onLoaded() {
+        // 启动时界面可能已显示空列表
+        notifyAllListeners();
+
+        if (hasInvalidUuids() && Utils.hasAnyConnection(context)) {
+            refreshStationsFromServer();
+        }
+    }
+
+    /**
+     * Marks the list as loaded and applies the changes made while it was loading, for subclasses
+     * which load their list themselves. Called on the main thread or from the constructor.
+     */
+    protected void markLoaded() {
+        final List<Runnable> changes;
+        synchronized (changesBeforeLoad) {
+            loaded = true;
+            changes = new ArrayList<>(changesBeforeLoad);
+            changesBeforeLoad.clear();
+        }
+        loadedLatch.countDown();
+
+        for (Runnable change : changes) {
+            change.run();
+        }
+    }
+
+    /**
+     * Queues {@code change} if the list is still loading, so it is not applied to the empty list
+     * and then overwritten by the loaded one.
+     *
+     * @return true if the change was queued and the caller must not apply it now
+     */
+    protected boolean deferUntilLoaded(Runnable change) {
+        synchronized (changesBeforeLoad) {
+            if (loaded) {
+                return false;
             }
-        } else {
-            Log.w("SAVE", "Load() no stations to load");
+            changesBeforeLoad.add(change);
+            return true;
         }
     }
 
-    void Save() {
-        JSONArray arr = new JSONArray();
-        for (DataRadioStation station : listStations) {
-            arr.put(station.toJson());
+    /**
+     * Runs {@code action} on the main thread once the list was loaded, right away if it already
+     * is. For callers which must not act on the empty list of a cold start, e.g. resuming the
+     * last station.
+     */
+    public void runWhenLoaded(Runnable action) {
+        if (!deferUntilLoaded(action)) {
+            action.run();
+        }
+    }
+
+    /**
+     * Waits until the list was loaded. Only for background threads, e.g. exports which must not
+     * write the empty list. Loading starts with the manager, so normally it is done already.
+     */
+    private void awaitLoaded() {
+        if (loadedLatch.getCount() == 0) {
+            return;
         }
 
-        SharedPreferences sharedPref = PreferenceManager.getDefaultSharedPreferences(context);
-        SharedPreferences.Editor editor = sharedPref.edit();
-        String str = arr.toString();
-        if (BuildConfig.DEBUG) {
-            Log.d("SAVE", "wrote: " + str);
+        final long start = SystemClock.elapsedRealtime();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                loadedLatch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        Log.w("SAVE", "Waited " + (SystemClock.elapsedRealtime() - start) + " ms for " + getSaveId() + " to load");
+    }
+
+    /**
+     * Keeps the first {@code count} stations.
+     */
+    protected void trimTo(int count) {
+        if (deferUntilLoaded(() -> trimTo(count))) {
+            return;
         }
-        editor.putString(getSaveId(), str);
-        editor.commit();
+        if (listStations.size() > count) {
+            listStations = new ArrayList<>(listStations.subList(0, count));
+            repository.truncate(getSaveId(), count);
+        }
+    }
+
+    /**
+     * Writes the whole list, for changes to many stations at once. Single changes are written
+     * as they happen.
+     */
+    void Save() {
+        repository.replaceAll(getSaveId(), listStations);
+    }
+
+    private void onWritesLost() {
+        if (rewriteAfterFailure) {
+            return;
+        }
+        rewriteAfterFailure = true;
+        Save();
     }
 
     public static String getSaveDir() {
@@ -604,6 +737,7 @@ public class StationSaveManager extends Observable {
     public boolean SaveM3UWriter(Writer bw) {
         try {
             // 对 listStations 做快照，避免导出过程中主线程修改列表触发 ConcurrentModificationException
+            awaitLoaded();
             List<DataRadioStation> snapshot;
             synchronized (this) {
                 snapshot = new ArrayList<>(listStations);
@@ -19,9 +19,28 @@ import net.programmierecke.radiodroid2.database.RadioStationDao;
 
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static net.programmierecke.radiodroid2.history.TrackHistoryEntry.MAX_UNKNOWN_TRACK_DURATION;
 
+/**
+ * Main database of the app: station catalogue, track history and update timestamps.
+ * <p>
+ * The database runs in write-ahead logging mode, so reads do not wait for writes. Room queries,
+ * LiveData and paging run on a bounded pool of {@link #READER_THREADS} readers, while Room's
+ * transaction queries run on one writer thread.
+ * <p>
+ * Not every write goes through that thread: the track history writes on its own thread, and
+ * catalogue syncs and {@link #runInTransaction} callers write on the calling thread. SQLite
+ * still lets only one of them write at a time, the others wait for the lock.
+ * <p>
+ * In WAL mode recent changes may only be in the {@code -wal} file, so the database file must be
+ * checkpointed before it is copied, and its {@code -wal} and {@code -shm} files deleted before it
+ * is replaced.
+ */
 @Database(entities = {TrackHistoryEntry.class, RadioStation.class, UpdateTimestamp.class, RadioStationFts.class}, version = 14)
 @TypeConverters({Converters.class})
 public abstract class RadioDroidDatabase extends RoomDatabase {
@@ -33,7 +52,14 @@ public abstract class RadioDroidDatabase extends RoomDatabase {
 
     private static volatile RadioDroidDatabase INSTANCE;
 
-    private static Executor queryExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "RadioDroidDatabase Executor"));
+    public static final String TRACE_OPEN = "RadioDroidDatabase.open";
+
+    // WAL 模式下系统连接池最多四个连接，读线程不必更多
+    static final int READER_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static final Executor readerExecutor = createReaderExecutor();
+
+    private static final Executor writeExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "RadioDroidDatabase Writer"));
 
     private static volatile boolean isClosing = false;
 
@@ -100,12 +126,7 @@ public abstract class RadioDroidDatabase extends RoomDatabase {
         if (INSTANCE == null) {
             synchronized (RadioDroidDatabase.class) {
                 if (INSTANCE == null) {
-                    INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
-                            RadioDroidDatabase.class, "radio_droid_database")
-                            .addCallback(CALLBACK)
-                            .addMigrations(MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_5_14, MIGRATION_6_14)
-                            .fallbackToDestructiveMigration()
-                            .build();
+                    INSTANCE = buildMainDatabase(context);
                 }
             }
         }
@@ -153,12 +174,7 @@ public abstract class RadioDroidDatabase extends RoomDatabase {
             }
             
             // 创建新实例
-            INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
-                    RadioDroidDatabase.class, "radio_droid_database")
-                    .addCallback(CALLBACK)
-                    .addMigrations(MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_5_14, MIGRATION_6_14)
-                    .fallbackToDestructiveMigration()
-                    .build();
+            INSTANCE = buildMainDatabase(context);
             
             // 重置关闭标志
             isClosing = false;
@@ -167,8 +183,40 @@ public abstract class RadioDroidDatabase extends RoomDatabase {
         }
     }
 
-    public Executor getQueryExecutor() {
-        return queryExecutor;
+    private static RadioDroidDatabase buildMainDatabase(final Context context) {
+        return Room.databaseBuilder(context.getApplicationContext(),
+                RadioDroidDatabase.class, "radio_droid_database")
+                .addCallback(CALLBACK)
+                .addMigrations(MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_5_14, MIGRATION_6_14)
+                .fallbackToDestructiveMigration()
+                .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                .setQueryExecutor(readerExecutor)
+                .setTransactionExecutor(writeExecutor)
+                .openHelperFactory(new TracingOpenHelperFactory(TRACE_OPEN))
+                .build();
+    }
+
+    /**
+     * Builds the database which catalogue updates are downloaded into. It is a separate file with
+     * its own connections, so bulk inserts never hold a lock of the main database.
+     */
+    static RadioDroidDatabase buildSyncDatabase(final Context context) {
+        // 只在同步线程上直接查询，不需要 Room 的执行器
+        return Room.databaseBuilder(context.getApplicationContext(),
+                RadioDroidDatabase.class, "radio_droid_database_temp")
+                .addMigrations(MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_5_14, MIGRATION_6_14)
+                .fallbackToDestructiveMigration()
+                .setJournalMode(JournalMode.WRITE_AHEAD_LOGGING)
+                .build();
+    }
+
+    private static Executor createReaderExecutor() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(READER_THREADS, READER_THREADS, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "RadioDroidDatabase Reader-" + threadNumber.incrementAndGet()));
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
     }
 
     private static RoomDatabase.Callback CALLBACK = new RoomDatabase.Callback() {
@@ -181,7 +229,7 @@ public abstract class RadioDroidDatabase extends RoomDatabase {
         public void onOpen(@NonNull SupportSQLiteDatabase db) {
             super.onOpen(db);
 
-            queryExecutor.execute(() -> {
+            writeExecutor.execute(() -> {
                 // 检查数据库是否正在关闭，如果是则跳过操作
                 if (isClosing) {
                     return;
@@ -48,6 +48,9 @@ public interface RadioStationDao {
     @Query("SELECT * FROM radio_stations ORDER BY clickcount DESC LIMIT :limit")
     LiveData<List<RadioStation>> getTopClickStations(int limit);
 
+    @Query("SELECT * FROM radio_stations ORDER BY clickcount DESC LIMIT :limit")
+    List<RadioStation> getTopClickStationsSync(int limit);
+
     @Query("SELECT * FROM radio_stations ORDER BY clickcount DESC LIMIT 1000")
     LiveData<List<RadioStation>> getTopClickStationsAll();
 
@@ -11,11 +11,14 @@ import android.os.Environment;
 import android.os.StatFs;
 import android.util.Log;
 import java.io.File;
+import java.io.IOException;
 
+import androidx.core.os.TraceCompat;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.Observer;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import androidx.paging.DataSource;
-import androidx.room.Room;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 
 import androidx.preference.PreferenceManager;
@@ -38,24 +41,34 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import okhttp3.OkHttpClient;
 
 public class RadioStationRepository {
     private static final String TAG = "RadioStationRepository";
+
+    // 导出前写回 WAL 时，数据库正忙的重试次数和间隔
+    private static final int CHECKPOINT_ATTEMPTS = 5;
+    private static final long CHECKPOINT_RETRY_DELAY_MS = 200;
     
     private RadioStationDao radioStationDao;
     private RadioStationDao tempRadioStationDao; // 临时数据库的DAO
     private UpdateTimestampDao updateTimestampDao;
     private Context context;
-    private Executor executor = Executors.newSingleThreadExecutor();
+    private RadioDroidDatabase database;
+    // 同步要等待网络，单独的线程，不占用数据库的读写线程
+    private Executor syncExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "RadioStationSync"));
     
     // 静态锁对象，确保同步方法不会被多个线程同时调用
     private static final Object sSyncLock = new Object();
     
     // 单例模式
     private static volatile RadioStationRepository INSTANCE;
+
+    public static final String TRACE_FIRST_QUERY = "RadioStationRepository.firstQuery";
+    private static final AtomicBoolean firstQueryRequested = new AtomicBoolean(false);
     
     public static RadioStationRepository getInstance(Context context) {
         if (INSTANCE == null) {
@@ -71,22 +84,18 @@ public class RadioStationRepository {
     
     private RadioStationRepository(RadioStationDao radioStationDao, Context context) {
         this.radioStationDao = radioStationDao;
-        // 创建临时数据库的实例
-        RadioDroidDatabase tempDatabase = Room.databaseBuilder(context.getApplicationContext(),
-                RadioDroidDatabase.class, "radio_droid_database_temp")
-                .addMigrations(RadioDroidDatabase.MIGRATION_3_4, RadioDroidDatabase.MIGRATION_4_5, RadioDroidDatabase.MIGRATION_5_6, RadioDroidDatabase.MIGRATION_5_14, RadioDroidDatabase.MIGRATION_6_14)
-                .fallbackToDestructiveMigration()
-                .build();
+        // 创建临时数据库的实例，下载的数据先批量写入其中，不影响主数据库的查询
+        RadioDroidDatabase tempDatabase = RadioDroidDatabase.buildSyncDatabase(context);
         this.tempRadioStationDao = tempDatabase.radioStationDao();
         // 获取UpdateTimestampDao
-        RadioDroidDatabase db = RadioDroidDatabase.getDatabase(context);
-        this.updateTimestampDao = db.updateTimestampDao();
+        this.database = RadioDroidDatabase.getDatabase(context);
+        this.updateTimestampDao = database.updateTimestampDao();
         this.context = context;
     }
     
     // 从网络获取并存储所有电台数据
     public void syncAllStationsFromNetwork(Context context, SyncCallback callback) {
-        executor.execute(() -> {
+        syncExecutor.execute(() -> {
             syncAllStationsFromNetworkInternal(context, callback);
         });
     }
@@ -591,14 +600,17 @@ public class RadioStationRepository {
                     return;
                 }
                 
-                radioStationDao.deleteAll();
-                
-                final int insertBatchSize = 2000;
-                for (int i = 0; i < allStationsFromTemp.size(); i += insertBatchSize) {
-                    int endIndex = Math.min(i + insertBatchSize, allStationsFromTemp.size());
-                    List<RadioStation> batch = new ArrayList<>(allStationsFromTemp.subList(i, endIndex));
-                    radioStationDao.insertAll(batch);
-                }
+                // 一个事务内替换：WAL 模式下读取方在提交前一直看到旧数据，不会看到空表或一半的数据
+                database.runInTransaction(() -> {
+                    radioStationDao.deleteAll();
+
+                    final int insertBatchSize = 2000;
+                    for (int i = 0; i < allStationsFromTemp.size(); i += insertBatchSize) {
+                        int endIndex = Math.min(i + insertBatchSize, allStationsFromTemp.size());
+                        List<RadioStation> batch = new ArrayList<>(allStationsFromTemp.subList(i, endIndex));
+                        radioStationDao.insertAll(batch);
+                    }
+                });
                 
                 int finalCount = radioStationDao.getCount();
                 Log.d(TAG, "主数据库最终数量: " + finalCount);
@@ -685,7 +697,7 @@ public class RadioStationRepository {
     
     // 获取本地数据库中的电台数量
     public void getStationCount(StationCountCallback callback) {
-        executor.execute(() -> {
+        database.getQueryExecutor().execute(() -> {
             try {
                 int count = radioStationDao.getCount();
                 if (callback != null) {
@@ -718,13 +730,36 @@ public class RadioStationRepository {
         void onError(String error);
     }
     
+    // 冷启动时第一次查询包含打开数据库，从请求到第一次返回结果记录为一个 trace 区间
+    private static <T> LiveData<T> traceFirstQuery(LiveData<T> query) {
+        if (!firstQueryRequested.compareAndSet(false, true)) {
+            return query;
+        }
+
+        TraceCompat.beginAsyncSection(TRACE_FIRST_QUERY, 0);
+        final MediatorLiveData<T> traced = new MediatorLiveData<>();
+        traced.addSource(query, new Observer<T>() {
+            private boolean first = true;
+
+            @Override
+            public void onChanged(T value) {
+                if (first) {
+                    first = false;
+                    TraceCompat.endAsyncSection(TRACE_FIRST_QUERY, 0);
+                }
+                traced.setValue(value);
+            }
+        });
+        return traced;
+    }
+
     // 按名称获取所有电台
     public LiveData<List<RadioStation>> getAllStationsByName() {
-        return radioStationDao.getAllStationsByName();
+        return traceFirstQuery(radioStationDao.getAllStationsByName());
     }
 
     public LiveData<List<RadioStation>> getAllStationsByClickCount() {
-        return radioStationDao.getAllStationsByClickCount();
+        return traceFirstQuery(radioStationDao.getAllStationsByClickCount());
     }
 
     // 随机获取一个电台
@@ -734,62 +769,67 @@ public class RadioStationRepository {
 
     // 按点击次数获取电台
     public LiveData<List<RadioStation>> getStationsByClickCount() {
-        return radioStationDao.getStationsByClickCount();
+        return traceFirstQuery(radioStationDao.getStationsByClickCount());
     }
     
     // 获取点击排行前N个电台
     public LiveData<List<RadioStation>> getTopClickStations(int limit) {
-        return radioStationDao.getTopClickStations(limit);
+        return traceFirstQuery(radioStationDao.getTopClickStations(limit));
+    }
+
+    // 同步获取点击排行前N个电台（仅在后台线程中使用）
+    public List<RadioStation> getTopClickStationsSync(int limit) {
+        return radioStationDao.getTopClickStationsSync(limit);
     }
     
     public LiveData<List<RadioStation>> getTopClickStationsAll() {
-        return radioStationDao.getTopClickStationsAll();
+        return traceFirstQuery(radioStationDao.getTopClickStationsAll());
     }
     
     // 按投票数获取电台
     public LiveData<List<RadioStation>> getStationsByVotes() {
-        return radioStationDao.getStationsByVotes();
+        return traceFirstQuery(radioStationDao.getStationsByVotes());
     }
     
     // 获取投票排行前N个电台
     public LiveData<List<RadioStation>> getTopVoteStations(int limit) {
-        return radioStationDao.getTopVoteStations(limit);
+        return traceFirstQuery(radioStationDao.getTopVoteStations(limit));
     }
     
     public LiveData<List<RadioStation>> getTopVoteStationsAll() {
-        return radioStationDao.getTopVoteStationsAll();
+        return traceFirstQuery(radioStationDao.getTopVoteStationsAll());
     }
     
     // 按最后更改时间获取电台
     public LiveData<List<RadioStation>> getStationsByLastChangeTime() {
-        return radioStationDao.getStationsByLastChangeTime();
+        return traceFirstQuery(radioStationDao.getStationsByLastChangeTime());
     }
     
     // 获取最近更新的电台（限制数量）
     public LiveData<List<RadioStation>> getRecentlyChangedStations(int limit) {
-        return radioStationDao.getRecentlyChangedStations(limit);
+        return traceFirstQuery(radioStationDao.getRecentlyChangedStations(limit));
     }
 
     public LiveData<List<RadioStation>> getRecentlyChangedWorkingStations(int limit) {
-        return radioStationDao.getRecentlyChangedWorkingStations(limit);
+        return traceFirstQuery(radioStationDao.getRecentlyChangedWorkingStations(limit));
     }
     
     public LiveData<List<RadioStation>> getRecentlyChangedStationsAll() {
-        return radioStationDao.getRecentlyChangedStationsAll();
+        return traceFirstQuery(radioStationDao.getRecentlyChangedStationsAll());
     }
 
     public LiveData<List<RadioStation>> getRecentlyChangedWorkingStationsAll() {
-        return radioStationDao.getRecentlyChangedWorkingStationsAll();
+        return traceFirstQuery(radioStationDao.getRecentlyChangedWorkingStationsAll());
     }
     
     // 获取最近点击的电台（限制数量）
     public LiveData<List<RadioStation>> getRecentlyPlayedStations(int limit) {
-        return radioStationDao.getRecentlyPlayedStations(limit);
+        return traceFirstQuery(radioStationDao.getRecentlyPlayedStations(limit));
     }
     
     // 获取所有国家
     public LiveData<List<String>> getAllCountries() {
-        return radioStationDao.getAllCountries();
+        return traceFirstQuery(radioStationDao.getAllCountries());
     }
     
     // 获取所有国家（同步版本）
@@ -799,12 +839,12 @@ public class RadioStationRepository {
     
     // 按国家获取电台
     public LiveData<List<RadioStation>> getStationsByCountry(String country) {
-        return radioStationDao.getStationsByCountry(country);
+        return traceFirstQuery(radioStationDao.getStationsByCountry(country));
     }
     
     // 获取所有语言
     public LiveData<List<String>> getAllLanguages() {
-        return radioStationDao.getAllLanguages();
+        return traceFirstQuery(radioStationDao.getAllLanguages());
     }
     
     // 获取所有语言（同步版本）
@@ -814,50 +854,50 @@ public class RadioStationRepository {
     
     // 按语言获取电台
     public LiveData<List<RadioStation>> getStationsByLanguage(String language) {
-        return radioStationDao.getStationsByLanguage(language);
+        return traceFirstQuery(radioStationDao.getStationsByLanguage(language));
     }
 
     public LiveData<List<RadioStation>> getStationsByLanguageAll(String language) {
-        return radioStationDao.getStationsByLanguageAll(language);
+        return traceFirstQuery(radioStationDao.getStationsByLanguageAll(language));
     }
     
     // 按语言获取电台（限制数量）
     public LiveData<List<RadioStation>> getStationsByLanguageWithLimit(String language, int limit) {
-        return radioStationDao.getStationsByLanguageWithLimit(language, limit);
+        return traceFirstQuery(radioStationDao.getStationsByLanguageWithLimit(language, limit));
     }
     
     // 按语言和国家获取电台（限制数量）
     public LiveData<List<RadioStation>> getStationsByLanguageAndCountry(String language, String countryCode, int limit) {
-        return radioStationDao.getStationsByLanguageAndCountry(language, countryCode, limit);
+        return traceFirstQuery(radioStationDao.getStationsByLanguageAndCountry(language, countryCode, limit));
     }
     
     // 按语言和国家获取电台（不限制数量）
     public LiveData<List<RadioStation>> getStationsByLanguageAndCountry(String language, String countryCode) {
-        return radioStationDao.getStationsByLanguageAndCountry(language, countryCode);
+        return traceFirstQuery(radioStationDao.getStationsByLanguageAndCountry(language, countryCode));
     }
     
     // 按国家获取电台（限制数量）
     public LiveData<List<RadioStation>> getStationsByCountryWithLimit(String countryCode, int limit) {
-        return radioStationDao.getStationsByCountryWithLimit(countryCode, limit);
+        return traceFirstQuery(radioStationDao.getStationsByCountryWithLimit(countryCode, limit));
     }
 
     public LiveData<List<RadioStation>> getStationsByCountryCodeAll(String countryCode) {
-        return radioStationDao.getStationsByCountryCodeAll(countryCode);
+        return traceFirstQuery(radioStationDao.getStationsByCountryCodeAll(countryCode));
     }
     
     // 获取所有标签
     public LiveData<List<String>> getAllTags() {
-        return radioStationDao.getAllTags();
+        return traceFirstQuery(radioStationDao.getAllTags());
     }
     
     // 按标签获取电台
     public LiveData<List<RadioStation>> getStationsByTag(String tag) {
-        return radioStationDao.getStationsByTag(tag);
+        return traceFirstQuery(radioStationDao.getStationsByTag(tag));
     }
     
     // 获取标签对应的电台数量
     public LiveData<Integer> getStationCountByTag(String tag) {
-        return radioStationDao.getStationCountByTag(tag);
+        return traceFirstQuery(radioStationDao.getStationCountByTag(tag));
     }
     
     // 获取标签对应的电台数量（同步版本）
@@ -872,7 +912,7 @@ public class RadioStationRepository {
     
     // 获取国家对应的电台数量
     public LiveData<Integer> getStationCountByCountry(String country) {
-        return radioStationDao.getStationCountByCountry(country);
+        return traceFirstQuery(radioStationDao.getStationCountByCountry(country));
     }
     
     // 获取国家对应的电台数量（同步版本）
@@ -897,7 +937,7 @@ public class RadioStationRepository {
     
     // 获取语言对应的电台数量
     public LiveData<Integer> getStationCountByLanguage(String language) {
-        return radioStationDao.getStationCountByLanguage(language);
+        return traceFirstQuery(radioStationDao.getStationCountByLanguage(language));
     }
     
     // 获取语言对应的电台数量（同步版本）
@@ -907,67 +947,67 @@ public class RadioStationRepository {
     
     // 搜索电台
     public LiveData<List<RadioStation>> searchStations(String query) {
-        return radioStationDao.searchStations(query);
+        return traceFirstQuery(radioStationDao.searchStations(query));
     }
     
     // 使用FTS快速搜索电台
     public LiveData<List<RadioStation>> searchStationsFast(String query) {
-        return radioStationDao.searchStationsFast(query);
+        return traceFirstQuery(radioStationDao.searchStationsFast(query));
     }
     
     // 使用FTS按名称快速搜索电台
     public LiveData<List<RadioStation>> searchStationsByNameFast(String query) {
-        return radioStationDao.searchStationsByNameFast(query);
+        return traceFirstQuery(radioStationDao.searchStationsByNameFast(query));
     }
     
     // 使用FTS按标签快速搜索电台
     public LiveData<List<RadioStation>> searchStationsByTagsFast(String query) {
-        return radioStationDao.searchStationsByTagsFast(query);
+        return traceFirstQuery(radioStationDao.searchStationsByTagsFast(query));
     }
     
     // 使用FTS按国家快速搜索电台
     public LiveData<List<RadioStation>> searchStationsByCountryFast(String query) {
-        return radioStationDao.searchStationsByCountryFast(query);
+        return traceFirstQuery(radioStationDao.searchStationsByCountryFast(query));
     }
     
     // 使用FTS按语言快速搜索电台
     public LiveData<List<RadioStation>> searchStationsByLanguageFast(String query) {
-        return radioStationDao.searchStationsByLanguageFast(query);
+        return traceFirstQuery(radioStationDao.searchStationsByLanguageFast(query));
     }
     
     // 按名称搜索电台
     public LiveData<List<RadioStation>> searchStationsByName(String query) {
-        return radioStationDao.searchStationsByName(query);
+        return traceFirstQuery(radioStationDao.searchStationsByName(query));
     }
     
     // 按标签搜索电台
     public LiveData<List<RadioStation>> searchStationsByTags(String query) {
-        return radioStationDao.searchStationsByTags(query);
+        return traceFirstQuery(radioStationDao.searchStationsByTags(query));
     }
     
     // 按国家搜索电台
     public LiveData<List<RadioStation>> searchStationsByCountry(String query) {
-        return radioStationDao.searchStationsByCountry(query);
+        return traceFirstQuery(radioStationDao.searchStationsByCountry(query));
     }
     
     // 按语言搜索电台
     public LiveData<List<RadioStation>> searchStationsByLanguage(String query) {
-        return radioStationDao.searchStationsByLanguage(query);
+        return traceFirstQuery(radioStationDao.searchStationsByLanguage(query));
     }
     
     // 按国家代码获取电台
     public LiveData<List<RadioStation>> getStationsByCountryCode(String countryCode) {
-        return radioStationDao.getStationsByCountryCode(countryCode);
+        return traceFirstQuery(radioStationDao.getStationsByCountryCode(countryCode));
     }
     
     // 按精确语言获取电台
     public LiveData<List<RadioStation>> getStationsByLanguageExact(String language) {
-        return radioStationDao.getStationsByLanguageExact(language);
+        return traceFirstQuery(radioStationDao.getStationsByLanguageExact(language));
     }
     
     // 按精确标签获取电台
     public LiveData<List<RadioStation>> getStationsByTagExact(String tag) {
-        return radioStationDao.getStationsByTagExact(tag);
+        return traceFirstQuery(radioStationDao.getStationsByTagExact(tag));
     }
     
     // 分页查询方法
@@ -1005,7 +1045,7 @@ public class RadioStationRepository {
      * @return 符合条件的电台列表
      */
     public LiveData<List<RadioStation>> searchStationsByMultiCriteria(String country, String language, String tag, String keyword) {
-        return radioStationDao.searchStationsByMultiCriteria(country, language, tag, keyword);
+        return traceFirstQuery(radioStationDao.searchStationsByMultiCriteria(country, language, tag, keyword));
     }
     
     // 获取数据库更新时间戳
@@ -1129,6 +1169,39 @@ public class RadioStationRepository {
         void onFailure(String error);
     }
     
+    /**
+     * 把 WAL 中的内容写回主数据库文件并清空 WAL，之后主数据库文件本身就是完整的，可以直接复制。
+     * 数据库正忙时稍后重试，一直没能完整写回则抛出 IOException，此时不能复制文件
+     */
+    public void checkpointDatabase() throws IOException {
+        SupportSQLiteDatabase db = RadioDroidDatabase.getDatabase(context).getOpenHelper().getWritableDatabase();
+        for (int attempt = 1; attempt <= CHECKPOINT_ATTEMPTS; attempt++) {
+            if (tryCheckpoint(db)) {
+                return;
+            }
+            Log.w(TAG, "WAL checkpoint could not complete, database is busy (attempt " + attempt + ")");
+            if (attempt < CHECKPOINT_ATTEMPTS) {
+                try {
+                    Thread.sleep(CHECKPOINT_RETRY_DELAY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        throw new IOException("Database is busy, could not write back its log");
+    }
+
+    private static boolean tryCheckpoint(SupportSQLiteDatabase db) {
+        android.database.Cursor cursor = db.query("PRAGMA wal_checkpoint(TRUNCATE)");
+        try {
+            // 结果第一列为 1 表示有连接正在读写，没能完整写回
+            return !cursor.moveToFirst() || cursor.getInt(0) == 0;
+        } finally {
+            cursor.close();
+        }
+    }
+    
     // 关闭数据库连接
     public void closeDatabase() {
         try {
@@ -1158,15 +1231,33 @@ public class RadioStationRepository {
             "radio_droid_database_temp-journal"
         };
         
-        File databasesDir = context.getDatabasePath("radio_droid_database_temp").getParentFile();
+        deleteDatabaseFiles(context, tempDbNames);
+    }
+    
+    /**
+     * 删除主数据库的日志文件，在替换已关闭的主数据库文件之前调用
+     * 否则旧数据库的 -wal 会被当作新文件的日志读入
+     */
+    public static void cleanupMainDatabaseJournalFiles(Context context) {
+        String[] journalNames = {
+            "radio_droid_database-wal",
+            "radio_droid_database-shm",
+            "radio_droid_database-journal"
+        };
+        
+        deleteDatabaseFiles(context, journalNames);
+    }
+    
+    private static void deleteDatabaseFiles(Context context, String[] dbNames) {
+        File databasesDir = context.getDatabasePath("radio_droid_database").getParentFile();
         if (databasesDir != null && databasesDir.exists()) {
-            for (String dbName : tempDbNames) {
+            for (String dbName : dbNames) {
                 File dbFile = new File(databasesDir, dbName);
                 if (dbFile.exists()) {
                     if (dbFile.delete()) {
-                        Log.d(TAG, "Deleted temp database file: " + dbName);
+                        Log.d(TAG, "Deleted database file: " + dbName);
                     } else {
-                        Log.w(TAG, "Failed to delete temp database file: " + dbName);
+                        Log.w(TAG, "Failed to delete database file: " + dbName);
                     }
                 }
             }
@@ -1205,14 +1296,11 @@ public class RadioStationRepository {
             
             RadioDroidDatabase newDb = RadioDroidDatabase.forceRecreateDatabase(context);
             
+            this.database = newDb;
             this.radioStationDao = newDb.radioStationDao();
             this.updateTimestampDao = newDb.updateTimestampDao();
             
-            RadioDroidDatabase tempDatabase = Room.databaseBuilder(context.getApplicationContext(),
-                    RadioDroidDatabase.class, "radio_droid_database_temp")
-                    .addMigrations(RadioDroidDatabase.MIGRATION_3_4, RadioDroidDatabase.MIGRATION_4_5, RadioDroidDatabase.MIGRATION_5_6, RadioDroidDatabase.MIGRATION_5_14, RadioDroidDatabase.MIGRATION_6_14)
-                    .fallbackToDestructiveMigration()
-                    .build();
+            RadioDroidDatabase tempDatabase = RadioDroidDatabase.buildSyncDatabase(context);
             this.tempRadioStationDao = tempDatabase.radioStationDao();
             
             SharedPreferences.Editor restoreEditor = defaultPrefs.edit();
@@ -0,0 +1,147 @@
+package net.programmierecke.radiodroid2.database;
+
+import androidx.annotation.NonNull;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+import net.programmierecke.radiodroid2.station.DataRadioStation;
+
+/**
+ * A station in one of the user's lists, favourites or history, at its position in the list.
+ * <p>
+ * Keeps the fields a station was saved with, the station may have left the station catalogue
+ * since. Positions of a list run from 0 without gaps.
+ */
+@Entity(tableName = "saved_stations",
+        indices = {
+                @Index(value = {"list_id", "position"}),
+                @Index(value = {"list_id", "station_uuid"})
+        })
+public class SavedStation {
+    @PrimaryKey(autoGenerate = true)
+    @ColumnInfo(name = "id")
+    public long id;
+
+    @NonNull
+    @ColumnInfo(name = "list_id")
+    public String listId = "";
+
+    @ColumnInfo(name = "position")
+    public int position;
+
+    @ColumnInfo(name = "station_uuid")
+    public String stationUuid;
+
+    // 旧版本电台没有 uuid，只有 id
+    @ColumnInfo(name = "station_id")
+    public String stationId;
+
+    @ColumnInfo(name = "change_uuid")
+    public String changeUuid;
+
+    @ColumnInfo(name = "name")
+    public String name;
+
+    @ColumnInfo(name = "url")
+    public String url;
+
+    @ColumnInfo(name = "homepage")
+    public String homepage;
+
+    @ColumnInfo(name = "favicon")
+    public String favicon;
+
+    @ColumnInfo(name = "country")
+    public String country;
+
+    @ColumnInfo(name = "countrycode")
+    public String countrycode;
+
+    @ColumnInfo(name = "state")
+    public String state;
+
+    @ColumnInfo(name = "tags")
+    public String tags;
+
+    @ColumnInfo(name = "language")
+    public String language;
+
+    @ColumnInfo(name = "clickcount")
+    public int clickcount;
+
+    @ColumnInfo(name = "clicktrend")
+    public int clicktrend;
+
+    @ColumnInfo(name = "votes")
+    public int votes;
+
+    @ColumnInfo(name = "refresh_retry_count")
+    public int refreshRetryCount;
+
+    @ColumnInfo(name = "bitrate")
+    public int bitrate;
+
+    @ColumnInfo(name = "codec")
+    public String codec;
+
+    @ColumnInfo(name = "lastcheckok")
+    public boolean lastcheckok;
+
+    @ColumnInfo(name = "deleted_on_server")
+    public boolean deletedOnServer;
+
+    // 与 DataRadioStation.toJson() 保存的字段一致
+    public static SavedStation fromDataRadioStation(String listId, int position, DataRadioStation dataStation) {
+        SavedStation station = new SavedStation();
+        station.listId = listId;
+        station.position = position;
+        station.stationUuid = dataStation.StationUuid;
+        station.stationId = dataStation.StationId;
+        station.changeUuid = dataStation.ChangeUuid;
+        station.name = dataStation.Name;
+        station.url = dataStation.StreamUrl;
+        station.homepage = dataStation.HomePageUrl;
+        station.favicon = dataStation.IconUrl;
+        station.country = dataStation.Country;
+        station.countrycode = dataStation.CountryCode;
+        station.state = dataStation.State;
+        station.tags = dataStation.TagsAll;
+        station.language = dataStation.Language;
+        station.clickcount = dataStation.ClickCount;
+        station.clicktrend = dataStation.ClickTrend;
+        station.votes = dataStation.Votes;
+        station.refreshRetryCount = dataStation.RefreshRetryCount;
+        station.bitrate = dataStation.Bitrate;
+        station.codec = dataStation.Codec;
+        station.lastcheckok = dataStation.Working;
+        station.deletedOnServer = dataStation.DeletedOnServer;
+        return station;
+    }
+
+    public DataRadioStation toDataRadioStation() {
+        DataRadioStation dataStation = new DataRadioStation();
+        dataStation.StationUuid = stationUuid != null ? stationUuid : "";
+        dataStation.StationId = stationId != null ? stationId : "";
+        dataStation.ChangeUuid = changeUuid != null ? changeUuid : "";
+        dataStation.Name = name;
+        dataStation.StreamUrl = url;
+        dataStation.HomePageUrl = homepage;
+        dataStation.IconUrl = favicon != null ? favicon : "";
+        dataStation.Country = country;
+        dataStation.CountryCode = countrycode;
+        dataStation.State = state;
+        dataStation.TagsAll = tags;
+        dataStation.Language = language;
+        dataStation.ClickCount = clickcount;
+        dataStation.ClickTrend = clicktrend;
+        dataStation.Votes = votes;
+        dataStation.RefreshRetryCount = refreshRetryCount;
+        dataStation.Bitrate = bitrate;
+        dataStation.Codec = codec;
+        dataStation.Working = lastcheckok;
+        dataStation.DeletedOnServer = deletedOnServer;
+        return dataStation;
+    }
+}
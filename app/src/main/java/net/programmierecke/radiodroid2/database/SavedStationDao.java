@@ -0,0 +1,94 @@
+package net.programmierecke.radiodroid2.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import java.util.List;
+
+/**
+ * Positional access to the saved station lists. Every change touches only the rows it moves, the
+ * position of a row is its index in the list.
+ */
+@Dao
+public abstract class SavedStationDao {
+    @Query("SELECT * FROM saved_stations WHERE list_id = :listId ORDER BY position ASC")
+    public abstract List<SavedStation> getList(String listId);
+
+    @Query("SELECT COUNT(*) FROM saved_stations WHERE list_id = :listId")
+    public abstract int getCount(String listId);
+
+    @Insert
+    public abstract void insert(SavedStation station);
+
+    @Insert
+    public abstract void insertAll(List<SavedStation> stations);
+
+    @Query("DELETE FROM saved_stations WHERE list_id = :listId")
+    public abstract void deleteList(String listId);
+
+    @Query("DELETE FROM saved_stations WHERE list_id = :listId AND position = :position")
+    public abstract void deleteAt(String listId, int position);
+
+    @Query("DELETE FROM saved_stations WHERE list_id = :listId AND position >= :position")
+    public abstract void deleteFrom(String listId, int position);
+
+    @Query("UPDATE saved_stations SET position = position + :delta WHERE list_id = :listId AND position >= :fromPosition AND position <= :toPosition")
+    public abstract void shift(String listId, int fromPosition, int toPosition, int delta);
+
+    @Query("UPDATE saved_stations SET position = :newPosition WHERE list_id = :listId AND position = :position")
+    public abstract void setPosition(String listId, int position, int newPosition);
+
+    /**
+     * Inserts the station at its position, the stations from there on move one down.
+     */
+    @Transaction
+    public void insertAt(SavedStation station) {
+        shift(station.listId, station.position, Integer.MAX_VALUE, 1);
+        insert(station);
+    }
+
+    /**
+     * Removes the station at the position, the stations after it move one up.
+     */
+    @Transaction
+    public void removeAt(String listId, int position) {
+        deleteAt(listId, position);
+        shift(listId, position + 1, Integer.MAX_VALUE, -1);
+    }
+
+    @Transaction
+    public void replaceAt(SavedStation station) {
+        deleteAt(station.listId, station.position);
+        insert(station);
+    }
+
+    @Transaction
+    public void move(String listId, int fromPosition, int toPosition) {
+        if (fromPosition == toPosition) {
+            return;
+        }
+        // 先移出要移动的行，避免与其他行的位置重叠
+        setPosition(listId, fromPosition, -1);
+        if (fromPosition < toPosition) {
+            shift(listId, fromPosition + 1, toPosition, -1);
+        } else {
+            shift(listId, toPosition, fromPosition - 1, 1);
+        }
+        setPosition(listId, -1, toPosition);
+    }
+
+    /**
+     * Keeps the first {@code size} stations of the list.
+     */
+    public void truncate(String listId, int size) {
+        deleteFrom(listId, size);
+    }
+
+    @Transaction
+    public void replaceList(String listId, List<SavedStation> stations) {
+        deleteList(listId);
+        insertAll(stations);
+    }
+}
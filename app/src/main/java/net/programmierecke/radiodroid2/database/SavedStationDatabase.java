@@ -0,0 +1,33 @@
+package net.programmierecke.radiodroid2.database;
+
+import android.content.Context;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+
+/**
+ * Favourites and history of the user.
+ * <p>
+ * Separate from {@link RadioDroidDatabase}, which holds the station catalogue and is replaced
+ * as a whole by syncs and database imports, and falls back to destructive migrations.
+ */
+@Database(entities = {SavedStation.class}, version = 1)
+public abstract class SavedStationDatabase extends RoomDatabase {
+    public abstract SavedStationDao savedStationDao();
+
+    private static volatile SavedStationDatabase INSTANCE;
+
+    public static SavedStationDatabase getDatabase(final Context context) {
+        if (INSTANCE == null) {
+            synchronized (SavedStationDatabase.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
+                            SavedStationDatabase.class, "saved_stations")
+                            .build();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,238 @@
+package net.programmierecke.radiodroid2.database;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.preference.PreferenceManager;
+import android.util.Log;
+
+import net.programmierecke.radiodroid2.station.DataRadioStation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the station lists of {@link net.programmierecke.radiodroid2.StationSaveManager}.
+ * <p>
+ * The managers keep their lists in memory and report every change by position; the change is
+ * written to {@link SavedStationDatabase} on a background thread, touching only the rows it
+ * affects. Changes are held back for {@link #WRITE_DELAY_MS} and written together in one
+ * transaction, so bursts like dragging a favourite through the list cost a single write.
+ * {@link #flush()} writes pending changes right away. If one change fails, the whole transaction
+ * is rolled back and the {@link WriteFailureListener} of each affected list is told.
+ * <p>
+ * Loads and writes run in the order they were requested, so a list is loaded before any change
+ * to it is written.
+ * <p>
+ * Lists used to be stored as one JSON array per list in the default SharedPreferences, under the
+ * id of the list. They are moved over on their first load.
+ */
+public class SavedStationRepository {
+    private static final String TAG = "SavedStations";
+
+    static final long WRITE_DELAY_MS = 500;
+
+    private static volatile SavedStationRepository instance;
+
+    public interface LoadCallback {
+        /**
+         * Called on the background thread of the repository.
+         */
+        void onLoaded(List<DataRadioStation> stations);
+    }
+
+    public interface WriteFailureListener {
+        /**
+         * Called on the main thread when changes to the list were rolled back. The database no
+         * longer matches the list in memory.
+         */
+        void onWritesLost(String listId);
+    }
+
+    private final Context context;
+    // 所有读写按提交顺序在同一后台线程执行
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "SavedStations"));
+
+    private final Object pendingLock = new Object();
+    private List<PendingWrite> pendingWrites = new ArrayList<>();
+    private boolean flushScheduled = false;
+
+    private final Map<String, WriteFailureListener> writeFailureListeners = new ConcurrentHashMap<>();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private static class PendingWrite {
+        final String listId;
+        final Runnable write;
+
+        PendingWrite(String listId, Runnable write) {
+            this.listId = listId;
+            this.write = write;
+        }
+    }
+
+    private SavedStationRepository(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    public static SavedStationRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (SavedStationRepository.class) {
+                if (instance == null) {
+                    instance = new SavedStationRepository(context);
+                }
+            }
+        }
+        return instance;
+    }
+
+    public void load(final String listId, final LoadCallback callback) {
+        executor.execute(() -> {
+            List<DataRadioStation> stations;
+            try {
+                flushPending();
+                stations = loadSync(listId);
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to load " + listId, e);
+                stations = new ArrayList<>();
+            }
+            callback.onLoaded(stations);
+        });
+    }
+
+    public void setWriteFailureListener(String listId, WriteFailureListener listener) {
+        writeFailureListeners.put(listId, listener);
+    }
+
+    public void insert(String listId, int position, DataRadioStation station) {
+        // 在调用线程转换，保存调用时的电台内容
+        final SavedStation row = SavedStation.fromDataRadioStation(listId, position, station);
+        execute(listId, () -> dao().insertAt(row));
+    }
+
+    public void replace(String listId, int position, DataRadioStation station) {
+        final SavedStation row = SavedStation.fromDataRadioStation(listId, position, station);
+        execute(listId, () -> dao().replaceAt(row));
+    }
+
+    public void remove(final String listId, final int position) {
+        execute(listId, () -> dao().removeAt(listId, position));
+    }
+
+    public void move(final String listId, final int fromPosition, final int toPosition) {
+        execute(listId, () -> dao().move(listId, fromPosition, toPosition));
+    }
+
+    public void truncate(final String listId, final int size) {
+        execute(listId, () -> dao().truncate(listId, size));
+    }
+
+    public void replaceAll(final String listId, List<DataRadioStation> stations) {
+        final List<SavedStation> rows = toRows(listId, stations);
+        execute(listId, () -> dao().replaceList(listId, rows));
+    }
+
+    /**
+     * Writes pending changes without waiting for {@link #WRITE_DELAY_MS}, e.g. when the app
+     * goes to the background and may be killed.
+     */
+    public void flush() {
+        executor.execute(this::flushPending);
+    }
+
+    private List<DataRadioStation> loadSync(String listId) {
+        migrateFromPreferences(listId);
+
+        List<SavedStation> rows = dao().getList(listId);
+        List<DataRadioStation> stations = new ArrayList<>(rows.size());
+        for (SavedStation row : rows) {
+            stations.add(row.toDataRadioStation());
+        }
+        return stations;
+    }
+
+    private void migrateFromPreferences(String listId) {
+        SharedPreferences sharedPref = PreferenceManager.getDefaultSharedPreferences(context);
+        String json = sharedPref.getString(listId, null);
+        if (json == null) {
+            return;
+        }
+
+        if (dao().getCount(listId) == 0) {
+            List<DataRadioStation> stations = DataRadioStation.DecodeJson(json);
+            dao().replaceList(listId, toRows(listId, stations));
+            Log.i(TAG, "Moved " + stations.size() + " stations of " + listId + " from preferences");
+        }
+        // 写入数据库之后才删除，中途被终止时下次启动重新迁移
+        sharedPref.edit().remove(listId).commit();
+    }
+
+    private static List<SavedStation> toRows(String listId, List<DataRadioStation> stations) {
+        if (stations == null) {
+            return Collections.emptyList();
+        }
+        List<SavedStation> rows = new ArrayList<>(stations.size());
+        for (int i = 0; i < stations.size(); i++) {
+            rows.add(SavedStation.fromDataRadioStation(listId, i, stations.get(i)));
+        }
+        return rows;
+    }
+
+    private SavedStationDao dao() {
+        return SavedStationDatabase.getDatabase(context).savedStationDao();
+    }
+
+    private void execute(final String listId, final Runnable write) {
+        synchronized (pendingLock) {
+            pendingWrites.add(new PendingWrite(listId, write));
+            if (flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        executor.schedule(this::flushPending, WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // 只在后台线程调用
+    private void flushPending() {
+        final List<PendingWrite> writes;
+        synchronized (pendingLock) {
+            writes = pendingWrites;
+            pendingWrites = new ArrayList<>();
+            flushScheduled = false;
+        }
+        if (writes.isEmpty()) {
+            return;
+        }
+
+        // 修改按位置进行，跳过失败的一步会让后面的位置错乱，所以任一步失败时整个事务回滚
+        try {
+            SavedStationDatabase.getDatabase(context).runInTransaction(() -> {
+                for (PendingWrite pendingWrite : writes) {
+                    pendingWrite.write.run();
+                }
+            });
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to write " + writes.size() + " changes of saved stations, rolled back", e);
+
+            final Set<String> listIds = new LinkedHashSet<>();
+            for (PendingWrite pendingWrite : writes) {
+                listIds.add(pendingWrite.listId);
+            }
+            for (String listId : listIds) {
+                final WriteFailureListener listener = writeFailureListeners.get(listId);
+                if (listener != null) {
+                    mainHandler.post(() -> listener.onWritesLost(listId));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package net.programmierecke.radiodroid2.database;
+
+import androidx.core.os.TraceCompat;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteOpenHelper;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+
+/**
+ * Opens the database like Room's default factory and puts the first open, including migrations
+ * and open callbacks, into a trace section, so it shows up in startup traces.
+ */
+class TracingOpenHelperFactory implements SupportSQLiteOpenHelper.Factory {
+    private final SupportSQLiteOpenHelper.Factory delegate = new FrameworkSQLiteOpenHelperFactory();
+    private final String sectionName;
+
+    TracingOpenHelperFactory(String sectionName) {
+        this.sectionName = sectionName;
+    }
+
+    @Override
+    public SupportSQLiteOpenHelper create(SupportSQLiteOpenHelper.Configuration configuration) {
+        return new TracingOpenHelper(delegate.create(configuration), sectionName);
+    }
+
+    private static class TracingOpenHelper implements SupportSQLiteOpenHelper {
+        private final SupportSQLiteOpenHelper delegate;
+        private final String sectionName;
+        // Room 每次查询都会取数据库，只记录第一次
+        private volatile boolean opened = false;
+
+        TracingOpenHelper(SupportSQLiteOpenHelper delegate, String sectionName) {
+            this.delegate = delegate;
+            this.sectionName = sectionName;
+        }
+
+        @Override
+        public String getDatabaseName() {
+            return delegate.getDatabaseName();
+        }
+
+        @Override
+        public void setWriteAheadLoggingEnabled(boolean enabled) {
+            delegate.setWriteAheadLoggingEnabled(enabled);
+        }
+
+        @Override
+        public SupportSQLiteDatabase getWritableDatabase() {
+            if (opened) {
+                return delegate.getWritableDatabase();
+            }
+            TraceCompat.beginSection(sectionName);
+            try {
+                SupportSQLiteDatabase database = delegate.getWritableDatabase();
+                opened = true;
+                return database;
+            } finally {
+                TraceCompat.endSection();
+            }
+        }
+
+        @Override
+        public SupportSQLiteDatabase getReadableDatabase() {
+            if (opened) {
+                return delegate.getReadableDatabase();
+            }
+            TraceCompat.beginSection(sectionName);
+            try {
+                SupportSQLiteDatabase database = delegate.getReadableDatabase();
+                opened = true;
+                return database;
+            } finally {
+                TraceCompat.endSection();
+            }
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+            opened = false;
+        }
+    }
+}
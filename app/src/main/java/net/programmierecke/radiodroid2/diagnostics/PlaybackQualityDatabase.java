@@ -0,0 +1,33 @@
+package net.programmierecke.radiodroid2.diagnostics;
+
+import android.content.Context;
+
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+
+/**
+ * Playback quality of experience metrics.
+ * <p>
+ * Separate from {@link net.programmierecke.radiodroid2.database.RadioDroidDatabase}, which is
+ * replaced as a whole by syncs and database imports.
+ */
+@Database(entities = {PlaybackSession.class}, version = 1)
+public abstract class PlaybackQualityDatabase extends RoomDatabase {
+    public abstract PlaybackSessionDao playbackSessionDao();
+
+    private static volatile PlaybackQualityDatabase INSTANCE;
+
+    public static PlaybackQualityDatabase getDatabase(final Context context) {
+        if (INSTANCE == null) {
+            synchronized (PlaybackQualityDatabase.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
+                            PlaybackQualityDatabase.class, "playback_quality")
+                            .build();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+}
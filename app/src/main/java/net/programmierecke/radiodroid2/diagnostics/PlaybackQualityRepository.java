@@ -0,0 +1,61 @@
+package net.programmierecke.radiodroid2.diagnostics;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Stores finished {@link PlaybackSession}s and provides their rollups per station and per
+ * network type. Only the latest {@link PlaybackSession#MAX_SESSIONS_IN_TABLE} sessions are kept.
+ */
+public class PlaybackQualityRepository {
+    private static final String TAG = "PlaybackQuality";
+
+    private static volatile PlaybackQualityRepository instance;
+
+    private final PlaybackSessionDao dao;
+    private final Executor executor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "PlaybackQuality"));
+
+    private PlaybackQualityRepository(Context context) {
+        dao = PlaybackQualityDatabase.getDatabase(context).playbackSessionDao();
+    }
+
+    public static PlaybackQualityRepository getInstance(Context context) {
+        if (instance == null) {
+            synchronized (PlaybackQualityRepository.class) {
+                if (instance == null) {
+                    instance = new PlaybackQualityRepository(context);
+                }
+            }
+        }
+        return instance;
+    }
+
+    public void record(@NonNull final PlaybackSession session) {
+        executor.execute(() -> {
+            try {
+                final long id = dao.insert(session);
+                // 偶尔清理一次即可
+                if (id % 100 == 0) {
+                    dao.trimTo(PlaybackSession.MAX_SESSIONS_IN_TABLE);
+                }
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to record playback session of " + session.stationUuid, e);
+            }
+        });
+    }
+
+    public LiveData<List<PlaybackQualityRollup>> getStationRollups(long since) {
+        return dao.getStationRollups(since);
+    }
+
+    public LiveData<List<PlaybackQualityRollup>> getNetworkRollups(long since) {
+        return dao.getNetworkRollups(since);
+    }
+}
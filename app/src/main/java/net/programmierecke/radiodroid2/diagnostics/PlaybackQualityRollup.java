@@ -0,0 +1,50 @@
+package net.programmierecke.radiodroid2.diagnostics;
+
+import androidx.room.ColumnInfo;
+
+/**
+ * Sums and averages over the {@link PlaybackSession}s of one station or one network type.
+ */
+public class PlaybackQualityRollup {
+    // 电台 UUID 或网络类型
+    @ColumnInfo(name = "group_key")
+    public String groupKey;
+
+    @ColumnInfo(name = "station_name")
+    public String stationName;
+
+    @ColumnInfo(name = "sessions")
+    public int sessions;
+
+    @ColumnInfo(name = "failed_sessions")
+    public int failedSessions;
+
+    @ColumnInfo(name = "avg_time_to_first_audio_ms")
+    public long avgTimeToFirstAudioMs;
+
+    @ColumnInfo(name = "rebuffer_count")
+    public int rebufferCount;
+
+    @ColumnInfo(name = "rebuffer_ms")
+    public long rebufferMs;
+
+    @ColumnInfo(name = "duration_ms")
+    public long durationMs;
+
+    @ColumnInfo(name = "bytes_transferred")
+    public long bytesTransferred;
+
+    @ColumnInfo(name = "reconnects")
+    public int reconnects;
+
+    @ColumnInfo(name = "avg_bitrate")
+    public long avgBitrate;
+
+    /**
+     * Share of the played time spent rebuffering, 0 to 1.
+     */
+    public float getRebufferRatio() {
+        final long total = durationMs + rebufferMs;
+        return total > 0 ? (float) rebufferMs / total : 0;
+    }
+}
@@ -0,0 +1,62 @@
+package net.programmierecke.radiodroid2.diagnostics;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Quality of experience of one playback, from pressing play until pause, stop or switching to
+ * another station.
+ */
+@Entity(tableName = "playback_sessions", indices = {@Index("station_uuid"), @Index("start_time")})
+public class PlaybackSession {
+    public final static int MAX_SESSIONS_IN_TABLE = 2000;
+
+    public final static long NO_AUDIO = -1;
+
+    @PrimaryKey(autoGenerate = true)
+    public long id;
+
+    @ColumnInfo(name = "station_uuid")
+    @NonNull
+    public String stationUuid = "";
+
+    @ColumnInfo(name = "station_name")
+    @Nullable
+    public String stationName;
+
+    // ConnectivityChecker.ConnectionType 的名称
+    @ColumnInfo(name = "network_type")
+    @NonNull
+    public String networkType = "";
+
+    @ColumnInfo(name = "start_time")
+    public long startTime;
+
+    @ColumnInfo(name = "duration_ms")
+    public long durationMs;
+
+    // 从开始连接到第一次出声，从未出声为 NO_AUDIO
+    @ColumnInfo(name = "time_to_first_audio_ms")
+    public long timeToFirstAudioMs = NO_AUDIO;
+
+    @ColumnInfo(name = "rebuffer_count")
+    public int rebufferCount;
+
+    @ColumnInfo(name = "rebuffer_ms")
+    public long rebufferMs;
+
+    @ColumnInfo(name = "bytes_transferred")
+    public long bytesTransferred;
+
+    @ColumnInfo(name = "reconnects")
+    public int reconnects;
+
+    // 逗号分隔的错误码，没有错误时为 null
+    @ColumnInfo(name = "error_codes")
+    @Nullable
+    public String errorCodes;
+}
@@ -0,0 +1,38 @@
+package net.programmierecke.radiodroid2.diagnostics;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface PlaybackSessionDao {
+    @Insert
+    long insert(PlaybackSession session);
+
+    // 失败：从未出声或带有错误码；平均首次出声时间只计算出过声的会话；
+    // 平均码率按出声后的时间计算，即播放时长加重新缓冲时长
+    String ROLLUP_COLUMNS = "COUNT(*) AS sessions, "
+            + "SUM(CASE WHEN time_to_first_audio_ms < 0 OR error_codes IS NOT NULL THEN 1 ELSE 0 END) AS failed_sessions, "
+            + "IFNULL(AVG(CASE WHEN time_to_first_audio_ms >= 0 THEN time_to_first_audio_ms END), -1) AS avg_time_to_first_audio_ms, "
+            + "SUM(rebuffer_count) AS rebuffer_count, SUM(rebuffer_ms) AS rebuffer_ms, "
+            + "SUM(duration_ms) AS duration_ms, SUM(bytes_transferred) AS bytes_transferred, "
+            + "SUM(reconnects) AS reconnects, "
+            + "IFNULL(SUM(bytes_transferred) * 8000 / NULLIF(SUM(duration_ms + rebuffer_ms), 0), 0) AS avg_bitrate";
+
+    // 问题多的电台排在前面
+    @Query("SELECT station_uuid AS group_key, MAX(station_name) AS station_name, " + ROLLUP_COLUMNS
+            + " FROM playback_sessions WHERE start_time >= :since GROUP BY station_uuid"
+            + " ORDER BY failed_sessions * 1.0 / COUNT(*) DESC, SUM(rebuffer_ms) * 1.0 / MAX(SUM(duration_ms + rebuffer_ms), 1) DESC")
+    LiveData<List<PlaybackQualityRollup>> getStationRollups(long since);
+
+    @Query("SELECT network_type AS group_key, NULL AS station_name, " + ROLLUP_COLUMNS
+            + " FROM playback_sessions WHERE start_time >= :since GROUP BY network_type ORDER BY sessions DESC")
+    LiveData<List<PlaybackQualityRollup>> getNetworkRollups(long since);
+
+    // id 递增，保留最新的 count 条
+    @Query("DELETE FROM playback_sessions WHERE id <= (SELECT MAX(id) FROM playback_sessions) - :count")
+    void trimTo(int count);
+}
@@ -0,0 +1,124 @@
+package net.programmierecke.radiodroid2.diagnostics;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import net.programmierecke.radiodroid2.players.PlayState;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Collects the metrics of the current {@link PlaybackSession} from player events.
+ * <p>
+ * A session starts when a stream is requested. The first switch to {@link PlayState#Playing}
+ * ends the time to first audio, every later switch back to {@link PlayState#PrePlaying} is a
+ * rebuffer. Pausing, stopping or starting another stream finishes the session.
+ * <p>
+ * Transferred bytes are the running total of the player, the session stores the difference.
+ * All methods are synchronized, the player reports from its own threads.
+ */
+public class PlaybackSessionTracker {
+    // 太短的会话（例如快速切台）不说明问题，不记录
+    static final long MIN_SESSION_MS = 2000;
+
+    private PlaybackSession session;
+    private long startMs;
+    private long startBytes;
+    private long rebufferStartMs = -1;
+    private final Set<Integer> errorCodes = new LinkedHashSet<>();
+
+    public synchronized void start(@NonNull String stationUuid, @Nullable String stationName, @NonNull String networkType,
+                                   long wallTimeMs, long nowMs, long transferredBytes) {
+        session = new PlaybackSession();
+        session.stationUuid = stationUuid;
+        session.stationName = stationName;
+        session.networkType = networkType;
+        session.startTime = wallTimeMs;
+        startMs = nowMs;
+        startBytes = transferredBytes;
+        rebufferStartMs = -1;
+        errorCodes.clear();
+    }
+
+    public synchronized boolean isActiveFor(@NonNull String stationUuid) {
+        return session != null && session.stationUuid.equals(stationUuid);
+    }
+
+    public synchronized void onStateChanged(@NonNull PlayState state, long nowMs) {
+        if (session == null) {
+            return;
+        }
+
+        switch (state) {
+            case Playing:
+                if (session.timeToFirstAudioMs == PlaybackSession.NO_AUDIO) {
+                    session.timeToFirstAudioMs = nowMs - startMs;
+                } else if (rebufferStartMs >= 0) {
+                    session.rebufferMs += nowMs - rebufferStartMs;
+                }
+                rebufferStartMs = -1;
+                break;
+            case PrePlaying:
+                if (session.timeToFirstAudioMs != PlaybackSession.NO_AUDIO && rebufferStartMs < 0) {
+                    session.rebufferCount++;
+                    rebufferStartMs = nowMs;
+                }
+                break;
+            default:
+                break;
+        }
+    }
+
+    public synchronized void onReconnect() {
+        if (session != null) {
+            session.reconnects++;
+        }
+    }
+
+    public synchronized void onError(int errorCode) {
+        if (session != null) {
+            errorCodes.add(errorCode);
+        }
+    }
+
+    /**
+     * Ends the session and returns it, or null if there was none or it was too short to say
+     * anything.
+     */
+    @Nullable
+    public synchronized PlaybackSession finish(long nowMs, long transferredBytes) {
+        final PlaybackSession finished = session;
+        session = null;
+        if (finished == null) {
+            return null;
+        }
+
+        if (rebufferStartMs >= 0) {
+            finished.rebufferMs += nowMs - rebufferStartMs;
+        }
+
+        final long elapsedMs = nowMs - startMs;
+        // 时长只算出声以后，去掉首次缓冲和重新缓冲
+        if (finished.timeToFirstAudioMs != PlaybackSession.NO_AUDIO) {
+            finished.durationMs = Math.max(0, elapsedMs - finished.timeToFirstAudioMs - finished.rebufferMs);
+        }
+        finished.bytesTransferred = Math.max(0, transferredBytes - startBytes);
+
+        if (!errorCodes.isEmpty()) {
+            StringBuilder builder = new StringBuilder();
+            for (Integer errorCode : errorCodes) {
+                if (builder.length() > 0) {
+                    builder.append(',');
+                }
+                builder.append(errorCode);
+            }
+            finished.errorCodes = builder.toString();
+        }
+
+        if (elapsedMs < MIN_SESSION_MS && finished.errorCodes == null) {
+            return null;
+        }
+        return finished;
+    }
+}
@@ -14,7 +14,7 @@ import java.util.List;
 @Dao
 public interface TrackHistoryDao {
     @Insert
-    void insert(TrackHistoryEntry historyEntry);
+    long insert(TrackHistoryEntry historyEntry);
 
     @Update
     void update(TrackHistoryEntry historyEntry);
@@ -33,14 +33,19 @@ public interface TrackHistoryDao {
     @Query("UPDATE track_history SET end_time = :time WHERE end_time = 0")
     void setCurrentPlayingTrackEndTime(Date time);
 
+    // 只关闭仍在播放的条目，不覆盖启动时已补上的结束时间
+    @Query("UPDATE track_history SET end_time = :time WHERE uid = :id AND end_time = 0")
+    void setTrackEndTime(int id, Date time);
+
     @Query("UPDATE track_history SET end_time = start_time + :deltaSeconds WHERE end_time = 0")
     void setLastHistoryItemEndTimeRelative(int deltaSeconds);
 
     @Query("UPDATE track_history SET art_url = :artUrl WHERE uid = :id")
     void setTrackArtUrl(int id, @NonNull String artUrl);
 
-    @Query("DELETE FROM track_history WHERE uid < (SELECT MIN(uid) FROM (SELECT uid FROM track_history ORDER BY uid DESC LIMIT :limit))")
-    void truncateHistory(int limit);
+    // uid is increasing, entries up to a watermark are the oldest ones
+    @Query("DELETE FROM track_history WHERE uid <= :id")
+    void deleteUpTo(int id);
 
     @Query("DELETE FROM track_history")
     void deleteHistory();
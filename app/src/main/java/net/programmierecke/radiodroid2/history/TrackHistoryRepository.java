@@ -1,6 +1,7 @@
 package net.programmierecke.radiodroid2.history;
 
 import android.app.Application;
+import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -11,13 +12,29 @@ import androidx.paging.PagedList;
 import net.programmierecke.radiodroid2.database.RadioDroidDatabase;
 
 import java.util.Date;
-import java.util.concurrent.Executor;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import static net.programmierecke.radiodroid2.history.TrackHistoryEntry.MAX_HISTORY_ITEMS_IN_TABLE;
 
+/**
+ * Writes the track history on its own thread.
+ * <p>
+ * The last inserted entry is kept in memory, so a new track costs a single transaction: closing
+ * the previous entry, inserting the new one and dropping entries beyond
+ * {@link TrackHistoryEntry#MAX_HISTORY_ITEMS_IN_TABLE}. Album art URLs are collected for
+ * {@link #ART_URL_WRITE_DELAY_MS} or until the next track and written together.
+ */
 public class TrackHistoryRepository {
+    private static final String TAG = "TrackHistory";
+
     private final static int HISTORY_PAGE_SIZE = 15;
 
+    static final long ART_URL_WRITE_DELAY_MS = 2000;
+
     public interface GetItemCallback {
         /**
          * It will be ran in the DB thread
@@ -28,19 +45,21 @@ public class TrackHistoryRepository {
         void onItemFetched(@Nullable TrackHistoryEntry trackHistoryEntry, @NonNull TrackHistoryDao dao);
     }
 
+    private final RadioDroidDatabase db;
     private final TrackHistoryDao dao;
-    private final Executor queryExecutor;
     private final LiveData<PagedList<TrackHistoryEntry>> allHistoryPaged;
 
-    // For performance reasons we don't want to enforce history limit on every insert
-    private final static int TRUNCATE_FREQUENCY = 20;
-    private int insertsToTruncateLeft = 0;
+    // 以下字段只在写线程访问
+    private final ScheduledExecutorService writeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "TrackHistory"));
+    private TrackHistoryEntry lastEntry;
+    private boolean lastEntryLoaded = false;
+    private final Map<Integer, String> pendingArtUrls = new HashMap<>();
+    private boolean artUrlWriteScheduled = false;
 
     public TrackHistoryRepository(Application application) {
-        RadioDroidDatabase db = RadioDroidDatabase.getDatabase(application);
+        db = RadioDroidDatabase.getDatabase(application);
 
         dao = db.songHistoryDao();
-        queryExecutor = db.getQueryExecutor();
 
         allHistoryPaged = new LivePagedListBuilder<>(
                 dao.getAllHistoryPositional(),
@@ -55,40 +74,129 @@ public class TrackHistoryRepository {
         return allHistoryPaged;
     }
 
-    public void insert(final TrackHistoryEntry historyEntry) {
-        queryExecutor.execute(() -> {
-            dao.insert(historyEntry);
-            if (insertsToTruncateLeft == 0) {
-                insertsToTruncateLeft = TRUNCATE_FREQUENCY;
-                dao.truncateHistory(MAX_HISTORY_ITEMS_IN_TABLE);
-            } else {
-                insertsToTruncateLeft--;
+    /**
+     * Records that {@code historyEntry} started playing at its start time and closes the
+     * previous entry. If the previous entry has the same title, e.g. after a quick pause and
+     * resume, it is reopened instead.
+     */
+    public void startTrack(@NonNull final TrackHistoryEntry historyEntry) {
+        writeExecutor.execute(() -> {
+            try {
+                final TrackHistoryEntry previous = getLastEntry();
+
+                if (previous != null && historyEntry.title != null && historyEntry.title.equals(previous.title)) {
+                    if (previous.endTime.getTime() != 0) {
+                        previous.endTime = new Date(0);
+                        db.runInTransaction(() -> {
+                            writePendingArtUrls();
+                            dao.update(previous);
+                        });
+                    }
+                    return;
+                }
+
+                db.runInTransaction(() -> {
+                    writePendingArtUrls();
+                    if (previous != null && previous.endTime.getTime() == 0) {
+                        dao.setTrackEndTime(previous.uid, historyEntry.startTime);
+                    }
+                    historyEntry.uid = (int) dao.insert(historyEntry);
+                    dao.deleteUpTo(historyEntry.uid - MAX_HISTORY_ITEMS_IN_TABLE);
+                });
+                if (previous != null && previous.endTime.getTime() == 0) {
+                    previous.endTime = historyEntry.startTime;
+                }
+                lastEntry = historyEntry;
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to record track " + historyEntry.title, e);
+                // 内存中的状态可能与数据库不一致，下次重新读取
+                lastEntryLoaded = false;
             }
         });
     }
 
     public void setCurrentPlayingTrackEndTime(final Date time) {
-        queryExecutor.execute(() -> dao.setCurrentPlayingTrackEndTime(time));
+        writeExecutor.execute(() -> {
+            dao.setCurrentPlayingTrackEndTime(time);
+            lastEntryLoaded = false;
+        });
     }
 
     public void setLastHistoryItemEndTimeRelative(final int deltaSeconds) {
-        queryExecutor.execute(() -> dao.setLastHistoryItemEndTimeRelative(deltaSeconds));
+        writeExecutor.execute(() -> {
+            dao.setLastHistoryItemEndTimeRelative(deltaSeconds);
+            lastEntryLoaded = false;
+        });
     }
 
-    public void setTrackArtUrl(int id, @NonNull final String artUrl) {
-        queryExecutor.execute(() -> dao.setTrackArtUrl(id, artUrl));
+    public void setTrackArtUrl(final int id, @NonNull final String artUrl) {
+        writeExecutor.execute(() -> {
+            if (lastEntry != null && lastEntry.uid == id) {
+                lastEntry.artUrl = artUrl;
+            }
+
+            pendingArtUrls.put(id, artUrl);
+            if (!artUrlWriteScheduled) {
+                artUrlWriteScheduled = true;
+                writeExecutor.schedule(() -> {
+                    if (pendingArtUrls.isEmpty()) {
+                        // 已随新曲目一起写入
+                        return;
+                    }
+                    try {
+                        db.runInTransaction(this::writePendingArtUrls);
+                    } catch (Exception e) {
+                        Log.e(TAG, "Failed to write album art urls", e);
+                    }
+                }, ART_URL_WRITE_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        });
     }
 
     public void getLastInsertedHistoryItem(@NonNull final GetItemCallback callback) {
-        queryExecutor.execute(() -> {
-            TrackHistoryEntry item = dao.getLastInsertedHistoryItem();
-            callback.onItemFetched(item, dao);
+        writeExecutor.execute(() -> {
+            TrackHistoryEntry entry = getLastEntry();
+            callback.onItemFetched(entry != null ? copyOf(entry) : null, dao);
         });
     }
 
     public void deleteHistory() {
-        queryExecutor.execute(() -> {
+        writeExecutor.execute(() -> {
+            pendingArtUrls.clear();
             dao.deleteHistory();
+            lastEntry = null;
+            lastEntryLoaded = true;
         });
     }
+
+    private TrackHistoryEntry getLastEntry() {
+        if (!lastEntryLoaded) {
+            lastEntry = dao.getLastInsertedHistoryItem();
+            lastEntryLoaded = true;
+        }
+        return lastEntry;
+    }
+
+    private void writePendingArtUrls() {
+        for (Map.Entry<Integer, String> artUrl : pendingArtUrls.entrySet()) {
+            dao.setTrackArtUrl(artUrl.getKey(), artUrl.getValue());
+        }
+        pendingArtUrls.clear();
+        artUrlWriteScheduled = false;
+    }
+
+    // 回调在其他线程使用，不能交出仍会被修改的对象
+    private static TrackHistoryEntry copyOf(TrackHistoryEntry entry) {
+        TrackHistoryEntry copy = new TrackHistoryEntry();
+        copy.uid = entry.uid;
+        copy.stationUuid = entry.stationUuid;
+        copy.stationIconUrl = entry.stationIconUrl;
+        copy.track = entry.track;
+        copy.artist = entry.artist;
+        copy.title = entry.title;
+        copy.artUrl = entry.artUrl;
+        copy.startTime = entry.startTime;
+        copy.endTime = entry.endTime;
+        return copy;
+    }
 }
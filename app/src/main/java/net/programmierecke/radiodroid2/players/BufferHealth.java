@@ -0,0 +1,50 @@
+package net.programmierecke.radiodroid2.players;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Buffer state of the current stream, published by {@link RadioPlayer} to its
+ * {@link Listener}s while data arrives and when the player starts or stops buffering.
+ */
+public class BufferHealth {
+    public enum UnderrunRisk {
+        LOW,
+        // 缓冲在下载的同时仍在减少，网络跟不上播放
+        ELEVATED,
+        // 正在重新缓冲，或缓冲即将耗尽
+        HIGH
+    }
+
+    public interface Listener {
+        /**
+         * Called on the player thread.
+         */
+        void onBufferHealthChanged(@NonNull BufferHealth bufferHealth);
+    }
+
+    public final long bufferedMs;
+    /**
+     * Inbound bitrate of the stream in bits per second, -1 if not known yet.
+     */
+    public final long inboundBitrate;
+    public final boolean loading;
+    public final UnderrunRisk underrunRisk;
+
+    public BufferHealth(long bufferedMs, long inboundBitrate, boolean loading, @NonNull UnderrunRisk underrunRisk) {
+        this.bufferedMs = bufferedMs;
+        this.inboundBitrate = inboundBitrate;
+        this.loading = loading;
+        this.underrunRisk = underrunRisk;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "BufferHealth{" +
+                "bufferedMs=" + bufferedMs +
+                ", inboundBitrate=" + inboundBitrate +
+                ", loading=" + loading +
+                ", underrunRisk=" + underrunRisk +
+                '}';
+    }
+}
@@ -3,6 +3,7 @@ package net.programmierecke.radiodroid2.players;
 import android.content.Context;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import net.programmierecke.radiodroid2.station.live.ShoutcastInfo;
 import net.programmierecke.radiodroid2.station.live.StreamLiveInfo;
@@ -21,6 +22,16 @@ public interface PlayerWrapper extends Recordable {
         void onDataSourceShoutcastInfo(ShoutcastInfo shoutcastInfo, boolean isHls);
 
         void onDataSourceStreamLiveInfo(StreamLiveInfo liveInfo);
+
+        /**
+         * The stream was lost and the player connects again.
+         */
+        void onReconnecting();
+
+        /**
+         * Code of a playback failure, reported before {@link #onPlayerError(int)}.
+         */
+        void onPlaybackErrorCode(int errorCode);
     }
 
     void playRemote(@NonNull OkHttpClient httpClient, @NonNull String streamUrl, @NonNull Context context, boolean isAlarm);
@@ -35,6 +46,12 @@ public interface PlayerWrapper extends Recordable {
 
     long getBufferedMs();
 
+    /**
+     * Reports buffer health to {@code listener} on the player thread while playing. Players which
+     * cannot tell their buffer never call it. Null stops the reporting.
+     */
+    void setBufferHealthListener(@Nullable BufferHealth.Listener listener);
+
     int getAudioSessionId();
 
     long getTotalTransferredBytes();
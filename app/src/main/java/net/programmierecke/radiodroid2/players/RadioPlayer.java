@@ -7,15 +7,19 @@ import android.os.Build;
 import android.os.Handler;
 import android.os.HandlerThread;
 import android.os.Looper;
+import android.os.SystemClock;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
 import androidx.preference.PreferenceManager;
 
-import net.programmierecke.radiodroid2.BuildConfig;
 import net.programmierecke.radiodroid2.R;
 import net.programmierecke.radiodroid2.RadioDroidApp;
 import net.programmierecke.radiodroid2.Utils;
+import net.programmierecke.radiodroid2.diagnostics.PlaybackQualityRepository;
+import net.programmierecke.radiodroid2.diagnostics.PlaybackSession;
+import net.programmierecke.radiodroid2.diagnostics.PlaybackSessionTracker;
+import net.programmierecke.radiodroid2.service.ConnectivityChecker;
 import net.programmierecke.radiodroid2.station.DataRadioStation;
 import net.programmierecke.radiodroid2.station.live.ShoutcastInfo;
 import net.programmierecke.radiodroid2.station.live.StreamLiveInfo;
@@ -25,7 +29,9 @@ import net.programmierecke.radiodroid2.recording.Recordable;
 import net.programmierecke.radiodroid2.recording.RecordableListener;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.net.HttpURLConnection;
 import java.net.URL;
@@ -63,8 +69,6 @@ public class RadioPlayer implements PlayerWrapper.PlayListener, Recordable {
 
         void onPlayerError(final int messageId);
 
-        void onBufferedTimeUpdate(final long bufferedMs);
-
         // We are not interested in this events here so they will be forwarded to whoever hold RadioPlayer
         void foundShoutcastStream(ShoutcastInfo bitrate, boolean isHls);
 
@@ -92,15 +96,13 @@ public class RadioPlayer implements PlayerWrapper.PlayListener, Recordable {
 
     private PlayStationTask playStationTask;
 
-    private Runnable bufferCheckRunnable = new Runnable() {
-        @Override
-        public void run() {
-            final long bufferTimeMs = currentPlayer.getBufferedMs();
-
-            playerListener.onBufferedTimeUpdate(bufferTimeMs);
-
+    private final PlaybackSessionTracker sessionTracker = new PlaybackSessionTracker();
 
-            playerThreadHandler.postDelayed(this, 2000);
+    // 没有订阅者时不向播放器注册，播放器也就不采样
+    private final List<BufferHealth.Listener> bufferHealthListeners = new CopyOnWriteArrayList<>();
+    private final BufferHealth.Listener bufferHealthDispatcher = bufferHealth -> {
+        for (BufferHealth.Listener listener : bufferHealthListeners) {
+            listener.onBufferHealthChanged(bufferHealth);
         }
     };
 
@@ -130,6 +132,11 @@ public class RadioPlayer implements PlayerWrapper.PlayListener, Recordable {
     }
 
     public final void play(final String stationURL, final String streamName, final boolean isAlarm, final String stationUuid) {
+        // 经过 play(DataRadioStation) 时会话已开始，首次出声时间包含解析链接
+        if (!sessionTracker.isActiveFor(stationUuid)) {
+            startPlaybackSession(stationUuid, streamName);
+        }
+
         setState(PlayState.PrePlaying, -1);
 
         this.streamName = streamName;
@@ -158,6 +165,8 @@ public class RadioPlayer implements PlayerWrapper.PlayListener, Recordable {
         // 取消旧的链接解析任务：避免旧任务回调污染新播放状态（清空新任务引用、对新电台报错暂停）
         cancelStationLinkRetrieval();
 
+        startPlaybackSession(station.StationUuid, station.Name);
+
         setState(PlayState.PrePlaying, -1);
 
         playStationTask = new PlayStationTask(station, mainContext,
@@ -191,10 +200,6 @@ public class RadioPlayer implements PlayerWrapper.PlayListener, Recordable {
             final int audioSessionId = getAudioSessionId();
             currentPlayer.pause();
 
-            if (BuildConfig.DEBUG) {
-                playerThreadHandler.removeCallbacks(bufferCheckRunnable);
-            }
-
             setState(PlayState.Paused, audioSessionId);
         });
     }
@@ -211,10 +216,6 @@ public class RadioPlayer implements PlayerWrapper.PlayListener, Recordable {
 
             currentPlayer.stop();
 
-            if (BuildConfig.DEBUG) {
-                playerThreadHandler.removeCallbacks(bufferCheckRunnable);
-            }
-
             setState(PlayState.Idle, audioSessionId);
         });
     }
@@ -379,7 +380,25 @@ public class RadioPlayer implements PlayerWrapper.PlayListener, Recordable {
         return playState;
     }
 
+    private void startPlaybackSession(String stationUuid, String stationName) {
+        finishPlaybackSession();
+        sessionTracker.start(stationUuid != null ? stationUuid : "", stationName,
+                ConnectivityChecker.getCurrentConnectionType(mainContext).name(),
+                System.currentTimeMillis(), SystemClock.elapsedRealtime(), currentPlayer.getTotalTransferredBytes());
+    }
+
+    private void finishPlaybackSession() {
+        final PlaybackSession session = sessionTracker.finish(SystemClock.elapsedRealtime(), currentPlayer.getTotalTransferredBytes());
+        if (session != null) {
+            PlaybackQualityRepository.getInstance(mainContext).record(session);
+        }
+    }
+
     private void setState(PlayState state, int audioSessionId) {
+        sessionTracker.onStateChanged(state, SystemClock.elapsedRealtime());
+        if (state == PlayState.Paused || state == PlayState.Idle) {
+            finishPlaybackSession();
+        }
 
         if (playState == state) {
             if (state == PlayState.Playing) {
@@ -388,15 +407,6 @@ public class RadioPlayer implements PlayerWrapper.PlayListener, Recordable {
             return;
         }
 
-        if (BuildConfig.DEBUG) {
-            if (state == PlayState.Playing) {
-                playerThreadHandler.removeCallbacks(bufferCheckRunnable);
-                playerThreadHandler.post(bufferCheckRunnable);
-            } else {
-                playerThreadHandler.removeCallbacks(bufferCheckRunnable);
-            }
-        }
-
         playState = state;
         playerListener.onStateChanged(state, audioSessionId);
     }
@@ -409,8 +419,27 @@ public class RadioPlayer implements PlayerWrapper.PlayListener, Recordable {
         return currentPlayer.getCurrentPlaybackTransferredBytes();
     }
 
-    public long getBufferedSeconds() {
-        return currentPlayer.getBufferedMs() / 1000;
+    /**
+     * Subscribes {@code listener} to the {@link BufferHealth} of the stream. It is called on the
+     * player thread while data arrives, at most every second, and when buffering starts or stops.
+     */
+    public void addBufferHealthListener(@NonNull BufferHealth.Listener listener) {
+        bufferHealthListeners.add(listener);
+        if (bufferHealthListeners.size() == 1) {
+            playerThreadHandler.post(this::updateBufferHealthSubscription);
+        }
+    }
+
+    public void removeBufferHealthListener(@NonNull BufferHealth.Listener listener) {
+        bufferHealthListeners.remove(listener);
+        if (bufferHealthListeners.isEmpty()) {
+            playerThreadHandler.post(this::updateBufferHealthSubscription);
+        }
+    }
+
+    // 在播放线程执行，以执行时的订阅者为准
+    private void updateBufferHealthSubscription() {
+        currentPlayer.setBufferHealthListener(bufferHealthListeners.isEmpty() ? null : bufferHealthDispatcher);
     }
 
     public boolean isLocal() {
@@ -433,6 +462,16 @@ public class RadioPlayer implements PlayerWrapper.PlayListener, Recordable {
         playerThreadHandler.post(() -> playerListener.onPlayerError(messageId));
     }
 
+    @Override
+    public void onReconnecting() {
+        sessionTracker.onReconnect();
+    }
+
+    @Override
+    public void onPlaybackErrorCode(int errorCode) {
+        sessionTracker.onError(errorCode);
+    }
+
     @Override
     public void onDataSourceShoutcastInfo(ShoutcastInfo shoutcastInfo, boolean isHls) {
         playerListener.foundShoutcastStream(shoutcastInfo, isHls);
@@ -0,0 +1,56 @@
+package net.programmierecke.radiodroid2.players.exoplayer;
+
+import net.programmierecke.radiodroid2.players.BufferHealth;
+
+/**
+ * Turns samples of the buffered duration and the transferred bytes into {@link BufferHealth}.
+ * <p>
+ * The inbound bitrate is smoothed over samples, since a stream arrives in bursts.
+ */
+class BufferHealthTracker {
+    // 低于此值随时可能中断播放
+    static final long LOW_BUFFER_MS = 2000;
+    // 间隔太短时字节数主要反映突发，不用于计算码率
+    static final long MIN_BITRATE_INTERVAL_MS = 500;
+    private static final double BITRATE_SMOOTHING = 0.3;
+
+    private long lastTimeMs = -1;
+    private long lastTransferredBytes;
+    private long lastBufferedMs;
+    private double bitrate = -1;
+
+    void reset() {
+        lastTimeMs = -1;
+        lastTransferredBytes = 0;
+        lastBufferedMs = 0;
+        bitrate = -1;
+    }
+
+    /**
+     * @param minBufferMs buffer the load control tries to keep, below it the player loads
+     */
+    BufferHealth update(long nowMs, long bufferedMs, long transferredBytes, boolean rebuffering, boolean loading, long minBufferMs) {
+        if (lastTimeMs < 0 || transferredBytes < lastTransferredBytes) {
+            // 第一次采样或切换了流
+            lastTimeMs = nowMs;
+            lastTransferredBytes = transferredBytes;
+        } else if (nowMs - lastTimeMs >= MIN_BITRATE_INTERVAL_MS) {
+            final double sample = (transferredBytes - lastTransferredBytes) * 8000.0 / (nowMs - lastTimeMs);
+            bitrate = bitrate < 0 ? sample : bitrate + BITRATE_SMOOTHING * (sample - bitrate);
+            lastTimeMs = nowMs;
+            lastTransferredBytes = transferredBytes;
+        }
+
+        final BufferHealth.UnderrunRisk risk;
+        if (rebuffering || bufferedMs < LOW_BUFFER_MS) {
+            risk = BufferHealth.UnderrunRisk.HIGH;
+        } else if (loading && bufferedMs < minBufferMs && bufferedMs < lastBufferedMs) {
+            risk = BufferHealth.UnderrunRisk.ELEVATED;
+        } else {
+            risk = BufferHealth.UnderrunRisk.LOW;
+        }
+        lastBufferedMs = bufferedMs;
+
+        return new BufferHealth(bufferedMs, bitrate < 0 ? -1 : Math.round(bitrate), loading, risk);
+    }
+}
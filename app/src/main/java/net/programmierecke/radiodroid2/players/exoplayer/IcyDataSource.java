@@ -7,11 +7,13 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import com.google.android.exoplayer2.C;
 import com.google.android.exoplayer2.upstream.DataSpec;
 import com.google.android.exoplayer2.upstream.DefaultHttpDataSource;
 import com.google.android.exoplayer2.upstream.HttpDataSource;
 import com.google.android.exoplayer2.upstream.TransferListener;
 
+import net.programmierecke.radiodroid2.station.live.MetadataDecoder;
 import net.programmierecke.radiodroid2.station.live.ShoutcastInfo;
 import net.programmierecke.radiodroid2.station.live.StreamLiveInfo;
 
@@ -20,6 +22,7 @@ import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
+import okhttp3.Call;
 import okhttp3.HttpUrl;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
@@ -78,6 +81,9 @@ public class IcyDataSource implements HttpDataSource {
     private final OkHttpClient httpClient;
     private final TransferListener transferListener;
     private final IcyDataSourceListener dataSourceListener;
+    private final String stationUuid;
+    @Nullable
+    private final StreamHandover handover;
 
     private Request request;
 
@@ -94,20 +100,30 @@ public class IcyDataSource implements HttpDataSource {
     public IcyDataSource(@NonNull OkHttpClient httpClient,
                          @NonNull TransferListener listener,
                          @NonNull IcyDataSourceListener dataSourceListener) {
+        this(httpClient, listener, dataSourceListener, "");
+    }
+
+    public IcyDataSource(@NonNull OkHttpClient httpClient,
+                         @NonNull TransferListener listener,
+                         @NonNull IcyDataSourceListener dataSourceListener,
+                         @NonNull String stationUuid) {
+        this(httpClient, listener, dataSourceListener, stationUuid, null);
+    }
+
+    IcyDataSource(@NonNull OkHttpClient httpClient,
+                  @NonNull TransferListener listener,
+                  @NonNull IcyDataSourceListener dataSourceListener,
+                  @NonNull String stationUuid,
+                  @Nullable StreamHandover handover) {
         this.httpClient = httpClient;
         this.transferListener = listener;
         this.dataSourceListener = dataSourceListener;
+        this.stationUuid = stationUuid;
+        this.handover = handover;
     }
 
-    @Override
-    public long open(DataSpec dataSpec) throws HttpDataSourceException {
-        close();
-
-        this.dataSpec = dataSpec;
-
-        final boolean allowGzip = (dataSpec.flags & DataSpec.FLAG_ALLOW_GZIP) != 0;
-
-        HttpUrl url = HttpUrl.parse(dataSpec.uri.toString());
+    static Request buildRequest(@NonNull String streamUrl, boolean allowGzip) {
+        HttpUrl url = HttpUrl.parse(streamUrl);
         Request.Builder builder = new Request.Builder().url(url)
                 .addHeader("Icy-MetaData", "1");
 
@@ -115,20 +131,55 @@ public class IcyDataSource implements HttpDataSource {
             builder.addHeader("Accept-Encoding", "identity");
         }
 
-        request = builder.build();
+        return builder.build();
+    }
+
+    @Override
+    public long open(DataSpec dataSpec) throws HttpDataSourceException {
+        final boolean allowGzip = (dataSpec.flags & DataSpec.FLAG_ALLOW_GZIP) != 0;
+        return open(dataSpec, buildRequest(dataSpec.uri.toString(), allowGzip));
+    }
+
+    /**
+     * Opens the stream with a request built by {@link #buildRequest}, the uri of
+     * {@code dataSpec} is not looked at anymore.
+     */
+    long open(DataSpec dataSpec, @NonNull Request request) throws HttpDataSourceException {
+        close();
+
+        this.dataSpec = dataSpec;
+        this.request = request;
+
+        if (handover != null) {
+            // 切换网络时预先建立的连接；若还未就绪，这次重连已经在新网络上，预建连接不再需要
+            final Response handoverResponse = handover.take();
+            if (handoverResponse != null) {
+                return connected(handoverResponse);
+            }
+            handover.cancel();
+        }
 
         return connect();
     }
 
     private long connect() throws HttpDataSourceException {
+        final Call call = httpClient.newCall(request);
+        if (handover != null) {
+            handover.setStreamCall(call);
+        }
+
         Response response;
         try {
-            response = httpClient.newCall(request).execute();
+            response = call.execute();
         } catch (IOException e) {
-            throw new HttpDataSourceException("Unable to connect to " + dataSpec.uri.toString(), e,
+            throw new HttpDataSourceException("Unable to connect to " + request.url(), e,
                     dataSpec, HttpDataSourceException.TYPE_OPEN);
         }
 
+        return connected(response);
+    }
+
+    private long connected(Response response) throws HttpDataSourceException {
         final int responseCode = response.code();
 
         if (!response.isSuccessful()) {
@@ -143,7 +194,7 @@ public class IcyDataSource implements HttpDataSource {
 
         final MediaType contentType = responseBody.contentType();
 
-        final String type = contentType == null ? getMimeType(dataSpec.uri.toString(), "audio/mpeg") : contentType.toString().toLowerCase();
+        final String type = contentType == null ? getMimeType(request.url().toString(), "audio/mpeg") : contentType.toString().toLowerCase();
 
         if (dataSourceListener != null) {
             dataSourceListener.onDataSourceContentType(type);
@@ -192,11 +243,20 @@ public class IcyDataSource implements HttpDataSource {
 
     @Override
     public int read(byte[] buffer, int offset, int readLength) throws HttpDataSourceException {
+        if (handover != null && handover.isReady()) {
+            // 新网络上的连接已就绪，结束这个连接，播放器接着播放下一个媒体项
+            return C.RESULT_END_OF_INPUT;
+        }
+
         try {
             final int bytesTransferred = readInternal(buffer, offset, readLength);
             transferListener.onBytesTransferred(this, dataSpec, true, bytesTransferred);
             return bytesTransferred;
         } catch (HttpDataSourceException readError) {
+            if (handover != null && handover.isReady()) {
+                // 切换就绪时旧连接被取消，阻塞中的读取因此失败，这不是断线
+                return C.RESULT_END_OF_INPUT;
+            }
             dataSourceListener.onDataSourceConnectionLost();
             throw readError;
         }
@@ -279,24 +339,7 @@ public class IcyDataSource implements HttpDataSource {
             return;
         }
 
-        String metadataString = null;
-        String[] encodings = {"ISO-8859-1", "UTF-8", "GBK", "GB2312", "Big5"};
-
-        for (String encoding : encodings) {
-            try {
-                metadataString = new String(metadataBytes, 0, actualLength, encoding);
-                if (metadataString.contains("StreamTitle") && metadataString.length() > 10) {
-                    break;
-                }
-            } catch (Exception ignored) {
-            }
-        }
-
-        if (metadataString == null) {
-            return;
-        }
-
-        Map<String, String> metadataMap = parseMetadataString(metadataString);
+        Map<String, String> metadataMap = MetadataDecoder.getInstance().decodeMetadataBlock(stationUuid, metadataBytes, 0, actualLength);
 
         if (metadataMap.containsKey("StreamTitle")) {
             String streamTitle = metadataMap.get("StreamTitle");
@@ -306,40 +349,6 @@ public class IcyDataSource implements HttpDataSource {
             }
         }
     }
-    
-    private Map<String, String> parseMetadataString(String metadataString) {
-        Map<String, String> metadataMap = new java.util.HashMap<>();
-
-        if (metadataString == null || metadataString.isEmpty()) {
-            return metadataMap;
-        }
-
-        String[] pairs = metadataString.split(";");
-
-        for (String pair : pairs) {
-            if (pair.isEmpty()) {
-                continue;
-            }
-
-            int equalsIndex = pair.indexOf('=');
-            if (equalsIndex == -1) {
-                continue;
-            }
-
-            String key = pair.substring(0, equalsIndex).trim();
-            String value = pair.substring(equalsIndex + 1).trim();
-
-            if (value.length() >= 2 &&
-                ((value.charAt(0) == '\'' && value.charAt(value.length() - 1) == '\'') ||
-                 (value.charAt(0) == '"' && value.charAt(value.length() - 1) == '"'))) {
-                value = value.substring(1, value.length() - 1);
-            }
-
-            metadataMap.put(key, value);
-        }
-
-        return metadataMap;
-    }
 
     private int readInternal(byte[] buffer, int offset, int readLength) throws HttpDataSourceException {
         if (responseBody == null) {
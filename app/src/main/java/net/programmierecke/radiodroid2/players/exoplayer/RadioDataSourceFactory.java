@@ -3,6 +3,7 @@ package net.programmierecke.radiodroid2.players.exoplayer;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.TransferListener;
@@ -18,20 +19,36 @@ public class RadioDataSourceFactory implements DataSource.Factory {
     private OkHttpClient httpClient;
     private final TransferListener transferListener;
     private IcyDataSource.IcyDataSourceListener dataSourceListener;
+    private String stationUuid;
     private long retryTimeout;
     private long retryDelay;
+    @Nullable
+    private final StreamHandover handover;
     private int createCount;
 
     public RadioDataSourceFactory(@NonNull OkHttpClient httpClient,
                                   @NonNull TransferListener transferListener,
                                   @NonNull IcyDataSource.IcyDataSourceListener dataSourceListener,
+                                  @NonNull String stationUuid,
                                   long retryTimeout,
                                   long retryDelay) {
+        this(httpClient, transferListener, dataSourceListener, stationUuid, retryTimeout, retryDelay, null);
+    }
+
+    RadioDataSourceFactory(@NonNull OkHttpClient httpClient,
+                           @NonNull TransferListener transferListener,
+                           @NonNull IcyDataSource.IcyDataSourceListener dataSourceListener,
+                           @NonNull String stationUuid,
+                           long retryTimeout,
+                           long retryDelay,
+                           @Nullable StreamHandover handover) {
         this.httpClient = httpClient;
         this.transferListener = transferListener;
         this.dataSourceListener = dataSourceListener;
+        this.stationUuid = stationUuid;
         this.retryTimeout = retryTimeout;
         this.retryDelay = retryDelay;
+        this.handover = handover;
     }
 
     @Override
@@ -40,6 +57,6 @@ public class RadioDataSourceFactory implements DataSource.Factory {
         if (BuildConfig.DEBUG) {
             Log.d(TAG, "createDataSource() called, count=" + createCount);
         }
-        return new IcyDataSource(httpClient, transferListener, dataSourceListener);
+        return new IcyDataSource(httpClient, transferListener, dataSourceListener, stationUuid, handover);
     }
 }
@@ -0,0 +1,173 @@
+package net.programmierecke.radiodroid2.players.exoplayer;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+
+import static okhttp3.internal.Util.closeQuietly;
+
+/**
+ * Opens a second connection to the stream while the current one keeps playing, so switching
+ * between Wi-Fi and mobile data does not drop the buffer.
+ * <p>
+ * Once the new connection has answered, the old connection is cancelled, so a read stuck on the
+ * old network returns, and the {@link IcyDataSource} reading it ends its input. The player then finishes the buffered audio and continues with the next
+ * queued media item, whose data source takes over the prepared response. The extractor drops
+ * the incomplete last frame of the old connection, so the streams are joined at a frame boundary.
+ * <p>
+ * A live stream cannot be resumed at a byte position, the new connection starts wherever the
+ * server starts sending.
+ */
+class StreamHandover {
+    private static final String TAG = "StreamHandover";
+
+    interface Listener {
+        /**
+         * Called from any thread when a started handover does not happen, so the queued media
+         * item is not needed anymore.
+         */
+        void onHandoverAborted();
+    }
+
+    private final OkHttpClient httpClient;
+    private final ConnectionPool connectionPool;
+    private final Listener listener;
+
+    private Call pendingCall;
+    private Call readyCall;
+    private Response readyResponse;
+    // 正在播放的连接，切换就绪时取消它
+    private Call streamCall;
+
+    /**
+     * @param connectionPool pool used only for handover connections, it can be shared by the
+     *                       handovers of one player
+     */
+    StreamHandover(@NonNull OkHttpClient httpClient, @NonNull ConnectionPool connectionPool, @NonNull Listener listener) {
+        // 使用单独的连接池，新连接才会走当前的默认网络，而不是复用旧网络上的空闲连接
+        this.httpClient = httpClient.newBuilder().connectionPool(connectionPool).build();
+        this.connectionPool = connectionPool;
+        this.listener = listener;
+    }
+
+    synchronized boolean isActive() {
+        return pendingCall != null || readyResponse != null;
+    }
+
+    synchronized boolean isReady() {
+        return readyResponse != null;
+    }
+
+    /**
+     * Sets the call of the connection that is playing now, it is cancelled once a handover is
+     * ready.
+     */
+    synchronized void setStreamCall(@Nullable Call call) {
+        streamCall = call;
+    }
+
+    void start(@NonNull String streamUrl) {
+        final Call call;
+        synchronized (this) {
+            discard();
+            // 池中的空闲连接可能来自上一次切换前的网络
+            connectionPool.evictAll();
+            call = httpClient.newCall(IcyDataSource.buildRequest(streamUrl, false));
+            pendingCall = call;
+        }
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(@NonNull Call call, @NonNull IOException e) {
+                synchronized (StreamHandover.this) {
+                    if (pendingCall != call) {
+                        return;
+                    }
+                    pendingCall = null;
+                }
+                Log.w(TAG, "Handover connection failed, staying on the current connection", e);
+                listener.onHandoverAborted();
+            }
+
+            @Override
+            public void onResponse(@NonNull Call call, @NonNull Response response) {
+                final Call staleCall;
+                synchronized (StreamHandover.this) {
+                    if (pendingCall != call) {
+                        closeQuietly(response);
+                        return;
+                    }
+                    pendingCall = null;
+                    if (response.isSuccessful()) {
+                        readyCall = call;
+                        readyResponse = response;
+                        staleCall = streamCall;
+                        streamCall = null;
+                    } else {
+                        staleCall = null;
+                    }
+                }
+                if (response.isSuccessful()) {
+                    // 旧网络上的读取可能一直阻塞着，取消后读取立即失败，数据源随之结束输入
+                    if (staleCall != null) {
+                        staleCall.cancel();
+                    }
+                    return;
+                }
+                Log.w(TAG, "Handover connection answered " + response.code() + ", staying on the current connection");
+                closeQuietly(response);
+                listener.onHandoverAborted();
+            }
+        });
+    }
+
+    /**
+     * Returns the prepared response and hands its ownership to the caller, or null if there is
+     * none yet.
+     */
+    @Nullable
+    synchronized Response take() {
+        final Response response = readyResponse;
+        if (response != null) {
+            streamCall = readyCall;
+        }
+        readyCall = null;
+        readyResponse = null;
+        return response;
+    }
+
+    /**
+     * Drops a handover in progress, e.g. because the old connection broke and was reopened anyway.
+     */
+    void cancel() {
+        final boolean wasActive;
+        synchronized (this) {
+            wasActive = isActive();
+            discard();
+        }
+        if (wasActive) {
+            listener.onHandoverAborted();
+        }
+    }
+
+    private void discard() {
+        if (pendingCall != null) {
+            pendingCall.cancel();
+            pendingCall = null;
+        }
+        if (readyResponse != null) {
+            closeQuietly(readyResponse);
+            readyResponse = null;
+        }
+        readyCall = null;
+    }
+}
@@ -7,10 +7,12 @@ import android.os.Handler;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import net.programmierecke.radiodroid2.BuildConfig;
 import net.programmierecke.radiodroid2.R;
 import net.programmierecke.radiodroid2.Utils;
+import net.programmierecke.radiodroid2.players.BufferHealth;
 import net.programmierecke.radiodroid2.players.PlayState;
 import net.programmierecke.radiodroid2.station.live.ShoutcastInfo;
 import net.programmierecke.radiodroid2.station.live.StreamLiveInfo;
@@ -73,7 +75,7 @@ public class MediaPlayerWrapper implements PlayerWrapper, StreamProxyListener {
                 stopProxy();
             }
 
-            proxy = new StreamProxy(httpClient, streamUrl, MediaPlayerWrapper.this);
+            proxy = new StreamProxy(httpClient, streamUrl, stationUuid, MediaPlayerWrapper.this);
         } else {
             stopProxy();
             onStreamCreated(streamUrl);
@@ -179,6 +181,11 @@ public class MediaPlayerWrapper implements PlayerWrapper, StreamProxyListener {
         return -1;
     }
 
+    @Override
+    public void setBufferHealthListener(@Nullable BufferHealth.Listener listener) {
+        // MediaPlayer 不提供缓冲信息
+    }
+
     @Override
     public int getAudioSessionId() {
         if (mediaPlayer != null) {
@@ -277,9 +284,9 @@ public class MediaPlayerWrapper implements PlayerWrapper, StreamProxyListener {
     }
 
     @Override
-    public void onBytesRead(byte[] buffer, int offset, int length) {
-        totalTransferredBytes += length;
-        currentPlaybackTransferredBytes += length;
+    public void onBytesRead(long byteCount) {
+        totalTransferredBytes += byteCount;
+        currentPlaybackTransferredBytes += byteCount;
     }
 
     private void stopProxy() {
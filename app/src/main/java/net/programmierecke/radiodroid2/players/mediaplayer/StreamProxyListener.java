@@ -8,5 +8,5 @@ interface StreamProxyListener {
     void onFoundLiveStreamInfo(StreamLiveInfo liveInfo);
     void onStreamCreated(String proxyConnection);
     void onStreamStopped();
-    void onBytesRead(byte[] buffer, int offset, int length);
+    void onBytesRead(long byteCount);
 }
@@ -1,6 +1,16 @@
 package net.programmierecke.radiodroid2.recording;
 
+import net.programmierecke.radiodroid2.station.live.StreamLiveInfo;
+
 public interface RecordableListener {
     void onBytesAvailable(byte[] buffer, int offset, int length);
+
+    /**
+     * Called between {@link #onBytesAvailable} calls exactly at the stream position where the
+     * metadata arrived, so all bytes before belong to the previous title.
+     */
+    default void onStreamLiveInfo(StreamLiveInfo liveInfo) {
+    }
+
     void onRecordingEnded();
 }
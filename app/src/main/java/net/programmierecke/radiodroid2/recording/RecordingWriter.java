@@ -0,0 +1,279 @@
+package net.programmierecke.radiodroid2.recording;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import net.programmierecke.radiodroid2.BuildConfig;
+import net.programmierecke.radiodroid2.utils.ByteRingBuffer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Writes a recording on its own thread.
+ * <p>
+ * The audio data thread only copies bytes into a ring buffer, so storage hiccups never stall
+ * the network read. The writer collects the bytes into large blocks and writes them
+ * sequentially through the file's {@link FileChannel}. If the storage cannot keep up and the
+ * ring runs full, bytes are dropped and counted in {@link RunningRecordingInfo}.
+ * <p>
+ * Track changes are queued together with the stream position at which they happened. When the
+ * writer reaches that position it can switch to a new file, and it notes the position in a
+ * sidecar index, so the recording can be split and navigated per track without decoding it.
+ */
+class RecordingWriter extends Thread {
+    private static final String TAG = "RecordingWriter";
+
+    static final String INDEX_EXTENSION = "idx";
+
+    // About a minute of a 128 kbit/s stream
+    static final int RING_SIZE = 1024 * 1024;
+    private static final int WRITE_BLOCK_SIZE = 64 * 1024;
+    // Write what was collected at least this often, even if the block is not full
+    private static final long MAX_WRITE_DELAY_MS = 1000;
+
+    interface ErrorListener {
+        void onWriteError(IOException e);
+    }
+
+    private static class TrackMark {
+        final long position;
+        final long timestamp;
+        final String title;
+        final String fileName;
+
+        TrackMark(long position, String title, String fileName) {
+            this.position = position;
+            this.timestamp = System.currentTimeMillis();
+            this.title = title;
+            this.fileName = fileName;
+        }
+    }
+
+    private final RunningRecordingInfo info;
+    private final File directory;
+    private final File indexFile;
+    private final ErrorListener errorListener;
+    private final ByteRingBuffer ring = new ByteRingBuffer(RING_SIZE);
+    private final ConcurrentLinkedQueue<TrackMark> trackMarks = new ConcurrentLinkedQueue<>();
+
+    // Only used by the data thread
+    private long offeredBytes = 0;
+    // Only used by the writer thread
+    private long consumedBytes = 0;
+    private FileOutputStream outputStream;
+    private FileChannel channel;
+    private Writer indexWriter;
+
+    private volatile boolean failed = false;
+
+    // Guarded by this
+    private boolean done = false;
+    private Runnable onFinished;
+
+    /**
+     * @param indexFile sidecar index for the track marks, or null if track changes are ignored
+     */
+    RecordingWriter(@NonNull RunningRecordingInfo info, @NonNull File directory, @Nullable File indexFile,
+                    @NonNull ErrorListener errorListener) {
+        super("RecordingWriter");
+
+        this.info = info;
+        this.directory = directory;
+        this.indexFile = indexFile;
+        this.outputStream = info.getOutputStream();
+        this.errorListener = errorListener;
+
+        info.setBufferCapacity(ring.capacity());
+    }
+
+    /**
+     * Called from the audio data thread, never blocks.
+     */
+    void offer(byte[] buffer, int offset, int length) {
+        if (failed) {
+            return;
+        }
+
+        offeredBytes += ring.write(buffer, offset, length);
+
+        final int buffered = ring.available();
+        info.setBufferedBytes(buffered);
+        if (buffered > info.getMaxBufferedBytes()) {
+            info.setMaxBufferedBytes(buffered);
+        }
+        info.setDroppedBytes(ring.getDroppedBytes());
+    }
+
+    /**
+     * Called from the audio data thread between {@link #offer} calls when the title changes.
+     *
+     * @param fileName file to continue the recording in, or null to keep the current file
+     */
+    void markTrack(@NonNull String title, @Nullable String fileName) {
+        if (failed || indexFile == null) {
+            return;
+        }
+
+        trackMarks.add(new TrackMark(offeredBytes, title, fileName));
+    }
+
+    /**
+     * Lets the writer write everything which is still buffered and close the file. Returns right
+     * away, {@code onFinished} runs on the writer thread once the file is closed.
+     */
+    void finish(@NonNull Runnable onFinished) {
+        final boolean runNow;
+        synchronized (this) {
+            runNow = done;
+            this.onFinished = onFinished;
+        }
+        ring.close();
+
+        // 写线程已因错误退出
+        if (runNow) {
+            onFinished.run();
+        }
+    }
+
+    @Override
+    public void run() {
+        final ByteBuffer block = ByteBuffer.allocate(WRITE_BLOCK_SIZE);
+        final byte[] blockArray = block.array();
+
+        long lastWriteTime = System.currentTimeMillis();
+
+        try {
+            channel = outputStream.getChannel();
+
+            while (true) {
+                final long waitMs = Math.max(1, MAX_WRITE_DELAY_MS - (System.currentTimeMillis() - lastWriteTime));
+                final int available = ring.await(waitMs);
+                if (available < 0) {
+                    break;
+                }
+
+                // Marks are checked after waiting for data, a mark queued before the available
+                // bytes is visible by now. Never read past the next mark, it has to be applied first.
+                int maxRead = block.remaining();
+                TrackMark mark;
+                while ((mark = trackMarks.peek()) != null && mark.position <= consumedBytes + block.position()) {
+                    trackMarks.poll();
+                    writeBlock(block);
+                    lastWriteTime = System.currentTimeMillis();
+                    applyTrackMark(mark);
+                }
+                if (mark != null) {
+                    maxRead = (int) Math.min(maxRead, mark.position - consumedBytes - block.position());
+                }
+
+                if (available > 0) {
+                    block.position(block.position() + ring.read(blockArray, block.position(), maxRead));
+                    info.setBufferedBytes(ring.available());
+                }
+
+                final boolean due = System.currentTimeMillis() - lastWriteTime >= MAX_WRITE_DELAY_MS;
+                if (!block.hasRemaining() || due) {
+                    writeBlock(block);
+                    lastWriteTime = System.currentTimeMillis();
+                }
+            }
+
+            writeBlock(block);
+            channel.force(false);
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing recording bytes: " + e.getMessage());
+            failed = true;
+            errorListener.onWriteError(e);
+        } catch (InterruptedException e) {
+            Log.e(TAG, "Recording writer interrupted", e);
+        } finally {
+            closeQuietly(outputStream);
+            closeQuietly(indexWriter);
+        }
+
+        if (BuildConfig.DEBUG) {
+            Log.d(TAG, "Recording finished, written " + info.getBytesWritten() + " bytes, dropped "
+                    + info.getDroppedBytes() + " bytes, max buffered " + info.getMaxBufferedBytes() + " bytes");
+        }
+
+        final Runnable finished;
+        synchronized (this) {
+            done = true;
+            finished = onFinished;
+        }
+        if (finished != null) {
+            finished.run();
+        }
+    }
+
+    private void writeBlock(ByteBuffer block) throws IOException {
+        block.flip();
+        consumedBytes += block.remaining();
+        while (block.hasRemaining()) {
+            final int written = channel.write(block);
+            info.setBytesWritten(info.getBytesWritten() + written);
+            info.setFileBytesWritten(info.getFileBytesWritten() + written);
+        }
+        block.clear();
+    }
+
+    private void applyTrackMark(TrackMark mark) throws IOException {
+        if (mark.fileName != null) {
+            channel.force(false);
+            outputStream.close();
+
+            final File file = uniqueFile(mark.fileName);
+            outputStream = new FileOutputStream(file);
+            channel = outputStream.getChannel();
+
+            info.setOutputStream(outputStream);
+            info.setFileName(file.getName());
+            info.setFileBytesWritten(0);
+        }
+
+        if (indexWriter == null) {
+            indexWriter = new OutputStreamWriter(new FileOutputStream(indexFile, true), StandardCharsets.UTF_8);
+        }
+
+        // stream offset, offset in file, timestamp, file, title
+        indexWriter.write(mark.position + "\t" + info.getFileBytesWritten() + "\t" + mark.timestamp + "\t"
+                + info.getFileName() + "\t" + mark.title.replaceAll("[\\t\\r\\n]", " ") + "\n");
+        indexWriter.flush();
+    }
+
+    private File uniqueFile(String fileName) {
+        File file = new File(directory, fileName);
+
+        final int dotIndex = fileName.lastIndexOf('.');
+        final String name = dotIndex > 0 ? fileName.substring(0, dotIndex) : fileName;
+        final String extension = dotIndex > 0 ? fileName.substring(dotIndex) : "";
+        for (int i = 2; file.exists(); i++) {
+            file = new File(directory, name + "_" + i + extension);
+        }
+
+        return file;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            Log.e(TAG, "Error closing recording: " + e.getMessage());
+        }
+    }
+}
@@ -347,7 +347,7 @@ public class RecordingsAdapter extends RecyclerView.Adapter<RecordingsAdapter.Re
         for (RunningRecordingInfo ri : runningRecordings.values()) {
             if (ri.getFileName() != null && ri.getFileName().equals(recording.Name)) {
                 isRecordingInProgress = true;
-                runningBytesWritten = ri.getBytesWritten();
+                runningBytesWritten = ri.getFileBytesWritten();
                 break;
             }
         }
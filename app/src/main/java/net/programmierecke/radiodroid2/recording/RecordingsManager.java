@@ -3,19 +3,22 @@ package net.programmierecke.radiodroid2.recording;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.os.Environment;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.preference.PreferenceManager;
 
 import net.programmierecke.radiodroid2.BuildConfig;
 import net.programmierecke.radiodroid2.R;
 import net.programmierecke.radiodroid2.Utils;
+import net.programmierecke.radiodroid2.station.live.StreamLiveInfo;
 
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.io.IOException;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
@@ -45,32 +48,67 @@ public class RecordingsManager {
 
     private Observable savedRecordingsObservable = new RecordingsObservable();
 
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
     private class RunningRecordableListener implements RecordableListener {
         private RunningRecordingInfo runningRecordingInfo;
+        private RecordingWriter writer;
         private boolean ended;
-        private long lastFlushBytes;
 
-        private RunningRecordableListener(@NonNull RunningRecordingInfo runningRecordingInfo) {
+        // Only set if the recording is split into one file per track
+        private final String fileNameFormat;
+        private final Map<String, String> formattingArgs;
+        private final String extension;
+        private String lastTitle;
+
+        private RunningRecordableListener(@NonNull RunningRecordingInfo runningRecordingInfo, @Nullable String fileNameFormat,
+                                          @Nullable Map<String, String> formattingArgs) {
             this.runningRecordingInfo = runningRecordingInfo;
+            this.fileNameFormat = fileNameFormat;
+            this.formattingArgs = formattingArgs;
+            this.extension = runningRecordingInfo.getRecordable().getExtension();
+
+            final File indexFile = fileNameFormat == null ? null
+                    : new File(getRecordDir(), runningRecordingInfo.getTitle() + "." + RecordingWriter.INDEX_EXTENSION);
+
+            // Writes happen on the writer thread, the data source thread only hands over bytes.
+            // On write errors the recording is stopped from the main thread, stopping it from the
+            // writer thread could deadlock with a recordable which is just ending the recording.
+            this.writer = new RecordingWriter(runningRecordingInfo, new File(getRecordDir()), indexFile,
+                    e -> mainHandler.post(() -> runningRecordingInfo.getRecordable().stopRecording()));
+            this.writer.start();
         }
 
         @Override
         public void onBytesAvailable(byte[] buffer, int offset, int length) {
-            try {
-                runningRecordingInfo.getOutputStream().write(buffer, offset, length);
-                runningRecordingInfo.setBytesWritten(runningRecordingInfo.getBytesWritten() + length);
-
-                if (runningRecordingInfo.getBytesWritten() - lastFlushBytes >= 65536) {
-                    runningRecordingInfo.getOutputStream().flush();
-                    lastFlushBytes = runningRecordingInfo.getBytesWritten();
-                    if (BuildConfig.DEBUG) {
-                        Log.d(TAG, "Recording flushed, total bytes: " + runningRecordingInfo.getBytesWritten());
-                    }
-                }
-            } catch (IOException e) {
-                Log.e(TAG, "Error writing recording bytes: " + e.getMessage());
-                runningRecordingInfo.getRecordable().stopRecording();
+            writer.offer(buffer, offset, length);
+        }
+
+        @Override
+        public void onStreamLiveInfo(StreamLiveInfo liveInfo) {
+            if (fileNameFormat == null || liveInfo.getTitle().isEmpty() || liveInfo.getTitle().equals(lastTitle)) {
+                return;
             }
+
+            if (lastTitle == null) {
+                // The recording started in the middle of this track
+                lastTitle = liveInfo.getTitle();
+                writer.markTrack(lastTitle, null);
+                return;
+            }
+
+            lastTitle = liveInfo.getTitle();
+
+            final Map<String, String> trackArgs = new HashMap<>(formattingArgs);
+            trackArgs.put("artist", liveInfo.hasArtistAndTrack() ? Utils.sanitizeName(liveInfo.getArtist()) : "-");
+            trackArgs.put("track", liveInfo.hasArtistAndTrack() ? Utils.sanitizeName(liveInfo.getTrack()) : Utils.sanitizeName(lastTitle));
+            // Runs on the data source thread, the shared formatters are not thread safe
+            final Date currentTime = Calendar.getInstance().getTime();
+            trackArgs.put("date", new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(currentTime));
+            trackArgs.put("time", new SimpleDateFormat("HH-mm", Locale.US).format(currentTime));
+
+            final String trackTitle = Utils.formatStringWithNamedArgs(fileNameFormat, trackArgs);
+            writer.markTrack(lastTitle, String.format("%s.%s", trackTitle, extension));
         }
 
         @Override
@@ -81,18 +119,15 @@ public class RecordingsManager {
 
             ended = true;
 
-            try {
-                runningRecordingInfo.getOutputStream().flush();
-                runningRecordingInfo.getOutputStream().getFD().sync();
-            } catch (IOException e) {
-                Log.e(TAG, "Error flushing recording: " + e.getMessage());
-            }
+            // 不等待写线程：慢速存储上写完剩余数据可能需要很久，文件关闭后再刷新列表
+            writer.finish(() -> {
+                if (runningRecordingInfo.getDroppedBytes() > 0) {
+                    Log.w(TAG, "Storage too slow, dropped " + runningRecordingInfo.getDroppedBytes() + " bytes of recording "
+                            + runningRecordingInfo.getFileName());
+                }
 
-            try {
-                runningRecordingInfo.getOutputStream().close();
-            } catch (IOException e) {
-                Log.e(TAG, "Error closing recording: " + e.getMessage());
-            }
+                updateRecordingsListInBackground();
+            });
 
             RecordingsManager.this.stopRecording(runningRecordingInfo.getRecordable());
         }
@@ -151,7 +186,11 @@ public class RecordingsManager {
                 return;
             }
 
-            recordable.startRecording(new RunningRecordableListener(info));
+            if (prefs.getBoolean("record_split_tracks", false)) {
+                recordable.startRecording(new RunningRecordableListener(info, fileNameFormat, formattingArgs));
+            } else {
+                recordable.startRecording(new RunningRecordableListener(info, null, null));
+            }
 
             runningRecordings.put(recordable, info);
             Log.d(TAG, "Recording started successfully: " + info.getFileName());
@@ -196,28 +235,50 @@ public class RecordingsManager {
     }
 
     public void updateRecordingsList() {
+        applyRecordingsList(listRecordings());
+    }
+
+    /**
+     * Lists the recordings on the calling thread and updates the list on the main thread.
+     */
+    public void updateRecordingsListInBackground() {
+        final ArrayList<DataRecording> recordings = listRecordings();
+        new Handler(Looper.getMainLooper()).post(() -> applyRecordingsList(recordings));
+    }
+
+    private ArrayList<DataRecording> listRecordings() {
         String path = getRecordDir();
         if (BuildConfig.DEBUG) {
             Log.d(TAG, "Updating recordings from " + path);
         }
 
-        savedRecordings.clear();
+        ArrayList<DataRecording> recordings = new ArrayList<>();
 
         File folder = new File(path);
         File[] files = folder.listFiles();
         if (files != null) {
             for (File f : files) {
+                if (f.getName().endsWith("." + RecordingWriter.INDEX_EXTENSION)) {
+                    continue;
+                }
+
                 DataRecording dr = new DataRecording();
                 dr.Name = f.getName();
                 dr.Time = new Date(f.lastModified());
-                savedRecordings.add(dr);
+                recordings.add(dr);
             }
 
-            Collections.sort(savedRecordings, (o1, o2) -> Long.compare(o2.Time.getTime(), o1.Time.getTime()));
+            Collections.sort(recordings, (o1, o2) -> Long.compare(o2.Time.getTime(), o1.Time.getTime()));
         } else {
             Log.e(TAG, "Could not enumerate files in recordings directory");
         }
 
+        return recordings;
+    }
+
+    private void applyRecordingsList(ArrayList<DataRecording> recordings) {
+        savedRecordings = recordings;
+
         savedRecordingsObservable.notifyObservers();
     }
 }
@@ -5,9 +5,14 @@ import java.io.FileOutputStream;
 public class RunningRecordingInfo {
     private Recordable recordable;
     private String title;
-    private String fileName;
-    private FileOutputStream outputStream;
+    private volatile String fileName;
+    private volatile FileOutputStream outputStream;
     private volatile long bytesWritten;
+    private volatile long fileBytesWritten;
+    private volatile long droppedBytes;
+    private volatile int bufferedBytes;
+    private volatile int maxBufferedBytes;
+    private volatile int bufferCapacity;
 
     public Recordable getRecordable() {
         return recordable;
@@ -48,4 +53,58 @@ public class RunningRecordingInfo {
     protected void setBytesWritten(long bytesWritten) {
         this.bytesWritten = bytesWritten;
     }
+
+    /**
+     * Bytes written to the current file, which differs from {@link #getBytesWritten()} when the
+     * recording is split into one file per track.
+     */
+    public long getFileBytesWritten() {
+        return fileBytesWritten;
+    }
+
+    protected void setFileBytesWritten(long fileBytesWritten) {
+        this.fileBytesWritten = fileBytesWritten;
+    }
+
+    /**
+     * Bytes which were lost because the storage could not keep up with the stream.
+     */
+    public long getDroppedBytes() {
+        return droppedBytes;
+    }
+
+    protected void setDroppedBytes(long droppedBytes) {
+        this.droppedBytes = droppedBytes;
+    }
+
+    /**
+     * Bytes received from the stream which are not written to the file yet.
+     */
+    public int getBufferedBytes() {
+        return bufferedBytes;
+    }
+
+    protected void setBufferedBytes(int bufferedBytes) {
+        this.bufferedBytes = bufferedBytes;
+    }
+
+    /**
+     * Highest value of {@link #getBufferedBytes()} so far; close to {@link #getBufferCapacity()}
+     * means the storage is too slow for the stream.
+     */
+    public int getMaxBufferedBytes() {
+        return maxBufferedBytes;
+    }
+
+    protected void setMaxBufferedBytes(int maxBufferedBytes) {
+        this.maxBufferedBytes = maxBufferedBytes;
+    }
+
+    public int getBufferCapacity() {
+        return bufferCapacity;
+    }
+
+    protected void setBufferCapacity(int bufferCapacity) {
+        this.bufferCapacity = bufferCapacity;
+    }
 }
@@ -393,16 +393,19 @@ public class AudioDeviceMonitor {
         Log.d(TAG, (isBluetooth ? "Bluetooth" : "Wired") + " connect: resuming playback");
         RadioDroidApp radioDroidApp = (RadioDroidApp) context.getApplicationContext();
         HistoryManager historyManager = radioDroidApp.getHistoryManager();
-        DataRadioStation lastStation = historyManager.getFirst();
-
-        if (lastStation != null) {
-            Log.d(TAG, "  resuming station: " + lastStation.Name);
-            if (!radioDroidApp.getMpdClient().isMpdEnabled()) {
-                Utils.play(radioDroidApp, lastStation);
+        // 冷启动时历史还在后台读取
+        historyManager.runWhenLoaded(() -> {
+            DataRadioStation lastStation = historyManager.getFirst();
+
+            if (lastStation != null) {
+                Log.d(TAG, "  resuming station: " + lastStation.Name);
+                if (!radioDroidApp.getMpdClient().isMpdEnabled()) {
+                    Utils.play(radioDroidApp, lastStation);
+                }
+            } else {
+                Log.w(TAG, "  no last station found in history, cannot resume");
             }
-        } else {
-            Log.w(TAG, "  no last station found in history, cannot resume");
-        }
+        });
     }
 
     private void handleWiredHeadsetDisconnect() {
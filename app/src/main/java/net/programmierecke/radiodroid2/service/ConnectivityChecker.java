@@ -11,6 +11,7 @@ import android.net.NetworkInfo;
 import android.net.NetworkRequest;
 import android.os.Build;
 
+import androidx.annotation.Nullable;
 import androidx.core.net.ConnectivityManagerCompat;
 
 public class ConnectivityChecker {
@@ -46,6 +47,33 @@ public class ConnectivityChecker {
         return ConnectivityManagerCompat.isActiveNetworkMetered(connectivityManager) ? ConnectionType.METERED : ConnectionType.NOT_METERED;
     }
 
+    /**
+     * Identifies the network connections currently go through, so a switch from one network to
+     * another is noticed even if both are metered or both are not, e.g. from Wi-Fi to a
+     * metered hotspot or between two Wi-Fi networks.
+     *
+     * @return null if there is no connected network
+     */
+    @Nullable
+    public static String getActiveNetworkId(Context context) {
+        ConnectivityManager connectivityManager = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        if (connectivityManager == null) {
+            return null;
+        }
+        NetworkInfo activeNetworkInfo = connectivityManager.getActiveNetworkInfo();
+        if (activeNetworkInfo == null || !activeNetworkInfo.isConnected()) {
+            return null;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            Network activeNetwork = connectivityManager.getActiveNetwork();
+            if (activeNetwork != null) {
+                return activeNetwork.toString();
+            }
+        }
+        // 旧系统没有 Network 对象，用类型加上 SSID/APN 区分网络
+        return activeNetworkInfo.getType() + ":" + activeNetworkInfo.getExtraInfo();
+    }
+
     public void startListening(Context context, ConnectivityCallback connectivityCallback) {
         this.connectivityCallback = connectivityCallback;
 
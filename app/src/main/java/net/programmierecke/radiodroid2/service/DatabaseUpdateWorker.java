@@ -248,6 +248,9 @@ public class DatabaseUpdateWorker extends Worker implements RadioStationReposito
                     repository.syncAllStationsFromNetworkInternal(getApplicationContext(), this, false);
                 }
                 Log.d(TAG, "Database update completed successfully");
+
+                // 数据库更新后预热收藏、历史和热门电台的图标
+                IconPrewarmWorker.schedule(getApplicationContext());
                 
                 // 清除更新状态
                 prefs.edit()
@@ -156,13 +156,16 @@ public class HeadsetConnectionReceiver extends BroadcastReceiver {
         Log.d(TAG, "Headset connect: resuming playback");
         RadioDroidApp radioDroidApp = (RadioDroidApp) context.getApplicationContext();
         HistoryManager historyManager = radioDroidApp.getHistoryManager();
-        DataRadioStation lastStation = historyManager.getFirst();
-
-        if (lastStation != null) {
-            if (!radioDroidApp.getMpdClient().isMpdEnabled()) {
-                Utils.play(radioDroidApp, lastStation);
+        // 冷启动时历史还在后台读取
+        historyManager.runWhenLoaded(() -> {
+            DataRadioStation lastStation = historyManager.getFirst();
+
+            if (lastStation != null) {
+                if (!radioDroidApp.getMpdClient().isMpdEnabled()) {
+                    Utils.play(radioDroidApp, lastStation);
+                }
             }
-        }
+        });
     }
 
     private void markHeadsetDisconnected(Context context) {
@@ -0,0 +1,198 @@
+package net.programmierecke.radiodroid2.service;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.squareup.picasso.NetworkPolicy;
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.Target;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Schedules network loads of station icons.
+ * <p>
+ * Binding a list row used to start a Picasso request right away, so a fast fling fired hundreds
+ * of requests for rows which were offscreen long before they completed. Here requests wait in a
+ * queue and only a few run at a time, at most {@link #MAX_IN_FLIGHT_PER_HOST} per host since many
+ * stations share a favicon host. The queue is served newest first, because the latest binds are
+ * the rows which are visible now; background upgrades only run when no visible row waits. A
+ * request is dropped before it starts if nobody wants it anymore (its view was recycled for
+ * another station), and requests for the same URL share one load.
+ * <p>
+ * Must only be used from the main thread, Picasso delivers its results there.
+ */
+class IconFetchScheduler {
+    private static final String TAG = "IconFetchScheduler";
+
+    static final int PRIORITY_VISIBLE = 0;
+    static final int PRIORITY_BACKGROUND = 1;
+
+    private static final int MAX_IN_FLIGHT = 6;
+    private static final int MAX_IN_FLIGHT_PER_HOST = 2;
+
+    interface Listener {
+        void onLoaded(@NonNull Bitmap bitmap);
+
+        void onFailed();
+
+        /**
+         * @return false if the result is not needed anymore, e.g. the view shows another station
+         */
+        default boolean isWanted() {
+            return true;
+        }
+    }
+
+    private class Fetch implements Target {
+        final String url;
+        final String host;
+        final int maxPxSize;
+        final List<Listener> listeners = new ArrayList<>();
+        int priority;
+        long sequence;
+        boolean running;
+
+        Fetch(String url, int maxPxSize) {
+            this.url = url;
+            this.host = hostOf(url);
+            this.maxPxSize = maxPxSize;
+        }
+
+        boolean isWanted() {
+            for (Listener listener : listeners) {
+                if (listener.isWanted()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public void onBitmapLoaded(Bitmap bitmap, Picasso.LoadedFrom from) {
+            finish(this);
+            for (Listener listener : listeners) {
+                listener.onLoaded(bitmap);
+            }
+        }
+
+        @Override
+        public void onBitmapFailed(Exception e, Drawable errorDrawable) {
+            finish(this);
+            for (Listener listener : listeners) {
+                listener.onFailed();
+            }
+        }
+
+        @Override
+        public void onPrepareLoad(Drawable placeHolderDrawable) {
+        }
+    }
+
+    // Queued and running loads by URL. Running ones are also Picasso's (weakly held) targets.
+    private final Map<String, Fetch> fetches = new HashMap<>();
+    private final Map<String, Integer> runningPerHost = new HashMap<>();
+    private int running = 0;
+    private long sequence = 0;
+
+    /**
+     * Queues a load, or joins the load of the same URL if there is one.
+     */
+    void fetch(@NonNull String url, int maxPxSize, int priority, @NonNull Listener listener) {
+        Fetch fetch = fetches.get(url);
+        if (fetch == null) {
+            fetch = new Fetch(url, maxPxSize);
+            fetch.priority = priority;
+            fetches.put(url, fetch);
+        } else {
+            fetch.priority = Math.min(fetch.priority, priority);
+        }
+        fetch.sequence = ++sequence;
+        fetch.listeners.add(listener);
+
+        dispatch();
+    }
+
+    private void dispatch() {
+        while (running < MAX_IN_FLIGHT) {
+            Fetch next = null;
+            Iterator<Fetch> iterator = fetches.values().iterator();
+            while (iterator.hasNext()) {
+                Fetch fetch = iterator.next();
+                if (fetch.running) {
+                    continue;
+                }
+                if (!fetch.isWanted()) {
+                    iterator.remove();
+                    continue;
+                }
+                if (runningOn(fetch.host) >= MAX_IN_FLIGHT_PER_HOST) {
+                    continue;
+                }
+                if (next == null || fetch.priority < next.priority
+                        || (fetch.priority == next.priority && fetch.sequence > next.sequence)) {
+                    next = fetch;
+                }
+            }
+
+            if (next == null) {
+                return;
+            }
+            start(next);
+        }
+    }
+
+    private void start(Fetch fetch) {
+        fetch.running = true;
+        running++;
+        runningPerHost.put(fetch.host, runningOn(fetch.host) + 1);
+
+        Log.d(TAG, "start: " + fetch.url + " (" + running + " running, " + fetches.size() + " known)");
+
+        Picasso.get()
+                .load(fetch.url)
+                .resize(fetch.maxPxSize, 0)
+                .onlyScaleDown()
+                .networkPolicy(NetworkPolicy.NO_CACHE)
+                .into(fetch);
+    }
+
+    private void finish(Fetch fetch) {
+        if (fetches.remove(fetch.url) != fetch || !fetch.running) {
+            return;
+        }
+        running--;
+        int onHost = runningOn(fetch.host) - 1;
+        if (onHost > 0) {
+            runningPerHost.put(fetch.host, onHost);
+        } else {
+            runningPerHost.remove(fetch.host);
+        }
+
+        dispatch();
+    }
+
+    private int runningOn(String host) {
+        Integer count = runningPerHost.get(host);
+        return count != null ? count : 0;
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = new URI(url).getHost();
+            if (host != null) {
+                return host;
+            }
+        } catch (Exception ignored) {
+        }
+        return url;
+    }
+}
@@ -0,0 +1,83 @@
+package net.programmierecke.radiodroid2.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * Detects truncated image files from their container structure.
+ * <p>
+ * A file cut off while it was written or copied misses its end marker: the {@code IEND} chunk of
+ * a PNG, the {@code EOI} marker of a JPEG, or for a WebP part of the length its RIFF header
+ * announces. Only the first and last few bytes are read, so unlike decoding the image this is
+ * cheap enough to run whenever a cached icon is validated.
+ */
+class IconIntegrity {
+    static final int PROBE_SIZE = 12;
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    // Zero length, type IEND, CRC of the type
+    private static final byte[] PNG_IEND = {0, 0, 0, 0, 'I', 'E', 'N', 'D', (byte) 0xAE, 0x42, 0x60, (byte) 0x82};
+
+    private IconIntegrity() {
+    }
+
+    /**
+     * @return true if the file is a PNG, JPEG or WebP which ends where its structure says it does
+     */
+    static boolean isComplete(File file) {
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            long length = input.length();
+            if (length < 2 * PROBE_SIZE) {
+                return false;
+            }
+
+            byte[] head = new byte[PROBE_SIZE];
+            byte[] tail = new byte[PROBE_SIZE];
+            input.readFully(head);
+            input.seek(length - PROBE_SIZE);
+            input.readFully(tail);
+            return isComplete(head, tail, length);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param head   the first {@link #PROBE_SIZE} bytes of the file
+     * @param tail   the last {@link #PROBE_SIZE} bytes of the file
+     * @param length the length of the file
+     */
+    static boolean isComplete(byte[] head, byte[] tail, long length) {
+        if (startsWith(head, PNG_SIGNATURE)) {
+            return startsWith(tail, PNG_IEND);
+        }
+
+        if ((head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8) {
+            // Some encoders pad after EOI
+            int end = tail.length;
+            while (end > 2 && tail[end - 1] == 0) {
+                end--;
+            }
+            return (tail[end - 2] & 0xFF) == 0xFF && (tail[end - 1] & 0xFF) == 0xD9;
+        }
+
+        if (head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            long riffSize = (head[4] & 0xFFL) | (head[5] & 0xFFL) << 8 | (head[6] & 0xFFL) << 16 | (head[7] & 0xFFL) << 24;
+            return length >= riffSize + 8;
+        }
+
+        // Cached icons are only ever written as PNG or WebP
+        return false;
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
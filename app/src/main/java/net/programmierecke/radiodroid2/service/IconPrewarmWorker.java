@@ -0,0 +1,251 @@
+package net.programmierecke.radiodroid2.service;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.work.Constraints;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import net.programmierecke.radiodroid2.FavouriteManager;
+import net.programmierecke.radiodroid2.HistoryManager;
+import net.programmierecke.radiodroid2.RadioDroidApp;
+import net.programmierecke.radiodroid2.database.RadioStation;
+import net.programmierecke.radiodroid2.database.RadioStationRepository;
+import net.programmierecke.radiodroid2.database.SavedStationRepository;
+import net.programmierecke.radiodroid2.station.DataRadioStation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+
+/**
+ * Downloads the icons of the stations the user is most likely to see next into
+ * {@link StationIconCache}: favourites, history and the most clicked stations of the database.
+ * <p>
+ * Without it these icons are loaded on first display, so the first look at the favourites or
+ * the Android Auto browse tree shows placeholders while a burst of requests goes out. The job
+ * only runs on an unmetered network while charging, loads only the stations' own icon URL and
+ * stops after {@link #BYTE_BUDGET} downloaded bytes.
+ */
+public class IconPrewarmWorker extends Worker {
+    private static final String TAG = "IconPrewarmWorker";
+    private static final String WORK_NAME = "station_icon_prewarm";
+
+    private static final int TOP_STATIONS = 100;
+    private static final long BYTE_BUDGET = 8L * 1024 * 1024;
+    // Larger files are not station logos
+    private static final long MAX_ICON_BYTES = 512 * 1024;
+    private static final int DECODE_MAX_PX = 512;
+    // Favourites are often changed in a row, a run waits a bit so it sees all of them
+    private static final long START_DELAY_SECONDS = 60;
+
+    /**
+     * Schedules a run unless one is waiting or running. Called after a database update and whenever
+     * the favourites change, which includes loading them at every start of the app. A waiting
+     * run reads the lists when it starts, so it covers later changes as well.
+     */
+    public static void schedule(Context context) {
+        Constraints constraints = new Constraints.Builder()
+                .setRequiredNetworkType(NetworkType.UNMETERED)
+                .setRequiresCharging(true)
+                .build();
+
+        OneTimeWorkRequest request = new OneTimeWorkRequest.Builder(IconPrewarmWorker.class)
+                .setConstraints(constraints)
+                .setInitialDelay(START_DELAY_SECONDS, TimeUnit.SECONDS)
+                .build();
+
+        WorkManager.getInstance(context).enqueueUniqueWork(WORK_NAME, ExistingWorkPolicy.KEEP, request);
+    }
+
+    // 服务器明确答复的状态码，区别于超时、断网等暂时性错误
+    private static class HttpStatusException extends IOException {
+        final int code;
+
+        HttpStatusException(int code) {
+            super("HTTP " + code);
+            this.code = code;
+        }
+    }
+
+    private static class Candidate {
+        final String stationUuid;
+        final String iconUrl;
+        final boolean favourite;
+
+        Candidate(String stationUuid, String iconUrl, boolean favourite) {
+            this.stationUuid = stationUuid;
+            this.iconUrl = iconUrl;
+            this.favourite = favourite;
+        }
+    }
+
+    public IconPrewarmWorker(@NonNull Context context, @NonNull WorkerParameters params) {
+        super(context, params);
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        final RadioDroidApp app = (RadioDroidApp) getApplicationContext();
+        final StationIconCache cache = StationIconCache.getInstance(app);
+        cache.awaitIndexLoaded();
+
+        final List<Candidate> candidates;
+        try {
+            candidates = collectCandidates(app);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Result.success();
+        }
+
+        final OkHttpClient httpClient = app.getHttpClient();
+        long bytesLoaded = 0;
+        int loaded = 0;
+        for (Candidate candidate : candidates) {
+            if (isStopped() || bytesLoaded >= BYTE_BUDGET) {
+                break;
+            }
+            if (cache.hasIcon(candidate.stationUuid) || cache.isUrlKnownDead(candidate.iconUrl)) {
+                continue;
+            }
+
+            try {
+                byte[] data = download(httpClient, candidate.iconUrl);
+                if (data == null) {
+                    continue;
+                }
+                bytesLoaded += data.length;
+
+                Bitmap bitmap = decode(data);
+                if (bitmap == null) {
+                    markUrlDead(cache, candidate.iconUrl);
+                    continue;
+                }
+                cache.saveIcon(candidate.stationUuid, bitmap, candidate.favourite);
+                cache.clearFallbackMark(candidate.stationUuid);
+                cache.recordIconUrlRetryTime(candidate.stationUuid);
+                loaded++;
+            } catch (HttpStatusException e) {
+                Log.d(TAG, "Failed to load " + candidate.iconUrl + ": " + e.getMessage());
+                // 5xx 多是暂时的，只有 4xx 说明 URL 失效
+                if (e.code >= 400 && e.code < 500) {
+                    markUrlDead(cache, candidate.iconUrl);
+                }
+            } catch (IllegalArgumentException e) {
+                // Malformed URL
+                Log.d(TAG, "Failed to load " + candidate.iconUrl + ": " + e.getMessage());
+                markUrlDead(cache, candidate.iconUrl);
+            } catch (IOException e) {
+                // 超时、断网或任务被 WorkManager 停止，下次再试
+                Log.d(TAG, "Failed to load " + candidate.iconUrl + ": " + e.getMessage());
+            }
+        }
+
+        Log.d(TAG, "Prewarmed " + loaded + " icons, " + bytesLoaded + " bytes");
+        return Result.success();
+    }
+
+    private void markUrlDead(StationIconCache cache, String url) {
+        if (!isStopped()) {
+            cache.markUrlDeadIfOnline(url);
+        }
+    }
+
+    /**
+     * Favourites first, then history, then the most clicked stations, without duplicates and
+     * stations without icon URL.
+     */
+    private List<Candidate> collectCandidates(RadioDroidApp app) throws InterruptedException {
+        final Map<String, Candidate> candidates = new LinkedHashMap<>();
+
+        // 冷启动的进程里收藏和历史还没有加载完，直接从数据库读取，读取前会先写入排队中的修改
+        final SavedStationRepository savedStations = SavedStationRepository.getInstance(app);
+        for (DataRadioStation station : loadSavedList(savedStations, FavouriteManager.SAVE_ID)) {
+            addCandidate(candidates, station.StationUuid, station.IconUrl, true);
+        }
+        for (DataRadioStation station : loadSavedList(savedStations, HistoryManager.SAVE_ID)) {
+            addCandidate(candidates, station.StationUuid, station.IconUrl, false);
+        }
+
+        for (RadioStation station : RadioStationRepository.getInstance(app).getTopClickStationsSync(TOP_STATIONS)) {
+            addCandidate(candidates, station.stationUuid, station.favicon, false);
+        }
+
+        return new ArrayList<>(candidates.values());
+    }
+
+    private static List<DataRadioStation> loadSavedList(SavedStationRepository repository, String listId)
+            throws InterruptedException {
+        final BlockingQueue<List<DataRadioStation>> result = new ArrayBlockingQueue<>(1);
+        repository.load(listId, result::add);
+        return result.take();
+    }
+
+    private static void addCandidate(Map<String, Candidate> candidates, String stationUuid, String iconUrl,
+                                     boolean favourite) {
+        if (stationUuid == null || stationUuid.isEmpty() || iconUrl == null || iconUrl.trim().isEmpty()
+                || candidates.containsKey(stationUuid)) {
+            return;
+        }
+        candidates.put(stationUuid, new Candidate(stationUuid, iconUrl, favourite));
+    }
+
+    /**
+     * @return the body, null if it is too large to be an icon
+     */
+    private static byte[] download(OkHttpClient httpClient, String url) throws IOException {
+        Request request = new Request.Builder().url(url).build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new HttpStatusException(response.code());
+            }
+            if (body.contentLength() > MAX_ICON_BYTES) {
+                return null;
+            }
+
+            BufferedSource source = body.source();
+            if (source.request(MAX_ICON_BYTES + 1)) {
+                // Length was not announced and turned out too large
+                return null;
+            }
+            return source.readByteArray();
+        }
+    }
+
+    private static Bitmap decode(byte[] data) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeByteArray(data, 0, data.length, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        options.inSampleSize = 1;
+        while (Math.min(options.outWidth, options.outHeight) / (options.inSampleSize * 2) >= DECODE_MAX_PX) {
+            options.inSampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        return BitmapFactory.decodeByteArray(data, 0, data.length, options);
+    }
+}
@@ -113,14 +113,18 @@ public class MediaSessionCallback extends MediaSessionCompat.Callback {
     @Override
     public void onPlayFromSearch(String query, Bundle extras) {
         // remove voice search residues like " with radiodroid"
-        query = query.replaceAll("(?i) \\w+ radio\\s*droid.*", "");
-        
-        DataRadioStation station = ((RadioDroidApp) context.getApplicationContext()).getFavouriteManager().getBestNameMatch(query);
-        if (station == null)
-           station = ((RadioDroidApp) context.getApplicationContext()).getHistoryManager().getBestNameMatch(query);
-        if (station == null)
-            station = ((RadioDroidApp) context.getApplicationContext()).getFallbackStationsManager().getBestNameMatch(query);
-        GetRealLinkAndPlayTask playTask = new GetRealLinkAndPlayTask(context, station, playerService);
-        playTask.executeOnExecutor(android.os.AsyncTask.THREAD_POOL_EXECUTOR);
+        final String stationQuery = query.replaceAll("(?i) \\w+ radio\\s*droid.*", "");
+
+        final RadioDroidApp radioDroidApp = (RadioDroidApp) context.getApplicationContext();
+        // 冷启动时收藏和历史还在后台读取，读完再查找
+        radioDroidApp.getFavouriteManager().runWhenLoaded(() -> radioDroidApp.getHistoryManager().runWhenLoaded(() -> {
+            DataRadioStation station = radioDroidApp.getFavouriteManager().getBestNameMatch(stationQuery);
+            if (station == null)
+               station = radioDroidApp.getHistoryManager().getBestNameMatch(stationQuery);
+            if (station == null)
+                station = radioDroidApp.getFallbackStationsManager().getBestNameMatch(stationQuery);
+            GetRealLinkAndPlayTask playTask = new GetRealLinkAndPlayTask(context, station, playerService);
+            playTask.executeOnExecutor(android.os.AsyncTask.THREAD_POOL_EXECUTOR);
+        }));
     }
 }
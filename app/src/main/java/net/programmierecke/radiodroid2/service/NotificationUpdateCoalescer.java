@@ -0,0 +1,183 @@
+package net.programmierecke.radiodroid2.service;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import net.programmierecke.radiodroid2.players.PlayState;
+
+import java.util.Objects;
+
+/**
+ * Decides when the media notification and the media session have to be rebuilt.
+ * <p>
+ * Every request carries the complete {@link State} to show. Requests equal to what is already
+ * shown are dropped. Changes of the play state, the station or the error are shown right away;
+ * changes of only the track or the artwork are shown at most every
+ * {@link #MIN_UPDATE_INTERVAL_MS}, and only the latest of them, so stations which send metadata
+ * in bursts do not rebuild the notification for every update.
+ * <p>
+ * Must be used on a single thread, the one the {@link Scheduler} runs on.
+ */
+class NotificationUpdateCoalescer {
+    static final long MIN_UPDATE_INTERVAL_MS = 1000;
+
+    interface Target {
+        /**
+         * Shows {@code state}. {@code previous} is the state shown before, or null if nothing
+         * is shown.
+         */
+        void show(@NonNull State state, @Nullable State previous);
+    }
+
+    interface Scheduler {
+        long now();
+
+        void schedule(@NonNull Runnable runnable, long delayMs);
+
+        void cancel(@NonNull Runnable runnable);
+    }
+
+    static class State {
+        final PlayState playState;
+        final String stationUuid;
+        final String stationName;
+        final String title;
+        final String artist;
+        final String track;
+        final int errorMessageId;
+        // 位图按引用比较，同一电台的封面来自缓存，引用不变
+        final Bitmap artwork;
+
+        State(@NonNull PlayState playState, String stationUuid, String stationName, String title,
+              String artist, String track, int errorMessageId, Bitmap artwork) {
+            this.playState = playState;
+            this.stationUuid = stationUuid;
+            this.stationName = stationName;
+            this.title = title;
+            this.artist = artist;
+            this.track = track;
+            this.errorMessageId = errorMessageId;
+            this.artwork = artwork;
+        }
+
+        /**
+         * Whether going from {@code other} to this state changes more than the displayed
+         * track or artwork.
+         */
+        boolean isMajorChangeFrom(@Nullable State other) {
+            return other == null
+                    || playState != other.playState
+                    || errorMessageId != other.errorMessageId
+                    || !Objects.equals(stationUuid, other.stationUuid);
+        }
+
+        boolean isTextChangeFrom(@Nullable State other) {
+            return other == null
+                    || !Objects.equals(stationName, other.stationName)
+                    || !Objects.equals(title, other.title)
+                    || !Objects.equals(artist, other.artist)
+                    || !Objects.equals(track, other.track);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            State state = (State) o;
+            return !isMajorChangeFrom(state) && !isTextChangeFrom(state) && artwork == state.artwork;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(playState, stationUuid, title, errorMessageId);
+        }
+    }
+
+    private final Scheduler scheduler;
+    private final Target target;
+    private final Runnable showPending = this::showPending;
+
+    private State shown;
+    private State pending;
+    private long lastShowTime;
+
+    NotificationUpdateCoalescer(@NonNull Handler handler, @NonNull Target target) {
+        this(new HandlerScheduler(handler), target);
+    }
+
+    NotificationUpdateCoalescer(@NonNull Scheduler scheduler, @NonNull Target target) {
+        this.scheduler = scheduler;
+        this.target = target;
+    }
+
+    void update(@NonNull State state) {
+        if (state.equals(pending != null ? pending : shown)) {
+            return;
+        }
+        if (pending != null && state.equals(shown)) {
+            // 又回到已显示的状态，等待中的更新不再需要
+            scheduler.cancel(showPending);
+            pending = null;
+            return;
+        }
+
+        pending = state;
+        scheduler.cancel(showPending);
+
+        final long delay = state.isMajorChangeFrom(shown) ? 0 : lastShowTime + MIN_UPDATE_INTERVAL_MS - scheduler.now();
+        if (delay <= 0) {
+            showPending();
+        } else {
+            scheduler.schedule(showPending, delay);
+        }
+    }
+
+    /**
+     * Forgets the shown state and drops pending updates, e.g. after the notification was removed.
+     */
+    void reset() {
+        scheduler.cancel(showPending);
+        shown = null;
+        pending = null;
+    }
+
+    private void showPending() {
+        final State state = pending;
+        pending = null;
+        if (state == null || state.equals(shown)) {
+            return;
+        }
+
+        final State previous = shown;
+        shown = state;
+        lastShowTime = scheduler.now();
+        target.show(state, previous);
+    }
+
+    private static class HandlerScheduler implements Scheduler {
+        private final Handler handler;
+
+        HandlerScheduler(Handler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public long now() {
+            return SystemClock.uptimeMillis();
+        }
+
+        @Override
+        public void schedule(@NonNull Runnable runnable, long delayMs) {
+            handler.postDelayed(runnable, delayMs);
+        }
+
+        @Override
+        public void cancel(@NonNull Runnable runnable) {
+            handler.removeCallbacks(runnable);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package net.programmierecke.radiodroid2.service;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -45,6 +46,7 @@ import android.support.v4.media.session.MediaSessionCompat;
 import android.support.v4.media.session.PlaybackStateCompat;
 import android.text.TextUtils;
 import android.util.Log;
+import android.util.LruCache;
 import android.util.TypedValue;
 import android.view.KeyEvent;
 import android.widget.Toast;
@@ -57,6 +59,7 @@ import androidx.core.app.NotificationManagerCompat;
 import androidx.core.content.res.ResourcesCompat;
 import androidx.core.graphics.drawable.RoundedBitmapDrawable;
 import androidx.core.graphics.drawable.RoundedBitmapDrawableFactory;
+import androidx.core.os.TraceCompat;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import androidx.preference.PreferenceManager;
 
@@ -74,6 +77,7 @@ import net.programmierecke.radiodroid2.RadioDroidApp;
 import net.programmierecke.radiodroid2.Utils;
 import net.programmierecke.radiodroid2.history.TrackHistoryEntry;
 import net.programmierecke.radiodroid2.history.TrackHistoryRepository;
+import net.programmierecke.radiodroid2.players.BufferHealth;
 import net.programmierecke.radiodroid2.players.PlayState;
 import net.programmierecke.radiodroid2.playlist.PlaylistParser;
 import net.programmierecke.radiodroid2.players.selector.PlayerType;
@@ -110,6 +114,7 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
     // #endregion
 
     protected static final int NOTIFY_ID = 1;
+    private static final int STATION_ICON_CACHE_SIZE = 8;
     private static final String NOTIFICATION_CHANNEL_ID = "default";
 
     public static final String METERED_CONNECTION_WARNING_KEY = "warn_no_wifi";
@@ -128,6 +133,9 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
 
     public static final String PLAYER_SERVICE_BOUND = "net.programmierecke.radiodroid2.playerservicebound";
 
+    public static final String PLAYER_SERVICE_BUFFER_HEALTH = "net.programmierecke.radiodroid2.bufferhealth";
+    public static final String PLAYER_SERVICE_BUFFERED_MS_EXTRA = "buffered_ms";
+
     private final String TAG = "PLAY";
 
     private final String ACTION_PAUSE = "pause";
@@ -175,9 +183,26 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
     private final List<Runnable> alarmFadeTasks = new java.util.ArrayList<>();
 
     private BitmapDrawable radioIcon;
+    private BitmapDrawable defaultRadioIcon;
+    // 已解码的电台图标，切回同一电台时不再经过 Picasso 重新加载
+    private final LruCache<String, BitmapDrawable> stationIconCache = new LruCache<>(STATION_ICON_CACHE_SIZE);
+
+    private NotificationUpdateCoalescer notificationCoalescer;
+    // 通知按钮的 PendingIntent 内容不变，只创建一次
+    private final Map<String, PendingIntent> servicePendingIntents = new HashMap<>();
+    private PendingIntent notificationContentIntent;
+    private long notificationWhen;
 
     private RadioPlayer radioPlayer;
 
+    // 只在界面需要时订阅，没有订阅者时播放器不采样
+    private boolean bufferHealthUpdatesEnabled = false;
+    private final BufferHealth.Listener bufferHealthBroadcaster = bufferHealth -> {
+        Intent intent = new Intent(PLAYER_SERVICE_BUFFER_HEALTH);
+        intent.putExtra(PLAYER_SERVICE_BUFFERED_MS_EXTRA, bufferHealth.bufferedMs);
+        LocalBroadcastManager.getInstance(itsContext).sendBroadcast(intent);
+    };
+
     private AudioManager audioManager;
     private AudioFocusRequest audioFocusRequest;
     private MediaSessionCompat mediaSession;
@@ -231,6 +256,10 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
     private long totalPlayTimeAccumulatedMillis = 0;
     private long currentPlayingSessionStart = 0;
     private boolean playStateIsPlaying = false;
+    // 从请求播放到进入 Playing 的异步 trace 区段，供 :benchmark 模块测量切台耗时
+    public static final String TRACE_STATION_SWITCH = "PlayerService.stationSwitch";
+    private int stationSwitchTraceCookie = 0;
+    private boolean stationSwitchTracing = false;
     /**
      * 本次播放会话是否已完成“静音→均衡器附着→音量渐入”初始化。
      * ExoPlayer 对同一会话可能连续通知多次 Playing（STATE_READY 回调与
@@ -391,11 +420,17 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
         }
 
         @Override
-        public long getBufferedSeconds() throws RemoteException {
-            if (radioPlayer != null) {
-                return radioPlayer.getBufferedSeconds();
+        public void setBufferHealthUpdatesEnabled(boolean enabled) throws RemoteException {
+            if (radioPlayer == null || enabled == bufferHealthUpdatesEnabled) {
+                return;
+            }
+
+            bufferHealthUpdatesEnabled = enabled;
+            if (enabled) {
+                radioPlayer.addBufferHealthListener(bufferHealthBroadcaster);
+            } else {
+                radioPlayer.removeBufferHealthListener(bufferHealthBroadcaster);
             }
-            return 0;
         }
 
         @Override
@@ -590,7 +625,9 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
         timer = null;
         powerManager = (PowerManager) itsContext.getSystemService(Context.POWER_SERVICE);
         audioManager = (AudioManager) itsContext.getSystemService(Context.AUDIO_SERVICE);
-        radioIcon = ((BitmapDrawable) ResourcesCompat.getDrawable(getResources(), R.drawable.ic_launcher, null));
+        defaultRadioIcon = ((BitmapDrawable) ResourcesCompat.getDrawable(getResources(), R.drawable.ic_launcher, null));
+        radioIcon = defaultRadioIcon;
+        notificationCoalescer = new NotificationUpdateCoalescer(handler, this::showNotification);
 
         radioPlayer = new RadioPlayer(PlayerService.this);
         radioPlayer.setPlayerListener(this);
@@ -606,6 +643,9 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
                         updateVolumeGain();
                         radioPlayer.refreshVolume();
                     }
+                } else if ("circular_icons".equals(key)) {
+                    // 已解码的图标形状不对了
+                    stationIconCache.evictAll();
                 }
             }
         };
@@ -695,62 +735,23 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
         // and user presses play/pause media button.
         PlayerServiceUtil.bindService(itsContext.getApplicationContext());
 
-        if (currentStation == null) {
-            RadioDroidApp radioDroidApp = (RadioDroidApp) getApplication();
-            HistoryManager historyManager = radioDroidApp.getHistoryManager();
-            currentStation = historyManager.getFirst();
-        }
-
-        if (currentStation == null) {
-            RadioDroidApp radioDroidApp = (RadioDroidApp) getApplication();
-            FavouriteManager favouriteManager = radioDroidApp.getFavouriteManager();
-            currentStation = favouriteManager.getFirst();
-        }
-
         boolean showNotification = true;
 
         if (intent != null) {
-            String action = intent.getAction();
-            if (action != null) {
-                switch (action) {
-                    case ACTION_SKIP_TO_PREVIOUS:
-                        previous();
-                        break;
-                    case ACTION_SKIP_TO_NEXT:
-                        next();
-                        break;
-                    case ACTION_STOP:
-                        stop();
-                        return START_NOT_STICKY;
-                    case ACTION_PAUSE:
-                        pause(PauseReason.USER);
-                        break;
-                    case ACTION_RESUME:
-                        resume();
-                        break;
-                    case ACTION_MEDIA_BUTTON:
-                        KeyEvent key = (KeyEvent) intent.getParcelableExtra(Intent.EXTRA_KEY_EVENT);
-                        if (key.getAction() == KeyEvent.ACTION_UP) {
-                            int keycode = key.getKeyCode();
-                            switch (keycode) {
-                                case KeyEvent.KEYCODE_MEDIA_PLAY:
-                                    resume();
-                                    break;
-                                case KeyEvent.KEYCODE_MEDIA_NEXT:
-                                    next();
-                                    break;
-                                case KeyEvent.KEYCODE_MEDIA_PREVIOUS:
-                                    previous();
-                                    break;
-                            }
-                        }
-                        break;
-                }
+            if (ACTION_STOP.equals(intent.getAction())) {
+                stop();
+                return START_NOT_STICKY;
             }
 
-            MediaButtonReceiver.handleIntent(mediaSession, intent);
+            // 冷启动时历史和收藏还在后台读取，读完再选电台并执行按键操作
+            whenStationListsLoaded(() -> {
+                selectLastStationIfNone();
+                handleStartAction(intent);
+            });
 
             showNotification = !intent.getBooleanExtra(PLAYER_SERVICE_NO_NOTIFICATION_EXTRA, false);
+        } else {
+            whenStationListsLoaded(this::selectLastStationIfNone);
         }
 
         // It is an error for service started via Context.startForegroundService not to create
@@ -781,6 +782,66 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
         return super.onStartCommand(intent, flags, startId);
     }
 
+    private void whenStationListsLoaded(Runnable action) {
+        RadioDroidApp radioDroidApp = (RadioDroidApp) getApplication();
+        HistoryManager historyManager = radioDroidApp.getHistoryManager();
+        FavouriteManager favouriteManager = radioDroidApp.getFavouriteManager();
+        historyManager.runWhenLoaded(() -> favouriteManager.runWhenLoaded(action));
+    }
+
+    private void selectLastStationIfNone() {
+        if (currentStation == null) {
+            RadioDroidApp radioDroidApp = (RadioDroidApp) getApplication();
+            HistoryManager historyManager = radioDroidApp.getHistoryManager();
+            currentStation = historyManager.getFirst();
+        }
+
+        if (currentStation == null) {
+            RadioDroidApp radioDroidApp = (RadioDroidApp) getApplication();
+            FavouriteManager favouriteManager = radioDroidApp.getFavouriteManager();
+            currentStation = favouriteManager.getFirst();
+        }
+    }
+
+    private void handleStartAction(@NonNull Intent intent) {
+        String action = intent.getAction();
+        if (action != null) {
+            switch (action) {
+                case ACTION_SKIP_TO_PREVIOUS:
+                    previous();
+                    break;
+                case ACTION_SKIP_TO_NEXT:
+                    next();
+                    break;
+                case ACTION_PAUSE:
+                    pause(PauseReason.USER);
+                    break;
+                case ACTION_RESUME:
+                    resume();
+                    break;
+                case ACTION_MEDIA_BUTTON:
+                    KeyEvent key = (KeyEvent) intent.getParcelableExtra(Intent.EXTRA_KEY_EVENT);
+                    if (key.getAction() == KeyEvent.ACTION_UP) {
+                        int keycode = key.getKeyCode();
+                        switch (keycode) {
+                            case KeyEvent.KEYCODE_MEDIA_PLAY:
+                                resume();
+                                break;
+                            case KeyEvent.KEYCODE_MEDIA_NEXT:
+                                next();
+                                break;
+                            case KeyEvent.KEYCODE_MEDIA_PREVIOUS:
+                                previous();
+                                break;
+                        }
+                    }
+                    break;
+            }
+        }
+
+        MediaButtonReceiver.handleIntent(mediaSession, intent);
+    }
+
     private void playWithoutWarnings(DataRadioStation station) {
         setStation(station);
         playCurrentStation(false);
@@ -822,6 +883,11 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
 
             acquireWakeLockAndWifiLock();
 
+            endStationSwitchTrace();
+            stationSwitchTraceCookie++;
+            stationSwitchTracing = true;
+            TraceCompat.beginAsyncSection(TRACE_STATION_SWITCH, stationSwitchTraceCookie);
+
             final DataRadioStation stationToPlay = currentStation;
             if (stationToPlay.StreamUrl != null && PlaylistParser.isPlaylistUrl(stationToPlay.StreamUrl)) {
                 new PlaylistResolveTask(stationToPlay, isAlarm).executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
@@ -899,7 +965,15 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
         }
     }
 
+    private void endStationSwitchTrace() {
+        if (stationSwitchTracing) {
+            stationSwitchTracing = false;
+            TraceCompat.endAsyncSection(TRACE_STATION_SWITCH, stationSwitchTraceCookie);
+        }
+    }
+
     public void stop() {
+        endStationSwitchTrace();
 
         this.pauseReason = PauseReason.NONE;
         this.notificationIsActive = false;
@@ -921,6 +995,8 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
         currentPlayingSessionStart = 0;
 
         stopForeground(true);
+        // 通知已移除，丢弃尚未显示的更新
+        notificationCoalescer.reset();
 
         stopConnectionTypeListener();
 
@@ -1121,61 +1197,64 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
         }
     }
 
-    private void sendMessage(String theTitle, String theMessage, String theTicker) {
-        Intent notificationIntent = new Intent(itsContext, ActivityMain.class);
-        notificationIntent.putExtra("stationid", currentStation.StationUuid);
-        notificationIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
-
-        Intent stopIntent = new Intent(itsContext, PlayerService.class);
-        stopIntent.setAction(ACTION_STOP);
-        PendingIntent pendingIntentStop = PendingIntent.getService(itsContext, 0, stopIntent, pendingIntentFlag);
-
+    private PendingIntent getServicePendingIntent(String action) {
+        PendingIntent pendingIntent = servicePendingIntents.get(action);
+        if (pendingIntent == null) {
+            Intent intent = new Intent(itsContext, PlayerService.class);
+            intent.setAction(action);
+            pendingIntent = PendingIntent.getService(itsContext, 0, intent, pendingIntentFlag);
+            servicePendingIntents.put(action, pendingIntent);
+        }
+        return pendingIntent;
+    }
 
-        Intent nextIntent = new Intent(itsContext, PlayerService.class);
-        nextIntent.setAction(ACTION_SKIP_TO_NEXT);
-        PendingIntent pendingIntentNext = PendingIntent.getService(itsContext, 0, nextIntent, pendingIntentFlag);
+    private void sendMessage(NotificationUpdateCoalescer.State state, NotificationUpdateCoalescer.State previous, String theMessage, String theTicker) {
+        if (previous == null || !TextUtils.equals(previous.stationUuid, state.stationUuid) || notificationContentIntent == null) {
+            Intent notificationIntent = new Intent(itsContext, ActivityMain.class);
+            notificationIntent.putExtra("stationid", state.stationUuid);
+            notificationIntent.addFlags(Intent.FLAG_ACTIVITY_NEW_TASK);
+            notificationContentIntent = PendingIntent.getActivity(itsContext, 0, notificationIntent, PendingIntent.FLAG_UPDATE_CURRENT | pendingIntentFlag);
+        }
 
-        Intent previousIntent = new Intent(itsContext, PlayerService.class);
-        previousIntent.setAction(ACTION_SKIP_TO_PREVIOUS);
-        PendingIntent pendingIntentPrevious = PendingIntent.getService(itsContext, 0, previousIntent, pendingIntentFlag);
+        PendingIntent pendingIntentStop = getServicePendingIntent(ACTION_STOP);
+        PendingIntent pendingIntentNext = getServicePendingIntent(ACTION_SKIP_TO_NEXT);
+        PendingIntent pendingIntentPrevious = getServicePendingIntent(ACTION_SKIP_TO_PREVIOUS);
 
-        PlayState currentPlayerState = radioPlayer.getPlayState();
+        PlayState currentPlayerState = state.playState;
 
-        if (lastErrorFromPlayer != -1) {
+        if (state.errorMessageId != -1) {
             try {
-                theMessage = itsContext.getResources().getString(lastErrorFromPlayer);
+                theMessage = itsContext.getResources().getString(state.errorMessageId);
             } catch (Resources.NotFoundException ex) {
-                Log.e(TAG, String.format("Unknown play error: %d", lastErrorFromPlayer), ex);
+                Log.e(TAG, String.format("Unknown play error: %d", state.errorMessageId), ex);
             }
         }
 
-        PendingIntent contentIntent = PendingIntent.getActivity(itsContext, 0, notificationIntent, PendingIntent.FLAG_UPDATE_CURRENT | pendingIntentFlag);
+        // 只有播放状态变化时才重置时间，换曲不会让计时归零
+        final boolean playStateChanged = previous == null || previous.playState != state.playState;
+        if (playStateChanged) {
+            notificationWhen = System.currentTimeMillis();
+        }
+
         NotificationCompat.Builder notificationBuilder = new NotificationCompat.Builder(itsContext, NOTIFICATION_CHANNEL_ID)
-                .setContentIntent(contentIntent)
-                .setContentTitle(theTitle)
+                .setContentIntent(notificationContentIntent)
+                .setContentTitle(state.stationName)
                 .setContentText(theMessage)
-                .setWhen(System.currentTimeMillis())
+                .setWhen(notificationWhen)
                 .setTicker(theTicker)
+                .setOnlyAlertOnce(true)
                 .setVisibility(NotificationCompat.VISIBILITY_PUBLIC)
                 .setSmallIcon(R.drawable.ic_play_arrow_white_24dp)
-                .setLargeIcon(radioIcon.getBitmap())
+                .setLargeIcon(state.artwork)
                 .addAction(R.drawable.ic_stop_white_24dp, getString(R.string.action_stop), pendingIntentStop)
                 .addAction(R.drawable.ic_skip_previous_24dp, getString(R.string.action_skip_to_previous), pendingIntentPrevious);
 
         if (currentPlayerState == PlayState.Playing || currentPlayerState == PlayState.PrePlaying) {
-            Intent pauseIntent = new Intent(itsContext, PlayerService.class);
-            pauseIntent.setAction(ACTION_PAUSE);
-            PendingIntent pendingIntentPause = PendingIntent.getService(itsContext, 0, pauseIntent, pendingIntentFlag);
-
-            notificationBuilder.addAction(R.drawable.ic_pause_white_24dp, getString(R.string.action_pause), pendingIntentPause);
+            notificationBuilder.addAction(R.drawable.ic_pause_white_24dp, getString(R.string.action_pause), getServicePendingIntent(ACTION_PAUSE));
             notificationBuilder.setUsesChronometer(true)
                     .setOngoing(true);
         } else if (currentPlayerState == PlayState.Paused || currentPlayerState == PlayState.Idle) {
-            Intent resumeIntent = new Intent(itsContext, PlayerService.class);
-            resumeIntent.setAction(ACTION_RESUME);
-            PendingIntent pendingIntentResume = PendingIntent.getService(itsContext, 0, resumeIntent, pendingIntentFlag);
-
-            notificationBuilder.addAction(R.drawable.ic_play_arrow_white_24dp, getString(R.string.action_resume), pendingIntentResume);
+            notificationBuilder.addAction(R.drawable.ic_play_arrow_white_24dp, getString(R.string.action_resume), getServicePendingIntent(ACTION_RESUME));
             notificationBuilder.setUsesChronometer(false)
                     .setDeleteIntent(pendingIntentStop)
                     .setOngoing(false);
@@ -1189,6 +1268,12 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
                         .setShowCancelButton(true));
         Notification notification = notificationBuilder.build();
 
+        if (notificationIsActive && !playStateChanged) {
+            // 前台状态不变，只替换通知内容
+            NotificationManagerCompat.from(this).notify(NOTIFY_ID, notification);
+            return;
+        }
+
         startForeground(NOTIFY_ID, notification);
         notificationIsActive = true;
 
@@ -1634,7 +1719,26 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
     }
 
     private void updateNotification(PlayState playState) {
-        switch (playState) {
+        if (playState == PlayState.Idle) {
+            notificationCoalescer.update(new NotificationUpdateCoalescer.State(playState,
+                    null, null, null, null, null, -1, null));
+            return;
+        }
+        if (currentStation == null) {
+            return;
+        }
+
+        notificationCoalescer.update(new NotificationUpdateCoalescer.State(playState,
+                currentStation.StationUuid, currentStation.Name,
+                liveInfo.getTitle(), liveInfo.getArtist(), liveInfo.getTrack(),
+                lastErrorFromPlayer, radioIcon.getBitmap()));
+    }
+
+    // 由 notificationCoalescer 调用，state 与上次显示的内容不同
+    private void showNotification(NotificationUpdateCoalescer.State state, NotificationUpdateCoalescer.State previous) {
+        final boolean majorChange = state.isMajorChangeFrom(previous);
+
+        switch (state.playState) {
             case Idle:
                 NotificationManagerCompat notificationManager = NotificationManagerCompat.from(this);
                 notificationManager.cancel(NOTIFY_ID);
@@ -1642,44 +1746,50 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
                 setMediaPlaybackState(PlaybackStateCompat.STATE_NONE);
                 break;
             case PrePlaying:
-                sendMessage(currentStation.Name, itsContext.getResources().getString(R.string.notify_pre_play), itsContext.getResources().getString(R.string.notify_pre_play));
+                sendMessage(state, previous, itsContext.getResources().getString(R.string.notify_pre_play), itsContext.getResources().getString(R.string.notify_pre_play));
 
-                setMediaPlaybackState(PlaybackStateCompat.STATE_BUFFERING);
+                if (majorChange) {
+                    setMediaPlaybackState(PlaybackStateCompat.STATE_BUFFERING);
+                }
                 break;
             case Playing:
-                final String title = liveInfo.getTitle();
+                final String title = state.title;
                 if (!TextUtils.isEmpty(title)) {
-                    sendMessage(currentStation.Name, title, title);
+                    sendMessage(state, previous, title, title);
                 } else {
-                    sendMessage(currentStation.Name, itsContext.getResources().getString(R.string.notify_play), currentStation.Name);
+                    sendMessage(state, previous, itsContext.getResources().getString(R.string.notify_play), state.stationName);
                 }
 
                 if (mediaSession != null) {
+                    final boolean hasArtistAndTrack = !TextUtils.isEmpty(state.artist) && !TextUtils.isEmpty(state.track);
                     final MediaMetadataCompat.Builder builder = new MediaMetadataCompat.Builder();
                     builder.putLong(MediaMetadataCompat.METADATA_KEY_DURATION, -1);
-                    builder.putString(MediaMetadataCompat.METADATA_KEY_ALBUM, currentStation.Name);
-                    builder.putString(MediaMetadataCompat.METADATA_KEY_ARTIST, liveInfo.getArtist());
-                    builder.putString(MediaMetadataCompat.METADATA_KEY_TITLE, liveInfo.getTrack());
-                    builder.putString(MediaMetadataCompat.METADATA_KEY_ALBUM, currentStation.Name);
-                    if (liveInfo.hasArtistAndTrack()) {
-                        builder.putString(MediaMetadataCompat.METADATA_KEY_ARTIST, liveInfo.getArtist());
-                        builder.putString(MediaMetadataCompat.METADATA_KEY_TITLE, liveInfo.getTrack());
+                    builder.putString(MediaMetadataCompat.METADATA_KEY_ALBUM, state.stationName);
+                    if (hasArtistAndTrack) {
+                        builder.putString(MediaMetadataCompat.METADATA_KEY_ARTIST, state.artist);
+                        builder.putString(MediaMetadataCompat.METADATA_KEY_TITLE, state.track);
                     } else {
-                        builder.putString(MediaMetadataCompat.METADATA_KEY_TITLE, liveInfo.getTitle());
-                        builder.putString(MediaMetadataCompat.METADATA_KEY_ARTIST, currentStation.Name); // needed for android-media-controller to show an icon
+                        builder.putString(MediaMetadataCompat.METADATA_KEY_TITLE, state.title);
+                        builder.putString(MediaMetadataCompat.METADATA_KEY_ARTIST, state.stationName); // needed for android-media-controller to show an icon
                     }
-                    builder.putBitmap(MediaMetadataCompat.METADATA_KEY_DISPLAY_ICON, radioIcon.getBitmap());
-                    builder.putBitmap(MediaMetadataCompat.METADATA_KEY_ALBUM_ART, radioIcon.getBitmap());
+                    builder.putBitmap(MediaMetadataCompat.METADATA_KEY_DISPLAY_ICON, state.artwork);
+                    builder.putBitmap(MediaMetadataCompat.METADATA_KEY_ALBUM_ART, state.artwork);
                     mediaSession.setMetadata(builder.build());
                 }
 
-                setMediaPlaybackState(PlaybackStateCompat.STATE_PLAYING);
+                // 只换曲时播放状态不变，不必重新设置
+                if (majorChange) {
+                    setMediaPlaybackState(PlaybackStateCompat.STATE_PLAYING);
+                }
 
                 break;
             case Paused:
-                sendMessage(currentStation.Name, itsContext.getResources().getString(R.string.notify_paused), currentStation.Name);
+                sendMessage(state, previous, itsContext.getResources().getString(R.string.notify_paused), state.stationName);
 
-                if (lastErrorFromPlayer != -1) {
+                if (!majorChange) {
+                    break;
+                }
+                if (state.errorMessageId != -1) {
                     setMediaPlaybackState(PlaybackStateCompat.STATE_ERROR);
                 } else {
                     setMediaPlaybackState(PlaybackStateCompat.STATE_PAUSED);
@@ -1692,15 +1802,27 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
     private void downloadRadioIcon() {
         final float px = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 70, getResources().getDisplayMetrics());
 
+        final String stationUuid = currentStation.StationUuid;
+
+        // 已解码过的图标直接使用，标题变化或切回本电台时不再解码
+        BitmapDrawable decodedIcon = stationIconCache.get(stationUuid);
+        if (decodedIcon != null) {
+            radioIcon = decodedIcon;
+            updateNotification();
+            return;
+        }
+
+        // 加载完成前不显示上一个电台的图标
+        radioIcon = defaultRadioIcon;
+
         if (!currentStation.hasIcon() && TextUtils.isEmpty(currentStation.HomePageUrl)) {
-            radioIcon = (BitmapDrawable) ResourcesCompat.getDrawable(getResources(), R.drawable.ic_launcher, null);
             updateNotification();
             return;
         }
 
         // 优先从缓存加载
         StationIconCache iconCache = StationIconCache.getInstance(itsContext);
-        String cachedPath = iconCache.getIconPath(currentStation.StationUuid);
+        String cachedPath = iconCache.getIconPath(stationUuid);
         if (cachedPath != null) {
             Picasso.get()
                     .load(Uri.fromFile(new java.io.File(cachedPath)))
@@ -1708,21 +1830,12 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
                     .into(new Target() {
                         @Override
                         public void onBitmapLoaded(Bitmap bitmap, Picasso.LoadedFrom from) {
-                            final boolean useCircularIcons = Utils.useCircularIcons(itsContext);
-                            if (!useCircularIcons)
-                                radioIcon = new BitmapDrawable(getResources(), bitmap);
-                            else {
-                                RoundedBitmapDrawable rb = RoundedBitmapDrawableFactory.create(getResources(), bitmap);
-                                rb.setCircular(true);
-                                radioIcon = new BitmapDrawable(getResources(), rb.getBitmap());
-                            }
-                            updateNotification();
+                            setStationIcon(stationUuid, createNotificationIcon(bitmap));
                         }
 
                         @Override
                         public void onBitmapFailed(Exception e, Drawable errorDrawable) {
-                            radioIcon = (BitmapDrawable) ResourcesCompat.getDrawable(getResources(), R.drawable.ic_launcher, null);
-                            updateNotification();
+                            setStationIcon(stationUuid, null);
                         }
 
                         @Override
@@ -1752,13 +1865,35 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
             } catch (Exception ignored) {}
         }
 
-        tryLoadIconForNotification(urlsToTry, 0, px);
+        tryLoadIconForNotification(stationUuid, urlsToTry, 0, px);
+    }
+
+    private BitmapDrawable createNotificationIcon(Bitmap bitmap) {
+        final boolean useCircularIcons = Utils.useCircularIcons(itsContext);
+        if (!useCircularIcons) {
+            return new BitmapDrawable(getResources(), bitmap);
+        }
+        RoundedBitmapDrawable rb = RoundedBitmapDrawableFactory.create(getResources(), bitmap);
+        rb.setCircular(true);
+        return new BitmapDrawable(getResources(), rb.getBitmap());
+    }
+
+    // icon 为 null 表示加载失败，使用默认图标且不缓存，下次播放时重试
+    private void setStationIcon(String stationUuid, BitmapDrawable icon) {
+        if (icon != null) {
+            stationIconCache.put(stationUuid, icon);
+        }
+        // 加载期间可能已切换电台
+        if (currentStation == null || !stationUuid.equals(currentStation.StationUuid)) {
+            return;
+        }
+        radioIcon = icon != null ? icon : defaultRadioIcon;
+        updateNotification();
     }
 
-    private void tryLoadIconForNotification(final List<String> urls, final int index, final float px) {
+    private void tryLoadIconForNotification(final String stationUuid, final List<String> urls, final int index, final float px) {
         if (index >= urls.size()) {
-            radioIcon = (BitmapDrawable) ResourcesCompat.getDrawable(getResources(), R.drawable.ic_launcher, null);
-            updateNotification();
+            setStationIcon(stationUuid, null);
             return;
         }
 
@@ -1769,23 +1904,15 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
                 .into(new Target() {
                     @Override
                     public void onBitmapLoaded(Bitmap bitmap, Picasso.LoadedFrom from) {
-                        final boolean useCircularIcons = Utils.useCircularIcons(itsContext);
-                        if (!useCircularIcons)
-                            radioIcon = new BitmapDrawable(getResources(), bitmap);
-                        else {
-                            RoundedBitmapDrawable rb = RoundedBitmapDrawableFactory.create(getResources(), bitmap);
-                            rb.setCircular(true);
-                            radioIcon = new BitmapDrawable(getResources(), rb.getBitmap());
-                        }
                         // 保存到缓存
-                        boolean isFavorite = isStationFavorited(currentStation.StationUuid);
-                        StationIconCache.getInstance(itsContext).saveIcon(currentStation.StationUuid, bitmap, isFavorite);
-                        updateNotification();
+                        boolean isFavorite = isStationFavorited(stationUuid);
+                        StationIconCache.getInstance(itsContext).saveIcon(stationUuid, bitmap, isFavorite);
+                        setStationIcon(stationUuid, createNotificationIcon(bitmap));
                     }
 
                     @Override
                     public void onBitmapFailed(Exception e, Drawable errorDrawable) {
-                        tryLoadIconForNotification(urls, index + 1, px);
+                        tryLoadIconForNotification(stationUuid, urls, index + 1, px);
                     }
 
                     @Override
@@ -1833,6 +1960,8 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
                     case Paused:
                         break;
                     case Playing: {
+                        endStationSwitchTrace();
+
                         if (playStateIsPlaying) {
                             currentPlayingSessionStart = System.currentTimeMillis();
                             lastPlayStartTime = currentPlayingSessionStart;
@@ -1921,11 +2050,6 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
         });
     }
 
-    @Override
-    public void onBufferedTimeUpdate(long bufferedMs) {
-
-    }
-
     @Override
     public void foundShoutcastStream(ShoutcastInfo info, boolean isHls) {
         this.streamInfo = info;
@@ -1972,27 +2096,17 @@ public class PlayerService extends JobIntentService implements RadioPlayer.Playe
                 Calendar calendar = Calendar.getInstance();
                 Date currentTime = calendar.getTime();
 
-                trackHistoryRepository.getLastInsertedHistoryItem((trackHistoryEntry, dao) -> {
-                    if (trackHistoryEntry != null && liveInfo.getTitle() != null
-                            && liveInfo.getTitle().equals(trackHistoryEntry.title)) {
-                        // Prevent from generating several same entries when rapidly doing pause and resume.
-                        trackHistoryEntry.endTime = new Date(0);
-                        dao.update(trackHistoryEntry);
-                    } else {
-                        dao.setCurrentPlayingTrackEndTime(currentTime);
-
-                        TrackHistoryEntry newTrackHistoryEntry = new TrackHistoryEntry();
-                        newTrackHistoryEntry.stationUuid = currentStation.StationUuid;
-                        newTrackHistoryEntry.artist = liveInfo.getArtist();
-                        newTrackHistoryEntry.title = liveInfo.getTitle();
-                        newTrackHistoryEntry.track = liveInfo.getTrack();
-                        newTrackHistoryEntry.stationIconUrl = currentStation.IconUrl;
-                        newTrackHistoryEntry.startTime = currentTime;
-                        newTrackHistoryEntry.endTime = new Date(0);
-
-                        trackHistoryRepository.insert(newTrackHistoryEntry);
-                    }
-                });
+                TrackHistoryEntry newTrackHistoryEntry = new TrackHistoryEntry();
+                newTrackHistoryEntry.stationUuid = currentStation.StationUuid;
+                newTrackHistoryEntry.artist = liveInfo.getArtist();
+                newTrackHistoryEntry.title = liveInfo.getTitle();
+                newTrackHistoryEntry.track = liveInfo.getTrack();
+                newTrackHistoryEntry.stationIconUrl = currentStation.IconUrl;
+                newTrackHistoryEntry.startTime = currentTime;
+                newTrackHistoryEntry.endTime = new Date(0);
+
+                // 与上一条标题相同时（快速暂停又继续）不会重复记录
+                trackHistoryRepository.startTrack(newTrackHistoryEntry);
             }
         });
     }
@@ -18,12 +18,12 @@ import android.widget.ImageView;
 import androidx.annotation.NonNull;
 import androidx.appcompat.content.res.AppCompatResources;
 import androidx.core.content.ContextCompat;
+import androidx.core.os.TraceCompat;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 
 import com.squareup.picasso.Callback;
 import com.squareup.picasso.NetworkPolicy;
 import com.squareup.picasso.Picasso;
-import com.squareup.picasso.Target;
 
 import net.programmierecke.radiodroid2.BuildConfig;
 import net.programmierecke.radiodroid2.FavouriteManager;
@@ -60,9 +60,15 @@ public class PlayerServiceUtil {
 
     private static final String TAG = "StationIcon";
 
+    public static final String TRACE_FIRST_ICON_BIND = "StationIcon.firstBind";
+    // 只在主线程访问
+    private static boolean firstIconBound = false;
+
     private static Context mainContext = null;
     private static boolean mBound;
     private static ServiceConnection serviceConnection;
+    // 服务重新绑定后恢复订阅
+    private static boolean bufferHealthUpdatesEnabled = false;
 
     public static void startService(Context context) {
         if (mBound) return;
@@ -123,6 +129,9 @@ public class PlayerServiceUtil {
                     Log.d("PLAYER", "Service came online");
                 }
                 itsPlayerService = IPlayerService.Stub.asInterface(binder);
+                if (bufferHealthUpdatesEnabled) {
+                    setBufferHealthUpdatesEnabled(true);
+                }
 
                 Intent local = new Intent();
                 local.setAction(PlayerService.PLAYER_SERVICE_BOUND);
@@ -327,6 +336,22 @@ public class PlayerServiceUtil {
      * @param stationUuid 电台唯一ID，用于缓存key。为null时不使用缓存。
      */
     public static void getStationIcon(final ImageView holder, final String iconUrl, final String homePageUrl, final String stationUuid) {
+        if (firstIconBound) {
+            bindStationIcon(holder, iconUrl, homePageUrl, stationUuid);
+            return;
+        }
+
+        // 第一次绑定包含创建图标缓存，单独记录
+        firstIconBound = true;
+        TraceCompat.beginSection(TRACE_FIRST_ICON_BIND);
+        try {
+            bindStationIcon(holder, iconUrl, homePageUrl, stationUuid);
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
+
+    private static void bindStationIcon(final ImageView holder, final String iconUrl, final String homePageUrl, final String stationUuid) {
         Resources r = mainContext.getResources();
         final float px = TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, 70, r.getDisplayMetrics());
         final int targetPxSize = (int) px;
@@ -335,19 +360,17 @@ public class PlayerServiceUtil {
 
         holder.setScaleType(ImageView.ScaleType.FIT_CENTER);
 
-        if (stationUuid != null && !stationUuid.isEmpty()) {
-            holder.setTag(R.id.tag_station_uuid, stationUuid);
-        }
+        // 总是更新标记（包括 null），调度器据此丢弃已被回收复用的 ImageView 的请求
+        holder.setTag(R.id.tag_station_uuid, stationUuid);
 
         if (stationUuid != null && !stationUuid.isEmpty()) {
             StationIconCache iconCache = StationIconCache.getInstance(mainContext);
             String cachedPath = iconCache.getIconPath(stationUuid);
             if (cachedPath != null) {
+                // 缓存中的图标保存时已缩小到显示尺寸，不需要再 resize
                 Picasso.get()
                         .load(Uri.fromFile(new File(cachedPath)))
                         .placeholder(placeholder)
-                        .resize(maxPxSize, 0)
-                        .onlyScaleDown()
                         .noFade()
                         .into(holder, new Callback() {
                             @Override
@@ -385,18 +408,20 @@ public class PlayerServiceUtil {
         }
 
         final List<String> urlsToTry = new ArrayList<>();
-        if (iconUrl != null && !iconUrl.trim().isEmpty()) {
+        final boolean hasIconUrl = iconUrl != null && !iconUrl.trim().isEmpty();
+        if (hasIconUrl) {
             urlsToTry.add(iconUrl);
         }
         if (homePageUrl != null && !homePageUrl.trim().isEmpty()) {
             urlsToTry.addAll(buildFallbackUrls(homePageUrl));
         }
         if (urlsToTry.isEmpty()) {
+            Picasso.get().cancelRequest(holder);
             holder.setImageDrawable(placeholder);
             return;
         }
 
-        if (iconUrl != null && !iconUrl.trim().isEmpty()) {
+        if (hasIconUrl) {
             Picasso.get()
                     .load(iconUrl)
                     .placeholder(placeholder)
@@ -417,105 +442,114 @@ public class PlayerServiceUtil {
                         @Override
                         public void onError(Exception e) {
                             Log.d(TAG, "Picasso cache MISS, loading from network: " + stationUuid);
-                            loadIconFromNetwork(holder, urlsToTry, placeholder, targetPxSize, maxPxSize, homePageUrl, stationUuid);
+                            loadIconFromNetwork(holder, urlsToTry, 0, true, targetPxSize, maxPxSize, homePageUrl, stationUuid);
                         }
                     });
         } else {
-            tryFallbackUrls(holder, urlsToTry, 0, placeholder, targetPxSize, maxPxSize, homePageUrl, stationUuid);
+            Picasso.get().cancelRequest(holder);
+            holder.setImageDrawable(placeholder);
+            loadIconFromNetwork(holder, urlsToTry, 0, false, targetPxSize, maxPxSize, homePageUrl, stationUuid);
         }
     }
 
     /**
-     * 联网加载图标：先尝试 IconUrl，失败后立即尝试回退URL（不延迟等待）。
+     * 联网加载图标：依次尝试 IconUrl 和回退URL，失败后立即尝试下一个（不延迟等待）。
+     *
+     * 请求经 {@link IconFetchScheduler} 排队：可见行优先、每个主机限流、相同 URL 合并，
+     * ImageView 被回收复用给其他电台后尚未开始的请求直接丢弃。
+     * 联网状态下加载失败的 URL 记为失效，有效期内（重启后也）不再请求。
+     * 加载期间 ImageView 保持显示占位图。
+     *
+     * @param index      本次尝试的 URL 下标
+     * @param hasIconUrl urls[0] 是否为电台自身的 IconUrl（其余为回退URL）
      */
     private static void loadIconFromNetwork(final ImageView holder, final List<String> urls,
-                                             final Drawable placeholder, final int targetPxSize,
-                                             final int maxPxSize, final String homePageUrl,
-                                             final String stationUuid) {
-        final String iconUrl = urls.get(0);
-        Log.d(TAG, "Network load IconUrl: " + stationUuid + " url=" + iconUrl);
-
-        Picasso.get()
-                .load(iconUrl)
-                .placeholder(placeholder)
-                .resize(maxPxSize, 0)
-                .onlyScaleDown()
-                .networkPolicy(NetworkPolicy.NO_CACHE)
-                .into(holder, new Callback() {
-                    @Override
-                    public void onSuccess() {
-                        Log.d(TAG, "Network load SUCCESS: " + stationUuid + " url=" + iconUrl);
-                        if (stationUuid != null && !stationUuid.isEmpty()) {
-                            saveIconToCacheFromView(holder, stationUuid);
-                            StationIconCache cache = StationIconCache.getInstance(mainContext);
-                            cache.clearFallbackMark(stationUuid);
-                            cache.recordIconUrlRetryTime(stationUuid);
-                        }
-                        applySmartDisplayLogic(holder, targetPxSize, stationUuid);
-                    }
+                                             final int index, final boolean hasIconUrl,
+                                             final int targetPxSize, final int maxPxSize,
+                                             final String homePageUrl, final String stationUuid) {
+        if (index >= urls.size()) {
+            return;
+        }
 
-                    @Override
-                    public void onError(Exception e) {
-                        Log.d(TAG, "Network load FAILED: " + stationUuid + " url=" + iconUrl + " err=" + e.getMessage());
-                        if (stationUuid != null && !stationUuid.isEmpty()) {
-                            StationIconCache.getInstance(mainContext).recordIconUrlRetryTime(stationUuid);
-                        }
-                        if (urls.size() > 1) {
-                            tryFallbackUrls(holder, urls, 1, placeholder, targetPxSize, maxPxSize, homePageUrl, stationUuid);
-                        } else {
-                            holder.setImageDrawable(placeholder);
-                        }
-                    }
-                });
-    }
+        final String url = urls.get(index);
+        final boolean isIconUrl = hasIconUrl && index == 0;
+        final boolean hasUuid = stationUuid != null && !stationUuid.isEmpty();
+        final StationIconCache cache = StationIconCache.getInstance(mainContext);
 
-    /**
-     * 尝试回退URL列表，失败后立即跳到下一个（不延迟）。
-     */
-    private static void tryFallbackUrls(final ImageView holder, final List<String> urls,
-                                         final int startIndex, final Drawable placeholder,
-                                         final int targetPxSize, final int maxPxSize,
-                                         final String homePageUrl, final String stationUuid) {
-        if (startIndex >= urls.size()) {
-            holder.setImageDrawable(placeholder);
+        if (cache.isUrlKnownDead(url)) {
+            Log.d(TAG, "Network load[" + index + "] skipped, known dead: " + stationUuid + " url=" + url);
+            if (isIconUrl && hasUuid) {
+                // 与加载失败一致，避免回退图标立即触发后台重试
+                cache.recordIconUrlRetryTime(stationUuid);
+            }
+            loadIconFromNetwork(holder, urls, index + 1, hasIconUrl, targetPxSize, maxPxSize, homePageUrl, stationUuid);
             return;
         }
 
-        final String url = urls.get(startIndex);
-        Log.d(TAG, "Fallback[" + startIndex + "]: " + stationUuid + " url=" + url);
-
-        Picasso.get()
-                .load(url)
-                .placeholder(placeholder)
-                .resize(maxPxSize, 0)
-                .onlyScaleDown()
-                .networkPolicy(NetworkPolicy.NO_CACHE)
-                .into(holder, new Callback() {
-                    @Override
-                    public void onSuccess() {
-                        Log.d(TAG, "Fallback[" + startIndex + "] SUCCESS: " + stationUuid + " url=" + url);
-                        if (stationUuid != null && !stationUuid.isEmpty()) {
-                            saveIconToCacheFromView(holder, stationUuid);
-                            StationIconCache.getInstance(mainContext).markAsFallback(stationUuid);
-                        }
-                        applySmartDisplayLogic(holder, targetPxSize, stationUuid);
+        Log.d(TAG, "Network load[" + index + "]: " + stationUuid + " url=" + url);
 
-                        if (homePageUrl != null && !homePageUrl.trim().isEmpty()
-                                && !hdDiscoveryAttempted.contains(stationUuid)) {
-                            synchronized (pendingHdDiscoveries) {
-                                pendingHdDiscoveries.add(new HdDiscoveryRequest(homePageUrl, stationUuid, holder, targetPxSize, maxPxSize));
-                            }
-                            flushHandler.removeCallbacks(flushRunnable);
-                            flushHandler.postDelayed(flushRunnable, FLUSH_DELAY_MS);
-                        }
+        iconFetchScheduler.fetch(url, maxPxSize, IconFetchScheduler.PRIORITY_VISIBLE, new IconFetchScheduler.Listener() {
+            @Override
+            public void onLoaded(@NonNull Bitmap bitmap) {
+                if (isTruncatedBitmap(bitmap)) {
+                    // 下载不完整不代表 URL 失效，只跳到下一个
+                    Log.w(TAG, "Network load[" + index + "] truncated: " + stationUuid + " url=" + url);
+                    loadIconFromNetwork(holder, urls, index + 1, hasIconUrl, targetPxSize, maxPxSize, homePageUrl, stationUuid);
+                    return;
+                }
+
+                Log.d(TAG, "Network load[" + index + "] SUCCESS: " + stationUuid + " url=" + url);
+                cache.clearUrlDead(url);
+                if (hasUuid) {
+                    cache.saveIcon(stationUuid, bitmap, isStationFavorited(stationUuid));
+                    if (isIconUrl) {
+                        cache.clearFallbackMark(stationUuid);
+                        cache.recordIconUrlRetryTime(stationUuid);
+                    } else {
+                        cache.markAsFallback(stationUuid);
                     }
+                }
+
+                if (!isWanted()) {
+                    return;
+                }
+                holder.setImageBitmap(bitmap);
+                applySmartDisplayLogic(holder, targetPxSize, stationUuid);
 
-                    @Override
-                    public void onError(Exception e) {
-                        Log.d(TAG, "Fallback[" + startIndex + "] FAILED: " + stationUuid + " url=" + url);
-                        tryFallbackUrls(holder, urls, startIndex + 1, placeholder, targetPxSize, maxPxSize, homePageUrl, stationUuid);
+                if (!isIconUrl && hasUuid && homePageUrl != null && !homePageUrl.trim().isEmpty()
+                        && !hdDiscoveryAttempted.contains(stationUuid)) {
+                    synchronized (pendingHdDiscoveries) {
+                        pendingHdDiscoveries.add(new HdDiscoveryRequest(homePageUrl, stationUuid, holder, targetPxSize, maxPxSize));
                     }
-                });
+                    flushHandler.removeCallbacks(flushRunnable);
+                    flushHandler.postDelayed(flushRunnable, FLUSH_DELAY_MS);
+                }
+            }
+
+            @Override
+            public void onFailed() {
+                Log.d(TAG, "Network load[" + index + "] FAILED: " + stationUuid + " url=" + url);
+                markUrlDeadIfOnline(url);
+                if (isIconUrl && hasUuid) {
+                    cache.recordIconUrlRetryTime(stationUuid);
+                }
+                if (isWanted()) {
+                    loadIconFromNetwork(holder, urls, index + 1, hasIconUrl, targetPxSize, maxPxSize, homePageUrl, stationUuid);
+                }
+            }
+
+            @Override
+            public boolean isWanted() {
+                return Objects.equals(holder.getTag(R.id.tag_station_uuid), stationUuid);
+            }
+        });
+    }
+
+    /**
+     * 把加载失败的 URL 记为失效。离线时的失败与 URL 本身无关，不记录。
+     */
+    private static void markUrlDeadIfOnline(String url) {
+        StationIconCache.getInstance(mainContext).markUrlDeadIfOnline(url);
     }
 
     /** 待重试请求 */
@@ -600,8 +634,7 @@ public class PlayerServiceUtil {
 
     private static final Set<String> failedFallbackDomains = new HashSet<>();
 
-    // 持有 Picasso Target 的强引用，防止被 GC
-    private static final java.util.List<Target> backgroundTargets = new ArrayList<>();
+    private static final IconFetchScheduler iconFetchScheduler = new IconFetchScheduler();
 
     private static List<String> buildFallbackUrls(String homePageUrl) {
         List<String> fallbacks = new ArrayList<>();
@@ -638,67 +671,50 @@ public class PlayerServiceUtil {
     private static void retryIconUrlInBackground(final String iconUrl, final String stationUuid,
                                                   final ImageView holder, final int targetPxSize,
                                                   final int maxPxSize) {
-        final Target target = new Target() {
+        // 定期重试本身就是为了确认 IconUrl 是否恢复，因此不检查失效 URL 缓存
+        iconFetchScheduler.fetch(iconUrl, maxPxSize, IconFetchScheduler.PRIORITY_BACKGROUND, new IconFetchScheduler.Listener() {
             @Override
-            public void onBitmapLoaded(Bitmap bitmap, Picasso.LoadedFrom from) {
-                if (bitmap != null) {
-                    if (isTruncatedBitmap(bitmap)) {
-                        Log.w("PlayerServiceUtil", "Background IconUrl load truncated, skipping for: " + stationUuid);
-                        backgroundTargets.remove(this);
-                        return;
-                    }
-                    boolean isFavorite = isStationFavorited(stationUuid);
-                    StationIconCache cache = StationIconCache.getInstance(mainContext);
-                    cache.saveIcon(stationUuid, bitmap, isFavorite);
-                    cache.clearFallbackMark(stationUuid);
-                    cache.recordIconUrlRetryTime(stationUuid);
-                    Log.d("PlayerServiceUtil", "Background IconUrl upgrade succeeded for: " + stationUuid);
-
-                    if (holder != null) {
-                        holder.post(() -> {
-                            Object tag = holder.getTag(R.id.tag_station_uuid);
-                            if (tag == null || !tag.equals(stationUuid)) return;
-
-                            Drawable currentDrawable = holder.getDrawable();
-                            int currentWidth = 0;
-                            if (currentDrawable instanceof android.graphics.drawable.BitmapDrawable) {
-                                currentWidth = ((android.graphics.drawable.BitmapDrawable) currentDrawable).getBitmap().getWidth();
-                            }
+            public void onLoaded(@NonNull Bitmap bitmap) {
+                if (isTruncatedBitmap(bitmap)) {
+                    Log.w("PlayerServiceUtil", "Background IconUrl load truncated, skipping for: " + stationUuid);
+                    return;
+                }
+                boolean isFavorite = isStationFavorited(stationUuid);
+                StationIconCache cache = StationIconCache.getInstance(mainContext);
+                cache.saveIcon(stationUuid, bitmap, isFavorite);
+                cache.clearFallbackMark(stationUuid);
+                cache.recordIconUrlRetryTime(stationUuid);
+                cache.clearUrlDead(iconUrl);
+                Log.d("PlayerServiceUtil", "Background IconUrl upgrade succeeded for: " + stationUuid);
+
+                if (holder == null) return;
+                Object tag = holder.getTag(R.id.tag_station_uuid);
+                if (tag == null || !tag.equals(stationUuid)) return;
+
+                Drawable currentDrawable = holder.getDrawable();
+                int currentWidth = 0;
+                if (currentDrawable instanceof android.graphics.drawable.BitmapDrawable) {
+                    currentWidth = ((android.graphics.drawable.BitmapDrawable) currentDrawable).getBitmap().getWidth();
+                }
 
-                            // 只有新图标 >= 当前图标时才替换显示，避免用更小的主图覆盖清晰的回退图
-                            if (bitmap.getWidth() >= currentWidth) {
-                                holder.setImageBitmap(bitmap);
-                                applySmartDisplayLogic(holder, targetPxSize, stationUuid);
-                            } else {
-                                Log.d("PlayerServiceUtil", "Background IconUrl smaller than current display (" +
-                                        bitmap.getWidth() + " vs " + currentWidth + "), keeping current for: " + stationUuid);
-                            }
-                        });
-                    }
+                // 只有新图标 >= 当前图标时才替换显示，避免用更小的主图覆盖清晰的回退图
+                if (bitmap.getWidth() >= currentWidth) {
+                    holder.setImageBitmap(bitmap);
+                    applySmartDisplayLogic(holder, targetPxSize, stationUuid);
+                } else {
+                    Log.d("PlayerServiceUtil", "Background IconUrl smaller than current display (" +
+                            bitmap.getWidth() + " vs " + currentWidth + "), keeping current for: " + stationUuid);
                 }
-                backgroundTargets.remove(this);
             }
 
             @Override
-            public void onBitmapFailed(Exception e, Drawable errorDrawable) {
+            public void onFailed() {
                 StationIconCache.getInstance(mainContext).recordIconUrlRetryTime(stationUuid);
+                markUrlDeadIfOnline(iconUrl);
                 Log.d("PlayerServiceUtil", "Background IconUrl upgrade failed for: "
                         + stationUuid + ", will retry later");
-                backgroundTargets.remove(this);
             }
-
-            @Override
-            public void onPrepareLoad(Drawable placeHolderDrawable) {}
-        };
-
-        backgroundTargets.add(target);
-
-        Picasso.get()
-                .load(iconUrl)
-                .resize(maxPxSize, 0)
-                .onlyScaleDown()
-                .networkPolicy(NetworkPolicy.NO_CACHE)
-                .into(target);
+        });
     }
 
     /**
@@ -855,6 +871,10 @@ public class PlayerServiceUtil {
         if (hdDiscoveryAttempted.contains(stationUuid)) return;
         hdDiscoveryAttempted.add(stationUuid);
 
+        // 主页上找不到图标的结果同样记入失效缓存，重启后不再抓取
+        final String discoveryKey = "discover:" + homePageUrl;
+        if (StationIconCache.getInstance(mainContext).isUrlKnownDead(discoveryKey)) return;
+
         discoveryExecutor.execute(() -> {
             try {
                 List<DiscoveredIcon> discoveredIcons = new ArrayList<>();
@@ -875,7 +895,10 @@ public class PlayerServiceUtil {
                     }
                 } catch (Exception ignored) {}
 
-                if (discoveredIcons.isEmpty()) return;
+                if (discoveredIcons.isEmpty()) {
+                    markUrlDeadIfOnline(discoveryKey);
+                    return;
+                }
 
                 Collections.sort(discoveredIcons, (a, b) -> b.size - a.size);
 
@@ -904,69 +927,56 @@ public class PlayerServiceUtil {
         if (startIndex >= icons.size()) return;
 
         final String url = icons.get(startIndex).url;
+        if (StationIconCache.getInstance(mainContext).isUrlKnownDead(url)) {
+            tryDiscoveredIconUrls(icons, startIndex + 1, stationUuid, holder, targetPxSize, maxPxSize);
+            return;
+        }
         Log.d(TAG, "HD discovery[" + startIndex + "]: " + stationUuid + " url=" + url + " size=" + icons.get(startIndex).size);
 
-        final Target target = new Target() {
+        iconFetchScheduler.fetch(url, maxPxSize, IconFetchScheduler.PRIORITY_BACKGROUND, new IconFetchScheduler.Listener() {
             @Override
-            public void onBitmapLoaded(Bitmap bitmap, Picasso.LoadedFrom from) {
-                if (bitmap != null) {
-                    if (isTruncatedBitmap(bitmap)) {
-                        Log.w(TAG, "HD discovery truncated, skipping for: " + stationUuid);
-                        tryDiscoveredIconUrls(icons, startIndex + 1, stationUuid, holder, targetPxSize, maxPxSize);
-                        backgroundTargets.remove(this);
-                        return;
-                    }
-                    boolean isFavorite = isStationFavorited(stationUuid);
-                    StationIconCache cache = StationIconCache.getInstance(mainContext);
-
-                    if (holder != null) {
-                        Object tag = holder.getTag(R.id.tag_station_uuid);
-                        if (tag == null || !tag.equals(stationUuid)) {
-                            backgroundTargets.remove(this);
-                            return;
-                        }
-
-                        Drawable currentDrawable = holder.getDrawable();
-                        int currentWidth = 0;
-                        if (currentDrawable instanceof android.graphics.drawable.BitmapDrawable) {
-                            currentWidth = ((android.graphics.drawable.BitmapDrawable) currentDrawable).getBitmap().getWidth();
-                        }
+            public void onLoaded(@NonNull Bitmap bitmap) {
+                if (isTruncatedBitmap(bitmap)) {
+                    Log.w(TAG, "HD discovery truncated, skipping for: " + stationUuid);
+                    tryDiscoveredIconUrls(icons, startIndex + 1, stationUuid, holder, targetPxSize, maxPxSize);
+                    return;
+                }
+                StationIconCache cache = StationIconCache.getInstance(mainContext);
+                cache.clearUrlDead(url);
+                if (!isWanted()) return;
+
+                Drawable currentDrawable = holder.getDrawable();
+                int currentWidth = 0;
+                if (currentDrawable instanceof android.graphics.drawable.BitmapDrawable) {
+                    currentWidth = ((android.graphics.drawable.BitmapDrawable) currentDrawable).getBitmap().getWidth();
+                }
 
-                        // 只有新图标 >= 当前图标时才替换显示
-                        if (bitmap.getWidth() >= currentWidth) {
-                            cache.saveIcon(stationUuid, bitmap, isFavorite);
-                            cache.clearFallbackMark(stationUuid);
-                            Log.d(TAG, "HD discovery succeeded for: " + stationUuid);
-                            holder.setImageBitmap(bitmap);
-                            applySmartDisplayLogic(holder, targetPxSize, stationUuid);
-                        } else {
-                            Log.d(TAG, "HD discovery icon smaller than current (" +
-                                    bitmap.getWidth() + " vs " + currentWidth + "), skipping for: " + stationUuid);
-                        }
-                    }
+                // 只有新图标 >= 当前图标时才替换显示
+                if (bitmap.getWidth() >= currentWidth) {
+                    cache.saveIcon(stationUuid, bitmap, isStationFavorited(stationUuid));
+                    cache.clearFallbackMark(stationUuid);
+                    Log.d(TAG, "HD discovery succeeded for: " + stationUuid);
+                    holder.setImageBitmap(bitmap);
+                    applySmartDisplayLogic(holder, targetPxSize, stationUuid);
+                } else {
+                    Log.d(TAG, "HD discovery icon smaller than current (" +
+                            bitmap.getWidth() + " vs " + currentWidth + "), skipping for: " + stationUuid);
                 }
-                backgroundTargets.remove(this);
             }
 
             @Override
-            public void onBitmapFailed(Exception e, Drawable errorDrawable) {
+            public void onFailed() {
                 Log.d(TAG, "HD discovery[" + startIndex + "] FAILED: " + stationUuid + " url=" + url);
+                markUrlDeadIfOnline(url);
                 tryDiscoveredIconUrls(icons, startIndex + 1, stationUuid, holder, targetPxSize, maxPxSize);
-                backgroundTargets.remove(this);
             }
 
             @Override
-            public void onPrepareLoad(Drawable placeHolderDrawable) {}
-        };
-
-        backgroundTargets.add(target);
-
-        Picasso.get()
-                .load(url)
-                .resize(maxPxSize, 0)
-                .onlyScaleDown()
-                .networkPolicy(NetworkPolicy.NO_CACHE)
-                .into(target);
+            public boolean isWanted() {
+                Object tag = holder.getTag(R.id.tag_station_uuid);
+                return tag != null && tag.equals(stationUuid);
+            }
+        });
     }
 
     private static String fetchUrlContent(String urlStr) {
@@ -1238,15 +1248,19 @@ public class PlayerServiceUtil {
         return 0;
     }
 
-    public static long getBufferedSeconds() {
+    /**
+     * While enabled, the service broadcasts {@link PlayerService#PLAYER_SERVICE_BUFFER_HEALTH}
+     * whenever the buffer of the stream changes.
+     */
+    public static void setBufferHealthUpdatesEnabled(boolean enabled) {
+        bufferHealthUpdatesEnabled = enabled;
         if (itsPlayerService != null) {
             try {
-                return itsPlayerService.getBufferedSeconds();
+                itsPlayerService.setBufferHealthUpdatesEnabled(enabled);
             } catch (RemoteException e) {
                 Log.e("", "" + e);
             }
         }
-        return 0;
     }
 
     public static long getLastPlayStartTime() {
@@ -93,17 +93,14 @@ public class RadioDroidBrowser {
 
                 // 优先从缓存加载
                 StationIconCache iconCache = StationIconCache.getInstance(context);
-                String cachedPath = iconCache.getIconPath(station.StationUuid);
-                if (cachedPath != null) {
-                    try {
-                        Bitmap cachedBitmap = iconCache.getIconBitmap(station.StationUuid);
-                        if (cachedBitmap != null) {
-                            stationIdToIcon.put(station.StationUuid, cachedBitmap);
-                            countDownLatch.countDown();
-                            continue;
-                        }
-                    } catch (Exception ignored) {}
-                }
+                try {
+                    Bitmap cachedBitmap = iconCache.getIconBitmap(station.StationUuid, 128);
+                    if (cachedBitmap != null) {
+                        stationIdToIcon.put(station.StationUuid, cachedBitmap);
+                        countDownLatch.countDown();
+                        continue;
+                    }
+                } catch (Exception ignored) {}
 
                 Target imageLoadTarget = new Target() {
                     @Override
@@ -200,8 +197,12 @@ public class RadioDroidBrowser {
         }
     }
 
-    public RadioDroidBrowser(RadioDroidApp radioDroidApp) {
+    public RadioDroidBrowser(RadioDroidApp radioDroidApp, MediaBrowserServiceCompat service) {
         this.radioDroidApp = radioDroidApp;
+
+        // 冷启动时列表还在后台读取，客户端先拿到空列表，读完后通知它重新加载
+        radioDroidApp.getFavouriteManager().runWhenLoaded(() -> service.notifyChildrenChanged(MEDIA_ID_MUSICS_FAVORITE));
+        radioDroidApp.getHistoryManager().runWhenLoaded(() -> service.notifyChildrenChanged(MEDIA_ID_MUSICS_HISTORY));
     }
 
    @Nullable
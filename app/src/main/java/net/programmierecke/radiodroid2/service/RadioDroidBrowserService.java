@@ -57,7 +57,7 @@ public class RadioDroidBrowserService extends MediaBrowserServiceCompat {
     public void onCreate() {
         super.onCreate();
 
-        radioDroidBrowser = new RadioDroidBrowser((RadioDroidApp) getApplication());
+        radioDroidBrowser = new RadioDroidBrowser((RadioDroidApp) getApplication(), this);
 
         Intent anIntent = new Intent(this, PlayerService.class);
         anIntent.putExtra(PlayerService.PLAYER_SERVICE_NO_NOTIFICATION_EXTRA, true);
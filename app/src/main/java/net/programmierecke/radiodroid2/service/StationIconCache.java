@@ -3,22 +3,44 @@ package net.programmierecke.radiodroid2.service;
 import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.Build;
 import android.util.Log;
+import android.util.TypedValue;
 
+import com.squareup.picasso.Cache;
+import com.squareup.picasso.LruCache;
+
+import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.FileReader;
 import java.io.IOException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
- * 电台图标双层缓存：永久缓存 + 半永久缓存。
+ * 电台图标两级缓存：内存 LRU + 有字节预算的磁盘 LRU。
+ *
+ * 内存：按字节计算大小的 LRU，保存解码并缩小后的位图。Picasso 也使用同一个实例作为内存缓存
+ * （见 RadioDroidApp），列表、通知和 Android Auto 共用一份预算。
  *
- * 永久缓存：收藏电台的图标，保存到应用卸载为止。取消收藏时图标移入半永久缓存。
- * 半永久缓存：非收藏电台的图标，7天TTL。每次读取时重置TTL为7天。
- *   - 经常使用的电台图标会因TTL重置而持续保留
- *   - 不常用的电台图标会在7天后自动过期
+ * 磁盘：
+ * - 收藏电台的图标固定（pinned）在永久缓存目录，永不淘汰。取消收藏时移入半永久缓存。
+ * - 其他电台的图标在半永久缓存目录，总大小超出预算时按最近访问时间淘汰最久未用的。
+ * - 每个图标的元数据（层级、大小、最近访问、已校验、fallback 标记、重试时间）保存在
+ *   StationIconJournal 日志中，不再为每个电台单独写标记文件。
  *
  * 所有需要加载电台图标的地方统一使用此缓存：
  * 1. 先查永久缓存 -> 再查半永久缓存 -> 最后执行多渠道回退策略
@@ -28,35 +50,76 @@ import java.security.NoSuchAlgorithmException;
  * - 当图标通过回退URL（非原始IconUrl）加载时，标记为 fallback 来源
  * - 后续缓存命中时若为 fallback 来源，可触发后台重试原始 IconUrl
  * - 原始 IconUrl 加载成功后清除 fallback 标记并覆盖缓存
+ *
+ * 内存索引：
+ * - 启动时在后台线程读取一次日志并核对缓存目录，建立 文件名 -> 元数据 的索引
+ * - 查询（getIconPath / isFallbackCached / shouldRetryIconUrl）只查索引，不做任何磁盘 I/O，
+ *   可以在列表绑定时直接调用
+ * - 所有磁盘写操作都在同一个后台线程中按顺序执行，执行完后更新索引和日志
+ * - 保存时校验内存中的位图是否为截断下载；磁盘上的文件按容器结构校验（见 IconIntegrity），
+ *   只读文件首尾几个字节，旧文件在后台逐个校验，从磁盘解码前也再校验一次
+ *
+ * 存储格式：
+ * - 图标在保存时一次性缩小到列表/通知的显示尺寸（70dp，至少 128px 供 Android Auto 使用），
+ *   以有损 WebP 保存，命中时只需解码几 KB，不必每次再解码大图并缩放
+ * - 旧版本保存的原尺寸 PNG 在后台校验时顺便转换
+ * - 文件名后缀沿用 .png 作为缓存 key，解码按内容识别格式
+ *
+ * 失效 URL：
+ * - 加载失败的图标 URL（包括由主页推测的回退 URL）记录在日志中，3天内不再请求
  */
 public class StationIconCache {
 
     private static final String TAG = "StationIconCache";
     private static final String PERMANENT_DIR_NAME = "station_icon_permanent";
     private static final String SEMI_PERMANENT_DIR_NAME = "station_icon_semipermanent";
-    private static final String FALLBACK_SUFFIX = ".fallback";
-    private static final String ICONURL_RETRY_SUFFIX = ".iconurl_retry";
-    private static final long SEMI_PERMANENT_TTL_MS = 7L * 24 * 60 * 60 * 1000; // 7天
+    private static final String JOURNAL_NAME = "station_icon_journal";
+    // 只是文件名的一部分，内容可能是 WebP（见 encodeIcon）
+    private static final String ICON_SUFFIX = ".png";
+    private static final String TEMP_SUFFIX = ".tmp";
     private static final long ICONURL_RETRY_INTERVAL_MS = 4L * 60 * 60 * 1000; // 4小时
+    private static final long DEAD_URL_TTL_MS = 3L * 24 * 60 * 60 * 1000; // 3天
+    // 保存的图标尺寸：列表和通知中显示为 70dp，Android Auto 使用 128px
+    private static final int STORED_ICON_DP = 70;
+    private static final int STORED_ICON_MIN_PX = 128;
+    private static final int WEBP_QUALITY = 80;
+    // 磁盘缓存预算，包括永久缓存；超出时只淘汰半永久缓存
+    private static final long DISK_BUDGET_BYTES = 24L * 1024 * 1024;
+    // 命中时最多每小时把访问时间写入一次日志，内存中的访问时间每次都更新
+    private static final long ACCESS_JOURNAL_INTERVAL_MS = 60L * 60 * 1000;
+
+    // 旧版本的标记文件和校验列表，加载时合并进日志
+    private static final String LEGACY_FALLBACK_SUFFIX = ".fallback";
+    private static final String LEGACY_ICONURL_RETRY_SUFFIX = ".iconurl_retry";
+    private static final String LEGACY_VERIFIED_LIST_NAME = "station_icon_verified";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
 
     private static StationIconCache instance;
 
     private final File permanentDir;
     private final File semiPermanentDir;
     private final Context appContext;
+    private final int storedIconPx;
+    private final LruCache memoryCache;
+    private final StationIconJournal journal;
+
+    // key 为缓存文件名（见 getCacheFileName），只在 ioExecutor 中修改
+    private final Map<String, StationIconJournal.Entry> index = new ConcurrentHashMap<>();
+    // key 为 URL 的 MD5，value 为失败时间
+    private final Map<String, Long> deadUrls = new ConcurrentHashMap<>();
+    private volatile boolean indexLoaded = false;
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "StationIconCache"));
 
     private StationIconCache(Context context) {
         appContext = context.getApplicationContext();
         permanentDir = new File(appContext.getFilesDir(), PERMANENT_DIR_NAME);
         semiPermanentDir = new File(appContext.getFilesDir(), SEMI_PERMANENT_DIR_NAME);
-        if (!permanentDir.exists()) {
-            permanentDir.mkdirs();
-        }
-        if (!semiPermanentDir.exists()) {
-            semiPermanentDir.mkdirs();
-        }
-        // 迁移旧版缓存目录（station_icon_cache）中的文件到永久缓存
-        migrateOldCache();
+        storedIconPx = Math.max(STORED_ICON_MIN_PX, (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP,
+                STORED_ICON_DP, appContext.getResources().getDisplayMetrics()));
+        memoryCache = new LruCache(appContext);
+        journal = new StationIconJournal(new File(appContext.getFilesDir(), JOURNAL_NAME));
+        ioExecutor.execute(this::loadIndex);
     }
 
     /**
@@ -70,7 +133,7 @@ public class StationIconCache {
         File[] oldFiles = oldCacheDir.listFiles();
         if (oldFiles == null) return;
         for (File oldFile : oldFiles) {
-            if (oldFile.isFile() && oldFile.getName().endsWith(".png")) {
+            if (oldFile.isFile() && oldFile.getName().endsWith(ICON_SUFFIX)) {
                 File newFile = new File(permanentDir, oldFile.getName());
                 if (!newFile.exists()) {
                     oldFile.renameTo(newFile);
@@ -93,27 +156,332 @@ public class StationIconCache {
         return instance;
     }
 
+    /**
+     * 内存缓存，同时作为 Picasso 的内存缓存使用。
+     */
+    public Cache getMemoryCache() {
+        return memoryCache;
+    }
+
     /**
      * 生成缓存文件名，使用 stationUuid 的 MD5 哈希避免文件名中的特殊字符问题
      */
     private String getCacheFileName(String stationUuid) {
+        return md5Hex(stationUuid) + ICON_SUFFIX;
+    }
+
+    private static String md5Hex(String value) {
         try {
             MessageDigest md = MessageDigest.getInstance("MD5");
-            byte[] digest = md.digest(stationUuid.getBytes());
-            StringBuilder sb = new StringBuilder();
-            for (byte b : digest) {
-                sb.append(String.format("%02x", b));
+            byte[] digest = md.digest(value.getBytes());
+            char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX_DIGITS[(digest[i] >> 4) & 0x0F];
+                hex[i * 2 + 1] = HEX_DIGITS[digest[i] & 0x0F];
             }
-            return sb.toString() + ".png";
+            return new String(hex);
         } catch (NoSuchAlgorithmException e) {
-            return stationUuid.replaceAll("[^a-zA-Z0-9_-]", "_") + ".png";
+            return value.replaceAll("[^a-zA-Z0-9_-]", "_");
         }
     }
 
+    private File getIconFile(String fileName, StationIconJournal.Entry entry) {
+        return new File(entry.pinned ? permanentDir : semiPermanentDir, fileName);
+    }
+
+    // ==================== 索引与日志 ====================
+
+    /**
+     * 在 ioExecutor 中执行：读取日志并与缓存目录核对，然后逐个校验尚未校验过的文件。
+     */
+    private void loadIndex() {
+        long start = System.currentTimeMillis();
+        if (!permanentDir.exists()) {
+            permanentDir.mkdirs();
+        }
+        if (!semiPermanentDir.exists()) {
+            semiPermanentDir.mkdirs();
+        }
+        // 迁移旧版缓存目录（station_icon_cache）中的文件到永久缓存
+        migrateOldCache();
+
+        Map<String, Long> loadedDeadUrls = new HashMap<>();
+        Map<String, StationIconJournal.Entry> loaded = journal.read(loadedDeadUrls);
+        Set<String> permanentIcons = new HashSet<>();
+        Set<String> semiPermanentIcons = new HashSet<>();
+        scanDir(permanentDir, permanentIcons, loaded);
+        scanDir(semiPermanentDir, semiPermanentIcons, loaded);
+
+        for (Map.Entry<String, StationIconJournal.Entry> item : loaded.entrySet()) {
+            String fileName = item.getKey();
+            StationIconJournal.Entry entry = item.getValue();
+            boolean inPermanent = permanentIcons.contains(fileName);
+            boolean inSemiPermanent = semiPermanentIcons.contains(fileName);
+
+            if (!inPermanent && !inSemiPermanent) {
+                // 日志中有但文件不存在（例如日志写入前进程被杀），或只剩重试时间戳
+                entry.length = 0;
+                entry.verified = false;
+                entry.compact = false;
+                entry.fallback = false;
+                continue;
+            }
+
+            if (inPermanent && inSemiPermanent) {
+                // 移动过程中被中断，以日志记录的层级为准
+                new File(entry.pinned ? semiPermanentDir : permanentDir, fileName).delete();
+            } else {
+                entry.pinned = inPermanent;
+            }
+
+            if (entry.length < 0) {
+                // 日志中没有记录的文件
+                File file = getIconFile(fileName, entry);
+                entry.length = file.length();
+                entry.lastAccess = file.lastModified();
+                if (entry.length == 0) {
+                    file.delete();
+                }
+            }
+        }
+        for (Map.Entry<String, StationIconJournal.Entry> item : new ArrayList<>(loaded.entrySet())) {
+            if (item.getValue().isEmpty()) {
+                loaded.remove(item.getKey());
+            }
+        }
+        mergeLegacyVerifiedList(loaded);
+
+        index.putAll(loaded);
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, Long> item : loadedDeadUrls.entrySet()) {
+            // 启动期间新记录的失败时间更新
+            if (now - item.getValue() < DEAD_URL_TTL_MS) {
+                deadUrls.putIfAbsent(item.getKey(), item.getValue());
+            }
+        }
+        indexLoaded = true;
+
+        // 每次启动压缩一次日志，同时保证之后的追加不会接在被截断的最后一行后面
+        try {
+            journal.rewrite(index, deadUrls);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to rewrite icon journal", e);
+        }
+
+        List<String> pending = new ArrayList<>();
+        for (Map.Entry<String, StationIconJournal.Entry> item : index.entrySet()) {
+            StationIconJournal.Entry entry = item.getValue();
+            if (entry.hasIcon() && (!entry.verified || !entry.compact)) {
+                pending.add(item.getKey());
+            }
+        }
+
+        Log.d(TAG, "loadIndex: " + index.size() + " entries, " + pending.size() + " to verify or compact, "
+                + (System.currentTimeMillis() - start) + "ms");
+
+        trimToBudget();
+        // 每个任务只处理一个文件，其他缓存操作可以穿插执行
+        verifyNext(pending, 0);
+    }
+
+    /**
+     * 收集目录中的图标文件名。日志中没有的图标以 length = -1 加入，由调用方补全；
+     * 旧版本的标记文件合并进对应条目后删除。
+     */
+    private void scanDir(File dir, Set<String> iconNames, Map<String, StationIconJournal.Entry> loaded) {
+        String[] names = dir.list();
+        if (names == null) return;
+
+        for (String name : names) {
+            if (name.endsWith(ICON_SUFFIX)) {
+                iconNames.add(name);
+                if (!loaded.containsKey(name)) {
+                    StationIconJournal.Entry entry = new StationIconJournal.Entry();
+                    entry.pinned = dir.equals(permanentDir);
+                    entry.length = -1;
+                    loaded.put(name, entry);
+                } else if (loaded.get(name).length == 0) {
+                    loaded.get(name).length = -1;
+                }
+            } else if (name.endsWith(LEGACY_FALLBACK_SUFFIX)) {
+                getOrCreate(loaded, name.substring(0, name.length() - LEGACY_FALLBACK_SUFFIX.length())).fallback = true;
+                new File(dir, name).delete();
+            } else if (name.endsWith(LEGACY_ICONURL_RETRY_SUFFIX)) {
+                File file = new File(dir, name);
+                StationIconJournal.Entry entry = getOrCreate(loaded, name.substring(0, name.length() - LEGACY_ICONURL_RETRY_SUFFIX.length()));
+                entry.iconUrlRetryTime = Math.max(entry.iconUrlRetryTime, file.lastModified());
+                file.delete();
+            } else if (name.endsWith(TEMP_SUFFIX)) {
+                // 写入过程中被中断留下的临时文件
+                new File(dir, name).delete();
+            }
+        }
+    }
+
+    private void mergeLegacyVerifiedList(Map<String, StationIconJournal.Entry> loaded) {
+        File listFile = new File(appContext.getFilesDir(), LEGACY_VERIFIED_LIST_NAME);
+        if (!listFile.exists()) {
+            return;
+        }
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new FileReader(listFile));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                StationIconJournal.Entry entry = loaded.get(line);
+                if (entry != null && entry.hasIcon()) {
+                    entry.verified = true;
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read verified icon list", e);
+        } finally {
+            if (reader != null) {
+                try { reader.close(); } catch (IOException ignored) {}
+            }
+        }
+        listFile.delete();
+    }
+
+    private static StationIconJournal.Entry getOrCreate(Map<String, StationIconJournal.Entry> map, String fileName) {
+        StationIconJournal.Entry entry = map.get(fileName);
+        if (entry == null) {
+            entry = new StationIconJournal.Entry();
+            map.put(fileName, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * 把条目写入日志；条目已经不需要保存时从索引和日志中删除。在 ioExecutor 中调用。
+     */
+    private void persist(String fileName, StationIconJournal.Entry entry) {
+        try {
+            if (entry.isEmpty()) {
+                index.remove(fileName, entry);
+                journal.remove(fileName);
+            } else {
+                journal.put(fileName, entry);
+            }
+
+            if (journal.needsRewrite(index.size() + deadUrls.size())) {
+                journal.rewrite(index, deadUrls);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write icon journal", e);
+        }
+    }
+
+    /**
+     * 校验旧版本保存的文件是否截断，并转换为缩小后的 WebP。
+     * 截断只按文件结构判断，只有需要转换格式的文件才完整解码。
+     */
+    private void verifyNext(final List<String> fileNames, final int position) {
+        if (position >= fileNames.size()) {
+            return;
+        }
+
+        String fileName = fileNames.get(position);
+        StationIconJournal.Entry entry = index.get(fileName);
+        if (entry != null && entry.hasIcon() && (!entry.verified || !entry.compact)) {
+            File file = getIconFile(fileName, entry);
+            Bitmap bitmap = null;
+            if (IconIntegrity.isComplete(file) && (entry.compact || (bitmap = decodeForStorage(file)) != null)) {
+                if (bitmap != null) {
+                    try {
+                        entry.length = encodeIcon(bitmap, file);
+                        entry.compact = true;
+                        invalidateMemory(fileName);
+                    } catch (IOException e) {
+                        Log.w(TAG, "verify: failed to compact " + fileName, e);
+                    }
+                    bitmap.recycle();
+                }
+                entry.verified = true;
+                persist(fileName, entry);
+            } else {
+                Log.w(TAG, "verify: truncated cache detected, deleting: " + fileName);
+                deleteIconFiles(fileName);
+            }
+        }
+
+        ioExecutor.execute(() -> verifyNext(fileNames, position + 1));
+    }
+
+    /**
+     * 磁盘缓存超出预算时，按最近访问时间淘汰最久未用的半永久缓存图标。
+     * 重试时间戳保留，避免刚淘汰就重新探测失效的 IconUrl。在 ioExecutor 中调用。
+     */
+    private void trimToBudget() {
+        long totalBytes = 0;
+        List<Map.Entry<String, StationIconJournal.Entry>> evictable = new ArrayList<>();
+        for (Map.Entry<String, StationIconJournal.Entry> item : index.entrySet()) {
+            StationIconJournal.Entry entry = item.getValue();
+            if (entry.hasIcon()) {
+                totalBytes += entry.length;
+                if (!entry.pinned) {
+                    evictable.add(item);
+                }
+            }
+        }
+        if (totalBytes <= DISK_BUDGET_BYTES) {
+            return;
+        }
+
+        Collections.sort(evictable, (a, b) -> Long.compare(a.getValue().lastAccess, b.getValue().lastAccess));
+
+        int evicted = 0;
+        for (Map.Entry<String, StationIconJournal.Entry> item : evictable) {
+            if (totalBytes <= DISK_BUDGET_BYTES) {
+                break;
+            }
+            String fileName = item.getKey();
+            StationIconJournal.Entry entry = item.getValue();
+
+            totalBytes -= entry.length;
+            getIconFile(fileName, entry).delete();
+            invalidateMemory(fileName);
+            entry.length = 0;
+            entry.verified = false;
+            entry.compact = false;
+            entry.fallback = false;
+            persist(fileName, entry);
+            evicted++;
+        }
+
+        Log.d(TAG, "trimToBudget: evicted " + evicted + " icons, " + totalBytes + "B left");
+    }
+
+    /**
+     * 删除图标文件，并从索引和日志中移除。在 ioExecutor 中调用。
+     */
+    private void deleteIconFiles(String fileName) {
+        new File(permanentDir, fileName).delete();
+        new File(semiPermanentDir, fileName).delete();
+        invalidateMemory(fileName);
+        index.remove(fileName);
+        try {
+            journal.remove(fileName);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write icon journal", e);
+        }
+    }
+
+    /**
+     * 从内存缓存中移除该图标的所有尺寸，包括 Picasso 以文件 Uri 为 key 缓存的位图。
+     */
+    private void invalidateMemory(String fileName) {
+        memoryCache.clearKeyUri(fileName);
+        memoryCache.clearKeyUri(Uri.fromFile(new File(permanentDir, fileName)).toString());
+        memoryCache.clearKeyUri(Uri.fromFile(new File(semiPermanentDir, fileName)).toString());
+    }
+
+    // ==================== 查询 ====================
+
     /**
      * 获取电台图标的缓存路径。优先查永久缓存，再查半永久缓存。
-     * 从半永久缓存命中时，自动重置TTL为7天。
-     * 如果检测到缓存文件为截断的损坏位图，自动删除并返回null。
+     * 命中时更新最近访问时间，用于 LRU 淘汰。
+     * 只查内存索引，不做磁盘 I/O，可以在主线程调用。
      *
      * @return 缓存文件路径，无缓存返回null
      */
@@ -121,227 +489,346 @@ public class StationIconCache {
         if (stationUuid == null || stationUuid.isEmpty()) {
             return null;
         }
-        String fileName = getCacheFileName(stationUuid);
+        final String fileName = getCacheFileName(stationUuid);
+
+        if (!indexLoaded) {
+            // 索引还在加载（只在启动后很短时间内发生），直接查文件
+            return getIconPathFromDisk(stationUuid, fileName);
+        }
+
+        final StationIconJournal.Entry entry = index.get(fileName);
+        if (entry == null || !entry.hasIcon()) {
+            Log.d(TAG, "getIconPath MISS: " + stationUuid);
+            return null;
+        }
+
+        final long now = System.currentTimeMillis();
+        entry.lastAccess = now;
+        if (now - entry.journaledAccess > ACCESS_JOURNAL_INTERVAL_MS) {
+            entry.journaledAccess = now;
+            ioExecutor.execute(() -> {
+                if (index.get(fileName) == entry) {
+                    persist(fileName, entry);
+                }
+            });
+        }
+
+        File file = getIconFile(fileName, entry);
+        Log.d(TAG, "getIconPath HIT " + (entry.pinned ? "permanent" : "semipermanent") + ": " + stationUuid
+                + " size=" + entry.length + "B");
+        return file.getAbsolutePath();
+    }
+
+    /**
+     * 是否已缓存图标。与 {@link #getIconPath} 不同，不算作一次访问，不影响 LRU 顺序。
+     * 索引加载完成前返回 false，后台任务先调用 {@link #awaitIndexLoaded()}。
+     */
+    public boolean hasIcon(String stationUuid) {
+        if (stationUuid == null || stationUuid.isEmpty() || !indexLoaded) {
+            return false;
+        }
+        StationIconJournal.Entry entry = index.get(getCacheFileName(stationUuid));
+        return entry != null && entry.hasIcon();
+    }
 
-        // 优先查永久缓存
+    /**
+     * 等待索引加载完成。会阻塞，只能在后台线程调用。
+     */
+    public void awaitIndexLoaded() {
+        if (indexLoaded) {
+            return;
+        }
+        try {
+            // 索引在 I/O 线程上加载，排在它之后的任务执行时索引已就绪
+            ioExecutor.submit(() -> {}).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Log.w(TAG, "awaitIndexLoaded failed", e);
+        }
+    }
+
+    private String getIconPathFromDisk(String stationUuid, String fileName) {
         File permanentFile = new File(permanentDir, fileName);
         if (permanentFile.exists() && permanentFile.length() > 0) {
-            if (isCachedIconTruncated(permanentFile)) {
-                Log.w(TAG, "getIconPath: truncated permanent cache detected, deleting: " + stationUuid);
-                permanentFile.delete();
-                clearFallbackMark(stationUuid);
-                clearIconUrlRetryTime(stationUuid);
-            } else {
-                Log.d(TAG, "getIconPath HIT permanent: " + stationUuid + " size=" + permanentFile.length() + "B");
-                return permanentFile.getAbsolutePath();
-            }
+            return permanentFile.getAbsolutePath();
         }
 
-        // 查半永久缓存
         File semiFile = new File(semiPermanentDir, fileName);
         if (semiFile.exists() && semiFile.length() > 0) {
-            // 检查是否过期
-            long now = System.currentTimeMillis();
-            long lastModified = semiFile.lastModified();
-            if (now - lastModified > SEMI_PERMANENT_TTL_MS) {
-                // 已过期，删除
-                Log.d(TAG, "getIconPath EXPIRED: " + stationUuid);
-                semiFile.delete();
-                return null;
-            }
-            if (isCachedIconTruncated(semiFile)) {
-                Log.w(TAG, "getIconPath: truncated semipermanent cache detected, deleting: " + stationUuid);
-                semiFile.delete();
-                clearFallbackMark(stationUuid);
-                clearIconUrlRetryTime(stationUuid);
-                return null;
-            }
-            // 命中半永久缓存，重置TTL
-            semiFile.setLastModified(now);
-            Log.d(TAG, "getIconPath HIT semipermanent: " + stationUuid + " size=" + semiFile.length() + "B");
             return semiFile.getAbsolutePath();
         }
 
-        Log.d(TAG, "getIconPath MISS: " + stationUuid);
+        Log.d(TAG, "getIconPath MISS (index not loaded): " + stationUuid);
         return null;
     }
 
     /**
-     * 检测缓存文件中的位图是否为截断下载导致的半截黑图。
-     * 扫描位图底部 1/4 区域，如果超过 80% 为纯黑色像素则判定为截断。
+     * 解码缓存文件，解码时按 2 的幂缩小到接近保存尺寸。需要完整解码，只在后台处理旧文件时使用。
+     *
+     * @return 位图，无法解码时返回null
+     */
+    private Bitmap decodeForStorage(File file) {
+        String path = file.getAbsolutePath();
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(path, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        int sampleSize = 1;
+        while (Math.max(options.outWidth, options.outHeight) / (sampleSize * 2) >= storedIconPx) {
+            sampleSize *= 2;
+        }
+        options = new BitmapFactory.Options();
+        options.inSampleSize = sampleSize;
+        return BitmapFactory.decodeFile(path, options);
+    }
+
+    /**
+     * 把位图缩小到保存尺寸并编码写入文件。先写临时文件再重命名，被中断时不会留下半个文件。
+     * API 18 以下不能可靠解码带透明通道的 WebP，仍使用 PNG。
+     *
+     * @return 写入的字节数
      */
-    private boolean isCachedIconTruncated(File file) {
-        FileInputStream fis = null;
+    private long encodeIcon(Bitmap bitmap, File file) throws IOException {
+        Bitmap scaled = scaleForStorage(bitmap);
+        File tempFile = new File(file.getPath() + TEMP_SUFFIX);
+        FileOutputStream fos = null;
         try {
-            fis = new FileInputStream(file);
-            Bitmap bitmap = BitmapFactory.decodeStream(fis);
-            if (bitmap == null) return true;
-
-            int width = bitmap.getWidth();
-            int height = bitmap.getHeight();
-            if (width <= 0 || height <= 0) {
-                bitmap.recycle();
-                return true;
-            }
-
-            int startY = height * 3 / 4;
-            int totalPixels = width * (height - startY);
-            int blackPixels = 0;
-            int[] pixels = new int[width];
-            for (int y = startY; y < height; y++) {
-                bitmap.getPixels(pixels, 0, width, 0, y, width, 1);
-                for (int px : pixels) {
-                    if (px == 0xFF000000) {
-                        blackPixels++;
-                    }
-                }
+            fos = new FileOutputStream(tempFile);
+            boolean encoded;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+                encoded = scaled.compress(Bitmap.CompressFormat.WEBP_LOSSY, WEBP_QUALITY, fos);
+            } else if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+                encoded = scaled.compress(Bitmap.CompressFormat.WEBP, WEBP_QUALITY, fos);
+            } else {
+                encoded = scaled.compress(Bitmap.CompressFormat.PNG, 100, fos);
             }
-            bitmap.recycle();
-            float blackRatio = (float) blackPixels / totalPixels;
-            return blackRatio > 0.8f;
-        } catch (Exception e) {
-            return true;
+            fos.close();
+            fos = null;
+            if (!encoded) {
+                throw new IOException("compress failed");
+            }
+            if (!tempFile.renameTo(file)) {
+                throw new IOException("rename failed");
+            }
+            return file.length();
+        } catch (IOException e) {
+            tempFile.delete();
+            throw e;
         } finally {
-            if (fis != null) {
-                try { fis.close(); } catch (IOException ignored) {}
+            if (fos != null) {
+                try { fos.close(); } catch (IOException ignored) {}
+            }
+            if (scaled != bitmap) {
+                scaled.recycle();
+            }
+        }
+    }
+
+    /**
+     * 等比缩小到最长边不超过保存尺寸。硬件位图不能读取像素，先复制为 ARGB_8888。
+     */
+    private Bitmap scaleForStorage(Bitmap bitmap) {
+        Bitmap source = bitmap;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O && bitmap.getConfig() == Bitmap.Config.HARDWARE) {
+            source = bitmap.copy(Bitmap.Config.ARGB_8888, false);
+        }
+
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int longest = Math.max(width, height);
+        if (longest <= storedIconPx) {
+            return source;
+        }
+
+        Bitmap scaled = Bitmap.createScaledBitmap(source,
+                Math.max(1, width * storedIconPx / longest), Math.max(1, height * storedIconPx / longest), true);
+        if (source != bitmap && source != scaled) {
+            source.recycle();
+        }
+        return scaled;
+    }
+
+    /**
+     * 扫描位图底部 1/4 区域，如果超过 80% 为纯黑色像素则判定为截断。
+     * 只用于保存前检查下载结果（此时没有原始文件），缓存文件用 IconIntegrity 校验。
+     */
+    private static boolean isBitmapTruncated(Bitmap bitmap) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        if (width <= 0 || height <= 0) {
+            return true;
+        }
+
+        int startY = height * 3 / 4;
+        int totalPixels = width * (height - startY);
+        int blackPixels = 0;
+        int[] pixels = new int[width];
+        for (int y = startY; y < height; y++) {
+            bitmap.getPixels(pixels, 0, width, 0, y, width, 1);
+            for (int px : pixels) {
+                if (px == 0xFF000000) {
+                    blackPixels++;
+                }
             }
         }
+        float blackRatio = (float) blackPixels / totalPixels;
+        return blackRatio > 0.8f;
     }
 
     /**
-     * 获取缓存的图标 Bitmap。优先查永久缓存，再查半永久缓存。
-     * 从半永久缓存命中时，自动重置TTL。
+     * 获取缓存的图标 Bitmap，解码时缩小到不超过 maxPxSize。
+     * 先查内存缓存，未命中时从磁盘缓存解码并放入内存缓存。
+     *
+     * @param maxPxSize 最大边长（像素），0 表示不缩小
      */
-    public Bitmap getIconBitmap(String stationUuid) {
+    public Bitmap getIconBitmap(String stationUuid, int maxPxSize) {
         String path = getIconPath(stationUuid);
         if (path == null) {
             return null;
         }
         File file = new File(path);
-        FileInputStream fis = null;
-        try {
-            fis = new FileInputStream(file);
-            Bitmap bitmap = BitmapFactory.decodeStream(fis);
-            if (bitmap == null) {
-                file.delete();
-                return null;
-            }
+        String memoryKey = file.getName() + '\n' + maxPxSize;
+        Bitmap bitmap = memoryCache.get(memoryKey);
+        if (bitmap != null) {
             return bitmap;
-        } catch (IOException e) {
-            Log.w(TAG, "Failed to read cached icon for: " + stationUuid, e);
+        }
+
+        if (!IconIntegrity.isComplete(file)) {
+            Log.w(TAG, "Truncated cached icon for: " + stationUuid);
+            final String fileName = file.getName();
+            ioExecutor.execute(() -> deleteIconFiles(fileName));
             return null;
-        } finally {
-            if (fis != null) {
-                try { fis.close(); } catch (IOException ignored) {}
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        if (maxPxSize > 0) {
+            options.inJustDecodeBounds = true;
+            BitmapFactory.decodeFile(path, options);
+            int sampleSize = 1;
+            while (options.outWidth / (sampleSize * 2) >= maxPxSize
+                    && options.outHeight / (sampleSize * 2) >= maxPxSize) {
+                sampleSize *= 2;
             }
+            options = new BitmapFactory.Options();
+            options.inSampleSize = sampleSize;
+        }
+
+        bitmap = BitmapFactory.decodeFile(path, options);
+        if (bitmap == null) {
+            Log.w(TAG, "Failed to decode cached icon for: " + stationUuid);
+            final String fileName = file.getName();
+            ioExecutor.execute(() -> deleteIconFiles(fileName));
+            return null;
         }
+
+        memoryCache.set(memoryKey, bitmap);
+        return bitmap;
     }
 
+    // ==================== 写入 ====================
+
     /**
      * 保存图标到缓存。收藏电台存入永久缓存，其他存入半永久缓存。
+     * 压缩和写盘在后台线程执行，位图在保存前做一次截断校验。
      *
      * @param stationUuid 电台UUID
-     * @param bitmap      图标Bitmap
+     * @param bitmap      图标Bitmap，保存完成前不能回收
      * @param isFavorite  是否是收藏电台
      */
-    public void saveIcon(String stationUuid, Bitmap bitmap, boolean isFavorite) {
+    public void saveIcon(final String stationUuid, final Bitmap bitmap, final boolean isFavorite) {
         if (stationUuid == null || stationUuid.isEmpty() || bitmap == null) {
             return;
         }
-        String fileName = getCacheFileName(stationUuid);
-        File targetDir = isFavorite ? permanentDir : semiPermanentDir;
-        File file = new File(targetDir, fileName);
+        final String fileName = getCacheFileName(stationUuid);
+        ioExecutor.execute(() -> writeIcon(stationUuid, fileName, bitmap, isFavorite));
+    }
 
-        // 如果在另一个缓存中已存在，先删除旧缓存
-        File otherDir = isFavorite ? semiPermanentDir : permanentDir;
-        File otherFile = new File(otherDir, fileName);
-        if (otherFile.exists()) {
-            otherFile.delete();
+    private void writeIcon(String stationUuid, String fileName, Bitmap bitmap, boolean isFavorite) {
+        if (bitmap.isRecycled()) {
+            return;
         }
 
-        FileOutputStream fos = null;
+        File targetDir = isFavorite ? permanentDir : semiPermanentDir;
+        File file = new File(targetDir, fileName);
+
+        Bitmap scaled = scaleForStorage(bitmap);
         try {
+            if (isBitmapTruncated(scaled)) {
+                Log.w(TAG, "saveIcon: skipping truncated bitmap for " + stationUuid);
+                return;
+            }
+
             // 确保目标目录存在
             if (!targetDir.exists()) {
                 targetDir.mkdirs();
             }
-            fos = new FileOutputStream(file);
-            bitmap.compress(Bitmap.CompressFormat.PNG, 100, fos);
-            fos.flush();
-            fos.close();
-            fos = null;
-            // 验证文件确实写入
-            boolean exists = file.exists();
-            long length = file.length();
+            long length = encodeIcon(scaled, file);
+
+            // 如果在另一个缓存中已存在，删除旧缓存
+            new File(isFavorite ? semiPermanentDir : permanentDir, fileName).delete();
+            invalidateMemory(fileName);
+
+            StationIconJournal.Entry entry = getOrCreate(index, fileName);
+            entry.pinned = isFavorite;
+            entry.length = length;
+            entry.lastAccess = System.currentTimeMillis();
+            entry.verified = true;
+            entry.compact = true;
+            persist(fileName, entry);
+
             Log.d(TAG, "saveIcon: " + stationUuid + " " + bitmap.getWidth() + "x" + bitmap.getHeight()
-                    + " fav=" + isFavorite + " exists=" + exists + " len=" + length + "B"
+                    + " -> " + scaled.getWidth() + "x" + scaled.getHeight()
+                    + " fav=" + isFavorite + " len=" + length + "B"
                     + " path=" + file.getAbsolutePath());
         } catch (IOException e) {
             Log.w(TAG, "saveIcon FAIL: " + stationUuid + " path=" + file.getAbsolutePath(), e);
-            if (file.exists()) {
-                file.delete();
-            }
         } finally {
-            if (fos != null) {
-                try { fos.close(); } catch (IOException ignored) {}
+            if (scaled != bitmap) {
+                scaled.recycle();
             }
         }
+
+        trimToBudget();
     }
 
     /**
-     * 电台被收藏时调用。将半永久缓存中的图标移入永久缓存。
+     * 电台被收藏时调用。将半永久缓存中的图标移入永久缓存，不再参与淘汰。
      */
     public void onStationFavorited(String stationUuid) {
-        if (stationUuid == null || stationUuid.isEmpty()) {
-            return;
-        }
-        String fileName = getCacheFileName(stationUuid);
-        File semiFile = new File(semiPermanentDir, fileName);
-        File permanentFile = new File(permanentDir, fileName);
-
-        // 永久缓存已有则无需操作
-        if (permanentFile.exists() && permanentFile.length() > 0) {
-            return;
-        }
-
-        // 半永久缓存有则移动
-        if (semiFile.exists() && semiFile.length() > 0) {
-            semiFile.renameTo(permanentFile);
-        }
+        setPinned(stationUuid, true);
     }
 
     /**
-     * 电台取消收藏时调用。将永久缓存中的图标移入半永久缓存（重置TTL）。
+     * 电台取消收藏时调用。将永久缓存中的图标移入半永久缓存，重新参与 LRU 淘汰。
      */
     public void onStationUnfavorited(String stationUuid) {
+        setPinned(stationUuid, false);
+    }
+
+    private void setPinned(String stationUuid, final boolean pinned) {
         if (stationUuid == null || stationUuid.isEmpty()) {
             return;
         }
-        String fileName = getCacheFileName(stationUuid);
-        File permanentFile = new File(permanentDir, fileName);
-        File semiFile = new File(semiPermanentDir, fileName);
-
-        if (permanentFile.exists() && permanentFile.length() > 0) {
-            // 移入半永久缓存，重置TTL
-            if (permanentFile.renameTo(semiFile)) {
-                semiFile.setLastModified(System.currentTimeMillis());
+        final String fileName = getCacheFileName(stationUuid);
+        ioExecutor.execute(() -> {
+            StationIconJournal.Entry entry = index.get(fileName);
+            // 已在目标缓存中或没有缓存则无需操作
+            if (entry == null || !entry.hasIcon() || entry.pinned == pinned) {
+                return;
             }
-        }
-    }
-
-    /**
-     * 清理过期的半永久缓存文件。应在应用启动时调用。
-     */
-    public void cleanExpiredSemiPermanentCache() {
-        long now = System.currentTimeMillis();
-        File[] files = semiPermanentDir.listFiles();
-        if (files == null) return;
 
-        for (File file : files) {
-            if (file.isFile() && now - file.lastModified() > SEMI_PERMANENT_TTL_MS) {
-                file.delete();
+            File from = getIconFile(fileName, entry);
+            File to = new File(pinned ? permanentDir : semiPermanentDir, fileName);
+            if (from.renameTo(to)) {
+                entry.pinned = pinned;
+                entry.lastAccess = System.currentTimeMillis();
+                persist(fileName, entry);
             }
-        }
+        });
     }
 
     /**
@@ -351,11 +838,10 @@ public class StationIconCache {
         if (stationUuid == null || stationUuid.isEmpty()) {
             return;
         }
-        String fileName = getCacheFileName(stationUuid);
-        new File(permanentDir, fileName).delete();
-        new File(semiPermanentDir, fileName).delete();
-        clearFallbackMark(stationUuid);
-        clearIconUrlRetryTime(stationUuid);
+        final String fileName = getCacheFileName(stationUuid);
+        // 立即从索引移除，紧接着的 getIconPath 不会再命中
+        index.remove(fileName);
+        ioExecutor.execute(() -> deleteIconFiles(fileName));
     }
 
     /**
@@ -364,10 +850,24 @@ public class StationIconCache {
      * @return 删除的文件数量
      */
     public int clearAllCache() {
-        int count = 0;
-        count += deleteAllFilesInDir(permanentDir);
-        count += deleteAllFilesInDir(semiPermanentDir);
-        return count;
+        try {
+            return ioExecutor.submit(() -> {
+                int count = 0;
+                count += deleteAllFilesInDir(permanentDir);
+                count += deleteAllFilesInDir(semiPermanentDir);
+                index.clear();
+                deadUrls.clear();
+                journal.delete();
+                memoryCache.clear();
+                return count;
+            }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (ExecutionException e) {
+            Log.w(TAG, "clearAllCache failed", e);
+            return 0;
+        }
     }
 
     private int deleteAllFilesInDir(File dir) {
@@ -385,13 +885,6 @@ public class StationIconCache {
 
     // ==================== Fallback 标记管理 ====================
 
-    /**
-     * 获取 fallback 标记文件的路径（在每个缓存目录下以 .fallback 后缀存在）
-     */
-    private String getFallbackMarkerFileName(String stationUuid) {
-        return getCacheFileName(stationUuid) + FALLBACK_SUFFIX;
-    }
-
     /**
      * 标记指定电台的缓存图标来源于回退URL（非原始IconUrl）。
      * 在回退URL加载成功时调用。
@@ -400,17 +893,16 @@ public class StationIconCache {
         if (stationUuid == null || stationUuid.isEmpty()) {
             return;
         }
-        // 标记写在与 PNG 同目录，随缓存文件生命周期
-        String markerName = getFallbackMarkerFileName(stationUuid);
-        // 哪个目录有 PNG 就在哪个目录写 marker
-        String iconFileName = getCacheFileName(stationUuid);
-        File permPng = new File(permanentDir, iconFileName);
-        File semiPng = new File(semiPermanentDir, iconFileName);
-        if (permPng.exists()) {
-            try { new File(permanentDir, markerName).createNewFile(); } catch (IOException ignored) {}
-        } else if (semiPng.exists()) {
-            try { new File(semiPermanentDir, markerName).createNewFile(); } catch (IOException ignored) {}
-        }
+        final String fileName = getCacheFileName(stationUuid);
+        ioExecutor.execute(() -> {
+            StationIconJournal.Entry entry = index.get(fileName);
+            // 标记随缓存文件生命周期，没有图标时不标记
+            if (entry == null || !entry.hasIcon() || entry.fallback) {
+                return;
+            }
+            entry.fallback = true;
+            persist(fileName, entry);
+        });
     }
 
     /**
@@ -419,12 +911,11 @@ public class StationIconCache {
      * @return true 表示当前缓存的图标是 fallback 来源，可以尝试用 IconUrl 覆盖
      */
     public boolean isFallbackCached(String stationUuid) {
-        if (stationUuid == null || stationUuid.isEmpty()) {
+        if (stationUuid == null || stationUuid.isEmpty() || !indexLoaded) {
             return false;
         }
-        String markerName = getFallbackMarkerFileName(stationUuid);
-        return new File(permanentDir, markerName).exists()
-                || new File(semiPermanentDir, markerName).exists();
+        StationIconJournal.Entry entry = index.get(getCacheFileName(stationUuid));
+        return entry != null && entry.fallback;
     }
 
     /**
@@ -434,68 +925,56 @@ public class StationIconCache {
         if (stationUuid == null || stationUuid.isEmpty()) {
             return;
         }
-        String markerName = getFallbackMarkerFileName(stationUuid);
-        new File(permanentDir, markerName).delete();
-        new File(semiPermanentDir, markerName).delete();
+        final String fileName = getCacheFileName(stationUuid);
+        ioExecutor.execute(() -> {
+            StationIconJournal.Entry entry = index.get(fileName);
+            if (entry == null || !entry.fallback) {
+                return;
+            }
+            entry.fallback = false;
+            persist(fileName, entry);
+        });
     }
 
     // ==================== IconUrl 每日重试机制 ====================
 
-    /**
-     * 获取 IconUrl 重试时间戳文件名
-     */
-    private String getIconUrlRetryFileName(String stationUuid) {
-        return getCacheFileName(stationUuid) + ICONURL_RETRY_SUFFIX;
-    }
-
     /**
      * 记录 IconUrl 重试时间戳。无论成功或失败，每次尝试后都记录，
-     * 用于控制每日最多重试一次。
+     * 用于控制重试间隔。
      */
     public void recordIconUrlRetryTime(String stationUuid) {
         if (stationUuid == null || stationUuid.isEmpty()) {
             return;
         }
-        String retryFileName = getIconUrlRetryFileName(stationUuid);
-        // 写在与 PNG 同目录
-        String iconFileName = getCacheFileName(stationUuid);
-        File permPng = new File(permanentDir, iconFileName);
-        File semiPng = new File(semiPermanentDir, iconFileName);
-        if (permPng.exists()) {
-            try { new File(permanentDir, retryFileName).createNewFile(); } catch (IOException ignored) {}
-        } else if (semiPng.exists()) {
-            try { new File(semiPermanentDir, retryFileName).createNewFile(); } catch (IOException ignored) {}
-        } else {
-            // PNG 尚未缓存（首次加载失败），默认写在半永久目录
-            try { new File(semiPermanentDir, retryFileName).createNewFile(); } catch (IOException ignored) {}
-        }
+        final String fileName = getCacheFileName(stationUuid);
+        final long now = System.currentTimeMillis();
+        ioExecutor.execute(() -> {
+            // PNG 尚未缓存（首次加载失败）时也记录
+            StationIconJournal.Entry entry = getOrCreate(index, fileName);
+            entry.iconUrlRetryTime = now;
+            persist(fileName, entry);
+        });
     }
 
     /**
-     * 判断是否应该重试 IconUrl。距上次重试超过24小时返回 true。
+     * 判断是否应该重试 IconUrl。距上次重试超过重试间隔返回 true。
+     * 索引加载完成前不允许重试，避免启动时对刚重试过的电台重复请求。
      */
     public boolean shouldRetryIconUrl(String stationUuid) {
         if (stationUuid == null || stationUuid.isEmpty()) {
             return true; // 无UUID时不限制
         }
-        String retryFileName = getIconUrlRetryFileName(stationUuid);
-        File permRetry = new File(permanentDir, retryFileName);
-        File semiRetry = new File(semiPermanentDir, retryFileName);
-
-        // 找到重试时间戳文件
-        File retryFile = null;
-        if (permRetry.exists()) {
-            retryFile = permRetry;
-        } else if (semiRetry.exists()) {
-            retryFile = semiRetry;
+        if (!indexLoaded) {
+            return false;
         }
 
-        if (retryFile == null) {
+        StationIconJournal.Entry entry = index.get(getCacheFileName(stationUuid));
+        long lastRetry = entry != null ? entry.iconUrlRetryTime : 0;
+        if (lastRetry == 0) {
             // 从未重试过，允许重试
             return true;
         }
 
-        long lastRetry = retryFile.lastModified();
         long elapsed = System.currentTimeMillis() - lastRetry;
         return elapsed >= ICONURL_RETRY_INTERVAL_MS;
     }
@@ -507,8 +986,75 @@ public class StationIconCache {
         if (stationUuid == null || stationUuid.isEmpty()) {
             return;
         }
-        String retryFileName = getIconUrlRetryFileName(stationUuid);
-        new File(permanentDir, retryFileName).delete();
-        new File(semiPermanentDir, retryFileName).delete();
+        final String fileName = getCacheFileName(stationUuid);
+        ioExecutor.execute(() -> {
+            StationIconJournal.Entry entry = index.get(fileName);
+            if (entry == null || entry.iconUrlRetryTime == 0) {
+                return;
+            }
+            entry.iconUrlRetryTime = 0;
+            persist(fileName, entry);
+        });
+    }
+
+    // ==================== 失效 URL ====================
+
+    /**
+     * 判断 URL 是否在最近 3 天内加载失败过。只查内存，可以在主线程调用。
+     */
+    public boolean isUrlKnownDead(String url) {
+        if (url == null || url.isEmpty()) {
+            return false;
+        }
+        Long failedAt = deadUrls.get(md5Hex(url));
+        return failedAt != null && System.currentTimeMillis() - failedAt < DEAD_URL_TTL_MS;
+    }
+
+    /**
+     * 记录 URL 加载失败，但只在有网络时：离线时的失败说明不了 URL 本身。
+     */
+    public void markUrlDeadIfOnline(String url) {
+        if (ConnectivityChecker.getCurrentConnectionType(appContext) != ConnectivityChecker.ConnectionType.NONE) {
+            markUrlDead(url);
+        }
+    }
+
+    /**
+     * 记录 URL 加载失败。
+     */
+    public void markUrlDead(String url) {
+        if (url == null || url.isEmpty()) {
+            return;
+        }
+        final String key = md5Hex(url);
+        final long now = System.currentTimeMillis();
+        deadUrls.put(key, now);
+        ioExecutor.execute(() -> {
+            try {
+                journal.putDeadUrl(key, now);
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to write icon journal", e);
+            }
+        });
+    }
+
+    /**
+     * URL 加载成功时调用，清除失败记录。
+     */
+    public void clearUrlDead(String url) {
+        if (url == null || url.isEmpty()) {
+            return;
+        }
+        final String key = md5Hex(url);
+        if (deadUrls.remove(key) == null) {
+            return;
+        }
+        ioExecutor.execute(() -> {
+            try {
+                journal.putDeadUrl(key, 0);
+            } catch (IOException e) {
+                Log.w(TAG, "Failed to write icon journal", e);
+            }
+        });
     }
 }
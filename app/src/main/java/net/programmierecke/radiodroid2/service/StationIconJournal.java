@@ -0,0 +1,252 @@
+package net.programmierecke.radiodroid2.service;
+
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Append-only journal holding the metadata of the station icon cache.
+ * <p>
+ * Every change of an entry appends a full snapshot of it ({@code PUT}) or its removal
+ * ({@code DEL}); on replay the last line for a file wins. This keeps the whole cache state
+ * (tier, size, last access, verification, encoding and the fallback/retry markers) in one
+ * file, which is read once in the background instead of stat-ing every icon. A torn last line,
+ * e.g. after the process was killed, is skipped. Once most lines are superseded the journal is
+ * rewritten.
+ * <p>
+ * URLs which failed to load are kept as {@code NEG} lines (hashed URL and time of the failure, 0
+ * once it loaded again), so they are not probed again after a restart.
+ * <p>
+ * Not thread safe, {@link StationIconCache} uses it from its I/O thread only.
+ */
+class StationIconJournal {
+    private static final String TAG = "StationIconJournal";
+
+    static final String MAGIC = "station_icon_journal";
+    static final String VERSION = "1";
+
+    private static final String PUT = "PUT";
+    private static final String DEL = "DEL";
+    private static final String NEG = "NEG";
+
+    private static final int FLAG_VERIFIED = 1;
+    private static final int FLAG_FALLBACK = 2;
+    private static final int FLAG_COMPACT = 4;
+
+    // Rewrite when there are more superseded lines than this and than live entries
+    private static final int MIN_REDUNDANT_RECORDS = 200;
+
+    /**
+     * One cached icon, or only its retry timestamp if {@link #length} is 0.
+     * Fields are written by the cache's I/O thread, {@link #lastAccess} also by readers.
+     */
+    static class Entry {
+        // Pinned icons (favourites) live in the permanent directory and are never evicted
+        volatile boolean pinned;
+        volatile long length;
+        volatile long lastAccess;
+        // Last access which was written to the journal
+        volatile long journaledAccess;
+        volatile boolean verified;
+        volatile boolean fallback;
+        // Stored downsampled in the compact format, see StationIconCache#encodeIcon
+        volatile boolean compact;
+        volatile long iconUrlRetryTime;
+
+        boolean hasIcon() {
+            return length > 0;
+        }
+
+        boolean isEmpty() {
+            return length == 0 && !fallback && iconUrlRetryTime == 0;
+        }
+    }
+
+    private final File file;
+    private Writer writer;
+    private int recordCount = 0;
+
+    StationIconJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Replays the journal.
+     *
+     * @param deadUrls receives the failure time by hashed URL
+     * @return the live entries by cache file name, empty if there is no readable journal
+     */
+    Map<String, Entry> read(Map<String, Long> deadUrls) {
+        Map<String, Entry> entries = new HashMap<>();
+        recordCount = 0;
+        if (!file.exists()) {
+            return entries;
+        }
+
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8));
+            String header = reader.readLine();
+            if (!(MAGIC + " " + VERSION).equals(header)) {
+                Log.w(TAG, "Unknown journal header, starting empty: " + header);
+                return entries;
+            }
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (applyLine(line, entries, deadUrls)) {
+                    recordCount++;
+                }
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Error reading journal: " + e.getMessage());
+        } finally {
+            closeQuietly(reader);
+        }
+
+        return entries;
+    }
+
+    private static boolean applyLine(String line, Map<String, Entry> entries, Map<String, Long> deadUrls) {
+        String[] parts = line.split(" ");
+        try {
+            if (PUT.equals(parts[0]) && parts.length == 7) {
+                Entry entry = new Entry();
+                entry.pinned = "1".equals(parts[2]);
+                entry.length = Long.parseLong(parts[3]);
+                entry.lastAccess = Long.parseLong(parts[4]);
+                entry.journaledAccess = entry.lastAccess;
+                int flags = Integer.parseInt(parts[5]);
+                entry.verified = (flags & FLAG_VERIFIED) != 0;
+                entry.fallback = (flags & FLAG_FALLBACK) != 0;
+                entry.compact = (flags & FLAG_COMPACT) != 0;
+                entry.iconUrlRetryTime = Long.parseLong(parts[6]);
+                entries.put(parts[1], entry);
+                return true;
+            } else if (DEL.equals(parts[0]) && parts.length == 2) {
+                entries.remove(parts[1]);
+                return true;
+            } else if (NEG.equals(parts[0]) && parts.length == 3) {
+                long failedAt = Long.parseLong(parts[2]);
+                if (failedAt != 0) {
+                    deadUrls.put(parts[1], failedAt);
+                } else {
+                    deadUrls.remove(parts[1]);
+                }
+                return true;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+
+        // Torn or unknown line
+        return false;
+    }
+
+    void put(String fileName, Entry entry) throws IOException {
+        entry.journaledAccess = entry.lastAccess;
+        append(formatPut(fileName, entry));
+    }
+
+    void remove(String fileName) throws IOException {
+        append(DEL + " " + fileName + "\n");
+    }
+
+    /**
+     * @param failedAt time of the failure, 0 if the URL works again
+     */
+    void putDeadUrl(String urlKey, long failedAt) throws IOException {
+        append(NEG + " " + urlKey + " " + failedAt + "\n");
+    }
+
+    /**
+     * @return true if enough lines are superseded that {@link #rewrite} is worth it
+     */
+    boolean needsRewrite(int liveEntries) {
+        int redundant = recordCount - liveEntries;
+        return redundant > MIN_REDUNDANT_RECORDS && redundant > liveEntries;
+    }
+
+    /**
+     * Replaces the journal with one line per live entry and dead URL.
+     */
+    void rewrite(Map<String, Entry> entries, Map<String, Long> deadUrls) throws IOException {
+        close();
+
+        File tempFile = new File(file.getPath() + ".tmp");
+        Writer tempWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tempFile), StandardCharsets.UTF_8));
+        try {
+            tempWriter.write(MAGIC + " " + VERSION + "\n");
+            for (Map.Entry<String, Entry> item : entries.entrySet()) {
+                item.getValue().journaledAccess = item.getValue().lastAccess;
+                tempWriter.write(formatPut(item.getKey(), item.getValue()));
+            }
+            for (Map.Entry<String, Long> item : deadUrls.entrySet()) {
+                tempWriter.write(NEG + " " + item.getKey() + " " + item.getValue() + "\n");
+            }
+        } finally {
+            tempWriter.close();
+        }
+
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            throw new IOException("Could not replace " + file);
+        }
+        recordCount = entries.size() + deadUrls.size();
+    }
+
+    void delete() {
+        close();
+        file.delete();
+        recordCount = 0;
+    }
+
+    void close() {
+        closeQuietly(writer);
+        writer = null;
+    }
+
+    private void append(String line) throws IOException {
+        if (writer == null) {
+            boolean isNew = !file.exists() || file.length() == 0;
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+            if (isNew) {
+                writer.write(MAGIC + " " + VERSION + "\n");
+            }
+        }
+
+        writer.write(line);
+        writer.flush();
+        recordCount++;
+    }
+
+    private static String formatPut(String fileName, Entry entry) {
+        int flags = (entry.verified ? FLAG_VERIFIED : 0) | (entry.fallback ? FLAG_FALLBACK : 0)
+                | (entry.compact ? FLAG_COMPACT : 0);
+        return PUT + " " + fileName + " " + (entry.pinned ? "1" : "0") + " " + entry.length + " "
+                + entry.lastAccess + " " + flags + " " + entry.iconUrlRetryTime + "\n";
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) {
+            return;
+        }
+
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Error closing journal: " + e.getMessage());
+        }
+    }
+}
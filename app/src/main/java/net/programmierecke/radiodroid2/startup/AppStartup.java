@@ -0,0 +1,278 @@
+package net.programmierecke.radiodroid2.startup;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import androidx.annotation.NonNull;
+import androidx.core.os.TraceCompat;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the initializers of the application as a dependency graph.
+ * <p>
+ * Every initializer has a {@link Stage}: {@link Stage#MAIN} ones run on the main thread in
+ * {@link #start()}, {@link Stage#BACKGROUND} ones start on a background pool at the same time and
+ * {@link Stage#DEFERRED} ones start on the pool once the first frame was drawn. An initializer
+ * waits for its dependencies before it runs.
+ * <p>
+ * Code which needs the result of an initializer calls {@link #await(String)} first. If the
+ * initializer has not started yet, it runs right away on the calling thread, so nothing depends
+ * on when the pool gets to it.
+ * <p>
+ * Each initializer is logged with its time and traced as {@link #TRACE_PREFIX} plus its name.
+ */
+public class AppStartup {
+    private static final String TAG = "AppStartup";
+
+    public static final String TRACE_PREFIX = "Startup.";
+
+    // 没有界面启动（闹钟、媒体按键）时也不能一直推迟
+    private static final long DEFERRED_TIMEOUT_MS = 5000;
+
+    public enum Stage {
+        MAIN,
+        BACKGROUND,
+        DEFERRED
+    }
+
+    private static class Initializer {
+        final String name;
+        final Stage stage;
+        final Runnable body;
+        final String[] dependencies;
+
+        final AtomicBoolean started = new AtomicBoolean(false);
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile RuntimeException failure;
+
+        Initializer(String name, Stage stage, Runnable body, String[] dependencies) {
+            this.name = name;
+            this.stage = stage;
+            this.body = body;
+            this.dependencies = dependencies;
+        }
+    }
+
+    private final Executor executor;
+    private final Map<String, Initializer> initializers = new LinkedHashMap<>();
+    private final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final AtomicBoolean deferredStarted = new AtomicBoolean(false);
+    private final AtomicInteger remaining = new AtomicInteger();
+    private long startNanos;
+
+    public AppStartup() {
+        this(createExecutor());
+    }
+
+    public AppStartup(@NonNull Executor executor) {
+        this.executor = executor;
+    }
+
+    private static Executor createExecutor() {
+        final int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+        final AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 5, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> new Thread(runnable, "Startup-" + threadNumber.incrementAndGet()));
+        // 启动完成后线程自行退出
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Adds an initializer. Dependencies have to be added before the initializers depending on
+     * them, which also rules out cycles.
+     */
+    public void add(@NonNull String name, @NonNull Stage stage, @NonNull Runnable body, String... dependencies) {
+        if (initializers.containsKey(name)) {
+            throw new IllegalArgumentException("Initializer " + name + " was already added");
+        }
+        for (String dependency : dependencies) {
+            if (!initializers.containsKey(dependency)) {
+                throw new IllegalArgumentException("Initializer " + name + " depends on unknown " + dependency);
+            }
+        }
+        initializers.put(name, new Initializer(name, stage, body, dependencies));
+    }
+
+    /**
+     * Runs the {@link Stage#MAIN} initializers on the calling thread and starts the
+     * {@link Stage#BACKGROUND} ones.
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+        remaining.set(initializers.size());
+
+        for (Initializer initializer : initializers.values()) {
+            if (initializer.stage == Stage.BACKGROUND) {
+                executor.execute(() -> run(initializer));
+            }
+        }
+        for (Initializer initializer : initializers.values()) {
+            if (initializer.stage == Stage.MAIN) {
+                run(initializer);
+            }
+        }
+    }
+
+    /**
+     * Starts the {@link Stage#DEFERRED} initializers once the first activity drew its first
+     * frame, or after {@link #DEFERRED_TIMEOUT_MS} if no activity shows up.
+     */
+    public void startDeferredAfterFirstFrame(@NonNull Application application) {
+        final Handler mainHandler = new Handler(Looper.getMainLooper());
+        mainHandler.postDelayed(this::startDeferred, DEFERRED_TIMEOUT_MS);
+
+        application.registerActivityLifecycleCallbacks(new ActivityLifecycleCallbacksAdapter() {
+            @Override
+            public void onActivityResumed(Activity activity) {
+                application.unregisterActivityLifecycleCallbacks(this);
+
+                final View decorView = activity.getWindow().getDecorView();
+                decorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+                    @Override
+                    public boolean onPreDraw() {
+                        decorView.getViewTreeObserver().removeOnPreDrawListener(this);
+                        // 本帧绘制完成后才执行
+                        mainHandler.post(AppStartup.this::startDeferred);
+                        return true;
+                    }
+                });
+            }
+        });
+    }
+
+    public void startDeferred() {
+        if (!deferredStarted.compareAndSet(false, true)) {
+            return;
+        }
+        for (Initializer initializer : initializers.values()) {
+            if (initializer.stage == Stage.DEFERRED) {
+                executor.execute(() -> run(initializer));
+            }
+        }
+    }
+
+    /**
+     * Returns once the initializer has run, running it on the calling thread if it has not
+     * started yet. Rethrows its failure.
+     */
+    public void await(@NonNull String name) {
+        final Initializer initializer = initializers.get(name);
+        if (initializer == null) {
+            throw new IllegalArgumentException("Unknown initializer " + name);
+        }
+
+        if (initializer.done.getCount() != 0) {
+            run(initializer);
+        }
+
+        if (initializer.failure != null) {
+            throw initializer.failure;
+        }
+    }
+
+    /**
+     * Milliseconds spent in each finished initializer, in the order they finished.
+     */
+    public Map<String, Long> getTimings() {
+        synchronized (timings) {
+            return new LinkedHashMap<>(timings);
+        }
+    }
+
+    private void run(Initializer initializer) {
+        if (!initializer.started.compareAndSet(false, true)) {
+            awaitUninterruptibly(initializer.done);
+            return;
+        }
+
+        try {
+            for (String dependency : initializer.dependencies) {
+                await(dependency);
+            }
+
+            final long start = System.nanoTime();
+            TraceCompat.beginSection(TRACE_PREFIX + initializer.name);
+            try {
+                initializer.body.run();
+            } finally {
+                TraceCompat.endSection();
+            }
+            final long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            timings.put(initializer.name, millis);
+            Log.i(TAG, String.format("%s: %d ms on %s", initializer.name, millis, Thread.currentThread().getName()));
+        } catch (RuntimeException e) {
+            Log.e(TAG, "Initializer " + initializer.name + " failed", e);
+            initializer.failure = e;
+        } finally {
+            initializer.done.countDown();
+        }
+
+        if (remaining.decrementAndGet() == 0) {
+            Log.i(TAG, "All initializers done " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms after start");
+        }
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class ActivityLifecycleCallbacksAdapter implements Application.ActivityLifecycleCallbacks {
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+        }
+    }
+}
@@ -232,6 +232,7 @@ public class FragmentLocalStations extends FragmentBase implements IFragmentSear
                     // 处理电台移动完成事件
                 }
             });
+            stationListAdapter.enablePerformanceMode(rvStations);
             rvStations.setAdapter(stationListAdapter);
         } else {
             Log.e(TAG, "Activity is null in onActivityCreated, cannot initialize adapter");
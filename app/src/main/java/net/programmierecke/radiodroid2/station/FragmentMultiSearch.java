@@ -27,6 +27,7 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.lifecycle.Observer;
 import androidx.recyclerview.widget.DividerItemDecoration;
+import androidx.core.os.TraceCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -76,6 +77,10 @@ public class FragmentMultiSearch extends FragmentBase {
     // 防抖处理
     private Handler searchHandler = new Handler();
     private static final long DEBOUNCE_DELAY = 500; // 500ms
+    // 从发起查询到结果交给列表的异步 trace 区段，供 :benchmark 模块测量搜索延迟
+    public static final String TRACE_SEARCH_RESULTS = "MultiSearch.results";
+    private int searchTraceCookie = 0;
+    private boolean searchTracing = false;
     private Runnable searchRunnable;
     
     private ArrayAdapter<String> countryAdapter;
@@ -145,6 +150,7 @@ public class FragmentMultiSearch extends FragmentBase {
                             // 处理电台移动完成事件
                         }
                     });
+                    stationListAdapter.enablePerformanceMode(recyclerViewStations);
                     recyclerViewStations.setAdapter(stationListAdapter);
                     recyclerViewStations.setLayoutManager(new LinearLayoutManager(getActivity()));
                     recyclerViewStations.addItemDecoration(new DividerItemDecoration(getActivity(), DividerItemDecoration.VERTICAL));
@@ -399,6 +405,11 @@ public class FragmentMultiSearch extends FragmentBase {
     
     private void performMultiSearch() {
         Log.d(TAG, "执行多条件搜索: 国家=" + selectedCountry + ", 语言=" + selectedLanguage + ", 标签=" + selectedTag + ", 关键词=" + searchQuery);
+
+        endSearchTrace();
+        searchTraceCookie++;
+        searchTracing = true;
+        TraceCompat.beginAsyncSection(TRACE_SEARCH_RESULTS, searchTraceCookie);
         
         // 使用统一的空数据库检查
         LinearLayout errorLayout = getView().findViewById(R.id.layoutError);
@@ -422,7 +433,15 @@ public class FragmentMultiSearch extends FragmentBase {
             });
     }
     
+    private void endSearchTrace() {
+        if (searchTracing) {
+            searchTracing = false;
+            TraceCompat.endAsyncSection(TRACE_SEARCH_RESULTS, searchTraceCookie);
+        }
+    }
+
     private void handleSearchResults(List<RadioStation> radioStations) {
+        endSearchTrace();
         if (radioStations != null && !radioStations.isEmpty()) {
             // 转换为DataRadioStation
             List<DataRadioStation> dataStations = new ArrayList<>(radioStations.size());
@@ -139,6 +139,7 @@ public class FragmentRecentlyChanged extends FragmentBase implements IFragmentSe
                     // 处理电台移动完成事件
                 }
             });
+            stationListAdapter.enablePerformanceMode(recyclerViewStations);
             recyclerViewStations.setAdapter(stationListAdapter);
         } else {
             Log.e(TAG, "Activity is null in onActivityCreated, cannot initialize adapter");
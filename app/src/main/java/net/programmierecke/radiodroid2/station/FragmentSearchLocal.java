@@ -103,6 +103,7 @@ public class FragmentSearchLocal extends FragmentBase implements IFragmentSearch
                     // 处理电台移动完成事件
                 }
             });
+            stationListAdapter.enablePerformanceMode(recyclerViewStations);
             recyclerViewStations.setAdapter(stationListAdapter);
             // 设置LayoutManager
             recyclerViewStations.setLayoutManager(new LinearLayoutManager(getActivity()));
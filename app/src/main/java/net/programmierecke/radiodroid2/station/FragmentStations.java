@@ -265,6 +265,7 @@ public class FragmentStations extends FragmentBase implements IFragmentSearchabl
                 btnRetry.setOnClickListener(v -> search(lastSearchStyle, lastQuery));
             }
 
+            adapter.enablePerformanceMode(rvStations);
             rvStations.setAdapter(adapter);
             
             // 刷新列表
@@ -105,6 +105,7 @@ public class FragmentTopClick extends FragmentBase implements IFragmentSearchabl
                     // 处理电台移动完成事件
                 }
             });
+            stationListAdapter.enablePerformanceMode(recyclerViewStations);
             recyclerViewStations.setAdapter(stationListAdapter);
             // 设置LayoutManager
             recyclerViewStations.setLayoutManager(new LinearLayoutManager(getActivity()));
@@ -2,7 +2,14 @@ package net.programmierecke.radiodroid2.station;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 import android.content.BroadcastReceiver;
 import android.content.Context;
@@ -14,12 +21,16 @@ import android.graphics.Typeface;
 import android.graphics.drawable.Drawable;
 import android.graphics.drawable.GradientDrawable;
 import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.text.TextUtils;
 
 import androidx.appcompat.content.res.AppCompatResources;
 import androidx.fragment.app.FragmentActivity;
 import androidx.localbroadcastmanager.content.LocalBroadcastManager;
 import androidx.preference.PreferenceManager;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import androidx.recyclerview.widget.ItemTouchHelper;
 
@@ -67,8 +78,26 @@ public class ItemAdapterStation
 
     private final String TAG = "AdapterStations";
 
+    // 性能模式：行模型在该线程上构建并与旧列表做差分，所有列表共用一个线程
+    private static final Executor DIFF_EXECUTOR = Executors.newSingleThreadExecutor(r -> new Thread(r, "StationListDiffer"));
+    // 新旧列表共同电台少于该比例时差分没有意义，直接整体刷新
+    private static final float MIN_SHARED_FRACTION_FOR_DIFF = 0.5f;
+    private static final int SHARED_POOL_SIZE = 30;
+    private static final int ITEM_VIEW_CACHE_SIZE = 8;
+    private static final int PREFETCH_VIEW_COUNT = 8;
+
     List<DataRadioStation> stationsList;
     List<DataRadioStation> filteredStationsList = new ArrayList<>();
+    // 与 filteredStationsList 按位置对应的行模型，同步模式下在绑定时按需构建
+    private List<StationRow> rows = new ArrayList<>();
+    // 只保存当前列表中电台的 ID，替换列表时删除其余的；ID 由计数器分配，删除后也不会重复
+    private final Map<String, Long> stableIds = new HashMap<>();
+    private long nextStableId = 0;
+
+    private boolean performanceMode = false;
+    // 每次提交新列表递增，过期的后台差分结果被丢弃
+    private int listGeneration = 0;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
 
     int resourceId;
 
@@ -155,9 +184,14 @@ public class ItemAdapterStation
 
         @Override
         public void onClick(View view) {
-            if (stationActionsListener != null) {
-                int pos = getAdapterPosition();
-                stationActionsListener.onStationClick(filteredStationsList.get(pos), pos);
+            // 共享回收池中的 ViewHolder 可能由其他列表的适配器创建，必须使用当前绑定的适配器
+            ItemAdapterStation adapter = (ItemAdapterStation) getBindingAdapter();
+            int pos = getBindingAdapterPosition();
+            if (adapter == null || pos == RecyclerView.NO_POSITION) {
+                return;
+            }
+            if (adapter.stationActionsListener != null) {
+                adapter.stationActionsListener.onStationClick(adapter.filteredStationsList.get(pos), pos);
             }
         }
 
@@ -173,6 +207,8 @@ public class ItemAdapterStation
 
         stationImagePlaceholder = AppCompatResources.getDrawable(fragmentActivity, R.mipmap.ic_launcher);
 
+        setHasStableIds(true);
+
         RadioDroidApp radioDroidApp = (RadioDroidApp) fragmentActivity.getApplication();
         favouriteManager = radioDroidApp.getFavouriteManager();
         IntentFilter filter = new IntentFilter();
@@ -230,9 +266,69 @@ public class ItemAdapterStation
         }
     }
 
+    /**
+     * Performance mode for long lists which {@link #updateList} replaces as a whole, like the
+     * lists loaded from the repository or the server: row models are built and diffed against the
+     * shown list on a background thread, the list shares its view pool with the other station
+     * lists of the activity and views are inflated ahead while the main thread is idle.
+     * <p>
+     * Not for lists which are modified in place like favourites and history, their updates have
+     * to be shown synchronously. Call before the adapter is set on the RecyclerView.
+     */
+    public void enablePerformanceMode(RecyclerView recyclerView) {
+        performanceMode = true;
+
+        ViewGroup.LayoutParams layoutParams = recyclerView.getLayoutParams();
+        if (layoutParams == null || (layoutParams.width != ViewGroup.LayoutParams.WRAP_CONTENT
+                && layoutParams.height != ViewGroup.LayoutParams.WRAP_CONTENT)) {
+            recyclerView.setHasFixedSize(true);
+        }
+        recyclerView.setItemViewCacheSize(ITEM_VIEW_CACHE_SIZE);
+
+        RecyclerView.RecycledViewPool pool = getSharedViewPool(activity);
+        pool.setMaxRecycledViews(resourceId, SHARED_POOL_SIZE);
+        recyclerView.setRecycledViewPool(pool);
+        prefetchViews(recyclerView, pool);
+    }
+
+    /**
+     * One pool per activity, so the tabs reuse each other's rows instead of inflating their own.
+     */
+    public static RecyclerView.RecycledViewPool getSharedViewPool(FragmentActivity activity) {
+        View decorView = activity.getWindow().getDecorView();
+        RecyclerView.RecycledViewPool pool = (RecyclerView.RecycledViewPool) decorView.getTag(R.id.tag_station_view_pool);
+        if (pool == null) {
+            pool = new RecyclerView.RecycledViewPool();
+            decorView.setTag(R.id.tag_station_view_pool, pool);
+        }
+        return pool;
+    }
+
+    private void prefetchViews(final RecyclerView recyclerView, final RecyclerView.RecycledViewPool pool) {
+        // 每次空闲只创建一个，避免占用一整帧
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                if (activity.isFinishing() || pool.getRecycledViewCount(resourceId) >= PREFETCH_VIEW_COUNT) {
+                    return false;
+                }
+                pool.putRecycledView(createViewHolder(recyclerView, resourceId));
+                return true;
+            }
+        });
+    }
+
     public void updateList(FragmentStarred refreshableList, List<DataRadioStation> stationsList) {
         this.refreshable = refreshableList;
+
+        if (performanceMode) {
+            this.stationsList = stationsList;
+            submitInBackground(stationsList);
+            return;
+        }
         
+        retainStableIds(stationKeys(stationsList));
+
         // 使用DiffUtil来优化列表更新，减少不必要的刷新
         if (this.stationsList == null) {
             this.stationsList = stationsList;
@@ -248,6 +344,7 @@ public class ItemAdapterStation
                 // 对于小的变化，使用更高效的更新方式
                 this.stationsList = stationsList;
                 this.filteredStationsList = stationsList;
+                this.rows = new ArrayList<>();
                 highlightCurrentStation();
                 notifyDataSetChanged();
             }
@@ -255,6 +352,8 @@ public class ItemAdapterStation
     }
 
     private void notifyStationsChanged() {
+        listGeneration++;
+        rows = new ArrayList<>();
         expandedPosition = -1;
         playingStationPosition = -1;
 
@@ -265,6 +364,144 @@ public class ItemAdapterStation
         notifyDataSetChanged();
     }
 
+    private void submitInBackground(List<DataRadioStation> stations) {
+        final int generation = ++listGeneration;
+        final Context context = getContext();
+        final List<DataRadioStation> newStations = new ArrayList<>(stations);
+        final List<StationRow> oldRows = new ArrayList<>(rows);
+
+        DIFF_EXECUTOR.execute(() -> {
+            final List<StationRow> newRows = new ArrayList<>(newStations.size());
+            for (DataRadioStation station : newStations) {
+                newRows.add(new StationRow(context, station));
+            }
+
+            final DiffUtil.DiffResult diffResult = shouldDiff(oldRows, newRows) ?
+                    DiffUtil.calculateDiff(new RowsDiffCallback(oldRows, newRows), false) : null;
+            final Set<String> newKeys = new HashSet<>(newRows.size() * 2);
+            for (StationRow row : newRows) {
+                newKeys.add(row.key);
+            }
+
+            mainHandler.post(() -> {
+                if (generation != listGeneration) {
+                    return;
+                }
+
+                filteredStationsList = newStations;
+                rows = newRows;
+                retainStableIds(newKeys);
+                expandedPosition = -1;
+                shouldLoadIcons = Utils.shouldLoadIcons(getContext());
+
+                if (diffResult != null) {
+                    diffResult.dispatchUpdatesTo(ItemAdapterStation.this);
+                } else {
+                    playingStationPosition = -1;
+                    notifyDataSetChanged();
+                }
+                highlightCurrentStation();
+            });
+        });
+    }
+
+    /**
+     * Diffing two unrelated lists, e.g. two search results, costs quadratic time and saves no
+     * rebinding, only refreshes of the same list are diffed.
+     */
+    private static boolean shouldDiff(List<StationRow> oldRows, List<StationRow> newRows) {
+        if (oldRows.isEmpty() || newRows.isEmpty()) {
+            return false;
+        }
+
+        Set<String> oldKeys = new HashSet<>(oldRows.size() * 2);
+        for (StationRow row : oldRows) {
+            oldKeys.add(row.key);
+        }
+        int shared = 0;
+        for (StationRow row : newRows) {
+            if (oldKeys.contains(row.key)) {
+                shared++;
+            }
+        }
+        return shared >= MIN_SHARED_FRACTION_FOR_DIFF * Math.max(oldRows.size(), newRows.size());
+    }
+
+    private static class RowsDiffCallback extends DiffUtil.Callback {
+        private final List<StationRow> oldRows;
+        private final List<StationRow> newRows;
+
+        RowsDiffCallback(List<StationRow> oldRows, List<StationRow> newRows) {
+            this.oldRows = oldRows;
+            this.newRows = newRows;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return oldRows.size();
+        }
+
+        @Override
+        public int getNewListSize() {
+            return newRows.size();
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return oldRows.get(oldItemPosition).key.equals(newRows.get(newItemPosition).key);
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return oldRows.get(oldItemPosition).hasSameContent(newRows.get(newItemPosition));
+        }
+    }
+
+    /**
+     * @return the row model of the position, built now if the list changed since it was built
+     */
+    private StationRow rowAt(int position) {
+        DataRadioStation station = filteredStationsList.get(position);
+        StationRow row = position < rows.size() ? rows.get(position) : null;
+        if (row == null || row.station != station) {
+            row = new StationRow(getContext(), station);
+            while (rows.size() <= position) {
+                rows.add(null);
+            }
+            rows.set(position, row);
+        }
+        return row;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        String key = StationRow.keyOf(filteredStationsList.get(position));
+        Long id = stableIds.get(key);
+        if (id == null) {
+            id = nextStableId++;
+            stableIds.put(key, id);
+        }
+        return id;
+    }
+
+    private static Set<String> stationKeys(List<DataRadioStation> stations) {
+        final Set<String> keys = new HashSet<>(stations.size() * 2);
+        for (DataRadioStation station : stations) {
+            keys.add(StationRow.keyOf(station));
+        }
+        return keys;
+    }
+
+    private void retainStableIds(Set<String> keys) {
+        stableIds.keySet().retainAll(keys);
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        // 不同布局的列表可能共用回收池，按布局区分 ViewHolder
+        return resourceId;
+    }
+
     @Override
     public StationViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
         LayoutInflater inflater = LayoutInflater.from(parent.getContext());
@@ -278,7 +515,8 @@ public class ItemAdapterStation
         if (filteredStationsList == null || position < 0 || position >= filteredStationsList.size()) {
             return;
         }
-        final DataRadioStation station = filteredStationsList.get(position);
+        final StationRow row = rowAt(position);
+        final DataRadioStation station = row.station;
 
         SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(getContext().getApplicationContext());
         boolean useCircularIcons = Utils.useCircularIcons(getContext());
@@ -362,7 +600,7 @@ public class ItemAdapterStation
         });
 
         // 确保电台名称可见
-        holder.textViewTitle.setText(station.Name != null ? station.Name : activity.getString(R.string.unknown_station));
+        holder.textViewTitle.setText(row.title);
         
         // 设置文本颜色，确保与背景有足够对比度
         boolean isDarkTheme = Utils.isDarkTheme(getContext());
@@ -391,8 +629,8 @@ public class ItemAdapterStation
             holder.playingOverlay.setVisibility(View.GONE);
         }
 
-        holder.textViewShortDescription.setText(station.getShortDetails(getContext()));
-        holder.textViewTags.setText(station.TagsAll.replace(",", ", "));
+        holder.textViewShortDescription.setText(row.shortDetails);
+        holder.textViewTags.setText(row.tags);
         
         // 设置简短描述和标签的文本颜色
         if (isDarkTheme) {
@@ -407,21 +645,13 @@ public class ItemAdapterStation
         holder.starredStatusIcon.setContentDescription(inFavourites ? getContext().getString(R.string.action_favorite) : "");
 
         if (prefs.getBoolean("click_trend_icon_visible", true)) {
-            if (station.ClickTrend < 0) {
-                holder.imageTrend.setImageResource(R.drawable.ic_trending_down_black_24dp);
-                holder.imageTrend.setContentDescription(getContext().getString(R.string.icon_click_trend_decreasing));
-            } else if (station.ClickTrend > 0) {
-                holder.imageTrend.setImageResource(R.drawable.ic_trending_up_black_24dp);
-                holder.imageTrend.setContentDescription(getContext().getString(R.string.icon_click_trend_increasing));
-            } else {
-                holder.imageTrend.setImageResource(R.drawable.ic_trending_flat_black_24dp);
-                holder.imageTrend.setContentDescription(getContext().getString(R.string.icon_click_trend_stable));
-            }
+            holder.imageTrend.setImageResource(row.trendIconRes);
+            holder.imageTrend.setContentDescription(getContext().getString(row.trendDescriptionRes));
         } else {
             holder.imageTrend.setVisibility(View.GONE);
         }
 
-        Drawable flag = CountryFlagsLoader.getInstance().getFlag(activity, station.CountryCode);
+        Drawable flag = CountryFlagsLoader.getInstance().getFlag(activity, row.flagRes);
 
         if (flag != null && flag.getMinimumHeight() > 0) {
             float k = flag.getMinimumWidth() / (float) flag.getMinimumHeight();
@@ -548,6 +778,9 @@ public class ItemAdapterStation
     @Override
     public void onMoved(StationViewHolder viewHolder, int from, int to) {
         stationActionsListener.onStationMoved(from, to);
+        if (Math.max(from, to) < rows.size()) {
+            Collections.rotate(rows.subList(Math.min(from, to), Math.max(from, to) + 1), Integer.signum(from - to));
+        }
         notifyItemMoved(from, to);
     }
 
@@ -571,9 +804,12 @@ public class ItemAdapterStation
 
                 @Override
                 public void notifyFilteredStationsChanged(StationsFilter.SearchStatus status, List<DataRadioStation> filteredStations) {
-                    filteredStationsList = filteredStations;
-
-                    notifyStationsChanged();
+                    if (performanceMode) {
+                        submitInBackground(filteredStations);
+                    } else {
+                        filteredStationsList = filteredStations;
+                        notifyStationsChanged();
+                    }
 
                     if (filterListener != null) {
                         filterListener.onSearchCompleted(status);
@@ -654,6 +890,9 @@ public class ItemAdapterStation
         // TODO: Iterate through view holders instead of whole collection
         for (int i = 0; i < filteredStationsList.size(); i++) {
             if (filteredStationsList.get(i).StationUuid.equals(uuid)) {
+                if (i < rows.size()) {
+                    rows.set(i, null);
+                }
                 notifyItemChanged(i);
                 break;
             }
@@ -0,0 +1,84 @@
+package net.programmierecke.radiodroid2.station;
+
+import android.content.Context;
+import android.text.TextUtils;
+
+import net.programmierecke.radiodroid2.CountryFlagsLoader;
+import net.programmierecke.radiodroid2.R;
+
+/**
+ * Immutable display data of one row in {@link ItemAdapterStation}.
+ * <p>
+ * The details line, the formatted tags and the flag resource take string work and a resource
+ * lookup per station. Rows are prepared once per list update, for long lists on a background
+ * thread, so binding a row only copies the prepared values into its views. Rows with equal
+ * content look the same, which the adapter uses to diff list updates.
+ */
+final class StationRow {
+    final DataRadioStation station;
+    final String key;
+
+    final String title;
+    final String shortDetails;
+    final String tags;
+    final int trendIconRes;
+    final int trendDescriptionRes;
+    final int flagRes;
+
+    // Not displayed as text but decide how the icon and background are bound
+    private final String iconUrl;
+    private final String homePageUrl;
+    private final boolean working;
+    private final boolean deletedOnServer;
+
+    StationRow(Context context, DataRadioStation station) {
+        this.station = station;
+        this.key = keyOf(station);
+
+        title = station.Name != null ? station.Name : context.getString(R.string.unknown_station);
+        shortDetails = station.getShortDetails(context);
+        tags = station.TagsAll != null ? station.TagsAll.replace(",", ", ") : "";
+
+        if (station.ClickTrend < 0) {
+            trendIconRes = R.drawable.ic_trending_down_black_24dp;
+            trendDescriptionRes = R.string.icon_click_trend_decreasing;
+        } else if (station.ClickTrend > 0) {
+            trendIconRes = R.drawable.ic_trending_up_black_24dp;
+            trendDescriptionRes = R.string.icon_click_trend_increasing;
+        } else {
+            trendIconRes = R.drawable.ic_trending_flat_black_24dp;
+            trendDescriptionRes = R.string.icon_click_trend_stable;
+        }
+
+        flagRes = CountryFlagsLoader.getInstance().getFlagResourceId(context, station.CountryCode);
+
+        iconUrl = station.IconUrl;
+        homePageUrl = station.HomePageUrl;
+        working = station.Working;
+        deletedOnServer = station.DeletedOnServer;
+    }
+
+    /**
+     * Identifies a station across list updates, also when the list was reloaded and holds new
+     * objects for the same stations.
+     */
+    static String keyOf(DataRadioStation station) {
+        if (!TextUtils.isEmpty(station.StationUuid)) {
+            return station.StationUuid;
+        }
+        return "@" + System.identityHashCode(station);
+    }
+
+    boolean hasSameContent(StationRow other) {
+        return key.equals(other.key)
+                && title.equals(other.title)
+                && shortDetails.equals(other.shortDetails)
+                && tags.equals(other.tags)
+                && trendIconRes == other.trendIconRes
+                && flagRes == other.flagRes
+                && TextUtils.equals(iconUrl, other.iconUrl)
+                && TextUtils.equals(homePageUrl, other.homePageUrl)
+                && working == other.working
+                && deletedOnServer == other.deletedOnServer;
+    }
+}
@@ -0,0 +1,394 @@
+package net.programmierecke.radiodroid2.station.live;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decodes raw ICY metadata blocks into text.
+ * <p>
+ * Streams never declare the charset of their metadata, so it has to be guessed from the bytes.
+ * Guessing is done once per station: the verdict is cached by station UUID and every following
+ * block is decoded in a single pass with that charset. If a block does not decode cleanly with the
+ * cached charset (e.g. the station changed its encoder) the verdict is dropped and detection runs
+ * again. A legacy verdict is also dropped as soon as a block is valid UTF-8, since UTF-8 bytes
+ * usually decode without errors in single byte charsets like windows-1252.
+ * <p>
+ * Shared by {@link net.programmierecke.radiodroid2.players.exoplayer.IcyDataSource},
+ * {@link net.programmierecke.radiodroid2.players.mediaplayer.StreamProxy} and
+ * {@link net.programmierecke.radiodroid2.players.exoplayer.ExoPlayerWrapper}.
+ */
+public class MetadataDecoder {
+    private static final int MAX_CACHED_STATIONS = 128;
+
+    // Legacy charsets checked when metadata is not valid UTF-8, ordered by how common they are
+    // among stations. Ties in detection are resolved in favour of the earlier entry.
+    private static final String[] LEGACY_CHARSET_NAMES = {
+            "windows-1252", "GBK", "Big5", "Shift_JIS", "EUC-KR", "windows-1251"
+    };
+
+    private static final Charset WINDOWS_1252 = charsetOrLatin1("windows-1252");
+
+    private static final MetadataDecoder instance = new MetadataDecoder();
+
+    private final List<Charset> legacyCharsets = new ArrayList<>();
+
+    private final Map<String, Charset> stationCharsets = new LinkedHashMap<String, Charset>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Charset> eldest) {
+            return size() > MAX_CACHED_STATIONS;
+        }
+    };
+
+    public static MetadataDecoder getInstance() {
+        return instance;
+    }
+
+    MetadataDecoder() {
+        for (String name : LEGACY_CHARSET_NAMES) {
+            if (Charset.isSupported(name)) {
+                legacyCharsets.add(Charset.forName(name));
+            }
+        }
+    }
+
+    /**
+     * Decodes a metadata block (e.g. {@code StreamTitle='...';StreamUrl='...';}) and splits it
+     * into key/value pairs.
+     */
+    @NonNull
+    public Map<String, String> decodeMetadataBlock(@Nullable String stationUuid, @NonNull byte[] bytes, int offset, int length) {
+        return parseMetadata(decode(stationUuid, bytes, offset, length));
+    }
+
+    /**
+     * Decodes metadata bytes using the charset detected for the station. Trailing NUL padding of
+     * the 16 byte ICY blocks is ignored.
+     *
+     * @param stationUuid station the bytes belong to; if empty the verdict is not cached.
+     */
+    @NonNull
+    public String decode(@Nullable String stationUuid, @NonNull byte[] bytes, int offset, int length) {
+        while (length > 0 && bytes[offset + length - 1] == 0) {
+            length--;
+        }
+
+        if (length <= 0) {
+            return "";
+        }
+
+        if (isAscii(bytes, offset, length)) {
+            // Nothing to learn about the charset from plain ASCII
+            return new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        }
+
+        final boolean cacheable = stationUuid != null && !stationUuid.isEmpty();
+
+        if (cacheable) {
+            final Charset cached = getCachedCharset(stationUuid);
+            if (cached != null) {
+                // 电台改用 UTF-8 后旧字符集往往仍能无错解码，所以遇到合法的 UTF-8 就重新判定
+                final boolean switchedToUtf8 = cached != StandardCharsets.UTF_8 && isValidUtf8(bytes, offset, length);
+                String text = switchedToUtf8 ? null : decodeStrict(cached, bytes, offset, length);
+                if (text != null) {
+                    return cached == StandardCharsets.UTF_8 ? repairDoubleEncoded(text) : text;
+                }
+
+                forgetStation(stationUuid);
+            }
+        }
+
+        final Charset detected = detectCharset(bytes, offset, length);
+
+        if (cacheable) {
+            synchronized (stationCharsets) {
+                stationCharsets.put(stationUuid, detected);
+            }
+        }
+
+        String text = new String(bytes, offset, length, detected);
+        return detected == StandardCharsets.UTF_8 ? repairDoubleEncoded(text) : text;
+    }
+
+    @Nullable
+    public Charset getCachedCharset(@NonNull String stationUuid) {
+        synchronized (stationCharsets) {
+            return stationCharsets.get(stationUuid);
+        }
+    }
+
+    public void forgetStation(@NonNull String stationUuid) {
+        synchronized (stationCharsets) {
+            stationCharsets.remove(stationUuid);
+        }
+    }
+
+    /**
+     * Picks the most plausible charset for bytes which are known to contain non-ASCII data.
+     * Valid UTF-8 always wins since random legacy text practically never forms valid multi-byte
+     * UTF-8 sequences; otherwise every legacy charset which decodes the bytes without errors is
+     * scored by how "natural" the resulting characters are.
+     */
+    @NonNull
+    Charset detectCharset(@NonNull byte[] bytes, int offset, int length) {
+        if (isValidUtf8(bytes, offset, length)) {
+            return StandardCharsets.UTF_8;
+        }
+
+        Charset best = WINDOWS_1252;
+        int bestScore = Integer.MIN_VALUE;
+
+        for (Charset charset : legacyCharsets) {
+            final String text = decodeStrict(charset, bytes, offset, length);
+            if (text == null) {
+                continue;
+            }
+
+            final int score = scoreText(text) + scoreDoubleByteFrequency(charset, bytes, offset, length);
+            if (score > bestScore) {
+                bestScore = score;
+                best = charset;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Fixes text which was UTF-8 encoded, then decoded as Latin-1 and encoded to UTF-8 again
+     * somewhere between the station's encoder and us (e.g. "CafÃ©" instead of "Café").
+     */
+    @NonNull
+    public static String repairDoubleEncoded(@NonNull String text) {
+        boolean hasHighChars = false;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c > 0xFF) {
+                return text;
+            }
+            if (c >= 0x80) {
+                hasHighChars = true;
+            }
+        }
+
+        if (!hasHighChars) {
+            return text;
+        }
+
+        final byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        if (!isValidUtf8(bytes, 0, bytes.length)) {
+            return text;
+        }
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Splits decoded metadata into key/value pairs. Values may contain ';' so a value only ends
+     * at a quote directly followed by ';' or the end of the text.
+     */
+    @NonNull
+    public static Map<String, String> parseMetadata(@NonNull String metadata) {
+        final Map<String, String> result = new HashMap<>();
+        final int length = metadata.length();
+
+        int pos = 0;
+        while (pos < length) {
+            final int eq = metadata.indexOf('=', pos);
+            if (eq < 0) {
+                break;
+            }
+
+            final String key = metadata.substring(pos, eq).trim();
+            int valueStart = eq + 1;
+            int valueEnd;
+            int next;
+
+            final char quote = valueStart < length ? metadata.charAt(valueStart) : 0;
+            if (quote == '\'' || quote == '"') {
+                valueStart++;
+                int closing = metadata.indexOf(quote, valueStart);
+                while (closing >= 0 && closing + 1 < length && metadata.charAt(closing + 1) != ';') {
+                    closing = metadata.indexOf(quote, closing + 1);
+                }
+
+                if (closing < 0) {
+                    valueEnd = length;
+                    next = length;
+                } else {
+                    valueEnd = closing;
+                    next = closing + 2;
+                }
+            } else {
+                final int semicolon = metadata.indexOf(';', valueStart);
+                valueEnd = semicolon < 0 ? length : semicolon;
+                next = valueEnd + 1;
+            }
+
+            if (!key.isEmpty()) {
+                result.put(key, metadata.substring(valueStart, valueEnd).trim());
+            }
+
+            pos = next;
+        }
+
+        return result;
+    }
+
+    static boolean isAscii(byte[] bytes, int offset, int length) {
+        for (int i = offset; i < offset + length; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Strict UTF-8 validation: rejects overlong forms, surrogates and truncated sequences.
+     */
+    static boolean isValidUtf8(byte[] bytes, int offset, int length) {
+        final int end = offset + length;
+        int i = offset;
+        while (i < end) {
+            final int b = bytes[i] & 0xFF;
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+
+            int extra;
+            int codePoint;
+            if (b >= 0xC2 && b <= 0xDF) {
+                extra = 1;
+                codePoint = b & 0x1F;
+            } else if ((b & 0xF0) == 0xE0) {
+                extra = 2;
+                codePoint = b & 0x0F;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                extra = 3;
+                codePoint = b & 0x07;
+            } else {
+                return false;
+            }
+
+            if (i + extra >= end) {
+                return false;
+            }
+
+            for (int j = 1; j <= extra; j++) {
+                final int c = bytes[i + j] & 0xFF;
+                if ((c & 0xC0) != 0x80) {
+                    return false;
+                }
+                codePoint = (codePoint << 6) | (c & 0x3F);
+            }
+
+            if ((extra == 2 && (codePoint < 0x800 || (codePoint >= 0xD800 && codePoint <= 0xDFFF)))
+                    || (extra == 3 && (codePoint < 0x10000 || codePoint > 0x10FFFF))) {
+                return false;
+            }
+
+            i += extra + 1;
+        }
+        return true;
+    }
+
+    @Nullable
+    private static String decodeStrict(Charset charset, byte[] bytes, int offset, int length) {
+        try {
+            CharBuffer chars = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes, offset, length));
+            return chars.toString();
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Rewards characters which commonly appear in titles and penalizes those which usually
+     * are the product of decoding with a wrong charset (C1 controls, box drawing, private use
+     * area, half-width katakana and so on). ASCII is neutral since every candidate shares it,
+     * so are ideographs which are judged by {@link #scoreDoubleByteFrequency} instead.
+     */
+    private static int scoreText(String text) {
+        int score = 0;
+        boolean previousWasAccented = false;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            final boolean accented = c >= 0xC0 && c <= 0x17F && c != 0xD7 && c != 0xF7;
+
+            if (c < 0x80 || (c >= 0x4E00 && c <= 0x9FFF)) {
+                // Neutral
+            } else if ((c >= 0x3040 && c <= 0x30FF) || (c >= 0xAC00 && c <= 0xD7AF)) {
+                score += 2; // Kana and Hangul syllables
+            } else if (c >= 0x0400 && c <= 0x04FF) {
+                score += Character.isLetter(c) ? 1 : -3; // Cyrillic
+            } else if (accented) {
+                // Words rarely consist of accented letters only, runs of them usually mean
+                // that a Cyrillic or Greek legacy charset was decoded as Latin.
+                score += previousWasAccented ? 0 : 1;
+            } else if ((c >= 0xA0 && c <= 0xBF) || (c >= 0x2010 && c <= 0x2044)
+                    || (c >= 0x3000 && c <= 0x303F) || (c >= 0xFF01 && c <= 0xFF5E)) {
+                // Punctuation: plausible but proves nothing
+            } else {
+                score -= 3;
+            }
+
+            previousWasAccented = accented;
+        }
+        return score;
+    }
+
+    /**
+     * GBK and Big5 accept most byte pairs, so the decoded text alone can't tell them apart from
+     * each other or from Latin text. Both charsets keep their frequently used characters in a
+     * dedicated block: reward byte pairs falling into it and penalize the rarely used rest.
+     */
+    private static int scoreDoubleByteFrequency(Charset charset, byte[] bytes, int offset, int length) {
+        final String name = charset.name();
+        final boolean gbk = "GBK".equals(name);
+        final boolean big5 = "Big5".equals(name);
+        if (!gbk && !big5) {
+            return 0;
+        }
+
+        int score = 0;
+        final int end = offset + length;
+        for (int i = offset; i < end - 1; i++) {
+            final int lead = bytes[i] & 0xFF;
+            if (lead < 0x81) {
+                continue;
+            }
+            final int trail = bytes[i + 1] & 0xFF;
+            if (gbk && lead >= 0xB0 && lead <= 0xD7 && trail >= 0xA1) {
+                score += 2; // GB2312 level 1 hanzi
+            } else if (big5 && lead >= 0xA4 && lead <= 0xC6 && (trail <= 0x7E || trail >= 0xA1)) {
+                score += 2; // Big5 frequently used characters
+            } else if (lead >= 0xA1 && lead <= 0xA3 && trail >= 0xA1) {
+                // Full-width punctuation in both charsets
+            } else {
+                score -= 1;
+            }
+            i++;
+        }
+        return score;
+    }
+
+    private static Charset charsetOrLatin1(String name) {
+        return Charset.isSupported(name) ? Charset.forName(name) : StandardCharsets.ISO_8859_1;
+    }
+}
@@ -0,0 +1,431 @@
+package net.programmierecke.radiodroid2.station.live;
+
+import androidx.annotation.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits a stream title into artist and track.
+ * <p>
+ * The title is normalized while it is copied, split at the first separator its format allows and
+ * the parts are cleaned with a few precompiled patterns. That is several passes, but over short
+ * strings. Stations repeat the same title with every metadata block (and both the data source
+ * and the player report it), so the results for the last few titles are memoized.
+ */
+final class StreamTitleParser {
+    static final String UNKNOWN_ARTIST = "Unknown Artist";
+    static final String UNKNOWN_TRACK = "Unknown Track";
+
+    private static final int MEMO_SIZE = 16;
+
+    // Station IDs, jingles and ad breaks which are announced through "text=" fields
+    private static final Pattern SPECIAL_SEGMENT = Pattern.compile(
+            "\\b(?:ID|LEGAL|SPOT|PROMO|COMMERCIAL|ADVERTISEMENT|BLOCK|INTRO|OUTRO|BREAK|STATION|BUMPER)\\b"
+                    + "|\\b\\d{2,3}_|[A-Z]{3,4}\\s*-\\s*[A-Z]+");
+    private static final Pattern HTML_ENTITY = Pattern.compile("&(?:amp|quot|lt|gt|apos);");
+    private static final Pattern URL = Pattern.compile("(?:https?://|www\\.)\\S+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern DECORATION = Pattern.compile(
+            "\\s*(?:\\[.*?]|\\((?:Live|Remix|Edit|Version|Cover|Acoustic|Demo|Instrumental|Explicit|Official"
+                    + "|Audio|Extended|Radio|Single|Album|Original|Remastered|Unplugged|Live Session|Studio Version"
+                    + "|Alternate Version|Clean|Dirty)\\)|\\(\\d{4}\\))\\s*");
+    private static final Pattern QUOTES = Pattern.compile("^[\"'`]+|[\"'`]+$");
+    private static final Pattern ARTIST_PREFIX = Pattern.compile("^(?:[Aa]rtist|[Pp]erformer)(?::| )");
+    private static final Pattern ARTIST_SUFFIX = Pattern.compile("\\s*[-:–—]\\s*(?:Live|Remix|Edit|Version|Cover)\\s*$");
+    private static final Pattern TRACK_PREFIX = Pattern.compile("^(?:[Tt]itle|[Tt]rack|[Ss]ong|[Mm]usic)(?::| )");
+    private static final Pattern TRACK_SUFFIX = Pattern.compile("\\s*[-:–—]\\s*(?:Live|Remix|Edit|Version|Cover|Official|Audio)\\s*$");
+    private static final Pattern TRAILING_SEPARATOR = Pattern.compile("\\s*[-:–—=+~]\\s*$");
+    private static final Pattern FEAT = Pattern.compile("\\s+(?:feat\\.|ft\\.|featuring|with)\\s+");
+
+    private static final Map<String, String[]> memo = new LinkedHashMap<String, String[]>(MEMO_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+            return size() > MEMO_SIZE;
+        }
+    };
+
+    private StreamTitleParser() {
+    }
+
+    /**
+     * @return {artist, track}; both empty if the title is empty or looks corrupted.
+     */
+    @NonNull
+    static String[] parse(@NonNull String title) {
+        synchronized (memo) {
+            String[] cached = memo.get(title);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        final String[] result = parseUncached(title);
+
+        synchronized (memo) {
+            memo.put(title, result);
+        }
+        return result;
+    }
+
+    @NonNull
+    static String[] parseUncached(@NonNull String rawTitle) {
+        final String title = normalize(rawTitle);
+        if (title.isEmpty() || isCorrupted(title)) {
+            return new String[]{"", ""};
+        }
+
+        final Parts parts = new Parts();
+        split(title, parts);
+        clean(parts);
+        return new String[]{parts.artist, parts.track};
+    }
+
+    private static final class Parts {
+        String artist = "";
+        String track = "";
+
+        void set(String artist, String track) {
+            this.artist = artist;
+            this.track = track;
+        }
+    }
+
+    /**
+     * Drops control characters, collapses whitespace and strips leading '-' and '=' while copying
+     * the title, then strips trailing ones from the copy.
+     */
+    private static String normalize(String title) {
+        final StringBuilder sb = new StringBuilder(title.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < title.length(); i++) {
+            final char c = title.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+            } else if (!Character.isISOControl(c)) {
+                if (sb.length() == 0 && (c == '-' || c == '=')) {
+                    continue;
+                }
+                if (pendingSpace) {
+                    sb.append(' ');
+                    pendingSpace = false;
+                }
+                sb.append(c);
+            }
+        }
+
+        int end = sb.length();
+        while (end > 0 && (sb.charAt(end - 1) == '-' || sb.charAt(end - 1) == '=' || sb.charAt(end - 1) == ' ')) {
+            end--;
+        }
+        sb.setLength(end);
+        return sb.toString();
+    }
+
+    private static boolean isCorrupted(String title) {
+        int questionMarks = 0;
+        int controlChars = 0;
+        for (int i = 0; i < title.length(); i++) {
+            final char c = title.charAt(i);
+            if (c == '?') {
+                questionMarks++;
+            } else if (Character.isISOControl(c) && c != '\t' && c != '\n' && c != '\r') {
+                controlChars++;
+            }
+        }
+
+        return questionMarks > title.length() * 0.5
+                || controlChars > title.length() * 0.2
+                || (questionMarks >= 2 && title.length() < 10);
+    }
+
+    private static void split(String title, Parts parts) {
+        final boolean hasEquals = title.indexOf('=') >= 0;
+
+        if (hasEquals && (title.contains("text=") || title.contains("title=") || title.contains("artist="))) {
+            splitFields(title, parts);
+        } else if (!splitStandard(title, parts)) {
+            if (!hasEquals) {
+                parts.set("", title);
+            } else if (HTML_ENTITY.matcher(title).find()) {
+                final String decoded = title.replace("&amp;", "&").replace("&quot;", "\"")
+                        .replace("&lt;", "<").replace("&gt;", ">").replace("&apos;", "'");
+                if (!splitStandard(decoded, parts)) {
+                    parts.set(UNKNOWN_ARTIST, decoded.trim());
+                }
+            } else if (URL.matcher(title).find()) {
+                final String withoutUrl = WHITESPACE.matcher(URL.matcher(title).replaceAll("")).replaceAll(" ").trim();
+                if (!splitStandard(withoutUrl, parts)) {
+                    parts.set(UNKNOWN_ARTIST, withoutUrl);
+                }
+            } else {
+                splitLastResort(title, parts);
+            }
+        }
+    }
+
+    /**
+     * "Artist - Track", or the '+' instead of spaces variant some stations send.
+     */
+    private static boolean splitStandard(String title, Parts parts) {
+        final int dash = title.indexOf(" - ");
+        if (dash >= 0) {
+            parts.set(title.substring(0, dash).trim(), title.substring(dash + 3).trim());
+            return true;
+        }
+
+        if (title.indexOf('+') < 0) {
+            return false;
+        }
+
+        final String normalized = title.replace('+', ' ');
+        int separator = normalized.indexOf(" - ");
+        int separatorLength = 3;
+        if (separator < 0) {
+            separator = normalized.indexOf('-');
+            separatorLength = 1;
+        }
+
+        if (separator < 0) {
+            parts.set("", normalized);
+            return true;
+        }
+
+        final String artist = normalized.substring(0, separator).trim();
+        String track = normalized.substring(separator + separatorLength).trim();
+        if (track.startsWith(artist)) {
+            track = track.substring(artist.length()).trim();
+        }
+        parts.set(artist, track);
+        return true;
+    }
+
+    private static void splitFields(String title, Parts parts) {
+        if (title.contains("text=")) {
+            splitTextField(title, parts);
+            return;
+        }
+
+        final boolean hasTitle = title.contains("title=");
+        final boolean hasArtist = title.contains("artist=");
+        parts.set(hasArtist ? quotedField(title, "artist") : UNKNOWN_ARTIST,
+                hasTitle ? quotedField(title, "title") : UNKNOWN_TRACK);
+    }
+
+    private static String quotedField(String title, String name) {
+        final String prefix = name + "=\"";
+        final int index = title.indexOf(prefix);
+        if (index < 0) {
+            return "";
+        }
+
+        final int start = index + prefix.length();
+        final int end = title.indexOf('"', start);
+        return end < 0 ? "" : title.substring(start, end);
+    }
+
+    private static void splitTextField(String title, Parts parts) {
+        final int textIndex = title.indexOf("text=");
+
+        String artist = "";
+        if (textIndex > 0) {
+            final String beforeText = title.substring(0, textIndex).trim();
+            artist = beforeText;
+            for (String separator : new String[]{" - ", "-", " | ", "|", ": ", ":"}) {
+                final int index = beforeText.lastIndexOf(separator);
+                if (index >= 0) {
+                    artist = beforeText.substring(0, index).trim();
+                    break;
+                }
+            }
+        }
+
+        final int valueStart = textIndex + 5;
+        String track;
+        if (valueStart < title.length() && title.charAt(valueStart) == '"' && title.indexOf('"', valueStart + 1) >= 0) {
+            track = title.substring(valueStart + 1, title.indexOf('"', valueStart + 1));
+        } else {
+            final int space = title.indexOf(' ', valueStart);
+            track = title.substring(valueStart, space < 0 ? title.length() : space);
+        }
+
+        if (artist.trim().isEmpty() && !track.isEmpty()) {
+            final String[] words = WHITESPACE.split(track, 3);
+            if (SPECIAL_SEGMENT.matcher(track).find() || words.length < 3) {
+                artist = UNKNOWN_ARTIST;
+            } else {
+                artist = words[0] + " " + words[1];
+                track = words[2];
+            }
+        }
+
+        parts.set(artist, track);
+    }
+
+    private static void splitLastResort(String title, Parts parts) {
+        for (String separator : new String[]{" - ", "-", " | ", "|", " / ", "/", ":"}) {
+            final int index = title.indexOf(separator);
+            if (index < 0) {
+                continue;
+            }
+
+            final String artist = title.substring(0, index).trim();
+            final String track = title.substring(index + separator.length()).trim();
+            if (!artist.isEmpty() && !track.isEmpty() && artist.length() < 50 && track.length() < 100) {
+                parts.set(artist, track);
+                return;
+            }
+        }
+
+        int uppercase = 0;
+        int quotes = 0;
+        for (int i = 0; i < title.length(); i++) {
+            final char c = title.charAt(i);
+            if (c >= 'A' && c <= 'Z') {
+                uppercase++;
+            } else if (c == '"') {
+                quotes++;
+            }
+        }
+
+        if (uppercase >= 2) {
+            final String[] words = WHITESPACE.split(title);
+            if (words.length >= 5) {
+                final int midPoint = words.length / 2;
+                final StringBuilder artist = new StringBuilder(words[0]);
+                for (int i = 1; i < midPoint; i++) {
+                    artist.append(' ').append(words[i]);
+                }
+                final StringBuilder track = new StringBuilder(words[midPoint]);
+                for (int i = midPoint + 1; i < words.length; i++) {
+                    track.append(' ').append(words[i]);
+                }
+                parts.set(artist.toString(), track.toString());
+                return;
+            }
+        }
+
+        if (quotes >= 4) {
+            final String[] quoted = title.split("\"");
+            if (quoted.length >= 5) {
+                parts.set(quoted[1].trim(), quoted[3].trim());
+                return;
+            }
+        }
+
+        if (title.length() > 60) {
+            final int splitPoint = title.lastIndexOf(' ', title.length() / 2);
+            if (splitPoint > 0) {
+                parts.set(title.substring(0, splitPoint).trim(), title.substring(splitPoint + 1).trim());
+                return;
+            }
+        }
+
+        parts.set(title, "");
+    }
+
+    private static void clean(Parts parts) {
+        String artist = cleanPart(parts.artist, ARTIST_PREFIX, ARTIST_SUFFIX);
+
+        // "Artist feat. Other" -> artist "Artist", track gets "(feat. Other)"
+        String track = parts.track;
+        final Matcher feat = FEAT.matcher(artist);
+        if (feat.find()) {
+            final String featArtists = artist.substring(feat.end()).trim();
+            artist = artist.substring(0, feat.start()).trim();
+            if (!track.isEmpty()) {
+                track += " (feat. " + featArtists + ")";
+            }
+        }
+
+        track = cleanPart(track, TRACK_PREFIX, TRACK_SUFFIX);
+
+        if (artist.isEmpty()) {
+            artist = UNKNOWN_ARTIST;
+        }
+        if (track.isEmpty()) {
+            track = UNKNOWN_TRACK;
+        }
+
+        // Parts which are (almost) the same mean that the title could not be split
+        if (artist.equals(track) || isSimilar(artist, track)) {
+            track = artist;
+            artist = UNKNOWN_ARTIST;
+        }
+
+        if (track.startsWith(artist) && track.length() > artist.length() + 5) {
+            String remaining = track.substring(artist.length()).trim();
+            if (remaining.startsWith("-") || remaining.startsWith(":")) {
+                remaining = remaining.substring(1).trim();
+            }
+            if (!remaining.isEmpty()) {
+                track = remaining;
+            }
+        }
+
+        parts.set(artist, track);
+    }
+
+    private static String cleanPart(String part, Pattern prefix, Pattern suffix) {
+        part = QUOTES.matcher(part.trim()).replaceAll("");
+        part = DECORATION.matcher(part).replaceAll(" ");
+        part = WHITESPACE.matcher(part).replaceAll(" ");
+        part = prefix.matcher(part).replaceFirst("");
+        part = suffix.matcher(part).replaceFirst("");
+        part = TRAILING_SEPARATOR.matcher(part).replaceFirst("");
+
+        if (part.length() > 3 && part.equals(part.toUpperCase())) {
+            part = toTitleCase(part);
+        }
+        return part.trim();
+    }
+
+    private static String toTitleCase(String input) {
+        final StringBuilder result = new StringBuilder(input.length());
+        boolean nextTitleCase = true;
+        for (int i = 0; i < input.length(); i++) {
+            final char c = input.charAt(i);
+            if (Character.isSpaceChar(c)) {
+                nextTitleCase = true;
+                result.append(c);
+            } else if (nextTitleCase) {
+                result.append(Character.toTitleCase(c));
+                nextTitleCase = false;
+            } else {
+                result.append(Character.toLowerCase(c));
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Levenshtein similarity above 80%. Strings whose lengths differ by more than 20% can never
+     * reach it, which spares the quadratic distance computation for almost every title.
+     */
+    private static boolean isSimilar(String s1, String s2) {
+        final int maxLength = Math.max(s1.length(), s2.length());
+        if (Math.abs(s1.length() - s2.length()) >= maxLength * 0.2) {
+            return false;
+        }
+
+        int[] costs = new int[s2.length() + 1];
+        for (int j = 0; j <= s2.length(); j++) {
+            costs[j] = j;
+        }
+        for (int i = 1; i <= s1.length(); i++) {
+            int previousDiagonal = costs[0];
+            costs[0] = i;
+            for (int j = 1; j <= s2.length(); j++) {
+                final int current = costs[j];
+                costs[j] = s1.charAt(i - 1) == s2.charAt(j - 1)
+                        ? previousDiagonal
+                        : Math.min(Math.min(costs[j - 1], current), previousDiagonal) + 1;
+                previousDiagonal = current;
+            }
+        }
+
+        return 1.0 - (double) costs[s2.length()] / maxLength > 0.8;
+    }
+}
@@ -0,0 +1,153 @@
+package net.programmierecke.radiodroid2.utils;
+
+/**
+ * Fixed size byte ring for handing stream data from one producer thread to one consumer thread.
+ * <p>
+ * The producer never blocks: whatever does not fit is dropped and counted, so a slow consumer
+ * (e.g. a recording on a slow SD card) can never stall playback. The consumer blocks in
+ * {@link #read(byte[], int, int)} until data arrives or the ring is closed.
+ */
+public class ByteRingBuffer {
+    private final byte[] buffer;
+    private final Object lock = new Object();
+
+    // Only written by the producer
+    private volatile long writePosition = 0;
+    private volatile long droppedBytes = 0;
+    // Only written by the consumer
+    private volatile long readPosition = 0;
+
+    private volatile boolean consumerWaiting = false;
+    private volatile boolean closed = false;
+
+    public ByteRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        buffer = new byte[capacity];
+    }
+
+    /**
+     * Producer side. Copies as much as fits and drops the rest.
+     *
+     * @return number of bytes actually written
+     */
+    public int write(byte[] src, int offset, int length) {
+        final long position = writePosition;
+        final long free = buffer.length - (position - readPosition);
+        final int count = (int) Math.min(length, free);
+
+        if (count > 0) {
+            final int start = (int) (position % buffer.length);
+            final int firstPart = Math.min(count, buffer.length - start);
+            System.arraycopy(src, offset, buffer, start, firstPart);
+            System.arraycopy(src, offset + firstPart, buffer, 0, count - firstPart);
+
+            writePosition = position + count;
+        }
+
+        if (count < length) {
+            droppedBytes += length - count;
+        }
+
+        if (consumerWaiting) {
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Consumer side. Blocks until at least one byte is available.
+     *
+     * @return number of bytes read, or -1 if the ring was closed and everything was read
+     */
+    public int read(byte[] dst, int offset, int length) throws InterruptedException {
+        return read(dst, offset, length, 0);
+    }
+
+    /**
+     * Consumer side. Blocks until at least one byte is available or the timeout has passed.
+     *
+     * @param timeoutMs maximum time to wait, 0 to wait without limit
+     * @return number of bytes read, 0 on timeout, or -1 if the ring was closed and everything
+     * was read
+     */
+    public int read(byte[] dst, int offset, int length, long timeoutMs) throws InterruptedException {
+        final int available = await(timeoutMs);
+        if (available <= 0) {
+            return available;
+        }
+
+        final long position = readPosition;
+        final int count = Math.min(length, available);
+        final int start = (int) (position % buffer.length);
+        final int firstPart = Math.min(count, buffer.length - start);
+        System.arraycopy(buffer, start, dst, offset, firstPart);
+        System.arraycopy(buffer, 0, dst, offset + firstPart, count - firstPart);
+
+        readPosition = position + count;
+        return count;
+    }
+
+    /**
+     * Consumer side. Waits for data without consuming it. Everything the producer did before
+     * writing the available bytes is visible to the consumer afterwards.
+     *
+     * @param timeoutMs maximum time to wait, 0 to wait without limit
+     * @return number of available bytes, 0 on timeout, or -1 if the ring was closed and
+     * everything was read
+     */
+    public int await(long timeoutMs) throws InterruptedException {
+        final long deadline = timeoutMs > 0 ? System.currentTimeMillis() + timeoutMs : 0;
+
+        long available;
+        while ((available = writePosition - readPosition) == 0) {
+            if (closed) {
+                return -1;
+            }
+
+            long waitMs = 0;
+            if (deadline != 0) {
+                waitMs = deadline - System.currentTimeMillis();
+                if (waitMs <= 0) {
+                    return 0;
+                }
+            }
+
+            synchronized (lock) {
+                consumerWaiting = true;
+                if (writePosition == readPosition && !closed) {
+                    lock.wait(waitMs);
+                }
+                consumerWaiting = false;
+            }
+        }
+
+        return (int) available;
+    }
+
+    /**
+     * Lets the consumer drain the remaining bytes, after which {@link #read} returns -1.
+     */
+    public void close() {
+        closed = true;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    public int available() {
+        return (int) (writePosition - readPosition);
+    }
+
+    public int capacity() {
+        return buffer.length;
+    }
+
+    public long getDroppedBytes() {
+        return droppedBytes;
+    }
+}
@@ -0,0 +1,58 @@
+package net.programmierecke.radiodroid2.diagnostics;
+
+import net.programmierecke.radiodroid2.players.PlayState;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaybackSessionTrackerTest {
+    private final PlaybackSessionTracker tracker = new PlaybackSessionTracker();
+
+    @Test
+    void finish_recordsTimeToFirstAudioAndRebuffers() {
+        tracker.start("uuid", "Station", "METERED", 123, 1000, 5000);
+        tracker.onStateChanged(PlayState.PrePlaying, 1000);
+        tracker.onStateChanged(PlayState.Playing, 2500);
+        tracker.onStateChanged(PlayState.PrePlaying, 10000);
+        tracker.onStateChanged(PlayState.PrePlaying, 10500);
+        tracker.onStateChanged(PlayState.Playing, 12000);
+
+        PlaybackSession session = tracker.finish(21000, 5000 + 40000);
+
+        assertNotNull(session);
+        assertEquals("uuid", session.stationUuid);
+        assertEquals(123, session.startTime);
+        assertEquals(1500, session.timeToFirstAudioMs);
+        assertEquals(1, session.rebufferCount);
+        assertEquals(2000, session.rebufferMs);
+        assertEquals(16500, session.durationMs);
+        assertEquals(40000, session.bytesTransferred);
+        assertNull(session.errorCodes);
+    }
+
+    @Test
+    void finish_keepsFailedSessionsWithErrors() {
+        tracker.start("uuid", "Station", "NOT_METERED", 0, 0, 0);
+        tracker.onReconnect();
+        tracker.onError(2001);
+        tracker.onError(2001);
+        tracker.onError(2004);
+
+        PlaybackSession session = tracker.finish(500, 0);
+
+        assertNotNull(session);
+        assertEquals(PlaybackSession.NO_AUDIO, session.timeToFirstAudioMs);
+        assertEquals(1, session.reconnects);
+        assertEquals("2001,2004", session.errorCodes);
+        assertFalse(tracker.isActiveFor("uuid"));
+    }
+
+    @Test
+    void finish_dropsShortSessionsWithoutErrors() {
+        tracker.start("uuid", "Station", "NOT_METERED", 0, 0, 0);
+
+        assertNull(tracker.finish(PlaybackSessionTracker.MIN_SESSION_MS - 1, 0));
+        assertNull(tracker.finish(10000, 0));
+    }
+}
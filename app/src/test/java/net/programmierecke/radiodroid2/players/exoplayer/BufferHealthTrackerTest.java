@@ -0,0 +1,50 @@
+package net.programmierecke.radiodroid2.players.exoplayer;
+
+import net.programmierecke.radiodroid2.players.BufferHealth;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BufferHealthTrackerTest {
+    private static final long MIN_BUFFER_MS = 10000;
+
+    private final BufferHealthTracker tracker = new BufferHealthTracker();
+
+    @Test
+    void update_bitrateUnknownUntilSecondSample() {
+        BufferHealth first = tracker.update(0, 8000, 0, false, true, MIN_BUFFER_MS);
+        assertEquals(-1, first.inboundBitrate);
+
+        // 1 秒内 16000 字节 = 128 kbit/s
+        BufferHealth second = tracker.update(1000, 8000, 16000, false, true, MIN_BUFFER_MS);
+        assertEquals(128000, second.inboundBitrate);
+    }
+
+    @Test
+    void update_smoothsBitrate() {
+        tracker.update(0, 8000, 0, false, true, MIN_BUFFER_MS);
+        tracker.update(1000, 8000, 16000, false, true, MIN_BUFFER_MS);
+        BufferHealth health = tracker.update(2000, 8000, 16000, false, true, MIN_BUFFER_MS);
+
+        assertTrue(health.inboundBitrate > 0 && health.inboundBitrate < 128000);
+    }
+
+    @Test
+    void update_riskFollowsBuffer() {
+        assertEquals(BufferHealth.UnderrunRisk.LOW,
+                tracker.update(0, 8000, 0, false, true, MIN_BUFFER_MS).underrunRisk);
+        assertEquals(BufferHealth.UnderrunRisk.ELEVATED,
+                tracker.update(1000, 6000, 1000, false, true, MIN_BUFFER_MS).underrunRisk);
+        assertEquals(BufferHealth.UnderrunRisk.HIGH,
+                tracker.update(2000, 1000, 2000, false, true, MIN_BUFFER_MS).underrunRisk);
+        assertEquals(BufferHealth.UnderrunRisk.HIGH,
+                tracker.update(3000, 5000, 3000, true, true, MIN_BUFFER_MS).underrunRisk);
+    }
+
+    @Test
+    void update_fullBufferIsLowRisk() {
+        tracker.update(0, 30000, 0, false, false, MIN_BUFFER_MS);
+        assertEquals(BufferHealth.UnderrunRisk.LOW,
+                tracker.update(1000, 29000, 0, false, false, MIN_BUFFER_MS).underrunRisk);
+    }
+}
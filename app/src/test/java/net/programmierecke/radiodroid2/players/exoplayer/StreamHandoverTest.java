@@ -0,0 +1,222 @@
+package net.programmierecke.radiodroid2.players.exoplayer;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.exoplayer2.C;
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.DataSpec;
+import com.google.android.exoplayer2.upstream.TransferListener;
+
+import net.programmierecke.radiodroid2.mockserver.MockRadioBrowser;
+import net.programmierecke.radiodroid2.station.live.ShoutcastInfo;
+import net.programmierecke.radiodroid2.station.live.StreamLiveInfo;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+class StreamHandoverTest {
+    // 旧连接发出开头的几个字节后停住这么久，比等待切换的时间长；MockWebServer 关闭时最多等 5 秒
+    private static final long STALL_MILLIS = 3000;
+
+    private final MockRadioBrowser radioBrowser = MockRadioBrowser.builder().stationCount(1).build();
+    private final OkHttpClient httpClient = new OkHttpClient();
+    private final AtomicInteger streamRequestCount = new AtomicInteger();
+    private final AtomicInteger abortedCount = new AtomicInteger();
+    private final AtomicInteger connectionLostCount = new AtomicInteger();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+
+    private volatile boolean stallFirstStream;
+    private MockWebServer server;
+    private StreamHandover handover;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                final MockResponse response = radioBrowser.dispatch(request);
+                if (streamRequestCount.getAndIncrement() == 0 && stallFirstStream) {
+                    response.throttleBody(16, STALL_MILLIS, TimeUnit.MILLISECONDS);
+                }
+                return response;
+            }
+        });
+        server.start();
+
+        handover = new StreamHandover(httpClient, new ConnectionPool(), abortedCount::incrementAndGet);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        handover.cancel();
+        executor.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    void take_handsOverTheReadyResponse() throws Exception {
+        handover.start(streamUrl(0));
+        assertTrue(handover.isActive());
+        await(handover::isReady);
+
+        final Response response = handover.take();
+        assertNotNull(response);
+        assertEquals(200, response.code());
+        response.close();
+
+        assertFalse(handover.isActive());
+        assertNull(handover.take());
+        assertEquals(0, abortedCount.get());
+    }
+
+    @Test
+    void start_abortsWhenTheServerRefuses() throws Exception {
+        // 目录里只有一个电台，第二个电台的流地址返回 404
+        handover.start(streamUrl(1));
+        await(() -> abortedCount.get() == 1);
+
+        assertFalse(handover.isActive());
+        assertNull(handover.take());
+    }
+
+    @Test
+    void cancel_abortsOnlyAnActiveHandover() throws Exception {
+        handover.cancel();
+        assertEquals(0, abortedCount.get());
+
+        handover.start(streamUrl(0));
+        handover.cancel();
+        assertEquals(1, abortedCount.get());
+        assertFalse(handover.isActive());
+
+        // 被取消的连接稍后的回调不再算一次放弃
+        Thread.sleep(200);
+        assertEquals(1, abortedCount.get());
+    }
+
+    @Test
+    void read_endsStalledConnectionAndNextSourceTakesOver() throws Exception {
+        stallFirstStream = true;
+        final byte[] buffer = new byte[4096];
+
+        final IcyDataSource currentSource = createDataSource();
+        currentSource.open(null, IcyDataSource.buildRequest(streamUrl(0), false));
+        assertTrue(currentSource.read(buffer, 0, buffer.length) > 0);
+
+        // 读取阻塞在停住的旧连接上时，新网络上的连接就绪
+        executor.schedule(() -> handover.start(streamUrl(0)), 200, TimeUnit.MILLISECONDS);
+        final int result = assertTimeoutPreemptively(Duration.ofMillis(STALL_MILLIS / 2), () -> {
+            int bytesRead;
+            do {
+                bytesRead = currentSource.read(buffer, 0, buffer.length);
+            } while (bytesRead != C.RESULT_END_OF_INPUT);
+            return bytesRead;
+        });
+        assertEquals(C.RESULT_END_OF_INPUT, result);
+        assertEquals(0, connectionLostCount.get());
+        currentSource.close();
+
+        // 下一个媒体项的数据源接手预建的连接，不再连接服务器
+        final IcyDataSource nextSource = createDataSource();
+        nextSource.open(null, IcyDataSource.buildRequest(streamUrl(0), false));
+        assertTrue(nextSource.read(buffer, 0, buffer.length) > 0);
+        nextSource.close();
+
+        assertEquals(2, streamRequestCount.get());
+        assertEquals(0, abortedCount.get());
+    }
+
+    private String streamUrl(int stationIndex) {
+        return server.url(MockRadioBrowser.STREAM_PATH + stationIndex).toString();
+    }
+
+    private IcyDataSource createDataSource() {
+        return new IcyDataSource(httpClient, new TestTransferListener(), new TestDataSourceListener(), "", handover);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "Timed out");
+            Thread.sleep(10);
+        }
+    }
+
+    class TestDataSourceListener implements IcyDataSource.IcyDataSourceListener {
+
+        @Override
+        public void onDataSourceConnected() {
+
+        }
+
+        @Override
+        public void onDataSourceConnectionLost() {
+            connectionLostCount.incrementAndGet();
+        }
+
+        @Override
+        public void onDataSourceConnectionLostIrrecoverably() {
+
+        }
+
+        @Override
+        public void onDataSourceShoutcastInfo(@Nullable ShoutcastInfo shoutcastInfo) {
+
+        }
+
+        @Override
+        public void onDataSourceStreamLiveInfo(StreamLiveInfo streamLiveInfo) {
+
+        }
+
+        @Override
+        public void onDataSourceContentType(String contentType) {
+
+        }
+
+        @Override
+        public void onDataSourceBytesRead(byte[] buffer, int offset, int length) {
+
+        }
+    }
+
+    static class TestTransferListener implements TransferListener {
+
+        @Override
+        public void onTransferInitializing(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+
+        }
+
+        @Override
+        public void onTransferStart(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+
+        }
+
+        @Override
+        public void onBytesTransferred(DataSource source, DataSpec dataSpec, boolean isNetwork, int bytesTransferred) {
+
+        }
+
+        @Override
+        public void onTransferEnd(DataSource source, DataSpec dataSpec, boolean isNetwork) {
+
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package net.programmierecke.radiodroid2.recording;
+
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordingWriterTest {
+    private File file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = File.createTempFile("recording", ".mp3");
+    }
+
+    @AfterEach
+    void tearDown() {
+        file.delete();
+    }
+
+    private static void finishAndWait(RecordingWriter writer) {
+        final CountDownLatch finished = new CountDownLatch(1);
+        writer.finish(finished::countDown);
+        try {
+            assertTrue(finished.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            fail(e);
+        }
+    }
+
+    @Test
+    void finish_writesEverythingOffered() throws IOException {
+        final RunningRecordingInfo info = new RunningRecordingInfo();
+        info.setOutputStream(new FileOutputStream(file));
+
+        final RecordingWriter writer = new RecordingWriter(info, file.getParentFile(), null, e -> fail(e));
+        writer.start();
+
+        final byte[] chunk = new byte[1000];
+        for (int i = 0; i < 300; i++) {
+            for (int j = 0; j < chunk.length; j++) {
+                chunk[j] = (byte) (i + j);
+            }
+            writer.offer(chunk, 0, chunk.length);
+        }
+        finishAndWait(writer);
+
+        final byte[] written = Files.readAllBytes(file.toPath());
+        assertEquals(300 * 1000, written.length);
+        assertEquals(300 * 1000, info.getBytesWritten());
+        assertEquals(0, info.getDroppedBytes());
+        assertEquals((byte) (299 + 999), written[written.length - 1]);
+    }
+
+    @Test
+    void offer_countsBytesWhichDoNotFit() throws IOException {
+        final RunningRecordingInfo info = new RunningRecordingInfo();
+        info.setOutputStream(new FileOutputStream(file));
+
+        // Not started: nothing drains the ring, like storage which is stuck
+        final RecordingWriter writer = new RecordingWriter(info, file.getParentFile(), null, e -> fail(e));
+        final byte[] chunk = new byte[RecordingWriter.RING_SIZE / 2 + 1];
+        writer.offer(chunk, 0, chunk.length);
+        writer.offer(chunk, 0, chunk.length);
+
+        assertEquals(RecordingWriter.RING_SIZE, info.getMaxBufferedBytes());
+        assertEquals(2L * chunk.length - RecordingWriter.RING_SIZE, info.getDroppedBytes());
+    }
+
+    @Test
+    void markTrack_switchesFileAtStreamPosition() throws IOException {
+        final RunningRecordingInfo info = new RunningRecordingInfo();
+        info.setFileName(file.getName());
+        info.setOutputStream(new FileOutputStream(file));
+
+        final File directory = file.getParentFile();
+        final String trackFileName = file.getName() + ".track2.mp3";
+        final File indexFile = new File(directory, file.getName() + "." + RecordingWriter.INDEX_EXTENSION);
+
+        final RecordingWriter writer = new RecordingWriter(info, directory, indexFile, e -> fail(e));
+        writer.start();
+
+        writer.offer(new byte[]{1, 1, 1}, 0, 3);
+        writer.markTrack("First", null);
+        writer.offer(new byte[]{1, 1}, 0, 2);
+        writer.markTrack("Second", trackFileName);
+        writer.offer(new byte[]{2, 2, 2, 2}, 0, 4);
+        finishAndWait(writer);
+
+        final File trackFile = new File(directory, trackFileName);
+        try {
+            assertArrayEquals(new byte[]{1, 1, 1, 1, 1}, Files.readAllBytes(file.toPath()));
+            assertArrayEquals(new byte[]{2, 2, 2, 2}, Files.readAllBytes(trackFile.toPath()));
+            assertEquals(trackFileName, info.getFileName());
+            assertEquals(9, info.getBytesWritten());
+            assertEquals(4, info.getFileBytesWritten());
+
+            final String[] index = new String(Files.readAllBytes(indexFile.toPath()), StandardCharsets.UTF_8).split("\n");
+            assertEquals(2, index.length);
+            assertTrue(index[0].startsWith("3\t3\t"));
+            assertTrue(index[0].endsWith("\t" + file.getName() + "\tFirst"));
+            assertTrue(index[1].startsWith("5\t0\t"));
+            assertTrue(index[1].endsWith("\t" + trackFileName + "\tSecond"));
+        } finally {
+            trackFile.delete();
+            indexFile.delete();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package net.programmierecke.radiodroid2.service;
+
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IconIntegrityTest {
+    private File file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = File.createTempFile("icon", ".png");
+    }
+
+    @AfterEach
+    void tearDown() {
+        file.delete();
+    }
+
+    private static byte[] png() {
+        byte[] data = new byte[64];
+        System.arraycopy(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}, 0, data, 0, 8);
+        System.arraycopy(new byte[]{0, 0, 0, 0, 'I', 'E', 'N', 'D', (byte) 0xAE, 0x42, 0x60, (byte) 0x82}, 0, data, 52, 12);
+        return data;
+    }
+
+    private static byte[] webp(int length) {
+        byte[] data = new byte[length];
+        int riffSize = 64 - 8;
+        System.arraycopy(new byte[]{'R', 'I', 'F', 'F', (byte) riffSize, 0, 0, 0, 'W', 'E', 'B', 'P'}, 0, data, 0, 12);
+        return data;
+    }
+
+    @Test
+    void isComplete_acceptsWholePng() throws IOException {
+        Files.write(file.toPath(), png());
+        assertTrue(IconIntegrity.isComplete(file));
+    }
+
+    @Test
+    void isComplete_rejectsPngWithoutIend() throws IOException {
+        Files.write(file.toPath(), Arrays.copyOf(png(), 40));
+        assertFalse(IconIntegrity.isComplete(file));
+    }
+
+    @Test
+    void isComplete_checksWebpRiffLength() throws IOException {
+        Files.write(file.toPath(), webp(64));
+        assertTrue(IconIntegrity.isComplete(file));
+
+        Files.write(file.toPath(), webp(50));
+        assertFalse(IconIntegrity.isComplete(file));
+    }
+
+    @Test
+    void isComplete_findsJpegEoiBeforePadding() {
+        byte[] head = new byte[IconIntegrity.PROBE_SIZE];
+        head[0] = (byte) 0xFF;
+        head[1] = (byte) 0xD8;
+        byte[] tail = new byte[IconIntegrity.PROBE_SIZE];
+        tail[8] = (byte) 0xFF;
+        tail[9] = (byte) 0xD9;
+
+        assertTrue(IconIntegrity.isComplete(head, tail, 100));
+
+        tail[9] = 0x12;
+        assertFalse(IconIntegrity.isComplete(head, tail, 100));
+    }
+}
@@ -0,0 +1,106 @@
+package net.programmierecke.radiodroid2.service;
+
+import net.programmierecke.radiodroid2.players.PlayState;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationUpdateCoalescerTest {
+    private static class FakeScheduler implements NotificationUpdateCoalescer.Scheduler {
+        long now = 10000;
+        Runnable scheduled;
+        long scheduledAt;
+
+        @Override
+        public long now() {
+            return now;
+        }
+
+        @Override
+        public void schedule(Runnable runnable, long delayMs) {
+            scheduled = runnable;
+            scheduledAt = now + delayMs;
+        }
+
+        @Override
+        public void cancel(Runnable runnable) {
+            if (scheduled == runnable) {
+                scheduled = null;
+            }
+        }
+
+        void advanceTo(long time) {
+            now = time;
+            if (scheduled != null && scheduledAt <= now) {
+                Runnable runnable = scheduled;
+                scheduled = null;
+                runnable.run();
+            }
+        }
+    }
+
+    private final FakeScheduler scheduler = new FakeScheduler();
+    private final List<NotificationUpdateCoalescer.State> shown = new ArrayList<>();
+    private final NotificationUpdateCoalescer coalescer = new NotificationUpdateCoalescer(scheduler, (state, previous) -> shown.add(state));
+
+    private static NotificationUpdateCoalescer.State state(PlayState playState, String stationUuid, String title) {
+        return new NotificationUpdateCoalescer.State(playState, stationUuid, "Station " + stationUuid, title, "", "", -1, null);
+    }
+
+    @Test
+    void update_dropsUnchangedState() {
+        coalescer.update(state(PlayState.Playing, "a", "one"));
+        coalescer.update(state(PlayState.Playing, "a", "one"));
+
+        assertEquals(1, shown.size());
+        assertNull(scheduler.scheduled);
+    }
+
+    @Test
+    void update_showsPlayStateChangesImmediately() {
+        coalescer.update(state(PlayState.PrePlaying, "a", null));
+        coalescer.update(state(PlayState.Playing, "a", null));
+        coalescer.update(state(PlayState.Playing, "b", null));
+
+        assertEquals(3, shown.size());
+    }
+
+    @Test
+    void update_limitsTitleChangesToLatest() {
+        coalescer.update(state(PlayState.Playing, "a", "one"));
+        scheduler.advanceTo(scheduler.now + 100);
+        coalescer.update(state(PlayState.Playing, "a", "two"));
+        coalescer.update(state(PlayState.Playing, "a", "three"));
+
+        assertEquals(1, shown.size());
+
+        scheduler.advanceTo(10000 + NotificationUpdateCoalescer.MIN_UPDATE_INTERVAL_MS);
+
+        assertEquals(2, shown.size());
+        assertEquals("three", shown.get(1).title);
+    }
+
+    @Test
+    void update_dropsPendingChangeWhenBackToShownState() {
+        coalescer.update(state(PlayState.Playing, "a", "one"));
+        coalescer.update(state(PlayState.Playing, "a", "two"));
+        coalescer.update(state(PlayState.Playing, "a", "one"));
+
+        scheduler.advanceTo(scheduler.now + NotificationUpdateCoalescer.MIN_UPDATE_INTERVAL_MS);
+
+        assertEquals(1, shown.size());
+    }
+
+    @Test
+    void reset_showsSameStateAgain() {
+        coalescer.update(state(PlayState.Paused, "a", null));
+        coalescer.reset();
+        coalescer.update(state(PlayState.Paused, "a", null));
+
+        assertEquals(2, shown.size());
+    }
+}
@@ -0,0 +1,111 @@
+package net.programmierecke.radiodroid2.service;
+
+import org.junit.jupiter.api.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StationIconJournalTest {
+    private File file;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        file = File.createTempFile("station_icon_journal", "");
+        file.delete();
+    }
+
+    @AfterEach
+    void tearDown() {
+        file.delete();
+    }
+
+    private static StationIconJournal.Entry entry(boolean pinned, long length, long lastAccess) {
+        StationIconJournal.Entry entry = new StationIconJournal.Entry();
+        entry.pinned = pinned;
+        entry.length = length;
+        entry.lastAccess = lastAccess;
+        return entry;
+    }
+
+    @Test
+    void read_replaysLastRecordPerFile() throws IOException {
+        StationIconJournal journal = new StationIconJournal(file);
+        StationIconJournal.Entry a = entry(false, 100, 1);
+        journal.put("a.png", a);
+        a.fallback = true;
+        a.verified = true;
+        a.iconUrlRetryTime = 42;
+        journal.put("a.png", a);
+        journal.put("b.png", entry(true, 200, 2));
+        journal.put("c.png", entry(false, 300, 3));
+        journal.remove("c.png");
+        journal.close();
+
+        Map<String, StationIconJournal.Entry> entries = new StationIconJournal(file).read(new HashMap<>());
+        assertEquals(2, entries.size());
+
+        StationIconJournal.Entry readA = entries.get("a.png");
+        assertFalse(readA.pinned);
+        assertEquals(100, readA.length);
+        assertTrue(readA.fallback);
+        assertTrue(readA.verified);
+        assertEquals(42, readA.iconUrlRetryTime);
+        assertTrue(entries.get("b.png").pinned);
+    }
+
+    @Test
+    void read_skipsTornLastLine() throws IOException {
+        StationIconJournal journal = new StationIconJournal(file);
+        journal.put("a.png", entry(false, 100, 1));
+        journal.close();
+
+        try (FileOutputStream out = new FileOutputStream(file, true)) {
+            out.write("PUT b.png 0 12".getBytes(StandardCharsets.UTF_8));
+        }
+
+        Map<String, StationIconJournal.Entry> entries = new StationIconJournal(file).read(new HashMap<>());
+        assertEquals(1, entries.size());
+        assertTrue(entries.containsKey("a.png"));
+    }
+
+    @Test
+    void rewrite_keepsOnlyLiveEntries() throws IOException {
+        StationIconJournal journal = new StationIconJournal(file);
+        StationIconJournal.Entry a = entry(false, 100, 1);
+        for (int i = 0; i < 500; i++) {
+            a.lastAccess = i;
+            journal.put("a.png", a);
+        }
+        Map<String, StationIconJournal.Entry> entries = new StationIconJournal(file).read(new HashMap<>());
+        assertTrue(journal.needsRewrite(entries.size()));
+
+        journal.rewrite(entries, new HashMap<>());
+        assertFalse(journal.needsRewrite(entries.size()));
+        journal.close();
+
+        StationIconJournal reread = new StationIconJournal(file);
+        assertEquals(499, reread.read(new HashMap<>()).get("a.png").lastAccess);
+        assertEquals(2, new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).split("\n").length);
+    }
+
+    @Test
+    void read_replaysDeadUrls() throws IOException {
+        StationIconJournal journal = new StationIconJournal(file);
+        journal.putDeadUrl("dead", 10);
+        journal.putDeadUrl("revived", 20);
+        journal.putDeadUrl("revived", 0);
+        journal.close();
+
+        Map<String, Long> deadUrls = new HashMap<>();
+        new StationIconJournal(file).read(deadUrls);
+        assertEquals(1, deadUrls.size());
+        assertEquals(Long.valueOf(10), deadUrls.get("dead"));
+    }
+}
@@ -0,0 +1,100 @@
+package net.programmierecke.radiodroid2.startup;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AppStartupTest {
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void dependenciesRunFirst() {
+        final List<String> order = new CopyOnWriteArrayList<>();
+        AppStartup startup = new AppStartup(executor);
+        startup.add("a", AppStartup.Stage.BACKGROUND, () -> {
+            sleep(50);
+            order.add("a");
+        });
+        startup.add("b", AppStartup.Stage.BACKGROUND, () -> order.add("b"), "a");
+        startup.add("c", AppStartup.Stage.MAIN, () -> order.add("c"), "b");
+
+        startup.start();
+
+        assertEquals(Arrays.asList("a", "b", "c"), order);
+    }
+
+    @Test
+    void deferredWaitsForStartDeferred() {
+        final List<String> order = new CopyOnWriteArrayList<>();
+        AppStartup startup = new AppStartup(executor);
+        startup.add("deferred", AppStartup.Stage.DEFERRED, () -> order.add("deferred"));
+
+        startup.start();
+        sleep(50);
+        assertTrue(order.isEmpty());
+
+        startup.startDeferred();
+        startup.await("deferred");
+        assertEquals(Arrays.asList("deferred"), order);
+    }
+
+    @Test
+    void awaitRunsUnstartedInitializerOnCallingThread() {
+        final AtomicReference<Thread> thread = new AtomicReference<>();
+        AppStartup startup = new AppStartup(executor);
+        startup.add("deferred", AppStartup.Stage.DEFERRED, () -> thread.set(Thread.currentThread()));
+
+        startup.start();
+        startup.await("deferred");
+
+        assertSame(Thread.currentThread(), thread.get());
+        assertTrue(startup.getTimings().containsKey("deferred"));
+    }
+
+    @Test
+    void awaitRethrowsFailure() {
+        AppStartup startup = new AppStartup(executor);
+        startup.add("broken", AppStartup.Stage.BACKGROUND, () -> {
+            throw new IllegalStateException("broken");
+        });
+
+        startup.start();
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> startup.await("broken"));
+        assertEquals("broken", e.getMessage());
+        assertFalse(startup.getTimings().containsKey("broken"));
+    }
+
+    @Test
+    void unknownDependencyIsRejected() {
+        AppStartup startup = new AppStartup(executor);
+        assertThrows(IllegalArgumentException.class,
+                () -> startup.add("a", AppStartup.Stage.MAIN, () -> {
+                }, "missing"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package net.programmierecke.radiodroid2.station.live;
+
+import org.junit.jupiter.api.*;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetadataDecoderTest {
+    // Titles as they were sent by real stations, paired with the charset of their encoder.
+    private static final String[][] CORPUS = {
+            {"Daft Punk - Get Lucky", "US-ASCII"},
+            {"Mötley Crüe - Dr. Feelgood", "UTF-8"},
+            {"周杰伦 - 晴天", "UTF-8"},
+            {"아이유 - 좋은 날", "UTF-8"},
+            {"Сплин - Выхода нет", "UTF-8"},
+            {"Édith Piaf - La Vie en rose", "windows-1252"},
+            {"Sigur Rós - Hoppípolla", "windows-1252"},
+            {"Kino - Группа крови", "windows-1251"},
+            {"周杰伦 - 晴天", "GBK"},
+            {"王菲 - 红豆", "GBK"},
+            {"周杰倫 - 晴天", "Big5"},
+            {"張學友 - 吻別", "Big5"},
+            {"宇多田ヒカル - First Love", "Shift_JIS"},
+    };
+
+    private static byte[] block(String title, String charset) {
+        final byte[] text = ("StreamTitle='" + title + "';").getBytes(Charset.forName(charset));
+        // ICY metadata is padded with NUL to a multiple of 16 bytes
+        final byte[] padded = new byte[(text.length + 15) / 16 * 16];
+        System.arraycopy(text, 0, padded, 0, text.length);
+        return padded;
+    }
+
+    private static String decodeTitle(MetadataDecoder decoder, String stationUuid, byte[] bytes) {
+        return decoder.decodeMetadataBlock(stationUuid, bytes, 0, bytes.length).get("StreamTitle");
+    }
+
+    @Test
+    void decode_detectsCharsetOfCorpus() {
+        final MetadataDecoder decoder = new MetadataDecoder();
+        for (String[] entry : CORPUS) {
+            assertEquals(entry[0], decodeTitle(decoder, "", block(entry[0], entry[1])), entry[1]);
+        }
+    }
+
+    @Test
+    void decode_cachesVerdictPerStation() {
+        final MetadataDecoder decoder = new MetadataDecoder();
+        final byte[] first = block("周杰倫 - 晴天", "Big5");
+        assertEquals("周杰倫 - 晴天", decodeTitle(decoder, "station", first));
+        assertEquals(Charset.forName("Big5"), decoder.getCachedCharset("station"));
+
+        // A single character is ambiguous on its own, the cached verdict decides
+        assertEquals("愛", decodeTitle(decoder, "station", block("愛", "Big5")));
+    }
+
+    @Test
+    void decode_asciiDoesNotProduceVerdict() {
+        final MetadataDecoder decoder = new MetadataDecoder();
+        assertEquals("Daft Punk - Get Lucky", decodeTitle(decoder, "station", block("Daft Punk - Get Lucky", "US-ASCII")));
+        assertNull(decoder.getCachedCharset("station"));
+    }
+
+    @Test
+    void decode_redetectsWhenVerdictStopsMatching() {
+        final MetadataDecoder decoder = new MetadataDecoder();
+        decodeTitle(decoder, "station", block("周杰伦 - 晴天", "UTF-8"));
+        assertEquals(StandardCharsets.UTF_8, decoder.getCachedCharset("station"));
+
+        assertEquals("Édith Piaf - La Vie en rose", decodeTitle(decoder, "station", block("Édith Piaf - La Vie en rose", "windows-1252")));
+        assertEquals(Charset.forName("windows-1252"), decoder.getCachedCharset("station"));
+    }
+
+    @Test
+    void decode_redetectsWhenStationSwitchesToUtf8() {
+        final MetadataDecoder decoder = new MetadataDecoder();
+        decodeTitle(decoder, "station", block("Sigur Rós - Hoppípolla", "windows-1252"));
+        assertEquals(Charset.forName("windows-1252"), decoder.getCachedCharset("station"));
+
+        // UTF-8 decodes without errors as windows-1252 as well, the verdict must not stick
+        assertEquals("Mötley Crüe - Dr. Feelgood", decodeTitle(decoder, "station", block("Mötley Crüe - Dr. Feelgood", "UTF-8")));
+        assertEquals(StandardCharsets.UTF_8, decoder.getCachedCharset("station"));
+    }
+
+    @Test
+    void repairDoubleEncoded_fixesUtf8DecodedAsLatin1() {
+        final String mangled = new String("Café Tacvba".getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+        assertEquals("Café Tacvba", MetadataDecoder.repairDoubleEncoded(mangled));
+        assertEquals("Café Tacvba", MetadataDecoder.repairDoubleEncoded("Café Tacvba"));
+        assertEquals("周杰伦", MetadataDecoder.repairDoubleEncoded("周杰伦"));
+    }
+
+    @Test
+    void parseMetadata_keepsSemicolonsInsideValues() {
+        final Map<String, String> metadata = MetadataDecoder.parseMetadata("StreamTitle='Artist; Other - Track';StreamUrl='http://example.org/';");
+        assertEquals("Artist; Other - Track", metadata.get("StreamTitle"));
+        assertEquals("http://example.org/", metadata.get("StreamUrl"));
+    }
+}
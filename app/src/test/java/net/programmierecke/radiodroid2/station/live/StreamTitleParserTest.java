@@ -0,0 +1,49 @@
+package net.programmierecke.radiodroid2.station.live;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamTitleParserTest {
+    // Raw title, expected artist, expected track
+    private static final String[][] TITLES = {
+            {"Daft Punk - Get Lucky", "Daft Punk", "Get Lucky"},
+            {"周杰伦 - 晴天", "周杰伦", "晴天"},
+            {"A - B - C", "A", "B - C"},
+            {"ARTIST NAME - SONG TITLE", "Artist Name", "Song Title"},
+            {"Queen - Bohemian Rhapsody (Live) [2011 Remaster]", "Queen", "Bohemian Rhapsody"},
+            {"Adele - Hello (2015)", "Adele", "Hello"},
+            {"--= Artist - Track =--", "Artist", "Track"},
+            {"   spaced    out   -   title  ", "spaced out", "title"},
+            {"\"Artist\" - \"Track\"", "Artist", "Track"},
+            {"Artist: Someone - Title: Something", "Someone", "Something"},
+            {"Drake feat. Rihanna - Take Care", "Drake", "Take Care (feat. Rihanna)"},
+            {"Within Temptation - Ice Queen", "Within Temptation", "Ice Queen"},
+            {"Foo+Bar+-+Baz+Qux", "Foo Bar", "Baz Qux"},
+            {"Some Station Jingle", StreamTitleParser.UNKNOWN_ARTIST, "Some Station Jingle"},
+            {"Artist - Artist", StreamTitleParser.UNKNOWN_ARTIST, "Artist"},
+            {"title=\"Hello\" artist=\"Adele\"", "Adele", "Hello"},
+            {"title=\"Hello\"", StreamTitleParser.UNKNOWN_ARTIST, "Hello"},
+            {"artist=\"Adele\"", "Adele", StreamTitleParser.UNKNOWN_TRACK},
+            {"Kiss FM text=\"Station ID 01_bumper\"", "Kiss FM", "Station ID 01_bumper"},
+            {"text=\"Great Song By Someone\"", "Great Song", "By Someone"},
+            {"x=1 Artist | Track", "x=1 Artist", "Track"},
+            {"??????", "", ""},
+    };
+
+    @Test
+    void parse_splitsKnownFormats() {
+        for (String[] entry : TITLES) {
+            final String[] parsed = StreamTitleParser.parseUncached(entry[0]);
+            assertEquals(entry[1], parsed[0], entry[0]);
+            assertEquals(entry[2], parsed[1], entry[0]);
+        }
+    }
+
+    @Test
+    void parse_memoizesRepeatedTitles() {
+        final String[] first = StreamTitleParser.parse("Daft Punk - Get Lucky");
+        assertSame(first, StreamTitleParser.parse("Daft Punk - Get Lucky"));
+        assertArrayEquals(new String[]{"Daft Punk", "Get Lucky"}, first);
+    }
+}
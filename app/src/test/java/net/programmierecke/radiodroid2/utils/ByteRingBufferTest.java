@@ -0,0 +1,92 @@
+package net.programmierecke.radiodroid2.utils;
+
+import org.junit.jupiter.api.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRingBufferTest {
+    @Test
+    void write_dropsWhatDoesNotFit() throws InterruptedException {
+        final ByteRingBuffer ring = new ByteRingBuffer(8);
+        assertEquals(6, ring.write(new byte[]{1, 2, 3, 4, 5, 6}, 0, 6));
+        assertEquals(2, ring.write(new byte[]{7, 8, 9, 10}, 0, 4));
+        assertEquals(2, ring.getDroppedBytes());
+
+        final byte[] out = new byte[8];
+        assertEquals(8, ring.read(out, 0, out.length));
+        assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}, out);
+    }
+
+    @Test
+    void read_wrapsAround() throws InterruptedException {
+        final ByteRingBuffer ring = new ByteRingBuffer(4);
+        final byte[] out = new byte[4];
+        ring.write(new byte[]{1, 2, 3}, 0, 3);
+        assertEquals(3, ring.read(out, 0, 3));
+
+        assertEquals(4, ring.write(new byte[]{4, 5, 6, 7}, 0, 4));
+        assertEquals(4, ring.read(out, 0, 4));
+        assertArrayEquals(new byte[]{4, 5, 6, 7}, out);
+    }
+
+    @Test
+    void read_drainsThenReportsEndAfterClose() throws InterruptedException {
+        final ByteRingBuffer ring = new ByteRingBuffer(4);
+        ring.write(new byte[]{1}, 0, 1);
+        ring.close();
+
+        final byte[] out = new byte[4];
+        assertEquals(1, ring.read(out, 0, 4));
+        assertEquals(-1, ring.read(out, 0, 4));
+    }
+
+    @Test
+    void read_returnsZeroOnTimeout() throws InterruptedException {
+        final ByteRingBuffer ring = new ByteRingBuffer(4);
+        assertEquals(0, ring.read(new byte[4], 0, 4, 10));
+    }
+
+    @Test
+    void read_handsOverEveryByteBetweenThreads() throws InterruptedException {
+        final int total = 1 << 20;
+        final ByteRingBuffer ring = new ByteRingBuffer(4096);
+        final long[] sum = new long[2];
+
+        final Thread consumer = new Thread(() -> {
+            final byte[] out = new byte[1000];
+            try {
+                int read;
+                while ((read = ring.read(out, 0, out.length)) >= 0) {
+                    sum[1] += read;
+                    for (int i = 0; i < read; i++) {
+                        sum[0] += out[i] & 0xFF;
+                    }
+                }
+            } catch (InterruptedException ignored) {
+            }
+        });
+        consumer.start();
+
+        long expected = 0;
+        final byte[] in = new byte[333];
+        int written = 0;
+        while (written < total) {
+            for (int i = 0; i < in.length; i++) {
+                in[i] = (byte) (written + i);
+            }
+            final int count = ring.write(in, 0, in.length);
+            for (int i = 0; i < count; i++) {
+                expected += in[i] & 0xFF;
+            }
+            written += in.length;
+            if (count < in.length) {
+                Thread.yield();
+            }
+        }
+        ring.close();
+        consumer.join();
+
+        assertEquals(expected, sum[0]);
+        assertEquals(written, sum[1] + ring.getDroppedBytes());
+    }
+}
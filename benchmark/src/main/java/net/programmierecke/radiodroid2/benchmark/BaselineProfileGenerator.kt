@@ -0,0 +1,59 @@
+package net.programmierecke.radiodroid2.benchmark
+
+import android.os.SystemClock
+import androidx.benchmark.macro.ExperimentalBaselineProfilesApi
+import androidx.benchmark.macro.junit4.BaselineProfileRule
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.uiautomator.By
+import androidx.test.uiautomator.Direction
+import androidx.test.uiautomator.Until
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Collects the baseline profile of the app along the cold start journey: launch, the station
+ * tabs, scrolling the station list and starting playback.
+ *
+ * Needs a rooted device or an emulator image without Google APIs:
+ * ./gradlew :benchmark:connectedBenchmarkAndroidTest -P android.testInstrumentationRunnerArguments.class=net.programmierecke.radiodroid2.benchmark.BaselineProfileGenerator
+ * The profile ends up in benchmark/build/outputs; copy it to app/src/main/baseline-prof.txt.
+ */
+@OptIn(ExperimentalBaselineProfilesApi::class)
+@RunWith(AndroidJUnit4::class)
+class BaselineProfileGenerator {
+    @get:Rule
+    val baselineProfileRule = BaselineProfileRule()
+
+    @Before
+    fun setUp() = prepareApp()
+
+    @Test
+    fun startupJourney() = baselineProfileRule.collectBaselineProfile(
+        packageName = TARGET_PACKAGE,
+        packageFilters = listOf(TARGET_PACKAGE)
+    ) {
+        pressHome()
+        startActivityAndWait()
+        device.waitForStationList()
+
+        val list = device.waitForObject(By.res(TARGET_PACKAGE, "recyclerViewStations"))
+        list.setGestureMargin(device.displayWidth / 5)
+        list.fling(Direction.DOWN)
+        device.waitForIdle()
+        list.fling(Direction.UP)
+        device.waitForIdle()
+
+        val row = device.waitForObject(By.res(TARGET_PACKAGE, "recyclerViewStations")).children[0]
+        val name = row.findObject(By.res(TARGET_PACKAGE, "textViewTitle")).text
+        row.click()
+        device.wait(Until.hasObject(By.res(TARGET_PACKAGE, "textViewStationName").text(name)), 5_000)
+        // Lets the player connect to LocalStreamServer and start decoding
+        SystemClock.sleep(PLAYBACK_START_MS)
+    }
+
+    private companion object {
+        const val PLAYBACK_START_MS = 3_000L
+    }
+}
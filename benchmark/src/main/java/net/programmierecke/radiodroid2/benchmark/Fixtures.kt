@@ -0,0 +1,58 @@
+package net.programmierecke.radiodroid2.benchmark
+
+import androidx.test.platform.app.InstrumentationRegistry
+import androidx.test.uiautomator.By
+import androidx.test.uiautomator.BySelector
+import androidx.test.uiautomator.UiDevice
+import androidx.test.uiautomator.Until
+
+const val TARGET_PACKAGE = "net.programmierecke.radiodroid2"
+
+// Trace sections emitted by the app, see PlayerService and FragmentMultiSearch
+const val TRACE_STATION_SWITCH = "PlayerService.stationSwitch"
+const val TRACE_SEARCH_RESULTS = "MultiSearch.results"
+
+// Cold start phases, see RadioDroidApp, RadioDroidDatabase, RadioStationRepository and
+// PlayerServiceUtil
+const val TRACE_APP_ON_CREATE = "RadioDroidApp.onCreate"
+const val TRACE_DATABASE_OPEN = "RadioDroidDatabase.open"
+const val TRACE_FIRST_QUERY = "RadioStationRepository.firstQuery"
+const val TRACE_FIRST_ICON_BIND = "StationIcon.firstBind"
+
+const val SEEDED_STATIONS = 5000
+
+private const val UI_TIMEOUT_MS = 10_000L
+
+/**
+ * Puts the app into a known state without network: the station database holds
+ * [SEEDED_STATIONS] synthetic stations streaming from [LocalStreamServer], and nothing asks
+ * for permissions on the first play. Seeding goes through the BenchmarkFixtureReceiver of the
+ * app's benchmark build type.
+ */
+fun prepareApp() {
+    val device = UiDevice.getInstance(InstrumentationRegistry.getInstrumentation())
+
+    // Only exists on API 33, elsewhere the command fails harmlessly
+    device.executeShellCommand("pm grant $TARGET_PACKAGE android.permission.POST_NOTIFICATIONS")
+
+    val output = device.executeShellCommand(
+        "am broadcast --include-stopped-packages" +
+                " -a $TARGET_PACKAGE.benchmark.SEED" +
+                " -n $TARGET_PACKAGE/.benchmark.BenchmarkFixtureReceiver" +
+                " --ei stations $SEEDED_STATIONS" +
+                " --es stream_url ${LocalStreamServer.streamUrl}"
+    )
+    // Activity.RESULT_OK
+    check(output.contains("result=-1")) { "Seeding the station database failed: $output" }
+
+    device.executeShellCommand("am force-stop $TARGET_PACKAGE")
+}
+
+fun UiDevice.waitForStationList() {
+    check(wait(Until.hasObject(By.res(TARGET_PACKAGE, "textViewTitle")), UI_TIMEOUT_MS)) {
+        "Station list did not show up"
+    }
+}
+
+fun UiDevice.waitForObject(selector: BySelector) =
+    checkNotNull(wait(Until.findObject(selector), UI_TIMEOUT_MS)) { "Not found: $selector" }
@@ -0,0 +1,76 @@
+package net.programmierecke.radiodroid2.benchmark
+
+import android.util.Log
+import java.io.IOException
+import java.net.InetAddress
+import java.net.ServerSocket
+import java.net.Socket
+import kotlin.concurrent.thread
+
+/**
+ * Endless MP3 stream of silence on localhost, so station switching measures the app and not a
+ * remote server. Every path serves the same stream. Runs in the benchmark process for as long
+ * as it lives.
+ */
+object LocalStreamServer {
+    private const val TAG = "LocalStreamServer"
+
+    // MPEG-1 Layer III, 128 kbit/s, 44.1 kHz, mono, no CRC. A zero frame body decodes to silence.
+    private val FRAME = ByteArray(417).also {
+        it[0] = 0xFF.toByte()
+        it[1] = 0xFB.toByte()
+        it[2] = 0x90.toByte()
+        it[3] = 0xC0.toByte()
+    }
+    private const val FRAME_NANOS = 1_000_000_000L * 1152 / 44100
+
+    // Sent at once so the player's buffer fills like with a server that has a burst-on-connect
+    private const val BURST_FRAMES = 5 * 44100 / 1152
+
+    private val serverSocket: ServerSocket by lazy {
+        ServerSocket(0, 16, InetAddress.getLoopbackAddress()).also { socket ->
+            thread(isDaemon = true, name = TAG) {
+                while (true) {
+                    val client = socket.accept()
+                    thread(isDaemon = true, name = "$TAG client") { serve(client) }
+                }
+            }
+        }
+    }
+
+    val streamUrl: String
+        get() = "http://127.0.0.1:${serverSocket.localPort}/stream"
+
+    private fun serve(client: Socket) {
+        try {
+            client.use {
+                // The request itself does not matter, only wait for its end
+                val input = it.getInputStream().bufferedReader(Charsets.ISO_8859_1)
+                while (!input.readLine().isNullOrEmpty()) {
+                }
+
+                val output = it.getOutputStream()
+                output.write(
+                    ("HTTP/1.0 200 OK\r\n" +
+                            "Content-Type: audio/mpeg\r\n" +
+                            "icy-br: 128\r\n" +
+                            "icy-name: Benchmark\r\n\r\n").toByteArray(Charsets.ISO_8859_1)
+                )
+
+                val start = System.nanoTime()
+                var sent = 0L
+                while (true) {
+                    output.write(FRAME)
+                    sent++
+                    val waitNanos = start + (sent - BURST_FRAMES) * FRAME_NANOS - System.nanoTime()
+                    if (waitNanos > 0) {
+                        Thread.sleep(waitNanos / 1_000_000, (waitNanos % 1_000_000).toInt())
+                    }
+                }
+            }
+        } catch (e: IOException) {
+            // The player disconnected
+            Log.d(TAG, "Client gone: ${e.message}")
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package net.programmierecke.radiodroid2.benchmark
+
+import androidx.benchmark.macro.BaselineProfileMode
+import androidx.benchmark.macro.CompilationMode
+import androidx.benchmark.macro.ExperimentalMetricApi
+import androidx.benchmark.macro.FrameTimingMetric
+import androidx.benchmark.macro.StartupMode
+import androidx.benchmark.macro.TraceSectionMetric
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.uiautomator.By
+import androidx.test.uiautomator.Until
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Search as you type in the search tab: time from the debounced query to its results reaching
+ * the list, and frame timing while typing and showing the results.
+ */
+@OptIn(ExperimentalMetricApi::class)
+@RunWith(AndroidJUnit4::class)
+class SearchBenchmark {
+    @get:Rule
+    val benchmarkRule = MacrobenchmarkRule()
+
+    @Before
+    fun setUp() = prepareApp()
+
+    @Test
+    fun searchAsYouType() = benchmarkRule.measureRepeated(
+        packageName = TARGET_PACKAGE,
+        metrics = listOf(TraceSectionMetric(TRACE_SEARCH_RESULTS), FrameTimingMetric()),
+        compilationMode = CompilationMode.Partial(BaselineProfileMode.UseIfAvailable),
+        startupMode = StartupMode.WARM,
+        iterations = 5,
+        setupBlock = {
+            startActivityAndWait()
+            device.waitForObject(By.res(TARGET_PACKAGE, "action_search")).click()
+            device.waitForObject(By.res(TARGET_PACKAGE, "etSearchQuery"))
+        }
+    ) {
+        val searchField = device.waitForObject(By.res(TARGET_PACKAGE, "etSearchQuery"))
+        for (length in 1..QUERY.length) {
+            searchField.text = QUERY.substring(0, length)
+        }
+        device.wait(Until.hasObject(By.res(TARGET_PACKAGE, "textViewTitle").textStartsWith("Jazz")), 5_000)
+    }
+
+    private companion object {
+        // Seeded station names start with their first tag
+        const val QUERY = "jazz"
+    }
+}
@@ -0,0 +1,59 @@
+package net.programmierecke.radiodroid2.benchmark
+
+import androidx.benchmark.macro.BaselineProfileMode
+import androidx.benchmark.macro.CompilationMode
+import androidx.benchmark.macro.ExperimentalMetricApi
+import androidx.benchmark.macro.StartupMode
+import androidx.benchmark.macro.StartupTimingMetric
+import androidx.benchmark.macro.TraceSectionMetric
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Time to the first frame of ActivityMain, with the seeded database behind the station lists.
+ * Cold starts also report the phases traced by the app, so a regression can be attributed to
+ * one of them.
+ */
+@OptIn(ExperimentalMetricApi::class)
+@RunWith(AndroidJUnit4::class)
+class StartupBenchmark {
+    @get:Rule
+    val benchmarkRule = MacrobenchmarkRule()
+
+    @Before
+    fun setUp() = prepareApp()
+
+    @Test
+    fun startupCold() = startup(StartupMode.COLD)
+
+    @Test
+    fun startupWarm() = startup(StartupMode.WARM)
+
+    private fun startup(startupMode: StartupMode) = benchmarkRule.measureRepeated(
+        packageName = TARGET_PACKAGE,
+        metrics = if (startupMode == StartupMode.COLD) {
+            // Only a cold start creates the application and opens the database
+            listOf(
+                StartupTimingMetric(),
+                TraceSectionMetric(TRACE_APP_ON_CREATE),
+                TraceSectionMetric(TRACE_DATABASE_OPEN),
+                TraceSectionMetric(TRACE_FIRST_QUERY),
+                TraceSectionMetric(TRACE_FIRST_ICON_BIND)
+            )
+        } else {
+            listOf(StartupTimingMetric())
+        },
+        compilationMode = CompilationMode.Partial(BaselineProfileMode.UseIfAvailable),
+        startupMode = startupMode,
+        iterations = 10,
+        setupBlock = { pressHome() }
+    ) {
+        startActivityAndWait()
+        // The first query and icon bind end after the first frame
+        device.waitForStationList()
+    }
+}
@@ -0,0 +1,57 @@
+package net.programmierecke.radiodroid2.benchmark
+
+import androidx.benchmark.macro.BaselineProfileMode
+import androidx.benchmark.macro.CompilationMode
+import androidx.benchmark.macro.FrameTimingMetric
+import androidx.benchmark.macro.StartupMode
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.uiautomator.By
+import androidx.test.uiautomator.Direction
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Frame timing while flinging through the local stations tab, which shows half of the seeded
+ * stations. Covers row binding, the shared view pool and the background list diffing.
+ */
+@RunWith(AndroidJUnit4::class)
+class StationListScrollBenchmark {
+    @get:Rule
+    val benchmarkRule = MacrobenchmarkRule()
+
+    @Before
+    fun setUp() = prepareApp()
+
+    @Test
+    fun flingLocalStations() = benchmarkRule.measureRepeated(
+        packageName = TARGET_PACKAGE,
+        metrics = listOf(FrameTimingMetric()),
+        compilationMode = CompilationMode.Partial(BaselineProfileMode.UseIfAvailable),
+        startupMode = StartupMode.WARM,
+        iterations = 5,
+        setupBlock = {
+            startActivityAndWait()
+            device.waitForStationList()
+        }
+    ) {
+        val list = device.waitForObject(By.res(TARGET_PACKAGE, "recyclerViewStations"))
+        // Keep the gesture away from the navigation gesture areas
+        list.setGestureMargin(device.displayWidth / 5)
+
+        repeat(FLINGS) {
+            list.fling(Direction.DOWN)
+        }
+        device.waitForIdle()
+        repeat(FLINGS) {
+            list.fling(Direction.UP)
+        }
+        device.waitForIdle()
+    }
+
+    private companion object {
+        const val FLINGS = 4
+    }
+}
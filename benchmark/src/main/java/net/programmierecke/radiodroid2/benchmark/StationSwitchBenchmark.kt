@@ -0,0 +1,63 @@
+package net.programmierecke.radiodroid2.benchmark
+
+import android.os.SystemClock
+import androidx.benchmark.macro.BaselineProfileMode
+import androidx.benchmark.macro.CompilationMode
+import androidx.benchmark.macro.ExperimentalMetricApi
+import androidx.benchmark.macro.StartupMode
+import androidx.benchmark.macro.TraceSectionMetric
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import androidx.test.uiautomator.By
+import androidx.test.uiautomator.UiDevice
+import androidx.test.uiautomator.Until
+import org.junit.Before
+import org.junit.Rule
+import org.junit.Test
+import org.junit.runner.RunWith
+
+/**
+ * Time from tapping a station while another one plays until PlayerService reports the new
+ * station as playing. All stations stream from [LocalStreamServer].
+ */
+@OptIn(ExperimentalMetricApi::class)
+@RunWith(AndroidJUnit4::class)
+class StationSwitchBenchmark {
+    @get:Rule
+    val benchmarkRule = MacrobenchmarkRule()
+
+    @Before
+    fun setUp() = prepareApp()
+
+    @Test
+    fun switchStation() = benchmarkRule.measureRepeated(
+        packageName = TARGET_PACKAGE,
+        metrics = listOf(TraceSectionMetric(TRACE_STATION_SWITCH)),
+        compilationMode = CompilationMode.Partial(BaselineProfileMode.UseIfAvailable),
+        startupMode = StartupMode.WARM,
+        iterations = 5,
+        setupBlock = {
+            startActivityAndWait()
+            device.waitForStationList()
+            // The switch starts from a playing station
+            playRow(device, 0)
+        }
+    ) {
+        playRow(device, 1)
+    }
+
+    private fun playRow(device: UiDevice, index: Int) {
+        val list = device.waitForObject(By.res(TARGET_PACKAGE, "recyclerViewStations"))
+        val row = list.children[index]
+        val name = row.findObject(By.res(TARGET_PACKAGE, "textViewTitle")).text
+        row.click()
+
+        device.wait(Until.hasObject(By.res(TARGET_PACKAGE, "textViewStationName").text(name)), 5_000)
+        // There is no UI state for "playing" which does not depend on the locale
+        SystemClock.sleep(PLAYBACK_START_MS)
+    }
+
+    private companion object {
+        const val PLAYBACK_START_MS = 3_000L
+    }
+}
@@ -0,0 +1,224 @@
+package net.programmierecke.radiodroid2.mockserver;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+
+/**
+ * A Shoutcast/Icecast style MP3 stream of silence with in-band ICY metadata.
+ * <p>
+ * The audio is a sequence of valid MPEG-1 Layer III frames at 44.1 kHz, so players decode it.
+ * When the client asks for metadata with {@code Icy-MetaData: 1}, a metadata block follows every
+ * {@link Builder#metaint} bytes of audio. The stream title changes every
+ * {@link Builder#titleChangeInterval} blocks, blocks in between are empty as with Icecast.
+ * <p>
+ * Like a real stream the response has no length and ends by closing the connection, here after
+ * {@link Builder#duration} of audio. By default the body is sent as fast as the client reads,
+ * {@link Builder#realtime} limits it to the bitrate.
+ */
+public final class IcyStream {
+    public static final int DEFAULT_BITRATE = 128;
+    public static final int DEFAULT_METAINT = 16000;
+    public static final int DEFAULT_TITLE_CHANGE_INTERVAL = 4;
+    public static final int DEFAULT_DURATION_SECONDS = 30;
+
+    private static final int SAMPLE_RATE = 44100;
+    private static final int SAMPLES_PER_FRAME = 1152;
+    // Bitrates of MPEG-1 Layer III in kbit/s, by bitrate index starting at 1
+    private static final int[] BITRATES = {32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320};
+    private static final int MAX_METADATA_LENGTH = 255 * 16;
+
+    private final int bitrate;
+    private final int metaint;
+    private final int titleChangeInterval;
+    private final long durationMillis;
+    private final boolean realtime;
+
+    private IcyStream(Builder builder) {
+        this.bitrate = builder.bitrate;
+        this.metaint = builder.metaint;
+        this.titleChangeInterval = builder.titleChangeInterval;
+        this.durationMillis = builder.durationMillis;
+        this.realtime = builder.realtime;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getBitrate() {
+        return bitrate;
+    }
+
+    public int getMetaint() {
+        return metaint;
+    }
+
+    /**
+     * @param withMetadata whether the request asked for metadata with {@code Icy-MetaData: 1}
+     */
+    public MockResponse createResponse(String stationName, boolean withMetadata) {
+        Buffer body = createBody(stationName, withMetadata);
+
+        MockResponse response = new MockResponse()
+                .setResponseCode(200)
+                .setHeader("Content-Type", "audio/mpeg")
+                .setHeader("Server", "Icecast 2.4.4 (mock)")
+                .setHeader("icy-br", bitrate)
+                .setHeader("icy-name", stationName)
+                .setHeader("icy-genre", "Mock")
+                .setHeader("icy-pub", 0)
+                .setHeader("ice-audio-info", "ice-samplerate=" + SAMPLE_RATE + ";ice-bitrate=" + bitrate + ";ice-channels=1")
+                .setHeader("Connection", "close")
+                .setBody(body)
+                // No length, the stream ends with the connection
+                .removeHeader("Content-Length")
+                .setSocketPolicy(SocketPolicy.DISCONNECT_AT_END);
+
+        if (withMetadata && metaint > 0) {
+            response.setHeader("icy-metaint", metaint);
+        }
+        if (realtime) {
+            // In steps of 100 ms, metadata makes it slightly slower than the bitrate
+            response.throttleBody(bitrate * 1000L / 8 / 10, 100, TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    Buffer createBody(String stationName, boolean withMetadata) {
+        Buffer audio = createAudio();
+        if (!withMetadata || metaint <= 0) {
+            return audio;
+        }
+
+        Buffer body = new Buffer();
+        String lastTitle = null;
+        for (int block = 0; audio.size() >= metaint; block++) {
+            body.write(audio, metaint);
+
+            String title = stationName + " - Track " + (titleChangeInterval > 0 ? block / titleChangeInterval + 1 : 1);
+            if (title.equals(lastTitle)) {
+                body.writeByte(0);
+            } else {
+                writeMetadata(body, "StreamTitle='" + title.replace("'", "") + "';");
+                lastTitle = title;
+            }
+        }
+        body.writeAll(audio);
+        return body;
+    }
+
+    /**
+     * Writes a metadata block: its length in 16 byte units, followed by the text padded with
+     * zeros.
+     */
+    static void writeMetadata(Buffer out, String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_METADATA_LENGTH);
+        int blocks = (length + 15) / 16;
+
+        out.writeByte(blocks);
+        out.write(bytes, 0, length);
+        for (int i = length; i < blocks * 16; i++) {
+            out.writeByte(0);
+        }
+    }
+
+    private Buffer createAudio() {
+        final int bitrateIndex = bitrateIndexOf(bitrate);
+        final long frames = durationMillis * SAMPLE_RATE / SAMPLES_PER_FRAME / 1000;
+        // 144 * bitrate / sample rate bytes per frame; padding frames make up for the remainder
+        final int frameLength = 144 * bitrate * 1000 / SAMPLE_RATE;
+        final int remainder = 144 * bitrate * 1000 % SAMPLE_RATE;
+
+        byte[] frame = new byte[frameLength + 1];
+        frame[0] = (byte) 0xFF;
+        // MPEG-1, Layer III, no CRC
+        frame[1] = (byte) 0xFB;
+        // Mono, not copyrighted, original. Zero side info and main data decode to silence.
+        frame[3] = (byte) 0xC4;
+
+        Buffer audio = new Buffer();
+        int padding = 0;
+        for (long i = 0; i < frames; i++) {
+            padding += remainder;
+            boolean padded = padding >= SAMPLE_RATE;
+            if (padded) {
+                padding -= SAMPLE_RATE;
+            }
+            // 44.1 kHz is sample rate index 0
+            frame[2] = (byte) ((bitrateIndex << 4) | (padded ? 0x02 : 0));
+            audio.write(frame, 0, padded ? frameLength + 1 : frameLength);
+        }
+        return audio;
+    }
+
+    private static int bitrateIndexOf(int bitrate) {
+        for (int i = 0; i < BITRATES.length; i++) {
+            if (BITRATES[i] == bitrate) {
+                return i + 1;
+            }
+        }
+        throw new IllegalArgumentException("Not a bitrate of MPEG-1 Layer III: " + bitrate);
+    }
+
+    public static final class Builder {
+        private int bitrate = DEFAULT_BITRATE;
+        private int metaint = DEFAULT_METAINT;
+        private int titleChangeInterval = DEFAULT_TITLE_CHANGE_INTERVAL;
+        private long durationMillis = TimeUnit.SECONDS.toMillis(DEFAULT_DURATION_SECONDS);
+        private boolean realtime;
+
+        private Builder() {
+        }
+
+        /**
+         * @param bitrate in kbit/s, one of the bitrates of MPEG-1 Layer III from 32 to 320
+         */
+        public Builder bitrate(int bitrate) {
+            bitrateIndexOf(bitrate);
+            this.bitrate = bitrate;
+            return this;
+        }
+
+        /**
+         * @param metaint bytes of audio between metadata blocks, 0 to never send metadata
+         */
+        public Builder metaint(int metaint) {
+            if (metaint < 0) {
+                throw new IllegalArgumentException("metaint must not be negative: " + metaint);
+            }
+            this.metaint = metaint;
+            return this;
+        }
+
+        /**
+         * @param blocks metadata blocks until the title changes, 1 for a new title in every block,
+         *               0 to never change it
+         */
+        public Builder titleChangeInterval(int blocks) {
+            if (blocks < 0) {
+                throw new IllegalArgumentException("title change interval must not be negative: " + blocks);
+            }
+            this.titleChangeInterval = blocks;
+            return this;
+        }
+
+        public Builder duration(long duration, TimeUnit unit) {
+            this.durationMillis = unit.toMillis(duration);
+            return this;
+        }
+
+        public Builder realtime(boolean realtime) {
+            this.realtime = realtime;
+            return this;
+        }
+
+        public IcyStream build() {
+            return new IcyStream(this);
+        }
+    }
+}
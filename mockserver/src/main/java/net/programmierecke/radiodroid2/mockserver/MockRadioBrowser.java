@@ -0,0 +1,397 @@
+package net.programmierecke.radiodroid2.mockserver;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+
+/**
+ * An in-process radio-browser server for tests and benchmarks without network access.
+ * <p>
+ * Serves the part of the radio-browser API the app uses from a {@link SyntheticCatalogue}, and
+ * the streams of its stations as {@link IcyStream}s under {@link #STREAM_PATH}. API responses
+ * can be slowed down and made to fail to see how the app copes with a bad server:
+ * <pre>
+ * MockRadioBrowser server = MockRadioBrowser.builder()
+ *         .stationCount(50_000)
+ *         .latency(200, TimeUnit.MILLISECONDS)
+ *         .errorRate(0.05)
+ *         .throttle(256 * 1024)
+ *         .build();
+ * server.start();
+ * String statsUrl = server.url("/json/stats").toString();
+ * </pre>
+ * Instead of starting its own server it can answer for another {@link Dispatcher} through
+ * {@link #dispatch(HttpUrl, Headers)}, e.g. for requests redirected by an interceptor.
+ */
+public class MockRadioBrowser extends Dispatcher {
+    public static final String STREAM_PATH = "/stream/";
+    // Host of the stream urls when no server is started, see Builder#streamBaseUrl
+    public static final String DEFAULT_STREAM_BASE_URL = "http://stream.station.test" + STREAM_PATH;
+
+    // radio-browser returns everything without a limit, which is too much to render at once
+    private static final int DEFAULT_LIMIT = 100_000;
+
+    private final SyntheticCatalogue catalogue;
+    private final IcyStream icyStream;
+    private final long latencyMillis;
+    private final double errorRate;
+    private final long throttleBytesPerSecond;
+    private final Random random;
+    private final boolean customStreamBaseUrl;
+
+    private final AtomicInteger apiRequestCount = new AtomicInteger();
+    private final AtomicInteger failedRequestCount = new AtomicInteger();
+    private final AtomicInteger streamRequestCount = new AtomicInteger();
+
+    private volatile String streamBaseUrl;
+    private MockWebServer server;
+
+    private MockRadioBrowser(Builder builder) {
+        this.catalogue = new SyntheticCatalogue(builder.stationCount);
+        this.icyStream = builder.icyStream;
+        this.latencyMillis = builder.latencyMillis;
+        this.errorRate = builder.errorRate;
+        this.throttleBytesPerSecond = builder.throttleBytesPerSecond;
+        this.random = new Random(builder.seed);
+        this.customStreamBaseUrl = builder.streamBaseUrl != null;
+        this.streamBaseUrl = customStreamBaseUrl ? builder.streamBaseUrl : DEFAULT_STREAM_BASE_URL;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public SyntheticCatalogue getCatalogue() {
+        return catalogue;
+    }
+
+    /**
+     * Starts a server on localhost answering with this dispatcher. Unless set explicitly, stream
+     * urls of stations point to it from then on.
+     */
+    public synchronized void start() throws IOException {
+        if (server != null) {
+            throw new IllegalStateException("Already started");
+        }
+        server = new MockWebServer();
+        server.setDispatcher(this);
+        server.start();
+
+        if (!customStreamBaseUrl) {
+            streamBaseUrl = server.url(STREAM_PATH).toString();
+        }
+    }
+
+    public synchronized void shutdown() throws IOException {
+        if (server != null) {
+            server.shutdown();
+            server = null;
+        }
+    }
+
+    public synchronized HttpUrl url(String path) {
+        if (server == null) {
+            throw new IllegalStateException("Not started");
+        }
+        return server.url(path);
+    }
+
+    public HttpUrl streamUrl(int stationIndex) {
+        return HttpUrl.get(streamBaseUrl + stationIndex);
+    }
+
+    public int getApiRequestCount() {
+        return apiRequestCount.get();
+    }
+
+    public int getFailedRequestCount() {
+        return failedRequestCount.get();
+    }
+
+    public int getStreamRequestCount() {
+        return streamRequestCount.get();
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) {
+        MockResponse response = dispatch(request.getRequestUrl(), request.getHeaders());
+        return response != null ? response : new MockResponse().setResponseCode(404);
+    }
+
+    /**
+     * Answers a request with the given url, only the path and query are looked at.
+     *
+     * @return null if the path is not served by this server
+     */
+    public MockResponse dispatch(HttpUrl url, Headers headers) {
+        final List<String> segments = url.pathSegments();
+
+        if (url.encodedPath().startsWith(STREAM_PATH) && segments.size() == 2) {
+            streamRequestCount.incrementAndGet();
+            return stream(segments.get(1), "1".equals(headers.get("Icy-MetaData")));
+        }
+
+        if (segments.size() < 2 || !"json".equals(segments.get(0))) {
+            return null;
+        }
+
+        Buffer body = new Buffer();
+        if (!writeApiResponse(body, segments, url)) {
+            return null;
+        }
+
+        apiRequestCount.incrementAndGet();
+        if (shouldFail()) {
+            failedRequestCount.incrementAndGet();
+            return withFaults(new MockResponse().setResponseCode(503).setBody("Service Unavailable"));
+        }
+
+        return withFaults(new MockResponse()
+                .setResponseCode(200)
+                .setHeader("Content-Type", "application/json; charset=utf-8")
+                .setBody(body));
+    }
+
+    private boolean writeApiResponse(Buffer out, List<String> segments, HttpUrl url) {
+        final String endpoint = segments.get(1);
+        final String argument = segments.size() > 2 ? segments.get(2) : "";
+
+        switch (endpoint) {
+            case "stats":
+                catalogue.writeStats(out);
+                return true;
+            case "tags":
+                catalogue.writeTags(out);
+                return true;
+            case "countrycodes":
+                catalogue.writeCountryCodes(out);
+                return true;
+            case "languages":
+                catalogue.writeLanguages(out);
+                return true;
+            case "url":
+                return writeStationUrl(out, argument);
+            case "stations":
+                return writeStations(out, segments, url);
+            default:
+                return false;
+        }
+    }
+
+    private boolean writeStationUrl(Buffer out, String stationUuid) {
+        final int index = catalogue.indexOf(stationUuid);
+        if (index < 0) {
+            out.writeUtf8("{\"ok\":\"false\",\"message\":\"could not find station with uuid\"}");
+            return true;
+        }
+        out.writeUtf8("{\"ok\":\"true\",\"message\":\"retrieved station url\",\"stationuuid\":\"")
+                .writeUtf8(stationUuid)
+                .writeUtf8("\",\"name\":\"").writeUtf8(catalogue.name(index))
+                .writeUtf8("\",\"url\":\"").writeUtf8(streamBaseUrl).writeUtf8(Integer.toString(index))
+                .writeUtf8("\"}");
+        return true;
+    }
+
+    private boolean writeStations(Buffer out, List<String> segments, HttpUrl url) {
+        final String kind = segments.size() > 2 ? segments.get(2) : "";
+        final String argument = segments.size() > 3 ? segments.get(3) : "";
+
+        int offset = intParameter(url, "offset", 0);
+        int limit = intParameter(url, "limit", DEFAULT_LIMIT);
+        IntPredicate filter;
+
+        switch (kind) {
+            case "":
+                filter = null;
+                break;
+            case "topclick":
+            case "topvote":
+            case "lastchange":
+            case "lastclick":
+                // The catalogue is ordered by clicks, good enough for every ranking
+                filter = null;
+                if (!argument.isEmpty()) {
+                    offset = 0;
+                    limit = parseInt(argument, DEFAULT_LIMIT);
+                }
+                break;
+            case "byuuid":
+                final String uuids = !argument.isEmpty() ? argument : url.queryParameter("uuids");
+                filter = uuidFilter(uuids);
+                break;
+            case "byname":
+            case "bynameexact":
+                filter = index -> catalogue.nameContains(index, argument);
+                break;
+            case "bytag":
+                filter = index -> catalogue.hasTag(index, argument, false);
+                break;
+            case "bytagexact":
+                filter = index -> catalogue.hasTag(index, argument, true);
+                break;
+            case "bycountrycodeexact":
+                filter = index -> catalogue.countryCode(index).equalsIgnoreCase(argument);
+                break;
+            case "search":
+                filter = searchFilter(url);
+                break;
+            default:
+                return false;
+        }
+
+        catalogue.writeStations(out, offset, limit, filter, streamBaseUrl);
+        return true;
+    }
+
+    private IntPredicate uuidFilter(String uuids) {
+        final boolean[] wanted = new boolean[catalogue.size()];
+        if (uuids != null) {
+            for (String uuid : uuids.split(",")) {
+                int index = catalogue.indexOf(uuid.trim());
+                if (index >= 0) {
+                    wanted[index] = true;
+                }
+            }
+        }
+        return index -> wanted[index];
+    }
+
+    private IntPredicate searchFilter(HttpUrl url) {
+        final String name = url.queryParameter("name");
+        final String tag = url.queryParameter("tag");
+        final String countryCode = url.queryParameter("countrycode");
+        return index -> (name == null || catalogue.nameContains(index, name))
+                && (tag == null || catalogue.hasTag(index, tag, false))
+                && (countryCode == null || catalogue.countryCode(index).equalsIgnoreCase(countryCode));
+    }
+
+    private MockResponse stream(String stationIndex, boolean withMetadata) {
+        final int index = parseInt(stationIndex, -1);
+        if (index < 0 || index >= catalogue.size()) {
+            return new MockResponse().setResponseCode(404);
+        }
+        return icyStream.createResponse(catalogue.name(index), withMetadata);
+    }
+
+    private boolean shouldFail() {
+        if (errorRate <= 0) {
+            return false;
+        }
+        synchronized (random) {
+            return random.nextDouble() < errorRate;
+        }
+    }
+
+    private MockResponse withFaults(MockResponse response) {
+        if (latencyMillis > 0) {
+            response.setHeadersDelay(latencyMillis, TimeUnit.MILLISECONDS);
+        }
+        if (throttleBytesPerSecond > 0) {
+            // In steps of 100 ms so small responses are throttled as well
+            response.throttleBody(Math.max(1, throttleBytesPerSecond / 10), 100, TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    private static int intParameter(HttpUrl url, String name, int defaultValue) {
+        return parseInt(url.queryParameter(name), defaultValue);
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    public static final class Builder {
+        private int stationCount = SyntheticCatalogue.DEFAULT_SIZE;
+        private IcyStream icyStream = IcyStream.builder().build();
+        private long latencyMillis;
+        private double errorRate;
+        private long throttleBytesPerSecond;
+        private long seed = 1;
+        private String streamBaseUrl;
+
+        private Builder() {
+        }
+
+        public Builder stationCount(int stationCount) {
+            this.stationCount = stationCount;
+            return this;
+        }
+
+        /**
+         * @param icyStream the stream every station plays
+         */
+        public Builder icyStream(IcyStream icyStream) {
+            this.icyStream = icyStream;
+            return this;
+        }
+
+        /**
+         * Delays the response headers of every API request, streams are not delayed.
+         */
+        public Builder latency(long latency, TimeUnit unit) {
+            this.latencyMillis = unit.toMillis(latency);
+            return this;
+        }
+
+        /**
+         * @param errorRate share of API requests answered with 503, from 0 to 1
+         */
+        public Builder errorRate(double errorRate) {
+            if (errorRate < 0 || errorRate > 1) {
+                throw new IllegalArgumentException("error rate must be between 0 and 1: " + errorRate);
+            }
+            this.errorRate = errorRate;
+            return this;
+        }
+
+        /**
+         * Limits the bandwidth of every API response, 0 for no limit. Use
+         * {@link IcyStream.Builder#realtime} for streams.
+         */
+        public Builder throttle(long bytesPerSecond) {
+            this.throttleBytesPerSecond = bytesPerSecond;
+            return this;
+        }
+
+        /**
+         * Seed of the choice of failing requests, the same seed fails the same requests of a
+         * sequential client.
+         */
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Prefix of the stream urls in the catalogue, followed by the station index. Stream
+         * requests are recognized by {@link #STREAM_PATH} whatever the host.
+         */
+        public Builder streamBaseUrl(String streamBaseUrl) {
+            this.streamBaseUrl = streamBaseUrl;
+            return this;
+        }
+
+        public MockRadioBrowser build() {
+            return new MockRadioBrowser(this);
+        }
+    }
+}
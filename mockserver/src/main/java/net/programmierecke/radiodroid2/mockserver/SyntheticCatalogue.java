@@ -0,0 +1,249 @@
+package net.programmierecke.radiodroid2.mockserver;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntPredicate;
+
+import okio.Buffer;
+
+/**
+ * A deterministic catalogue of radio stations in the JSON format of radio-browser.
+ * <p>
+ * Every property of a station is derived from its index, so the same catalogue is produced on
+ * every run and pages are rendered on request without keeping all stations in memory. Stations
+ * are ordered by click count, the most clicked first, so "top" lists are a prefix of the
+ * catalogue. Names and tags are plain ASCII and need no JSON escaping.
+ */
+public final class SyntheticCatalogue {
+    public static final int DEFAULT_SIZE = 50_000;
+
+    private static final long UUID_MSB = 0x5EED0000CA7A0000L;
+    private static final long CHANGE_UUID_MSB = 0x5EED0000CA7A0001L;
+
+    private static final String[] TAGS = {"pop", "rock", "news", "jazz", "classical", "talk", "dance",
+            "oldies", "electronic", "country", "ambient", "hits"};
+    private static final String[] COUNTRY_CODES = {"DE", "FR", "GB", "US", "BR", "JP", "IT", "ES", "NL", "PL"};
+    private static final String[] COUNTRIES = {"Germany", "France", "United Kingdom",
+            "United States Of America", "Brazil", "Japan", "Italy", "Spain", "The Netherlands", "Poland"};
+    private static final String[] LANGUAGES = {"german", "french", "english", "english", "portuguese",
+            "japanese", "italian", "spanish", "dutch", "polish"};
+    private static final int SECOND_TAG_SHIFT = 3;
+    private static final int[] BITRATES = {128, 128, 64, 192, 320, 96};
+    // Every tenth station fails the server side check
+    private static final int BROKEN_EVERY = 10;
+
+    private final int size;
+
+    public SyntheticCatalogue(int size) {
+        if (size < 0) {
+            throw new IllegalArgumentException("size must not be negative: " + size);
+        }
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int workingCount() {
+        return size - size / BROKEN_EVERY;
+    }
+
+    public String stationUuid(int index) {
+        return new UUID(UUID_MSB, index).toString();
+    }
+
+    /**
+     * @return the index of the station, -1 if the uuid does not belong to this catalogue
+     */
+    public int indexOf(String stationUuid) {
+        final UUID uuid;
+        try {
+            uuid = UUID.fromString(stationUuid);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+        long index = uuid.getLeastSignificantBits();
+        if (uuid.getMostSignificantBits() != UUID_MSB || index < 0 || index >= size) {
+            return -1;
+        }
+        return (int) index;
+    }
+
+    public String name(int index) {
+        String tag = tag(index);
+        return String.format(Locale.ROOT, "%s Radio %05d", Character.toUpperCase(tag.charAt(0)) + tag.substring(1), index);
+    }
+
+    public String tag(int index) {
+        return TAGS[index % TAGS.length];
+    }
+
+    public String countryCode(int index) {
+        return COUNTRY_CODES[(index / 2) % COUNTRY_CODES.length];
+    }
+
+    public boolean isWorking(int index) {
+        return index % BROKEN_EVERY != BROKEN_EVERY - 1;
+    }
+
+    public int bitrate(int index) {
+        return BITRATES[index % BITRATES.length];
+    }
+
+    /**
+     * Whether the station matches a search term by name, case insensitive.
+     */
+    public boolean nameContains(int index, String term) {
+        return name(index).toLowerCase(Locale.ROOT).contains(term.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Whether one of the tags of the station contains the term, or equals it if {@code exact}.
+     */
+    public boolean hasTag(int index, String term, boolean exact) {
+        final String needle = term.toLowerCase(Locale.ROOT);
+        return exact ? tag(index).equals(needle) || secondTag(index).equals(needle)
+                : tag(index).contains(needle) || secondTag(index).contains(needle);
+    }
+
+    public void writeStats(Buffer out) {
+        out.writeUtf8("{\"supported_version\":1,\"software_version\":\"mock\",\"status\":\"OK\"")
+                .writeUtf8(",\"stations\":").writeUtf8(Integer.toString(size))
+                .writeUtf8(",\"stations_working\":").writeUtf8(Integer.toString(workingCount()))
+                .writeUtf8(",\"stations_broken\":").writeUtf8(Integer.toString(size - workingCount()))
+                .writeUtf8(",\"tags\":").writeUtf8(Integer.toString(TAGS.length))
+                .writeUtf8(",\"clicks_last_hour\":0,\"clicks_last_day\":0")
+                .writeUtf8(",\"languages\":").writeUtf8(Long.toString(Arrays.stream(LANGUAGES).distinct().count()))
+                .writeUtf8(",\"countries\":").writeUtf8(Integer.toString(COUNTRY_CODES.length))
+                .writeUtf8("}");
+    }
+
+    /**
+     * Writes a JSON array of the stations accepted by {@code filter}, skipping the first
+     * {@code offset} of them.
+     *
+     * @param filter         null to accept every station
+     * @param streamBaseUrl  stream urls of stations are this followed by the station index
+     */
+    public void writeStations(Buffer out, int offset, int limit, IntPredicate filter, String streamBaseUrl) {
+        out.writeByte('[');
+        int skipped = 0;
+        int written = 0;
+        int index = filter == null ? Math.max(0, offset) : 0;
+        for (; index < size && written < limit; index++) {
+            if (filter != null) {
+                if (!filter.test(index)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+            }
+            if (written > 0) {
+                out.writeByte(',');
+            }
+            writeStation(out, index, streamBaseUrl);
+            written++;
+        }
+        out.writeByte(']');
+    }
+
+    public void writeStation(Buffer out, int index, String streamBaseUrl) {
+        final int countryIndex = (index / 2) % COUNTRY_CODES.length;
+        final int bitrate = bitrate(index);
+
+        out.writeUtf8("{\"changeuuid\":\"").writeUtf8(new UUID(CHANGE_UUID_MSB, index).toString())
+                .writeUtf8("\",\"stationuuid\":\"").writeUtf8(stationUuid(index))
+                .writeUtf8("\",\"name\":\"").writeUtf8(name(index))
+                .writeUtf8("\",\"url\":\"").writeUtf8(streamBaseUrl).writeUtf8(Integer.toString(index))
+                .writeUtf8("\",\"url_resolved\":\"").writeUtf8(streamBaseUrl).writeUtf8(Integer.toString(index))
+                .writeUtf8("\",\"homepage\":\"\",\"favicon\":\"\",\"tags\":\"").writeUtf8(tag(index))
+                .writeByte(',').writeUtf8(secondTag(index))
+                .writeUtf8("\",\"country\":\"").writeUtf8(COUNTRIES[countryIndex])
+                .writeUtf8("\",\"countrycode\":\"").writeUtf8(COUNTRY_CODES[countryIndex])
+                .writeUtf8("\",\"state\":\"\",\"language\":\"").writeUtf8(LANGUAGES[countryIndex])
+                .writeUtf8("\",\"votes\":").writeUtf8(Integer.toString((index * 7919) % 10000))
+                .writeUtf8(",\"lastchangetime\":\"")
+                .writeUtf8(String.format(Locale.ROOT, "2024-01-%02d 12:00:00", 1 + index % 28))
+                .writeUtf8("\",\"codec\":\"").writeUtf8(bitrate > 192 ? "AAC" : "MP3")
+                .writeUtf8("\",\"bitrate\":").writeUtf8(Integer.toString(bitrate))
+                .writeUtf8(",\"hls\":0,\"lastcheckok\":").writeUtf8(isWorking(index) ? "1" : "0")
+                .writeUtf8(",\"clickcount\":").writeUtf8(Integer.toString(size - index))
+                .writeUtf8(",\"clicktrend\":").writeUtf8(Integer.toString(index % 3 - 1))
+                .writeUtf8("}");
+    }
+
+    public void writeTags(Buffer out) {
+        out.writeByte('[');
+        for (int i = 0; i < TAGS.length; i++) {
+            if (i > 0) {
+                out.writeByte(',');
+            }
+            // A station has the tags TAGS[index] and TAGS[index + 3]
+            int secondary = (i - SECOND_TAG_SHIFT + TAGS.length) % TAGS.length;
+            writeCount(out, TAGS[i], countOfResidue(i, TAGS.length) + countOfResidue(secondary, TAGS.length));
+        }
+        out.writeByte(']');
+    }
+
+    public void writeCountryCodes(Buffer out) {
+        out.writeByte('[');
+        for (int i = 0; i < COUNTRY_CODES.length; i++) {
+            if (i > 0) {
+                out.writeByte(',');
+            }
+            writeCount(out, COUNTRY_CODES[i], countOfCountry(i));
+        }
+        out.writeByte(']');
+    }
+
+    public void writeLanguages(Buffer out) {
+        // Several countries share a language
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int i = 0; i < COUNTRY_CODES.length; i++) {
+            Integer count = counts.get(LANGUAGES[i]);
+            counts.put(LANGUAGES[i], (count != null ? count : 0) + countOfCountry(i));
+        }
+
+        out.writeByte('[');
+        boolean first = true;
+        for (Map.Entry<String, Integer> entry : counts.entrySet()) {
+            if (!first) {
+                out.writeByte(',');
+            }
+            writeCount(out, entry.getKey(), entry.getValue());
+            first = false;
+        }
+        out.writeByte(']');
+    }
+
+    private static void writeCount(Buffer out, String name, int count) {
+        out.writeUtf8("{\"name\":\"").writeUtf8(name)
+                .writeUtf8("\",\"value\":\"").writeUtf8(name)
+                .writeUtf8("\",\"stationcount\":").writeUtf8(Integer.toString(count))
+                .writeUtf8("}");
+    }
+
+    private static String secondTag(int index) {
+        return TAGS[(index + SECOND_TAG_SHIFT) % TAGS.length];
+    }
+
+    // Number of stations whose index is congruent to residue modulo m
+    private int countOfResidue(int residue, int m) {
+        return residue < size ? (size - residue + m - 1) / m : 0;
+    }
+
+    // Stations are assigned to countries in pairs
+    private int countOfCountry(int countryIndex) {
+        int count = 0;
+        for (int first = countryIndex * 2; first < size; first += COUNTRY_CODES.length * 2) {
+            count += Math.min(2, size - first);
+        }
+        return count;
+    }
+}
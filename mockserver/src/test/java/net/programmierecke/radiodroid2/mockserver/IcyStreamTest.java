@@ -0,0 +1,102 @@
+package net.programmierecke.radiodroid2.mockserver;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okio.Buffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IcyStreamTest {
+
+    @Test
+    public void insertsMetadataAfterEveryMetaint() throws EOFException {
+        IcyStream stream = IcyStream.builder()
+                .metaint(1000)
+                .titleChangeInterval(2)
+                .duration(2, TimeUnit.SECONDS)
+                .build();
+
+        Buffer body = stream.createBody("Test FM", true);
+        List<String> blocks = new ArrayList<>();
+        while (body.size() > 1000) {
+            body.skip(1000);
+            int length = (body.readByte() & 0xFF) * 16;
+            blocks.add(length == 0 ? "" : body.readUtf8(length).replace("\0", ""));
+        }
+
+        // 76 frames of about 418 bytes in 2 s at 128 kbit/s
+        assertEquals(31, blocks.size());
+        assertEquals("StreamTitle='Test FM - Track 1';", blocks.get(0));
+        assertEquals("", blocks.get(1));
+        assertEquals("StreamTitle='Test FM - Track 2';", blocks.get(2));
+        assertEquals("", blocks.get(3));
+    }
+
+    @Test
+    public void audioIsMp3FramesAtBitrate() throws EOFException {
+        IcyStream stream = IcyStream.builder()
+                .bitrate(192)
+                .duration(10, TimeUnit.SECONDS)
+                .build();
+
+        Buffer audio = stream.createBody("Test FM", false);
+        final long bytes = audio.size();
+
+        int frames = 0;
+        while (!audio.exhausted()) {
+            assertEquals(0xFF, audio.getByte(0) & 0xFF);
+            assertEquals(0xFB, audio.getByte(1) & 0xFF);
+            boolean padded = (audio.getByte(2) & 0x02) != 0;
+            audio.skip(144 * 192000 / 44100 + (padded ? 1 : 0));
+            frames++;
+        }
+
+        assertEquals(10 * 44100 / 1152, frames);
+        // Whole frames only, so slightly less than 10 s
+        assertTrue(Math.abs(bytes - 10 * 192000 / 8) < 192000 / 8 / 10, "bytes " + bytes);
+    }
+
+    @Test
+    public void sendsMetaintOnlyWhenAsked() throws IOException {
+        MockRadioBrowser server = MockRadioBrowser.builder()
+                .stationCount(1)
+                .icyStream(IcyStream.builder().duration(1, TimeUnit.SECONDS).build())
+                .build();
+        server.start();
+        try {
+            OkHttpClient httpClient = new OkHttpClient();
+            Request.Builder request = new Request.Builder().url(server.streamUrl(0));
+
+            try (Response response = httpClient.newCall(request.build()).execute()) {
+                assertNull(response.header("icy-metaint"));
+                assertEquals("128", response.header("icy-br"));
+                assertEquals(-1, response.body().contentLength());
+                // Read until the server closes the connection
+                assertTrue(response.body().bytes().length > 15000);
+            }
+
+            try (Response response = httpClient.newCall(request.header("Icy-MetaData", "1").build()).execute()) {
+                assertEquals(String.valueOf(IcyStream.DEFAULT_METAINT), response.header("icy-metaint"));
+            }
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectsUnknownBitrate() {
+        assertThrows(IllegalArgumentException.class, () -> IcyStream.builder().bitrate(100));
+    }
+}
@@ -0,0 +1,160 @@
+package net.programmierecke.radiodroid2.mockserver;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import okhttp3.Headers;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MockRadioBrowserTest {
+    private static final Pattern STATION_UUID = Pattern.compile("\"stationuuid\":\"([^\"]+)\"");
+    private static final Pattern STREAM_URL = Pattern.compile("\"url\":\"([^\"]+)\"");
+    // Page size of the station sync of the app
+    private static final int PAGE_SIZE = 100;
+
+    private final OkHttpClient httpClient = new OkHttpClient.Builder()
+            .readTimeout(30, TimeUnit.SECONDS)
+            .build();
+    private MockRadioBrowser server;
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        if (server != null) {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void pagesCoverTheCatalogueOnce() throws IOException {
+        server = MockRadioBrowser.builder().stationCount(1050).build();
+        server.start();
+
+        assertTrue(get("/json/stats").contains("\"stations\":1050"));
+
+        Set<String> uuids = new HashSet<>();
+        int lastPageSize = 0;
+        for (int offset = 0; offset < 1050; offset += PAGE_SIZE) {
+            lastPageSize = collectUuids(get("/json/stations?limit=" + PAGE_SIZE + "&offset=" + offset), uuids);
+        }
+
+        assertEquals(1050, uuids.size());
+        assertEquals(50, lastPageSize);
+        assertEquals("[]", get("/json/stations?limit=" + PAGE_SIZE + "&offset=1100"));
+    }
+
+    @Test
+    public void downloadsDefaultCatalogueLikeTheAppSync() throws IOException {
+        server = MockRadioBrowser.builder().build();
+        server.start();
+
+        Set<String> uuids = new HashSet<>();
+        for (int offset = 0; offset < SyntheticCatalogue.DEFAULT_SIZE; offset += PAGE_SIZE) {
+            collectUuids(get("/json/stations?limit=" + PAGE_SIZE + "&offset=" + offset), uuids);
+        }
+
+        assertEquals(SyntheticCatalogue.DEFAULT_SIZE, uuids.size());
+        assertEquals(SyntheticCatalogue.DEFAULT_SIZE / PAGE_SIZE, server.getApiRequestCount());
+    }
+
+    @Test
+    public void stationUrlPointsToStream() throws IOException {
+        server = MockRadioBrowser.builder().stationCount(10).build();
+        server.start();
+
+        String uuid = server.getCatalogue().stationUuid(7);
+        Matcher matcher = STREAM_URL.matcher(get("/json/url/" + uuid));
+        assertTrue(matcher.find());
+        assertEquals(server.streamUrl(7).toString(), matcher.group(1));
+
+        try (Response response = httpClient.newCall(new Request.Builder().url(matcher.group(1)).build()).execute()) {
+            assertEquals(200, response.code());
+            assertEquals("audio/mpeg", response.header("Content-Type"));
+        }
+    }
+
+    @Test
+    public void searchesByTag() throws IOException {
+        server = MockRadioBrowser.builder().stationCount(1200).build();
+        server.start();
+
+        Set<String> uuids = new HashSet<>();
+        collectUuids(get("/json/stations/bytagexact/jazz"), uuids);
+
+        // Every twelfth station has jazz as first and every twelfth as second tag
+        assertEquals(200, uuids.size());
+    }
+
+    @Test
+    public void failsRequestsAtErrorRate() throws IOException {
+        server = MockRadioBrowser.builder().stationCount(10).errorRate(0.5).seed(42).build();
+        server.start();
+
+        int failed = 0;
+        for (int i = 0; i < 200; i++) {
+            if (getOrNull("/json/stats") == null) {
+                failed++;
+            }
+        }
+
+        assertEquals(failed, server.getFailedRequestCount());
+        assertTrue(failed > 60 && failed < 140, "failed " + failed + " of 200");
+    }
+
+    @Test
+    public void delaysApiResponses() throws IOException {
+        server = MockRadioBrowser.builder().stationCount(10).latency(300, TimeUnit.MILLISECONDS).build();
+        server.start();
+
+        final long start = System.nanoTime();
+        assertNotNull(getOrNull("/json/stats"));
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 300);
+    }
+
+    @Test
+    public void ignoresOtherPaths() {
+        server = MockRadioBrowser.builder().stationCount(10).build();
+
+        assertNull(server.dispatch(HttpUrl.get("http://example.test/json/unknown"), Headers.of()));
+        assertNull(server.dispatch(HttpUrl.get("http://example.test/audio.mp3"), Headers.of()));
+        assertFalse(server.getApiRequestCount() > 0);
+    }
+
+    private static int collectUuids(String json, Set<String> uuids) {
+        int count = 0;
+        Matcher matcher = STATION_UUID.matcher(json);
+        while (matcher.find()) {
+            assertTrue(uuids.add(matcher.group(1)), "duplicate " + matcher.group(1));
+            count++;
+        }
+        return count;
+    }
+
+    private String get(String path) throws IOException {
+        String body = getOrNull(path);
+        assertNotNull(body, path);
+        return body;
+    }
+
+    private String getOrNull(String path) throws IOException {
+        Request request = new Request.Builder().url(server.url(path)).build();
+        try (Response response = httpClient.newCall(request).execute()) {
+            return response.isSuccessful() ? response.body().string() : null;
+        }
+    }
+}